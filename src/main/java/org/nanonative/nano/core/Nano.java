@@ -1,11 +1,19 @@
 package org.nanonative.nano.core;
 
 import berlin.yuna.typemap.model.FunctionOrNull;
+import berlin.yuna.typemap.model.TypeMap;
 import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.core.model.LazyService;
 import org.nanonative.nano.core.model.NanoThread;
 import org.nanonative.nano.core.model.Scheduler;
 import org.nanonative.nano.core.model.Service;
+import org.nanonative.nano.helper.ExRunnable;
 import org.nanonative.nano.helper.NanoUtils;
+import org.nanonative.nano.helper.config.ConfigChange;
+import org.nanonative.nano.helper.config.ConfigKey;
+import org.nanonative.nano.helper.config.ConfigLoader;
+import org.nanonative.nano.helper.event.EventCoalescer;
+import org.nanonative.nano.helper.event.EventProfiler;
 import org.nanonative.nano.helper.event.model.Channel;
 import org.nanonative.nano.helper.event.model.Event;
 import org.nanonative.nano.services.file.FileChangeEvent;
@@ -17,16 +25,16 @@ import org.nanonative.nano.services.metric.model.MetricUpdate;
 import java.lang.management.ManagementFactory;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static java.lang.System.lineSeparator;
 import static java.util.Arrays.asList;
+import static java.util.Optional.ofNullable;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.joining;
@@ -34,6 +42,8 @@ import static org.nanonative.nano.core.model.Context.APP_NANO_NAME;
 import static org.nanonative.nano.core.model.Context.APP_PARAMS;
 import static org.nanonative.nano.core.model.Context.CONFIG_ENV_PROD;
 import static org.nanonative.nano.core.model.Context.CONFIG_OOM_SHUTDOWN_THRESHOLD;
+import static org.nanonative.nano.core.model.Context.CONFIG_RELOAD_DEBOUNCE_MS;
+import static org.nanonative.nano.core.model.Context.CONFIG_TRAINING_RUN;
 import static org.nanonative.nano.core.model.Context.CONTEXT_CLASS_KEY;
 import static org.nanonative.nano.core.model.Context.CONTEXT_NANO_KEY;
 import static org.nanonative.nano.core.model.Context.EVENT_APP_HEARTBEAT;
@@ -54,6 +64,9 @@ import static org.nanonative.nano.services.metric.model.MetricType.GAUGE;
 @SuppressWarnings({"unused", "UnusedReturnValue"})
 public class Nano extends NanoServices<Nano> {
 
+    protected EventCoalescer<String, FileChangeEvent> configReload;
+    protected static final ConfigKey<Integer> OOM_SHUTDOWN_THRESHOLD = ConfigKey.of(CONFIG_OOM_SHUTDOWN_THRESHOLD, Integer.class, 98);
+
     /**
      * Initializes {@link Nano} with a set of startup {@link Service}.
      *
@@ -144,6 +157,8 @@ public class Nano extends NanoServices<Nano> {
             // Initialize config file watching if FileWatcher service is available
             initializeConfigWatching();
             context.newEvent(EVENT_APP_START).broadcast(true).async(true).send();
+            if (context.asBooleanOpt(CONFIG_TRAINING_RUN).orElse(false))
+                GLOBAL_THREAD_POOL.submit(() -> trainingRun(context(Nano.class)));
         } catch (final Exception e) {
             context.error(e, () -> "Failed to start [{}] in [{}]", this.getClass().getSimpleName(), NanoUtils.formatDuration(System.nanoTime() - service_startUpTime));
             shutdown(context);
@@ -227,6 +242,7 @@ public class Nano extends NanoServices<Nano> {
                     .map(config -> String.format("%-" + keyLength + "s  %s", config.getKey(), secrets.stream().anyMatch(s -> String.valueOf(config.getKey()).toLowerCase().contains(s)) ? "****" : config.getValue()))
                     .collect(joining(lineSeparator())))
             ;
+            ofNullable(configLoader).ifPresent(loader -> context.info(() -> "Config load {}", loader));
         }
     }
 
@@ -249,6 +265,7 @@ public class Nano extends NanoServices<Nano> {
      * @return An instance of {@link Event} that represents the event being processed. This object can be used for further operations or tracking.
      */
     public <C, R> Event<C, R> sendEventR(final Event<C, R> event) {
+        tap(event);
         if (!event.isAsync()) {
             sendEventSameThread(event);
         } else {
@@ -258,6 +275,20 @@ public class Nano extends NanoServices<Nano> {
         return event;
     }
 
+    /**
+     * Passes the event to the taps of its channel on the calling thread (see {@link #tapEvent(Channel, Consumer)}).
+     * Every send path calls it once before the event is dispatched.
+     *
+     * @param event the event to tap
+     * @return the event
+     */
+    @SuppressWarnings("unchecked")
+    public <C, R> Event<C, R> tap(final Event<C, R> event) {
+        for (final Object tap : taps.array(event.channel().id()))
+            event.context().tryExecute(() -> ((Consumer<Event<?, ?>>) tap).accept(event));
+        return event;
+    }
+
     /**
      * Sends an event on the same thread and determines whether to process it to the first listener.
      * Used {@link Context#newEvent(Channel, Supplier)} from {@link Nano#context(Class)} instead of the core method.
@@ -265,20 +296,26 @@ public class Nano extends NanoServices<Nano> {
      * @param event The event to be processed.
      * @return self for chaining
      */
-    @SuppressWarnings({"java:S2201"})
+    @SuppressWarnings({"java:S2201", "unchecked"})
     public Nano sendEventSameThread(final Event<?, ?> event) {
         if (event.asBooleanOpt("send").orElse(false))
             throw new IllegalStateException("Event already send. Channel [" + event.channel() + "] ack [" + event.acknowledge() + "]", event.error());
         event.put("send", true);
         eventCount.incrementAndGet();
+        final EventProfiler current = profiler;
+        final EventProfiler sampler = current != null && current.sample() ? current : null;
         event.context().tryExecute(() -> {
-            boolean match = listeners.getOrDefault(event.channel().id(), Collections.emptySet()).stream().anyMatch(listener -> {
-                event.context().tryExecute(() -> listener.accept(event), throwable -> event.context().sendEventError(event, throwable));
-                return !event.isBroadcast() && event.isAcknowledged();
-            });
+            boolean match = false;
+            for (final Object listener : listeners.array(event.channel().id())) {
+                invoke(event, listener, () -> ((Consumer<Event<?, ?>>) listener).accept(event), throwable -> event.context().sendEventError(event, throwable), sampler);
+                if (!event.isBroadcast() && event.isAcknowledged()) {
+                    match = true;
+                    break;
+                }
+            }
             if (!match) {
                 match = services.stream().filter(Service::isReady).anyMatch(service -> {
-                    event.context().tryExecute(() -> service.receiveEvent(event), throwable -> event.context().sendEventError(event, service, throwable));
+                    invoke(event, service, () -> service.receiveEvent(event), throwable -> event.context().sendEventError(event, service, throwable), sampler);
                     return !event.isBroadcast() && event.isAcknowledged();
                 });
             }
@@ -290,6 +327,30 @@ public class Nano extends NanoServices<Nano> {
         return this;
     }
 
+    /**
+     * Invokes a listener or service and records the invocation when the event was sampled by the {@link EventProfiler}.
+     *
+     * @param event   the event
+     * @param handler listener or service
+     * @param call    invocation of the handler
+     * @param onError error handling of the handler
+     * @param sampler profiler of a sampled event, null otherwise
+     */
+    protected void invoke(final Event<?, ?> event, final Object handler, final ExRunnable call, final Consumer<Throwable> onError, final EventProfiler sampler) {
+        if (sampler == null) {
+            event.context().tryExecute(call, onError);
+            return;
+        }
+        final boolean acknowledged = event.isAcknowledged();
+        final long start = System.nanoTime();
+        final long[] failedAt = {0};
+        event.context().tryExecute(call, throwable -> {
+            failedAt[0] = System.nanoTime();
+            onError.accept(throwable);
+        });
+        sampler.record(event.channel(), handler, (failedAt[0] == 0 ? System.nanoTime() : failedAt[0]) - start, failedAt[0] != 0, !acknowledged && event.isAcknowledged());
+    }
+
     /**
      * Shuts down the {@link Nano} instance, ensuring all services and threads are gracefully terminated.
      *
@@ -309,7 +370,7 @@ public class Nano extends NanoServices<Nano> {
     protected void cleanUps(final Event<?, ?> event) {
         // WARN ON HEAP USAGE
         final double usage = heapMemoryUsage();
-        final int threshold = context.asIntOpt(CONFIG_OOM_SHUTDOWN_THRESHOLD).orElse(98);
+        final int threshold = OOM_SHUTDOWN_THRESHOLD.get(context);
         if (threshold > 0 && usage > (threshold / 100d) && !context.newEvent(EVENT_APP_OOM, () -> usage).send().isAcknowledged()) {
             context.warn(() -> "Out of mana aka memory [{}] threshold [{}] event [{}] shutting down", usage, threshold, EVENT_APP_OOM.name());
             context.put("_app_exit_code", 127);
@@ -384,17 +445,16 @@ public class Nano extends NanoServices<Nano> {
      * @return Self for chaining
      */
     public Nano printSystemInfo() {
-        final long activeThreads = NanoThread.activeCarrierThreads();
-        context.debug(() -> "pid [{}] schedulers [{}] services [{}] listeners [{}] cores [{}] usedMemory [{}mb] threadsNano [{}], threadsActive [{}] threadsOther [{}] java [{}] arch [{}] os [{}]",
+        // the thread MXBean loads the management classes, so it is only asked when the message is logged
+        context.debug(() -> "pid [{}] schedulers [{}] services [{}] listeners [{}] cores [{}] usedMemory [{}mb] threadsNano [{}], threadsActive [{}] threadsOther [" + otherThreads() + "] java [{}] arch [{}] os [{}]",
                 pid(),
                 schedulers.size(),
                 services.size(),
-                listeners.values().stream().mapToLong(Collection::size).sum(),
+                listeners.count(),
                 Runtime.getRuntime().availableProcessors(),
                 usedMemoryMB(),
                 NanoThread.activeNanoThreads(),
-                activeThreads,
-                ManagementFactory.getThreadMXBean().getThreadCount() - activeThreads,
+                NanoThread.carrierThreads(),
                 System.getProperty("java.version"),
                 System.getProperty("os.arch"),
                 System.getProperty("os.name") + " - " + System.getProperty("os.version")
@@ -402,6 +462,13 @@ public class Nano extends NanoServices<Nano> {
         return this;
     }
 
+    /**
+     * @return platform threads which are not carriers of virtual threads
+     */
+    protected static long otherThreads() {
+        return Math.max(0, ManagementFactory.getThreadMXBean().getThreadCount() - NanoThread.carrierThreads());
+    }
+
     /**
      * Performs the gracefulShutdown operation.
      *
@@ -416,6 +483,7 @@ public class Nano extends NanoServices<Nano> {
                 shutdownServices(this.context);
                 this.shutdownThreads();
                 listeners.clear();
+                taps.clear();
                 context.info(() -> "Stopped [{}] in [{}] with uptime [{}]", context.asString(APP_NANO_NAME), NanoUtils.formatDuration(System.nanoTime() - startTimeMs), NanoUtils.formatDuration(System.nanoTime() - createdAtNs));
                 schedulers.clear();
                 // Interrupt keep-alive thread on shutdown
@@ -453,6 +521,27 @@ public class Nano extends NanoServices<Nano> {
         }
     }
 
+    /**
+     * Training run of {@link Context#CONFIG_TRAINING_RUN}. Activates all {@link LazyService}s, runs {@link Service#train(Context)}
+     * of every service (e.g. one request to every HTTP server), sends one heartbeat to all services and listeners and stops the
+     * application afterward.
+     * This loads the classes of a typical request, e.g. for an AppCDS archive recorded with {@code -XX:ArchiveClassesAtExit}.
+     *
+     * @param context the context of the training run
+     */
+    protected void trainingRun(final Context context) {
+        final long startNs = System.nanoTime();
+        try {
+            services.stream().filter(LazyService.class::isInstance).map(LazyService.class::cast).forEach(LazyService::activate);
+            services.forEach(service -> service.train(context));
+            context.newEvent(EVENT_APP_HEARTBEAT).broadcast(true).send();
+            context.info(() -> "Finished training run in [{}]", NanoUtils.formatDuration(System.nanoTime() - startNs));
+        } catch (final Exception e) {
+            context.error(e, () -> "Training run failed in [{}]", NanoUtils.formatDuration(System.nanoTime() - startNs));
+        }
+        shutdown(context);
+    }
+
     /**
      * Initialize config file watching if FileWatcher service is available
      */
@@ -472,7 +561,9 @@ public class Nano extends NanoServices<Nano> {
                 context.debug(() -> "Initialized config file watching for {} paths", configPaths.size());
             }
 
-            // Subscribe to file changes for config files
+            // Subscribe to file changes for config files, a burst of changes reloads the config once
+            final long debounceMs = context.asLongOpt(CONFIG_RELOAD_DEBOUNCE_MS).orElse(100L);
+            configReload = new EventCoalescer<>(context, debounceMs, debounceMs * 10, null, this::reloadConfig);
             subscribeEvent(EVENT_FILE_CHANGE, this::handleConfigFileChange);
         }
     }
@@ -483,11 +574,24 @@ public class Nano extends NanoServices<Nano> {
     private void handleConfigFileChange(final Event<FileChangeEvent, Void> event) {
         event.payloadOpt().filter(fce -> fce.belongsToGroup("CONFIG_CHANGE")).ifPresent(cfe -> {
             context.debug(() -> "Config file changed: [{}] kind [{}]", cfe.path(), cfe.getKindName());
-            context.newEvent(EVENT_CONFIG_CHANGE, () -> this.readConfigs(null)).broadcast(true).async(true).send();
-
+            configReload.offer("CONFIG_CHANGE", cfe);
         });
     }
 
+    /**
+     * Reloads the configs once per burst of config file changes and triggers EVENT_CONFIG_CHANGE
+     */
+    private void reloadConfig(final FileChangeEvent cfe) {
+        context.debug(() -> "Reload config after change of [{}]", cfe.path());
+        ConfigLoader.clearCache();
+        final TypeMap changes = ConfigChange.configDiffOf(context, reloadConfigs());
+        if (changes.isEmpty()) {
+            context.debug(() -> "Config unchanged after change of [{}]", cfe.path());
+            return;
+        }
+        context.newEvent(EVENT_CONFIG_CHANGE, () -> changes).broadcast(true).async(true).send();
+    }
+
     /**
      * Performs the toString operation.
      *
@@ -495,17 +599,16 @@ public class Nano extends NanoServices<Nano> {
      */
     @Override
     public String toString() {
-        final long activeThreads = NanoThread.activeCarrierThreads();
         return "Nano{" +
                 "pid=" + pid() +
                 ", schedulers=" + schedulers.size() +
                 ", services=" + services.size() +
-                ", listeners=" + listeners.values().stream().mapToLong(Collection::size).sum() +
+                ", listeners=" + listeners.count() +
                 ", cores=" + Runtime.getRuntime().availableProcessors() +
                 ", usedMemory=" + usedMemoryMB() + "mb" +
-                ", threadsActive=" + NanoThread.activeNanoThreads() +
-                ", threadsNano=" + activeThreads +
-                ", threadsOther=" + (ManagementFactory.getThreadMXBean().getThreadCount() - activeThreads) +
+                ", threadsActive=" + NanoThread.carrierThreads() +
+                ", threadsNano=" + NanoThread.activeNanoThreads() +
+                ", threadsOther=" + otherThreads() +
                 ", java=" + System.getProperty("java.version") +
                 ", arch=" + System.getProperty("os.arch") +
                 ", os=" + System.getProperty("os.name") + " - " + System.getProperty("os.version") +
@@ -1,9 +1,13 @@
 package org.nanonative.nano.core;
 
-import berlin.yuna.typemap.logic.ArgsDecoder;
 import berlin.yuna.typemap.model.TypeMap;
 import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.helper.config.ConfigChange;
+import org.nanonative.nano.helper.config.ConfigLoader;
+import org.nanonative.nano.helper.event.EventProfiler;
+import org.nanonative.nano.helper.event.ListenerTable;
 import org.nanonative.nano.helper.event.model.Channel;
+import org.nanonative.nano.helper.event.model.ChannelRegistry;
 import org.nanonative.nano.helper.event.model.Event;
 import org.nanonative.nano.services.logging.LogService;
 
@@ -11,15 +15,13 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryUsage;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -32,12 +34,9 @@ import static java.util.Optional.ofNullable;
 import static java.util.logging.Level.INFO;
 import static org.nanonative.nano.core.model.Context.APP_HELP;
 import static org.nanonative.nano.core.model.Context.CONFIG_ENV_PROD;
-import static org.nanonative.nano.core.model.Context.CONFIG_FILE_LOCATIONS_KEY;
+import static org.nanonative.nano.core.model.Context.CONFIG_EVENT_PROFILE_SAMPLE_RATE;
 import static org.nanonative.nano.core.model.Context.EVENT_APP_ERROR;
 import static org.nanonative.nano.core.model.Context.EVENT_CONFIG_CHANGE;
-import static org.nanonative.nano.helper.NanoUtils.addConfig;
-import static org.nanonative.nano.helper.NanoUtils.readConfigFiles;
-import static org.nanonative.nano.helper.NanoUtils.resolvePlaceHolders;
 
 /**
  * The abstract base class for {@link Nano} framework providing the core functionalities.
@@ -50,13 +49,18 @@ public abstract class NanoBase<T extends NanoBase<T>> {
     protected final Context context;
     protected final long createdAtNs;
     protected final LogService logService;
-    protected final Map<Integer, Set<Consumer<? super Event<?, ?>>>> listeners = new ConcurrentHashMap<>();
+    protected final ListenerTable<Consumer<? super Event<?, ?>>> listeners = new ListenerTable<>();
+    protected final ListenerTable<Consumer<? super Event<?, ?>>> taps = new ListenerTable<>();
     protected final AtomicBoolean isReady = new AtomicBoolean(true);
     protected final AtomicInteger eventCount = new AtomicInteger(0);
-    @SuppressWarnings("java:S2386")
-    public static final Map<Integer, Channel<?, ?>> EVENT_CHANNELS = new ConcurrentHashMap<>();
+    protected final AtomicLong configVersion = new AtomicLong(0);
+    // serializes config changes, a lock instead of synchronized doesn't pin virtual threads
+    protected final ReentrantLock configLock = new ReentrantLock();
+    protected volatile EventProfiler profiler;
+    protected volatile ConfigLoader configLoader;
     public static final Map<String, String> CONFIG_KEYS = new ConcurrentHashMap<>();
     public static final AtomicInteger EVENT_ID_COUNTER = new AtomicInteger(0);
+    public static final ChannelRegistry EVENT_CHANNELS = new ChannelRegistry(EVENT_ID_COUNTER);
     public static final List<String> CONFIG_FILE_LOCATIONS = List.of(
             "",
             ".",
@@ -83,7 +87,12 @@ public abstract class NanoBase<T extends NanoBase<T>> {
         this.logService.start();
         this.logService.isReadyState().set(true);
         displayHelpMenu();
-        subscribeEvent(EVENT_CONFIG_CHANGE, event -> context.putAll(event.payload()));
+        profile(context.asIntOpt(CONFIG_EVENT_PROFILE_SAMPLE_RATE).orElse(0));
+        subscribeEvent(EVENT_CONFIG_CHANGE, event -> {
+            final ConfigChange change = applyConfigs(event.payload());
+            event.put(ConfigChange.EVENT_KEY, change);
+            ofNullable(change.changes().get(CONFIG_EVENT_PROFILE_SAMPLE_RATE)).map(rate -> convertObj(rate, Integer.class)).ifPresent(this::profile);
+        });
     }
 
     /**
@@ -130,9 +139,9 @@ public abstract class NanoBase<T extends NanoBase<T>> {
     /**
      * Retrieves the registered event listeners.
      *
-     * @return A map of event types to their respective listeners.
+     * @return A table of channel ids to their respective listeners.
      */
-    public Map<Integer, Set<Consumer<? super Event<?, ?>>>> listeners() {
+    public ListenerTable<Consumer<? super Event<?, ?>>> listeners() {
         return listeners;
     }
 
@@ -148,7 +157,7 @@ public abstract class NanoBase<T extends NanoBase<T>> {
     @SuppressWarnings({"unchecked"})
     public <C, R> T subscribeEvent(final Channel<C, R> channel, final Consumer<? super Event<C, R>> listener) {
         if (channel != null && listener != null)
-            listeners.computeIfAbsent(channel.id(), value -> ConcurrentHashMap.newKeySet()).add((Consumer<? super Event<?, ?>>) listener);
+            listeners.add(channel.id(), (Consumer<? super Event<?, ?>>) listener);
         return (T) this;
     }
 
@@ -165,10 +174,40 @@ public abstract class NanoBase<T extends NanoBase<T>> {
     public <C, R> Consumer<Event<C, R>> subscribeEvent(final Channel<C, R> channel, final BiConsumer<? super Event<C, R>, C> listener) {
         final Consumer<? super Event<C, R>> wrapped = event ->
                 event.payloadOpt().ifPresent(payload -> listener.accept(event, payload));
-        listeners.computeIfAbsent(channel.id(), value -> ConcurrentHashMap.newKeySet()).add((Consumer<? super Event<?, ?>>) wrapped);
+        listeners.add(channel.id(), (Consumer<? super Event<?, ?>>) wrapped);
         return (Consumer<Event<C, R>>) wrapped;
     }
 
+    /**
+     * Registers a tap which observes every event of a channel when it is sent, before it is queued or dispatched.
+     * Taps can't acknowledge or stop events and are meant for cross-cutting concerns like journaling.
+     *
+     * @param channel The channel to be observed.
+     * @param tap     The consumer to receive the {@link Event}.
+     * @param <C>     The payload
+     * @param <R>     The return payload
+     * @return Self for chaining
+     */
+    @SuppressWarnings({"unchecked"})
+    public <C, R> T tapEvent(final Channel<C, R> channel, final Consumer<? super Event<C, R>> tap) {
+        if (channel != null && tap != null)
+            taps.add(channel.id(), (Consumer<? super Event<?, ?>>) tap);
+        return (T) this;
+    }
+
+    /**
+     * Removes a registered tap (see {@link #tapEvent(Channel, Consumer)}).
+     *
+     * @param channelId The integer identifier of the event payload.
+     * @param tap       The consumer function to be removed.
+     * @return Self for chaining
+     */
+    @SuppressWarnings({"unchecked"})
+    public <C, R> T untapEvent(final int channelId, final Consumer<? super Event<C, R>> tap) {
+        taps.remove(channelId, tap);
+        return (T) this;
+    }
+
     /**
      * Registers for global error handling.
      *
@@ -204,7 +243,7 @@ public abstract class NanoBase<T extends NanoBase<T>> {
      */
     @SuppressWarnings({"unchecked"})
     public <C, R> T unsubscribeEvent(final int channelId, final Consumer<Event<C, R>> listener) {
-        listeners.getOrDefault(channelId, Collections.emptySet()).remove(listener);
+        listeners.remove(channelId, listener);
         return (T) this;
     }
 
@@ -265,6 +304,29 @@ public abstract class NanoBase<T extends NanoBase<T>> {
         return eventCount.get();
     }
 
+    /**
+     * Enables or disables the {@link EventProfiler} of the event dispatch.
+     *
+     * @param sampleRate profiles one of {@code sampleRate} dispatches, {@code <= 0} disables profiling
+     * @return Self for chaining
+     */
+    @SuppressWarnings({"unchecked"})
+    public T profile(final int sampleRate) {
+        final EventProfiler current = profiler;
+        if (sampleRate <= 0)
+            profiler = null;
+        else if (current == null || current.sampleRate() != sampleRate)
+            profiler = new EventProfiler(sampleRate);
+        return (T) this;
+    }
+
+    /**
+     * @return the {@link EventProfiler} of the event dispatch, null if profiling is disabled
+     */
+    public EventProfiler profiler() {
+        return profiler;
+    }
+
     /**
      * Displays a help menu with available configuration keys and their descriptions and exits.
      */
@@ -289,54 +351,53 @@ public abstract class NanoBase<T extends NanoBase<T>> {
      * @return The {@link Context} initialized with the configurations.
      */
     protected Context readConfigs(final Map<Object, Object> configs, final String... args) {
-        final TypeMap cliArgs = new TypeMap();
-        if (args != null && args.length > 0) {
-            cliArgs.putAll(ArgsDecoder.argsOf(String.join(" ", args)));
-        }
-
-        final Optional<String> cliOverride = ofNullable(cliArgs.asString(CONFIG_FILE_LOCATIONS_KEY))
-                .or(() -> ofNullable(cliArgs.asString(standardiseKey(CONFIG_FILE_LOCATIONS_KEY))));
-
-        final List<String> directories = ofNullable(System.getProperty(CONFIG_FILE_LOCATIONS_KEY))
-                .or(() -> ofNullable(System.getenv(CONFIG_FILE_LOCATIONS_KEY.replace('.', '_').toUpperCase())))
-                .or(() -> cliOverride)
-                .map(value -> Arrays.stream(value.split(","))
-                        .map(String::strip)
-                        .filter(s -> !s.isEmpty())
-                        .toList())
-                .filter(list -> !list.isEmpty())
-                .orElse(CONFIG_FILE_LOCATIONS);
-
-        final List<String> profiles = List.of(
-                "spring_profiles_active", "spring_profile_active", "spring_active_profiles", "spring_active_profile",
-                "spring_profiles", "spring_profile", "spring_active", "spring_active",
-                "app_profile", "app_profiles",
-                "profile_active", "profiles_active",
-                "micronaut_environments", "micronaut_environment"
-        );
-
-        // 1) Defaults + initial profile cascade (classpath/FS, multi-dir, order-stable).
-        final Context result = readConfigFiles(null, directories, profiles);
-
-        // 2) Overlays: ENV < -D < CLI (they override whatever we just loaded).
-        applyOverlays(result, cliArgs);
-
-        // 3) Overlays: ENV < DSL
-        applyOverlays(result, (configs instanceof TypeMap tMap) ? tMap : new TypeMap(configs));
+        final ConfigLoader loader = new ConfigLoader();
+        final Context result = loader.load(configs, args);
+        configLoader = loader;
+        return result;
+    }
 
-        // 4) Re-run the profile cascade: overlays may have activated new profiles.
-        readConfigFiles(result, directories, profiles);
+    /**
+     * Reads the configs again with the start configs and args of the last config load.
+     *
+     * @return The {@link Context} initialized with the configurations.
+     */
+    protected Context reloadConfigs() {
+        final ConfigLoader previous = configLoader;
+        return previous == null ? readConfigs(null) : readConfigs(previous.configs(), previous.args());
+    }
 
-        // 5) Ensure overlays still win after new profiles landed.
-        applyOverlays(result, cliArgs);
+    /**
+     * Applies the changed configs to the root context. Changes are serialized, the diff is computed once and published with a new {@link #configVersion()}.
+     *
+     * @param configs new configs
+     * @return the applied diff with its config version
+     */
+    protected ConfigChange applyConfigs(final Map<?, ?> configs) {
+        configLock.lock();
+        try {
+            final TypeMap changes = ConfigChange.diffOf(context, configs);
+            if (changes.isEmpty())
+                return new ConfigChange(configVersion.get(), changes);
+            context.putAll(changes);
+            return new ConfigChange(configVersion.incrementAndGet(), changes);
+        } finally {
+            configLock.unlock();
+        }
+    }
 
-        return resolvePlaceHolders(result);
+    /**
+     * @return the {@link ConfigLoader} of the last config load with its timing breakdown
+     */
+    public ConfigLoader configLoader() {
+        return configLoader;
     }
 
-    private static void applyOverlays(final Context ctx, final TypeMap cliArgs) {
-        System.getenv().forEach((k, v) -> addConfig(ctx, k, v));
-        System.getProperties().forEach((k, v) -> addConfig(ctx, k, v));
-        cliArgs.forEach((k, v) -> addConfig(ctx, k, v));
+    /**
+     * @return version of the configs, increases with every {@link Context#EVENT_CONFIG_CHANGE} which changed a config
+     */
+    public long configVersion() {
+        return configVersion.get();
     }
 
     /**
@@ -346,7 +407,10 @@ public abstract class NanoBase<T extends NanoBase<T>> {
      */
     @SuppressWarnings("java:S3358") // Ternary operator should not be nested
     public static String standardiseKey(final Object key) {
-        return key == null ? null : convertObj(key, String.class)
+        if (key == null)
+            return null;
+        final String result = key instanceof final String str ? str : convertObj(key, String.class);
+        return isStandardKey(result) ? result : result
                 .replace('.', '_')
                 .replace('-', '_')
                 .replace('+', '_')
@@ -358,4 +422,23 @@ public abstract class NanoBase<T extends NanoBase<T>> {
                 .toLowerCase();
     }
 
+    /**
+     * Fast path of {@link #standardiseKey(Object)}, most keys are already standardized.
+     *
+     * @param key config key
+     * @return true if the key would not change by standardizing
+     */
+    protected static boolean isStandardKey(final String key) {
+        if (key == null || key.isEmpty())
+            return key != null;
+        if (Character.isWhitespace(key.charAt(0)) || Character.isWhitespace(key.charAt(key.length() - 1)))
+            return false;
+        for (int i = 0; i < key.length(); i++) {
+            final char c = key.charAt(i);
+            if (c == '.' || c == '-' || c == '+' || c == ':' || c == '{' || c == '}' || c == '$' || c > 127 || (c >= 'A' && c <= 'Z'))
+                return false;
+        }
+        return true;
+    }
+
 }
@@ -1,6 +1,7 @@
 package org.nanonative.nano.core;
 
 import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.core.model.LazyService;
 import org.nanonative.nano.core.model.Service;
 import org.nanonative.nano.helper.ExRunnable;
 
@@ -70,12 +71,13 @@ public abstract class NanoServices<T extends NanoServices<T>> extends NanoThread
      *
      * @param <S>          The payload of the service to retrieve, which extends {@link Service}.
      * @param serviceClass The class of the service to retrieve.
-     * @return A list of services of the specified payload. If no services of this payload are found,
+     * @return A list of services of the specified payload, including active {@link LazyService}s. If no services of this payload are found,
      * an empty list is returned.
      */
     public <S extends Service> List<S> services(final Class<S> serviceClass) {
         if (serviceClass != null) {
             return services.stream()
+                .map(service -> service instanceof final LazyService<?> lazy && !serviceClass.isInstance(lazy) ? lazy.delegate() : service)
                 .filter(serviceClass::isInstance)
                 .map(serviceClass::cast)
                 .toList();
@@ -3,6 +3,7 @@ package org.nanonative.nano.core;
 import org.nanonative.nano.core.model.Context;
 import org.nanonative.nano.core.model.Scheduler;
 import org.nanonative.nano.helper.ExRunnable;
+import org.nanonative.nano.helper.config.ConfigKey;
 
 import java.time.DayOfWeek;
 import java.time.Duration;
@@ -43,6 +44,7 @@ public abstract class NanoThreads<T extends NanoThreads<T>> extends NanoBase<T>
 
     protected final Set<ScheduledExecutorService> schedulers;
     protected final Thread keepAliveThread;
+    protected static final ConfigKey<Long> THREAD_POOL_TIMEOUT_MS = ConfigKey.of(CONFIG_THREAD_POOL_TIMEOUT_MS, Long.class, 500L);
 
     /**
      * Initializes {@link NanoThreads} with configurations and command-line arguments.
@@ -274,7 +276,7 @@ public abstract class NanoThreads<T extends NanoThreads<T>> extends NanoBase<T>
      * Shuts down all threads and scheduled executors gracefully.
      */
     protected void shutdownThreads() {
-        final long timeoutMs = context.asLongOpt(CONFIG_THREAD_POOL_TIMEOUT_MS).filter(l -> l > 0).orElse(500L);
+        final long timeoutMs = THREAD_POOL_TIMEOUT_MS.opt(context).filter(l -> l > 0).orElse(500L);
         context.debug(() -> "Shutdown schedulers [{}]", schedulers.size());
         shutdownExecutors(timeoutMs, schedulers.toArray(ScheduledExecutorService[]::new));
     }
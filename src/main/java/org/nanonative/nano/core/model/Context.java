@@ -8,26 +8,40 @@ import org.nanonative.nano.core.NanoThreads;
 import org.nanonative.nano.helper.ExRunnable;
 import org.nanonative.nano.helper.NanoUtils;
 import org.nanonative.nano.helper.config.ConfigRegister;
+import org.nanonative.nano.helper.event.EventCoalescer;
+import org.nanonative.nano.helper.event.EventProfiler;
+import org.nanonative.nano.helper.event.EventPublisher;
 import org.nanonative.nano.helper.event.model.Channel;
 import org.nanonative.nano.helper.event.model.Event;
 import org.nanonative.nano.services.http.model.ContentType;
 import org.nanonative.nano.services.http.model.HttpMethod;
 import org.nanonative.nano.services.logging.LogFormatRegister;
 import org.nanonative.nano.services.logging.model.LogLevel;
+import org.nanonative.nano.services.metric.model.MetricType;
+import org.nanonative.nano.services.metric.model.MetricUpdate;
 
 import java.time.DayOfWeek;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.logging.Formatter;
@@ -43,6 +57,7 @@ import static org.nanonative.nano.core.model.Service.threadsOf;
 import static org.nanonative.nano.helper.NanoUtils.reduceSte;
 import static org.nanonative.nano.services.logging.LogService.EVENT_LOGGING;
 import static org.nanonative.nano.services.logging.LogService.MAX_LOG_NAME_LENGTH;
+import static org.nanonative.nano.services.metric.logic.MetricService.EVENT_METRIC_UPDATE;
 
 @SuppressWarnings({"unused", "UnusedReturnValue", "java:S2160", "rawtypes"})
 public class Context extends ConcurrentTypeMap {
@@ -53,16 +68,20 @@ public class Context extends ConcurrentTypeMap {
     public static final String CONTEXT_CLASS_KEY = "app_core_context_class";
     public static final String CONTEXT_NANO_KEY = "app_core_context_nano";
     public static final String CONTEXT_LOG_QUEUE_KEY = "app_core_context_log_queue";
+    public static final String CONTEXT_DEADLINE_KEY = "app_core_context_deadline";
     public static final String APP_NANO_NAME = "app_nano_name";
 
     // Register configurations
     public static final String APP_HELP = ConfigRegister.registerConfig("help", "Lists available config keys");
-    public static final String APP_PARAMS = ConfigRegister.registerConfig("app_params_print", "Pints all config values");
+    public static final String APP_PARAMS = ConfigRegister.registerConfig("app_params_print", "Prints all config values and the timings of the config load");
     public static final String CONFIG_PROFILES = ConfigRegister.registerConfig("app_profiles", "Active config profiles for the application");
     public static final String CONFIG_THREAD_POOL_TIMEOUT_MS = ConfigRegister.registerConfig("app_thread_pool_shutdown_timeout_ms", "Timeout for thread pool shutdown in milliseconds (see " + NanoThreads.class.getSimpleName() + ")");
     public static final String CONFIG_PARALLEL_SHUTDOWN = ConfigRegister.registerConfig("app_service_shutdown_parallel", "Enable or disable parallel service shutdown (see " + NanoServices.class.getSimpleName() + "). Enabled = Can increase the shutdown performance on`true`");
     public static final String CONFIG_OOM_SHUTDOWN_THRESHOLD = ConfigRegister.registerConfig("app_oom_shutdown_threshold", "Sets the threshold for heap in percentage to send an `EVENT_APP_OOM`. default = `98`, disabled = `-1`. If the event is unhandled, tha pp will try to shutdown with last resources");
     public static final String CONFIG_ENV_PROD = ConfigRegister.registerConfig("app_env_prod", "Enable or disable behaviour e.g. exit codes. This is useful in prod environments specially on error cases. default = `false`");
+    public static final String CONFIG_EVENT_PROFILE_SAMPLE_RATE = ConfigRegister.registerConfig("app_event_profile_sample_rate", "Profiles one of N event dispatches per channel and handler (see " + EventProfiler.class.getSimpleName() + "). default = `0` (disabled), `1` = every dispatch");
+    public static final String CONFIG_RELOAD_DEBOUNCE_MS = ConfigRegister.registerConfig("app_config_reload_debounce_ms", "Quiet time after config file changes before the config is reloaded once. default = `100`, disabled = `0`");
+    public static final String CONFIG_TRAINING_RUN = ConfigRegister.registerConfig("app_training_run", "Starts all services, sends one request to every HTTP server and stops the application afterward. Used to record a startup archive e.g. `-XX:ArchiveClassesAtExit=app.jsa`. default = `false`");
     public static final String CONFIG_FILE_LOCATIONS_KEY = ConfigRegister.registerConfig("app_config_dirs", "Comma separated list of directories to scan for application*.properties, overriding defaults.");
 
     // Register event channels
@@ -111,6 +130,13 @@ public class Context extends ConcurrentTypeMap {
         return new Context(clazz);
     }
 
+    /**
+     * @return true if the context belongs to a {@link Nano} instance
+     */
+    public boolean hasNano() {
+        return nano != null || get(CONTEXT_NANO_KEY) instanceof Nano;
+    }
+
     /**
      * Retrieves the {@link Nano} instance associated with this context.
      *
@@ -439,6 +465,27 @@ public class Context extends ConcurrentTypeMap {
         return nano().subscribeEvent(channel, listener);
     }
 
+    /**
+     * Registers an event listener which receives only the latest event of each burst per key.
+     * An event is delivered after no other event with the same key arrived for {@code debounceMs}, but no later than {@code maxLatencyMs}
+     * after the first event of the burst. Coalesced events are delivered later, responses and acknowledgements don't reach the sender.
+     *
+     * @param channel      The channel to be subscribed.
+     * @param key          The key to deduplicate events by, e.g. a path or group.
+     * @param debounceMs   Quiet time after the last event of a key.
+     * @param maxLatencyMs Max delay of the first event of a burst, {@code <= 0} for no bound.
+     * @param listener     The consumer to receive the coalesced {@link Event}.
+     * @param <C>          The payload
+     * @param <R>          The return payload
+     * @return A consumer function that can be used to unsubscribe the listener later.
+     */
+    public <C, R> Consumer<Event<C, R>> subscribeCoalesced(final Channel<C, R> channel, final Function<? super Event<C, R>, ?> key, final long debounceMs, final long maxLatencyMs, final Consumer<Event<C, R>> listener) {
+        final EventCoalescer<Object, Event<C, R>> coalescer = new EventCoalescer<>(this, debounceMs, maxLatencyMs, null, listener);
+        final Consumer<Event<C, R>> wrapped = event -> coalescer.offer(key.apply(event), event);
+        nano().subscribeEvent(channel, wrapped);
+        return wrapped;
+    }
+
     /**
      * Registers for global error handling.
      *
@@ -485,6 +532,19 @@ public class Context extends ConcurrentTypeMap {
         return this;
     }
 
+    /**
+     * Creates a {@link java.util.concurrent.Flow.Publisher} of the events of a channel.
+     * Each subscriber gets a bounded buffer and receives events only as far as it requested them, so slow subscribers don't slow down the senders.
+     *
+     * @param channel The channel to be published.
+     * @param <C>     The payload
+     * @param <R>     The return payload
+     * @return {@link EventPublisher} which also offers window, sample and conflate operators
+     */
+    public <C, R> EventPublisher<C, R, Event<C, R>> publisher(final Channel<C, R> channel) {
+        return EventPublisher.of(this, channel);
+    }
+
     /**
      * Executes a task asynchronously after a specified delay.
      *
@@ -682,7 +742,7 @@ public class Context extends ConcurrentTypeMap {
      * @return {@link NanoThread}s
      */
     public final NanoThread[] runR(final ExRunnable... runnable) {
-        return Arrays.stream(runnable).map(task -> new NanoThread().run(() -> this, task)).toArray(NanoThread[]::new);
+        return Arrays.stream(runnable).map(task -> new NanoThread().run(() -> this, withDeadline(task))).toArray(NanoThread[]::new);
     }
 
     /**
@@ -697,7 +757,7 @@ public class Context extends ConcurrentTypeMap {
                 .onComplete((thread, error) -> {
                     if (error != null)
                         onFailure.accept(newEvent(EVENT_APP_ERROR).error(error).payload(() -> thread));
-                }).run(() -> this, task)
+                }).run(() -> this, withDeadline(task))
         ).toArray(NanoThread[]::new);
     }
 
@@ -726,7 +786,7 @@ public class Context extends ConcurrentTypeMap {
      * @return The {@link Context} object for chaining further operations.
      */
     public final Context runAwait(final ExRunnable... runnable) {
-        NanoThread.waitFor(runR(runnable));
+        awaitDeadline(runR(runnable));
         return this;
     }
 
@@ -738,7 +798,7 @@ public class Context extends ConcurrentTypeMap {
      * @return The {@link Context} object for chaining further operations.
      */
     public final Context runAwaitHandled(final Consumer<Event<Object, Void>> onFailure, final ExRunnable... runnable) {
-        NanoThread.waitFor(runReturnHandled(onFailure, runnable));
+        awaitDeadline(runReturnHandled(onFailure, runnable));
         return this;
     }
 
@@ -761,7 +821,7 @@ public class Context extends ConcurrentTypeMap {
      * @return {@link NanoThread}s
      */
     public final NanoThread[] runAwaitR(final ExRunnable... runnable) {
-        return NanoThread.waitFor(runR(runnable));
+        return awaitDeadline(runR(runnable));
     }
 
     /**
@@ -772,7 +832,7 @@ public class Context extends ConcurrentTypeMap {
      * @return {@link NanoThread}s
      */
     public final NanoThread[] runAwaitRHandled(final Consumer<Event<Object, Void>> onFailure, final ExRunnable... runnable) {
-        return NanoThread.waitFor(runReturnHandled(onFailure, runnable));
+        return awaitDeadline(runReturnHandled(onFailure, runnable));
     }
 
     /**
@@ -781,7 +841,154 @@ public class Context extends ConcurrentTypeMap {
      * @return {@link NanoThread}s
      */
     public NanoThread[] runAwaitR(final Service... services) {
-        return NanoThread.waitFor(runR(services));
+        return awaitDeadline(runR(services));
+    }
+
+    //########## DEADLINE HELPERS ##########
+
+    /**
+     * Sets the deadline of this context. A deadline can only be tightened, never extended, so the budget of the caller is always honoured.
+     * Child contexts, their events, {@link #runAwait(ExRunnable...)} and {@link org.nanonative.nano.services.http.HttpClient} calls inherit the deadline.
+     *
+     * @param epochMs absolute deadline in epoch milliseconds
+     * @return self for chaining
+     */
+    public Context deadline(final long epochMs) {
+        final long current = deadline();
+        if (current <= 0 || epochMs < current)
+            put(CONTEXT_DEADLINE_KEY, epochMs);
+        return this;
+    }
+
+    /**
+     * Sets the deadline of this context relative to now (see {@link #deadline(long)}).
+     *
+     * @param timeoutMs time budget in milliseconds
+     * @return self for chaining
+     */
+    public Context timeoutMs(final long timeoutMs) {
+        return deadline(System.currentTimeMillis() + Math.max(0, timeoutMs));
+    }
+
+    /**
+     * @return absolute deadline in epoch milliseconds or {@code 0} if there is none
+     */
+    public long deadline() {
+        return asLongOpt(CONTEXT_DEADLINE_KEY).orElse(0L);
+    }
+
+    /**
+     * @return {@code true} if this context carries a deadline
+     */
+    public boolean hasDeadline() {
+        return deadline() > 0;
+    }
+
+    /**
+     * @return remaining time budget in milliseconds, {@link Long#MAX_VALUE} without a deadline
+     */
+    public long remainingMs() {
+        final long deadline = deadline();
+        return deadline <= 0 ? Long.MAX_VALUE : Math.max(0, deadline - System.currentTimeMillis());
+    }
+
+    /**
+     * @return {@code true} if the deadline of this context has passed
+     */
+    public boolean isExpired() {
+        final long deadline = deadline();
+        return deadline > 0 && System.currentTimeMillis() >= deadline;
+    }
+
+    /**
+     * Counts work which was cancelled due to an expired deadline as {@code deadline.exceeded} metric.
+     *
+     * @param stage where the work was cancelled e.g. {@code task}, {@code await}, {@code http_client}
+     * @return self for chaining
+     */
+    public Context deadlineExceeded(final String stage) {
+        newEvent(EVENT_METRIC_UPDATE, () -> new MetricUpdate(MetricType.COUNTER, "deadline.exceeded", 1, Map.of("stage", stage))).send();
+        return debug(() -> "Deadline exceeded at [{}] trace [{}]", stage, traceId());
+    }
+
+    protected ExRunnable withDeadline(final ExRunnable task) {
+        return !hasDeadline() ? task : () -> {
+            if (isExpired()) {
+                deadlineExceeded("task");
+            } else {
+                task.run();
+            }
+        };
+    }
+
+    protected NanoThread[] awaitDeadline(final NanoThread[] threads) {
+        final long remaining = remainingMs();
+        if (remaining >= NanoThread.DEFAULT_WAIT_TIMEOUT_MS)
+            return NanoThread.waitFor(threads);
+        if (!NanoThread.waitFor(remaining, threads))
+            deadlineExceeded("await");
+        return threads;
+    }
+
+    //########## COMPUTE HELPERS ##########
+
+    /**
+     * Executes a CPU bound task on the {@link NanoThread#GLOBAL_COMPUTE_POOL} and waits for the result.
+     * Nested calls from a compute task run inline, as a worker waiting on its own pool could starve it. Workers of other
+     * pools, like the common pool or parallel streams, still hand the task to the compute pool.
+     * Failures are sent as {@link Context#EVENT_APP_ERROR}.
+     *
+     * @param task function to compute.
+     * @param <T>  result type
+     * @return the computed result or null on failure
+     */
+    public <T> T runCompute(final Callable<T> task) {
+        try {
+            return (ForkJoinTask.getPool() == NanoThread.GLOBAL_COMPUTE_POOL ? NanoThread.compute(() -> this, task, Runnable::run) : computeAsync(task)).join();
+        } catch (final CompletionException | CancellationException exception) {
+            sendEventError(task, ofNullable(exception.getCause()).orElse(exception));
+            return null;
+        }
+    }
+
+    /**
+     * Executes a CPU bound task on the {@link NanoThread#GLOBAL_COMPUTE_POOL}.
+     * The compute pool is bounded to the available cores, blocking tasks belong to {@link Context#run(ExRunnable...)}.
+     *
+     * @param task function to compute.
+     * @param <T>  result type
+     * @return {@link CompletableFuture} of the computed result
+     */
+    public <T> CompletableFuture<T> computeAsync(final Callable<T> task) {
+        return NanoThread.compute(() -> this, task);
+    }
+
+    /**
+     * Maps all items in parallel on the {@link NanoThread#GLOBAL_COMPUTE_POOL} while keeping their order.
+     *
+     * @param items  items to map
+     * @param mapper mapping function
+     * @param <T>    item type
+     * @param <R>    result type
+     * @return mapped items or an empty list on failure
+     */
+    public <T, R> List<R> computeMap(final Collection<T> items, final Function<? super T, ? extends R> mapper) {
+        return ofNullable(runCompute(() -> items.parallelStream().<R>map(mapper).toList())).orElseGet(List::of);
+    }
+
+    /**
+     * Maps and reduces all items in parallel on the {@link NanoThread#GLOBAL_COMPUTE_POOL}.
+     *
+     * @param items    items to reduce
+     * @param identity identity value of the combiner
+     * @param mapper   mapping function
+     * @param combiner associative function to combine two results
+     * @param <T>      item type
+     * @param <R>      result type
+     * @return reduced result or null on failure
+     */
+    public <T, R> R computeReduce(final Collection<T> items, final R identity, final Function<? super T, ? extends R> mapper, final BinaryOperator<R> combiner) {
+        return runCompute(() -> items.parallelStream().<R>map(mapper).reduce(identity, combiner));
     }
 
     //########## EVENT HELPER ##########
@@ -844,6 +1051,47 @@ public class Context extends ConcurrentTypeMap {
         return new Event<>(this, channel).payload(payload);
     }
 
+    /**
+     * Scatters the events in parallel and gathers all responses (see {@link Event#sendAsync()}).
+     * The result fails as soon as one event fails or is not acknowledged.
+     *
+     * @param events events to send e.g. requests to different services
+     * @param <R>    response type
+     * @return future of all responses in the order of the events
+     */
+    @SuppressWarnings("unchecked")
+    public <R> CompletableFuture<List<R>> sendAll(final Collection<? extends Event<?, ? extends R>> events) {
+        final CompletableFuture<? extends R>[] futures = events.stream().map(Event::sendAsync).toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures).thenApply(ignored -> Arrays.stream(futures).<R>map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Scatters the events in parallel and completes with the first response (see {@link Event#sendAsync()}).
+     * The result only fails if all events fail or are not acknowledged.
+     *
+     * @param events events to send e.g. the same request to redundant services
+     * @param <R>    response type
+     * @return future of the first response
+     */
+    public <R> CompletableFuture<R> sendFirst(final Collection<? extends Event<?, ? extends R>> events) {
+        final CompletableFuture<R> result = new CompletableFuture<>();
+        if (events.isEmpty()) {
+            result.cancel(false);
+            return result;
+        }
+        final AtomicInteger pending = new AtomicInteger(events.size());
+        for (final Event<?, ? extends R> event : events) {
+            event.sendAsync().whenComplete((response, error) -> {
+                if (error == null) {
+                    result.complete(response);
+                } else if (pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(error);
+                }
+            });
+        }
+        return result;
+    }
+
     /**
      * Registers a new {@link Channel} with a given name if it does not already exist.
      * If the {@link Channel} payload already exists, it returns the existing {@link Channel}.
@@ -918,6 +1166,8 @@ public class Context extends ConcurrentTypeMap {
         this.put(CONTEXT_TRACE_ID_KEY, (resolvedClass.getSimpleName()) + "/" + UUID.randomUUID().toString().replace("-", ""));
         if (parent != null)
             this.put(CONTEXT_PARENT_KEY, parent);
+        if (empty && parent != null && parent.hasDeadline())
+            this.put(CONTEXT_DEADLINE_KEY, parent.deadline());
         MAX_LOG_NAME_LENGTH.updateAndGet(length -> Math.max(length, resolvedClass.getSimpleName().length()));
     }
 
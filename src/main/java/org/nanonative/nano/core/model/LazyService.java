@@ -0,0 +1,267 @@
+package org.nanonative.nano.core.model;
+
+import berlin.yuna.typemap.model.TypeMapI;
+import org.nanonative.nano.helper.event.model.Channel;
+import org.nanonative.nano.helper.event.model.Event;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.nanonative.nano.core.model.Context.EVENT_CONFIG_CHANGE;
+
+/**
+ * Placeholder of a {@link Service} which is only created and started with the first event of one of its trigger channels.
+ * <p>
+ * Events which arrive while the service starts are held back and delivered once the service is active, senders return
+ * after their event was delivered. Events of other channels are ignored until the service is active. With an idle timeout the
+ * service is stopped again after it received no events for the given time and restarts with the next trigger event.
+ * Config changes are kept in the context of the placeholder, so a (re)started service sees the current configs.
+ * </p>
+ * <pre>{@code
+ * new Nano(LazyService.of(HttpClient.class, HttpClient::new, EVENT_SEND_HTTP).idleTimeoutMs(60_000));
+ * }</pre>
+ *
+ * @param <S> type of the service
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class LazyService<S extends Service> extends Service {
+
+    protected final Class<S> type;
+    protected final Supplier<? extends S> factory;
+    protected final int[] triggers;
+    protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    protected volatile S delegate;
+    protected volatile long lastEventNs;
+    protected volatile long idleTimeoutMs = -1;
+    protected volatile boolean stopped;
+    protected CountDownLatch starting;
+
+    /**
+     * @param type     type of the service
+     * @param factory  creates the service on the first trigger event
+     * @param triggers channels which activate the service
+     * @return lazy placeholder of the service
+     */
+    public static <S extends Service> LazyService<S> of(final Class<S> type, final Supplier<? extends S> factory, final Channel<?, ?>... triggers) {
+        return new LazyService<>(type, factory, triggers);
+    }
+
+    /**
+     * @param service service or lazy placeholder
+     * @return type of the service, also for not yet started {@link LazyService}
+     */
+    public static Class<?> typeOf(final Service service) {
+        return service instanceof final LazyService<?> lazy ? lazy.type() : service.getClass();
+    }
+
+    protected LazyService(final Class<S> type, final Supplier<? extends S> factory, final Channel<?, ?>... triggers) {
+        this.type = type;
+        this.factory = factory;
+        this.triggers = Arrays.stream(triggers).mapToInt(Channel::id).sorted().distinct().toArray();
+    }
+
+    /**
+     * @param idleTimeoutMs stops the service after it received no event for the given time, disabled = {@code -1}
+     * @return self for chaining
+     */
+    public LazyService<S> idleTimeoutMs(final long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+        return this;
+    }
+
+    @Override
+    public void start() {
+        final long timeoutMs = idleTimeoutMs;
+        if (timeoutMs > 0) {
+            final long period = Math.max(16, timeoutMs / 4);
+            context.run(this::stopIfIdle, period, period, MILLISECONDS, () -> stopped);
+        }
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        deactivate();
+    }
+
+    @Override
+    public Object onFailure(final Event<?, ?> error) {
+        final S active = delegate;
+        return active == null ? null : active.onFailure(error);
+    }
+
+    @Override
+    public void onEvent(final Event<?, ?> event) {
+        // events are dispatched in receiveEvent
+    }
+
+    @Override
+    public void configure(final TypeMapI<?> changes, final TypeMapI<?> merged) {
+        // configs are kept in the context until the service starts
+    }
+
+    @Override
+    public Service receiveEvent(final Event<?, ?> event) {
+        if (event.channel() == EVENT_CONFIG_CHANGE) {
+            super.receiveEvent(event);
+            final S active = delegate;
+            if (active != null)
+                active.receiveEvent(event);
+            return this;
+        }
+        final boolean trigger = Arrays.binarySearch(triggers, event.channel().id()) >= 0;
+        if (!trigger && delegate == null)
+            return this;
+        if (deliver(event) || !trigger)
+            return this;
+        activate(event);
+        return this;
+    }
+
+    /**
+     * @return the service if active, {@code null} otherwise
+     */
+    public S delegate() {
+        return delegate;
+    }
+
+    /**
+     * @return true if the service is created and started
+     */
+    public boolean isActive() {
+        return delegate != null;
+    }
+
+    public Class<S> type() {
+        return type;
+    }
+
+    @Override
+    public String name() {
+        return type.getSimpleName();
+    }
+
+    @Override
+    public void train(final Context context) {
+        final S active = activate();
+        if (active != null)
+            active.train(context);
+    }
+
+    /**
+     * Delivers the event to the active service, the read lock prevents an idle stop during the delivery.
+     *
+     * @param event the event
+     * @return false if the service is not active
+     */
+    protected boolean deliver(final Event<?, ?> event) {
+        lock.readLock().lock();
+        try {
+            final S active = delegate;
+            if (active == null)
+                return false;
+            lastEventNs = System.nanoTime();
+            active.receiveEvent(event);
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Starts the service if it is not active yet. The first caller starts the service, all callers arriving during the
+     * startup are held until the service is active.
+     *
+     * @return the service or {@code null} if the start failed
+     */
+    public S activate() {
+        final CountDownLatch latch;
+        final boolean starter;
+        synchronized (this) {
+            starter = starting == null && delegate == null;
+            if (starter)
+                starting = new CountDownLatch(1);
+            latch = starting;
+        }
+        if (starter)
+            startDelegate(latch);
+        else if (latch != null)
+            await(latch);
+        return delegate;
+    }
+
+    /**
+     * Activates the service and delivers the trigger event afterward.
+     *
+     * @param event the trigger event
+     */
+    protected void activate(final Event<?, ?> event) {
+        activate();
+        if (!deliver(event))
+            context.debug(() -> "Lazy [{}] is not active, event [{}] was not delivered", name(), event.channel().name());
+    }
+
+    protected void startDelegate(final CountDownLatch latch) {
+        try {
+            final long startNs = System.nanoTime();
+            final S service = factory.get();
+            service.context(context.newContext(service.getClass()));
+            service.configure(service.context());
+            service.start();
+            service.isReadyState().set(true);
+            lastEventNs = System.nanoTime();
+            delegate = service;
+            context.debug(() -> "Activated lazy [{}] in [{}] ms", name(), (System.nanoTime() - startNs) / 1_000_000);
+        } catch (final RuntimeException error) {
+            context.error(error, () -> "Failed to activate lazy [{}]", name());
+        } finally {
+            synchronized (this) {
+                starting = null;
+            }
+            latch.countDown();
+        }
+    }
+
+    protected void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    protected void stopIfIdle() {
+        final long timeoutMs = idleTimeoutMs;
+        if (timeoutMs > 0 && delegate != null && System.nanoTime() - lastEventNs > TimeUnit.MILLISECONDS.toNanos(timeoutMs)) {
+            context.debug(() -> "Deactivate idle lazy [{}] after [{}] ms", name(), timeoutMs);
+            deactivate();
+        }
+    }
+
+    protected void deactivate() {
+        final S active;
+        lock.writeLock().lock();
+        try {
+            active = delegate;
+            delegate = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (active != null && active.isReadyState().compareAndSet(true, false)) {
+            try {
+                active.stop();
+            } catch (final Exception e) {
+                context.warn(e, () -> "Stop lazy [{}] error", name());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LazyService{" + type.getSimpleName() + ", active=" + isActive() + "}";
+    }
+}
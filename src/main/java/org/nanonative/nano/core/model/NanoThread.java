@@ -3,16 +3,17 @@ package org.nanonative.nano.core.model;
 import berlin.yuna.typemap.model.LinkedTypeMap;
 import org.nanonative.nano.helper.ExRunnable;
 
-import java.lang.management.ManagementFactory;
-import java.lang.management.ThreadMXBean;
-import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
-import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
@@ -33,6 +34,12 @@ public class NanoThread {
     public static final String NANO_THREAD_PREFIX = "nano-thread-";
     public static final ThreadFactory GLOBAL_THREAD_FACTORY = Thread.ofVirtual().name(NANO_THREAD_PREFIX, 0).factory();
     public static final ExecutorService GLOBAL_THREAD_POOL = Executors.newThreadPerTaskExecutor(GLOBAL_THREAD_FACTORY);
+    public static final String NANO_COMPUTE_PREFIX = "nano-compute-";
+    public static final String CARRIER_THREAD_GROUP = "CarrierThreads";
+    public static final long DEFAULT_WAIT_TIMEOUT_MS = 10000L;
+    public static final int GLOBAL_COMPUTE_PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors());
+    // Bounded to the cores: no compensation threads for blocked workers, CPU bound work must not exceed the cores
+    public static final ForkJoinPool GLOBAL_COMPUTE_POOL = new ForkJoinPool(GLOBAL_COMPUTE_PARALLELISM, NanoThread::newComputeThread, null, false, 0, GLOBAL_COMPUTE_PARALLELISM, 1, pool -> true, 60, TimeUnit.SECONDS);
     protected static final AtomicLong activeNanoThreadCount = new AtomicLong(0);
     private volatile Future<?> future;
 
@@ -82,6 +89,39 @@ public class NanoThread {
         return this;
     }
 
+    /**
+     * Executes a CPU bound task on the {@link #GLOBAL_COMPUTE_POOL}.
+     * Blocking tasks (IO, locks, sleeps) belong to {@link #run(Supplier, ExRunnable)} as the compute pool does not grow beyond the cores.
+     *
+     * @param context optional context for error handling
+     * @param task    the task to compute
+     * @param <T>     result type
+     * @return {@link CompletableFuture} which completes with the task result or exceptionally on failure
+     */
+    public static <T> CompletableFuture<T> compute(final Supplier<Context> context, final Callable<T> task) {
+        return compute(context, task, GLOBAL_COMPUTE_POOL);
+    }
+
+    @SuppressWarnings("java:S1181") // Throwable is caught
+    static <T> CompletableFuture<T> compute(final Supplier<Context> context, final Callable<T> task, final Executor executor) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                result.complete(task.call());
+            } catch (final Throwable error) {
+                handleJavaError(context, error);
+                result.completeExceptionally(error);
+            }
+        });
+        return result;
+    }
+
+    private static ForkJoinWorkerThread newComputeThread(final ForkJoinPool pool) {
+        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName(NANO_COMPUTE_PREFIX + thread.getPoolIndex());
+        return thread;
+    }
+
     private void markComplete(final Throwable error) {
         if (isComplete.compareAndSet(false, true)) {
             // Invoke user callbacks outside any lock, once.
@@ -109,17 +149,34 @@ public class NanoThread {
         return activeNanoThreadCount.get();
     }
 
+    /**
+     * Counts the live carrier threads of the virtual thread scheduler. Walks the platform threads, meant for diagnostics only.
+     *
+     * @return number of carrier threads
+     */
+    public static long carrierThreads() {
+        ThreadGroup root = Thread.currentThread().getThreadGroup();
+        while (root.getParent() != null)
+            root = root.getParent();
+        final Thread[] threads = new Thread[root.activeCount() * 2 + 16];
+        final int size = root.enumerate(threads, true);
+        long result = 0;
+        for (int i = 0; i < size; i++) {
+            final ThreadGroup group = threads[i].getThreadGroup();
+            if (group != null && CARRIER_THREAD_GROUP.equals(group.getName()))
+                result++;
+        }
+        return result;
+    }
+
+    /**
+     * @return number of carrier threads
+     * @deprecated the thread dump based estimation is replaced by {@link #carrierThreads()}, the carrier load is reported by
+     * {@link org.nanonative.nano.services.metric.logic.JfrMonitorService}
+     */
+    @Deprecated
     public static long activeCarrierThreads() {
-        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
-        final long[] threadIds = threadMXBean.getAllThreadIds();
-        return Arrays.stream(threadMXBean.getThreadInfo(threadIds))
-            .filter(Objects::nonNull)
-            .filter(info -> (info.getThreadName() != null && info.getThreadName().startsWith("CarrierThread"))
-                || (info.getLockName() != null && info.getLockName().startsWith("java.lang.VirtualThread"))
-                || (info.getLockName() != null && info.getLockName().startsWith(NANO_THREAD_PREFIX))
-                || (info.getLockOwnerName() != null && info.getLockName().startsWith(NANO_THREAD_PREFIX))
-            )
-            .count();
+        return carrierThreads();
     }
 
     /**
@@ -148,6 +205,26 @@ public class NanoThread {
      * @return The same array of {@link NanoThread} instances, allowing for method chaining or further processing.
      */
     public static NanoThread[] waitFor(final Runnable onComplete, final NanoThread... threads) {
+        final CountDownLatch latch = latchOf(onComplete, threads);
+        // Wait up to the default timeout; if it expires, dump diagnostics and cancel
+        if (onComplete == null && !await(latch, DEFAULT_WAIT_TIMEOUT_MS, threads))
+            System.err.println(new Date() + " [FATAL] Threads did not complete in " + DEFAULT_WAIT_TIMEOUT_MS + "ms");
+        return threads;
+    }
+
+    /**
+     * Blocks until all provided {@link NanoThread} instances have completed or the timeout elapsed.
+     * Threads which did not complete in time are cancelled cooperatively.
+     *
+     * @param timeoutMs max time to wait in milliseconds e.g. the remaining budget of a {@link Context#deadline()}
+     * @param threads   An array of {@link NanoThread} instances to wait for.
+     * @return {@code true} if all threads completed in time
+     */
+    public static boolean waitFor(final long timeoutMs, final NanoThread... threads) {
+        return await(latchOf(null, threads), timeoutMs, threads);
+    }
+
+    private static CountDownLatch latchOf(final Runnable onComplete, final NanoThread... threads) {
         final CountDownLatch latch = new CountDownLatch(threads.length);
         for (final NanoThread thread : threads) {
             thread.onComplete((nt, error) -> {
@@ -155,20 +232,20 @@ public class NanoThread {
                 if (!(error instanceof Error) && latch.getCount() == 0 && onComplete != null) onComplete.run();
             });
         }
-        if (onComplete == null) {
-            // Wait up to configurable timeout; if it expires, dump diagnostics then block a bit longer
-            try {
-                if (!latch.await(10000L, TimeUnit.MILLISECONDS)) {
-                    System.err.println(new Date() + " [FATAL] Threads did not complete in " + 10000L + "ms");
-                    for (final NanoThread t : threads) {
-                        if (t.future() != null) t.future().cancel(true); // cooperative cancel
-                    }
-                }
-            } catch (final InterruptedException ignored) {
-                Thread.currentThread().interrupt();
+        return latch;
+    }
+
+    private static boolean await(final CountDownLatch latch, final long timeoutMs, final NanoThread... threads) {
+        try {
+            if (latch.await(Math.max(0, timeoutMs), TimeUnit.MILLISECONDS))
+                return true;
+            for (final NanoThread t : threads) {
+                if (t.future() != null) t.future().cancel(true); // cooperative cancel
             }
+        } catch (final InterruptedException ignored) {
+            Thread.currentThread().interrupt();
         }
-        return threads;
+        return false;
     }
 
     @Override
@@ -1,12 +1,12 @@
 package org.nanonative.nano.core.model;
 
-import berlin.yuna.typemap.model.TypeMap;
 import berlin.yuna.typemap.model.TypeMapI;
+import org.nanonative.nano.helper.config.ConfigChange;
 import org.nanonative.nano.helper.event.model.Event;
 import org.nanonative.nano.services.metric.model.MetricUpdate;
 
 import java.util.Map;
-import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.util.Arrays.stream;
@@ -105,10 +105,33 @@ public abstract class Service {
      * - Applying configuration changes without service restart
      *
      * @param changes The new configuration changes to apply
-     * @param merged  The complete merged configuration state - this will be represented in {@link Service#context} after the method is done
+     * @param merged  The complete merged configuration state - on config changes this is the {@link Service#context} with the changes already applied
      */
     public abstract void configure(final TypeMapI<?> changes, final TypeMapI<?> merged);
 
+    /**
+     * Config keys this service reacts to on {@link Context#EVENT_CONFIG_CHANGE}, a key also matches its sub keys e.g.
+     * {@code app_service_http} matches {@code app_service_http_port}.
+     * Optional override - the default empty set calls {@link Service#configure(TypeMapI, TypeMapI)} on every config change.
+     * The {@link Service#context} receives all changes regardless.
+     *
+     * @return config keys or key prefixes of this service
+     */
+    public Set<String> configKeys() {
+        return Set.of();
+    }
+
+    /**
+     * Runs a typical workload of the service once during the training run of {@link Context#CONFIG_TRAINING_RUN}, so its
+     * classes end up in a startup archive e.g. {@code -XX:ArchiveClassesAtExit}.
+     * Optional override - the default does nothing.
+     *
+     * @param context the context of the training run
+     */
+    public void train(final Context context) {
+        // no workload by default
+    }
+
     /**
      * Returns the simple name of the service class.
      * This method provides a default naming convention for services.
@@ -192,14 +215,13 @@ public abstract class Service {
      */
     public Service receiveEvent(final Event<?, ?> event) {
         event.channel(EVENT_CONFIG_CHANGE).map(Event::payload).ifPresentOrElse(configs -> {
-            final TypeMap merged = new TypeMap(context);
-            final TypeMap diff = new TypeMap();
-            merged.putAll(configs);
-            ((Map<?, ?>) configs).entrySet().stream()
-                .filter(entry -> !Objects.equals(context.get(entry.getKey()), entry.getValue()))
-                .forEach(entry -> diff.put(entry.getKey(), entry.getValue()));
-            configure(diff, merged);
-            context.putAll(configs);
+            // the diff is computed once by Nano, services without Nano compare against their own context
+            final ConfigChange change = event.get(ConfigChange.EVENT_KEY) instanceof final ConfigChange applied ? applied : new ConfigChange(-1, ConfigChange.diffOf(context, configs));
+            if (change.isEmpty())
+                return;
+            context.putAll(change.changes());
+            if (change.affects(configKeys()))
+                configure(change.changes(), context);
         }, () -> onEvent(event));
         return this;
     }
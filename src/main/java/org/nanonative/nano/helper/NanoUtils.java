@@ -1,5 +1,6 @@
 package org.nanonative.nano.helper;
 
+import berlin.yuna.typemap.model.TypeMapI;
 import org.nanonative.nano.core.Nano;
 import org.nanonative.nano.core.NanoBase;
 import org.nanonative.nano.core.NanoServices;
@@ -31,6 +32,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 import java.util.zip.DeflaterOutputStream;
@@ -160,6 +162,22 @@ public class NanoUtils {
         return result.toArray(new String[0]);
     }
 
+    /**
+     * Reads a config as list of trimmed, non-empty values. Comma separated strings are split.
+     *
+     * @param configs config map
+     * @param key     config key
+     * @return values or an empty list
+     */
+    public static List<String> splitConfig(final TypeMapI<?> configs, final String key) {
+        return configs.asList(String.class, key).stream()
+            .filter(Objects::nonNull)
+            .flatMap(value -> stream(split(value, ",")))
+            .map(String::strip)
+            .filter(value -> !value.isEmpty())
+            .toList();
+    }
+
     public static String callerInfoStr(final Class<?> source) {
         final StackTraceElement element = callerInfo(source);
         return element == null ? "Unknown" : String.format("%s:%d_at_%s", element.getClassName(), element.getLineNumber(), element.getMethodName());
@@ -279,18 +297,26 @@ public class NanoUtils {
         return isExpr(value) ? resolvePlaceHolder(0, context, value, new HashSet<>()) : value;
     }
 
+    public static Object resolvePlaceHolder(final Function<String, Object> lookup, final String value) {
+        return isExpr(value) ? resolvePlaceHolder(0, lookup, value, new HashSet<>()) : value;
+    }
+
     public static Object resolvePlaceHolder(final int depth, final Context context, final String value, final Set<String> seen) {
+        return resolvePlaceHolder(depth, context::get, value, seen);
+    }
+
+    public static Object resolvePlaceHolder(final int depth, final Function<String, Object> lookup, final String value, final Set<String> seen) {
         if (depth > 32)
             return value;
         final String key = value.substring(2, value.length() - 1);
         final int sep = key.indexOf(':');
-        return context.asOpt(Object.class, standardiseKey(sep >= 0 ? key.substring(0, sep) : key))
+        return ofNullable(lookup.apply(standardiseKey(sep >= 0 ? key.substring(0, sep) : key)))
             .filter(s -> !seen.contains(key)) // prevent cycles
             .map(s -> {
                 seen.add(key);
                 return s;
             }) // prevent cycles
-            .map(object -> object instanceof String s && isExpr(s) ? resolvePlaceHolder(depth + 1, context, s, seen) : object).orElse(sep >= 0 ? key.substring(sep + 1) : null);
+            .map(object -> object instanceof String s && isExpr(s) ? resolvePlaceHolder(depth + 1, lookup, s, seen) : object).orElse(sep >= 0 ? key.substring(sep + 1) : null);
     }
 
     public static Context resolvePlaceHolders(final Context context) {
@@ -0,0 +1,107 @@
+package org.nanonative.nano.helper.config;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.Map;
+
+import static berlin.yuna.typemap.logic.TypeConverter.convertObj;
+import static org.nanonative.nano.core.NanoBase.standardiseKey;
+
+/**
+ * Binds configs into records or POJOs.
+ * <p>
+ * Each record component or field is read from {@code <prefix>_<name>}, camel case names are converted to snake case,
+ * e.g. {@code connectTimeoutMs} of the prefix {@code app_http} reads {@code app_http_connect_timeout_ms}.
+ * Missing configs keep the default of the field, record components become {@code null} or the primitive default.
+ * </p>
+ */
+public class ConfigBinder {
+
+    /**
+     * @param source configs
+     * @param prefix config prefix, nullable
+     * @param type   record or POJO with a no-args constructor
+     * @return the bound instance
+     * @throws IllegalArgumentException if the type can't be instantiated
+     */
+    public static <T> T bind(final Map<?, ?> source, final String prefix, final Class<T> type) {
+        try {
+            return type.isRecord() ? bindRecord(source, prefix, type) : bindPojo(source, prefix, type);
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Can't bind configs [" + prefix + "] to [" + type.getName() + "]", e);
+        }
+    }
+
+    /**
+     * @param prefix config prefix, nullable
+     * @param name   name of the record component or field
+     * @return standardized config key
+     */
+    public static String keyOf(final String prefix, final String name) {
+        final StringBuilder sb = new StringBuilder(name.length() + 8);
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            if (Character.isUpperCase(c) && i > 0)
+                sb.append('_');
+            sb.append(Character.toLowerCase(c));
+        }
+        return standardiseKey(prefix == null || prefix.isBlank() ? sb.toString() : prefix + "_" + sb);
+    }
+
+    protected static <T> T bindRecord(final Map<?, ?> source, final String prefix, final Class<T> type) throws ReflectiveOperationException {
+        final RecordComponent[] components = type.getRecordComponents();
+        final Object[] args = new Object[components.length];
+        for (int i = 0; i < components.length; i++)
+            args[i] = valueOf(source, keyOf(prefix, components[i].getName()), components[i].getType());
+        final Constructor<T> constructor = type.getDeclaredConstructor(Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new));
+        constructor.setAccessible(true);
+        return constructor.newInstance(args);
+    }
+
+    protected static <T> T bindPojo(final Map<?, ?> source, final String prefix, final Class<T> type) throws ReflectiveOperationException {
+        final Constructor<T> constructor = type.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        final T result = constructor.newInstance();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (final Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers()) || field.isSynthetic())
+                    continue;
+                final Object value = source.get(keyOf(prefix, field.getName()));
+                if (value != null) {
+                    field.setAccessible(true);
+                    field.set(result, convertObj(value, wrap(field.getType())));
+                }
+            }
+        }
+        return result;
+    }
+
+    protected static Object valueOf(final Map<?, ?> source, final String key, final Class<?> type) {
+        final Object value = source.get(key);
+        if (value != null)
+            return convertObj(value, wrap(type));
+        if (!type.isPrimitive())
+            return null;
+        return type == boolean.class ? Boolean.FALSE : type == char.class ? Character.valueOf('\0') : convertObj(0, wrap(type));
+    }
+
+    protected static Class<?> wrap(final Class<?> type) {
+        if (!type.isPrimitive())
+            return type;
+        if (type == int.class) return Integer.class;
+        if (type == long.class) return Long.class;
+        if (type == boolean.class) return Boolean.class;
+        if (type == double.class) return Double.class;
+        if (type == float.class) return Float.class;
+        if (type == short.class) return Short.class;
+        if (type == byte.class) return Byte.class;
+        return Character.class;
+    }
+
+    private ConfigBinder() {
+        // static util class
+    }
+}
@@ -0,0 +1,80 @@
+package org.nanonative.nano.helper.config;
+
+import berlin.yuna.typemap.model.TypeMap;
+import org.nanonative.nano.core.model.Context;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Versioned diff of a {@link Context#EVENT_CONFIG_CHANGE}.
+ * <p>
+ * The diff is computed once against the root context and applied there, services receive the same diff instead of copying
+ * and comparing their whole context.
+ * </p>
+ *
+ * @param version config version after the change was applied, see {@link org.nanonative.nano.core.NanoBase#configVersion()}
+ * @param changes configs which differ from the previous state
+ */
+public record ConfigChange(long version, TypeMap changes) {
+
+    /**
+     * Key of the {@link ConfigChange} on the {@link Context#EVENT_CONFIG_CHANGE} event.
+     */
+    public static final String EVENT_KEY = "app_core_config_change";
+    protected static final String CONTEXT_KEY_PREFIX = "app_core_context_";
+
+    /**
+     * @param current current configs
+     * @param configs new configs
+     * @return configs which are missing or different in the current configs, empty values are kept as empty strings
+     */
+    public static TypeMap diffOf(final Map<?, ?> current, final Map<?, ?> configs) {
+        final TypeMap result = new TypeMap();
+        if (configs != null)
+            configs.forEach((key, value) -> {
+                final Object next = value != null ? value : "";
+                if (key != null && !Objects.equals(current.get(key), next))
+                    result.put(key, next);
+            });
+        return result;
+    }
+
+    /**
+     * Like {@link #diffOf(Map, Map)} but ignores the internal keys of a {@link Context} and underscore keys, e.g. for reloaded
+     * config files.
+     *
+     * @param current current configs
+     * @param configs new configs
+     * @return changed configs without internal keys
+     */
+    public static TypeMap configDiffOf(final Map<?, ?> current, final Map<?, ?> configs) {
+        final TypeMap result = diffOf(current, configs);
+        result.keySet().removeIf(key -> key instanceof final String name && (name.startsWith("_") || name.startsWith(CONTEXT_KEY_PREFIX)));
+        return result;
+    }
+
+    /**
+     * @return true if no config changed
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * @param keys config keys, a key also matches its sub keys e.g. {@code app_service_http} matches {@code app_service_http_port}. Empty or {@code null} matches every change.
+     * @return true if any of the keys changed
+     */
+    public boolean affects(final Collection<String> keys) {
+        if (keys == null || keys.isEmpty())
+            return !changes.isEmpty();
+        for (final Object changed : changes.keySet()) {
+            final String name = String.valueOf(changed);
+            for (final String key : keys)
+                if (name.startsWith(key) && (name.length() == key.length() || name.charAt(key.length()) == '_'))
+                    return true;
+        }
+        return false;
+    }
+}
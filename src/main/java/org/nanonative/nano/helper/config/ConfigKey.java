@@ -0,0 +1,141 @@
+package org.nanonative.nano.helper.config;
+
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.core.model.Context;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static berlin.yuna.typemap.logic.TypeConverter.convertObj;
+import static java.util.Optional.ofNullable;
+import static org.nanonative.nano.core.NanoBase.standardiseKey;
+
+/**
+ * Typed handle of a config key with a default value.
+ * <p>
+ * The converted value is cached per {@link Nano} instance and config version. The version increases with every
+ * {@link Context#EVENT_CONFIG_CHANGE}, so a cached value is only converted again after the config changed.
+ * Values are read from the root context of {@link Nano}, direct puts into a context bypass the cache.
+ * </p>
+ *
+ * @param <T> type of the config value
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class ConfigKey<T> {
+
+    protected final String key;
+    protected final Class<T> type;
+    protected final T defaultValue;
+    protected final boolean prefix;
+    protected final Function<Map<?, ?>, T> resolver;
+    protected volatile Cached<T> cached;
+
+    protected record Cached<T>(Nano nano, long version, T value) {
+    }
+
+    /**
+     * Creates a typed handle of an already registered config key, see {@link ConfigRegister#registerConfig(String, String, Class, Object)}.
+     *
+     * @param key          config key
+     * @param type         type to convert the value to
+     * @param defaultValue value if the config is missing or can't be converted
+     * @return typed config handle
+     */
+    public static <T> ConfigKey<T> of(final String key, final Class<T> type, final T defaultValue) {
+        final String name = standardiseKey(key);
+        return new ConfigKey<>(name, type, defaultValue, false, source -> ofNullable(source.get(name)).map(value -> convertObj(value, type)).orElse(null));
+    }
+
+    /**
+     * Creates a handle which binds all configs with the given prefix into a record or POJO, see {@link ConfigBinder}.
+     *
+     * @param prefix config prefix e.g. {@code app_service_http}
+     * @param type   record or POJO
+     * @return config handle of the bound object
+     */
+    public static <T> ConfigKey<T> bind(final String prefix, final Class<T> type) {
+        return new ConfigKey<>(standardiseKey(prefix), type, null, true, source -> ConfigBinder.bind(source, prefix, type));
+    }
+
+    protected ConfigKey(final String key, final Class<T> type, final T defaultValue, final boolean prefix, final Function<Map<?, ?>, T> resolver) {
+        this.key = key;
+        this.type = type;
+        this.defaultValue = defaultValue;
+        this.prefix = prefix;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Returns the cached value, converts it only after a config change.
+     *
+     * @param context any context of the {@link Nano} instance
+     * @return config value or the default value
+     */
+    public T get(final Context context) {
+        if (!context.hasNano())
+            return resolve(context);
+        final Nano nano = context.nano();
+        final long version = nano.configVersion();
+        final Cached<T> current = cached;
+        if (current != null && current.nano == nano && current.version == version)
+            return current.value;
+        final T value = resolve(nano.context());
+        cached = new Cached<>(nano, version, value);
+        return value;
+    }
+
+    /**
+     * @param context any context of the {@link Nano} instance
+     * @return config value or the default value
+     */
+    public Optional<T> opt(final Context context) {
+        return ofNullable(get(context));
+    }
+
+    /**
+     * Converts the value without the cache, e.g. for {@link org.nanonative.nano.core.model.Service#configure}.
+     *
+     * @param source configs
+     * @return config value or the default value
+     */
+    public T resolve(final Map<?, ?> source) {
+        if (source == null)
+            return defaultValue;
+        try {
+            return ofNullable(resolver.apply(source)).orElse(defaultValue);
+        } catch (final Exception ignored) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * @param changes changed configs, e.g. the payload of {@link Context#EVENT_CONFIG_CHANGE}
+     * @return true if the config, or for bindings any config with the prefix, was changed
+     */
+    public boolean isChanged(final Map<?, ?> changes) {
+        if (changes == null)
+            return false;
+        if (!prefix)
+            return changes.containsKey(key);
+        final String start = key + "_";
+        return changes.keySet().stream().map(String::valueOf).anyMatch(name -> name.equals(key) || name.startsWith(start));
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    public T defaultValue() {
+        return defaultValue;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
@@ -0,0 +1,286 @@
+package org.nanonative.nano.helper.config;
+
+import berlin.yuna.typemap.logic.ArgsDecoder;
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.core.NanoBase;
+import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.helper.NanoUtils;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static berlin.yuna.typemap.logic.TypeConverter.convertObj;
+import static java.util.Optional.ofNullable;
+import static org.nanonative.nano.core.NanoBase.CONFIG_FILE_LOCATIONS;
+import static org.nanonative.nano.core.NanoBase.standardiseKey;
+import static org.nanonative.nano.core.model.Context.CONFIG_FILE_LOCATIONS_KEY;
+import static org.nanonative.nano.core.model.NanoThread.GLOBAL_THREAD_POOL;
+import static org.nanonative.nano.helper.NanoUtils.hasText;
+import static org.nanonative.nano.helper.NanoUtils.resolvePlaceHolder;
+import static org.nanonative.nano.helper.NanoUtils.resolvePlaceHolders;
+
+/**
+ * Loads the startup configuration in one pass.
+ * <p>
+ * Precedence from low to high: property files (defaults, then profiles) &lt; Nano start configs &lt; environment &lt; system
+ * properties &lt; args. Every overlay is standardized once and applied once after the property files. Profiles are discovered
+ * from the files first and from the overlays afterward, without applying the overlays in between.
+ * The environment is standardized once per process, the classpath lookups of config files are cached (see {@link #clearCache()})
+ * and the property files of one phase are read in parallel.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class ConfigLoader {
+
+    public static final List<String> PROFILE_KEYS = List.of(
+        "spring_profiles_active", "spring_profile_active", "spring_active_profiles", "spring_active_profile",
+        "spring_profiles", "spring_profile", "spring_active",
+        "app_profile", "app_profiles",
+        "profile_active", "profiles_active",
+        "micronaut_environments", "micronaut_environment"
+    );
+    public static final String SCANNED_PROFILES = "_scanned_profiles";
+    protected static final Object REMOVED = new Object();
+    protected static final Map<String, Boolean> CLASSPATH_FILES = new ConcurrentHashMap<>();
+    protected static volatile Map<String, Object> environment;
+
+    protected final Map<String, Long> timings = new LinkedHashMap<>();
+    protected final List<String> files = new ArrayList<>();
+    protected Map<Object, Object> configs;
+    protected String[] args;
+
+    /**
+     * Reads the configuration from property files, the given configs, environment, system properties and args.
+     *
+     * @param configs Nano start configs, nullable
+     * @param args    command line args, nullable
+     * @return the root {@link Context} with all configs
+     */
+    public Context load(final Map<Object, Object> configs, final String... args) {
+        final long start = System.nanoTime();
+        long phase = start;
+        this.configs = configs;
+        this.args = args;
+        final Map<String, Object> cli = args != null && args.length > 0 ? layerOf(ArgsDecoder.argsOf(String.join(" ", args))) : Map.of();
+        final Map<String, Object> dsl = configs != null ? layerOf(configs) : Map.of();
+        phase = time("args", phase);
+        final Map<String, Object> env = environment();
+        phase = time("environment", phase);
+        final Map<String, Object> sys = layerOf(System.getProperties());
+        phase = time("properties", phase);
+        // high to low precedence
+        final List<Map<String, Object>> overlays = List.of(cli, sys, env, dsl);
+
+        final List<String> directories = ofNullable(System.getProperty(CONFIG_FILE_LOCATIONS_KEY))
+            .or(() -> ofNullable(System.getenv(CONFIG_FILE_LOCATIONS_KEY.replace('.', '_').toUpperCase())))
+            .or(() -> ofNullable(cli.get(standardiseKey(CONFIG_FILE_LOCATIONS_KEY))).filter(value -> value != REMOVED).map(value -> convertObj(value, String.class)))
+            .map(value -> Arrays.stream(value.split(",")).map(String::strip).filter(s -> !s.isEmpty()).toList())
+            .filter(list -> !list.isEmpty())
+            .orElse(CONFIG_FILE_LOCATIONS);
+
+        // 1) Defaults + profile cascade discovered from the files, then from the overlays.
+        final Context result = Context.createRootContext(Nano.class);
+        readAll(result, directories.stream().map(dir -> dir + "application.properties").toList());
+        final List<String> scanned = new ArrayList<>();
+        readProfiles(result, directories, scanned, key -> result.get(key));
+        readProfiles(result, directories, scanned, key -> lookup(overlays, result, key));
+        result.put(SCANNED_PROFILES, scanned);
+        phase = time("files", phase);
+
+        // 2) Overlays once, ENV < -D < CLI, all above the Nano start configs.
+        for (int i = overlays.size() - 1; i >= 0; i--)
+            overlays.get(i).forEach((key, value) -> {
+                if (value == REMOVED)
+                    result.remove(key);
+                else
+                    result.put(key, value);
+            });
+        phase = time("overlays", phase);
+
+        resolvePlaceHolders(result);
+        time("placeholders", phase);
+        timings.put("total", System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * @return duration per startup phase in nanoseconds, in execution order
+     */
+    public Map<String, Long> timings() {
+        return timings;
+    }
+
+    /**
+     * @return Nano start configs of the load, nullable
+     */
+    public Map<Object, Object> configs() {
+        return configs;
+    }
+
+    /**
+     * @return command line args of the load, nullable
+     */
+    public String[] args() {
+        return args;
+    }
+
+    /**
+     * @return property files which were read, in the order they were applied
+     */
+    public List<String> files() {
+        return files;
+    }
+
+    /**
+     * Forgets which config files were found on the classpath, e.g. before a reload.
+     */
+    public static void clearCache() {
+        CLASSPATH_FILES.clear();
+    }
+
+    /**
+     * @return the standardized environment, computed once as the environment can't change at runtime
+     */
+    public static Map<String, Object> environment() {
+        Map<String, Object> result = environment;
+        if (result == null) {
+            result = layerOf(System.getenv());
+            environment = result;
+        }
+        return result;
+    }
+
+    /**
+     * Standardizes the keys of a config source. Empty or {@code null} values mark keys to remove.
+     *
+     * @param source config source
+     * @return standardized layer
+     */
+    public static Map<String, Object> layerOf(final Map<?, ?> source) {
+        final Map<String, Object> result = new HashMap<>(Math.max(16, source.size() * 2));
+        source.forEach((key, value) -> {
+            if (key == null)
+                return;
+            if (value == null || "null".equals(value) || "".equals(value))
+                result.put(standardiseKey(key), REMOVED);
+            else if (value instanceof final String valueStr)
+                result.put(standardiseKey(key), hasText(valueStr) ? valueStr.strip() : valueStr);
+            else
+                result.put(standardiseKey(key), value);
+        });
+        return result;
+    }
+
+    protected void readProfiles(final Context ctx, final List<String> directories, final List<String> scanned, final Function<String, Object> lookup) {
+        final LinkedHashSet<String> requested = new LinkedHashSet<>(discoverProfiles(lookup));
+        final List<String> ordered = new ArrayList<>(requested);
+        for (int i = 0; i < ordered.size(); i++) {
+            final String profile = ordered.get(i);
+            if (scanned.contains(profile))
+                continue;
+            final List<Properties> loaded = read(directories.stream().map(dir -> dir + "application-" + profile + ".properties").toList());
+            for (final Properties properties : loaded) {
+                apply(ctx, properties);
+                // profiles activated by this file are appended, preserving the discovery order
+                for (final String next : discoverProfiles(lookup))
+                    if (!scanned.contains(next) && requested.add(next))
+                        ordered.add(next);
+            }
+            scanned.add(profile);
+        }
+    }
+
+    protected void readAll(final Context ctx, final List<String> paths) {
+        read(paths).forEach(properties -> apply(ctx, properties));
+    }
+
+    /**
+     * Reads the existing files of the given paths, in parallel if there are several.
+     *
+     * @param paths candidate paths in precedence order
+     * @return properties of the existing files in the same order
+     */
+    protected List<Properties> read(final List<String> paths) {
+        final List<String> existing = paths.stream().filter(ConfigLoader::exists).toList();
+        files.addAll(existing);
+        if (existing.size() < 2)
+            return existing.stream().map(ConfigLoader::readProperties).filter(Objects::nonNull).toList();
+        final List<CompletableFuture<Properties>> futures = existing.stream()
+            .map(path -> CompletableFuture.supplyAsync(() -> readProperties(path), GLOBAL_THREAD_POOL))
+            .toList();
+        return futures.stream().map(CompletableFuture::join).filter(Objects::nonNull).toList();
+    }
+
+    protected static boolean exists(final String path) {
+        final String filePath = path.startsWith("./") ? path.substring(2) : path;
+        return CLASSPATH_FILES.computeIfAbsent(filePath, file -> NanoUtils.class.getClassLoader().getResource(file) != null)
+            || Files.isRegularFile(Path.of(filePath));
+    }
+
+    protected static Properties readProperties(final String path) {
+        try (final InputStream in = NanoUtils.tryClasspathThenFs(path)) {
+            if (in == null)
+                return null;
+            final Properties props = new Properties();
+            props.load(in);
+            return props;
+        } catch (final Exception ignored) {
+            // Missing files don’t get a eulogy.
+            return null;
+        }
+    }
+
+    protected static void apply(final Context ctx, final Properties properties) {
+        properties.forEach((key, value) -> NanoUtils.addConfig(ctx, key, value));
+    }
+
+    protected static Object lookup(final List<Map<String, Object>> overlays, final Context ctx, final String key) {
+        for (final Map<String, Object> overlay : overlays) {
+            final Object value = overlay.get(key);
+            if (value != null)
+                return value == REMOVED ? null : value;
+        }
+        return ctx.get(key);
+    }
+
+    protected static Set<String> discoverProfiles(final Function<String, Object> lookup) {
+        final Set<String> result = new LinkedHashSet<>();
+        for (final String key : PROFILE_KEYS) {
+            ofNullable(lookup.apply(key)).map(value -> convertObj(value, String.class)).ifPresent(value -> Arrays.stream(value.split(","))
+                .map(String::strip)
+                .filter(s -> !s.isBlank())
+                .map(s -> resolvePlaceHolder(lookup, s))
+                .map(NanoBase::standardiseKey)
+                .filter(s -> s != null && !s.isBlank())
+                .forEach(result::add));
+        }
+        return result;
+    }
+
+    protected long time(final String name, final long since) {
+        final long now = System.nanoTime();
+        timings.put(name, now - since);
+        return now;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        timings.forEach((name, nanos) -> sb.append(sb.isEmpty() ? "" : " ").append(name).append(" [").append(NanoUtils.formatDuration(nanos)).append("]"));
+        return sb.append(" files ").append(files).toString();
+    }
+}
@@ -37,6 +37,25 @@ public class ConfigRegister {
             .orElse(null);
     }
 
+    /**
+     * Registers a configuration key with its description and returns a typed handle.
+     * <p>
+     * The handle converts the value once per config change instead of on every lookup, see {@link ConfigKey}.
+     * </p>
+     *
+     * @param key          the configuration key to register
+     * @param description  the description of the configuration key
+     * @param type         the type of the config value
+     * @param defaultValue the value if the config is missing or can't be converted
+     * @return typed config handle
+     * @throws IllegalArgumentException if the key is invalid
+     */
+    public static <T> ConfigKey<T> registerConfig(final String key, final String description, final Class<T> type, final T defaultValue) {
+        return ofNullable(registerConfig(key, description))
+            .map(name -> ConfigKey.of(name, type, defaultValue))
+            .orElseThrow(() -> new IllegalArgumentException("Invalid config key [" + key + "]"));
+    }
+
     /**
      * Retrieves the description of a registered configuration key.
      * <p>
@@ -0,0 +1,271 @@
+package org.nanonative.nano.helper.event;
+
+import org.nanonative.nano.helper.event.model.Event;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded per-subscriber buffer of an {@link EventPublisher} which turns received events into the items of the subscriber.
+ * <p>
+ * Buffers are not thread safe, the owning {@link EventSubscription} synchronizes all calls on the buffer instance.
+ * </p>
+ *
+ * @param <C> payload of the channel
+ * @param <R> response of the channel
+ * @param <T> items emitted to the subscriber
+ */
+public abstract class EventBuffer<C, R, T> {
+
+    protected final int capacity;
+    protected final OverflowStrategy overflow;
+    protected long dropped;
+
+    protected EventBuffer(final int capacity, final OverflowStrategy overflow) {
+        this.capacity = Math.max(1, capacity);
+        this.overflow = overflow == null ? OverflowStrategy.DROP_OLDEST : overflow;
+    }
+
+    /**
+     * Buffers the events in order.
+     */
+    public static <C, R> EventBuffer<C, R, Event<C, R>> fifo(final int capacity, final OverflowStrategy overflow) {
+        return new Fifo<>(capacity, overflow);
+    }
+
+    /**
+     * Collects the events into lists of up to {@code size} events, a window is closed early after {@code timeNanos}.
+     * The capacity limits the number of closed windows.
+     */
+    public static <C, R> EventBuffer<C, R, List<Event<C, R>>> window(final int capacity, final OverflowStrategy overflow, final int size, final long timeNanos) {
+        return new Window<>(capacity, overflow, size, timeNanos);
+    }
+
+    /**
+     * Emits the latest event at most once per {@code periodNanos}.
+     */
+    public static <C, R> EventBuffer<C, R, Event<C, R>> sample(final long periodNanos) {
+        return new Sample<>(periodNanos);
+    }
+
+    /**
+     * Keeps only the latest event per key, keys are emitted in the order they were first received.
+     * The capacity limits the number of distinct keys.
+     */
+    public static <C, R> EventBuffer<C, R, Event<C, R>> conflate(final int capacity, final OverflowStrategy overflow, final Function<? super Event<C, R>, ?> key) {
+        return new Conflate<>(capacity, overflow, key);
+    }
+
+    /**
+     * Buffers an event.
+     *
+     * @param event    received event
+     * @param nowNanos current {@link System#nanoTime()}
+     * @throws IllegalStateException if the buffer is full and the overflow strategy is {@link OverflowStrategy#ERROR}
+     */
+    public abstract void offer(final Event<C, R> event, final long nowNanos);
+
+    /**
+     * Removes the next item which is ready to be emitted.
+     *
+     * @param nowNanos current {@link System#nanoTime()}
+     * @param flush    {@code true} to emit pending items without waiting for their time, used on completion
+     * @return next item or null if nothing is ready
+     */
+    public abstract T poll(final long nowNanos, final boolean flush);
+
+    public abstract boolean isEmpty();
+
+    public abstract void clear();
+
+    /**
+     * @return number of events or windows dropped on overflow
+     */
+    public long dropped() {
+        return dropped;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public OverflowStrategy overflow() {
+        return overflow;
+    }
+
+    /**
+     * Applies the {@link OverflowStrategy} when the buffer is full.
+     *
+     * @param full         buffer state
+     * @param removeOldest removes the oldest item
+     * @return {@code true} if the new item should be added
+     */
+    protected boolean makeRoom(final boolean full, final Runnable removeOldest) {
+        if (!full)
+            return true;
+        dropped++;
+        return switch (overflow) {
+            case DROP_OLDEST -> {
+                removeOldest.run();
+                yield true;
+            }
+            case DROP_NEWEST -> false;
+            case ERROR -> throw new IllegalStateException("Subscriber buffer overflow, capacity [" + capacity + "]");
+        };
+    }
+
+    protected static class Fifo<C, R> extends EventBuffer<C, R, Event<C, R>> {
+
+        protected final ArrayDeque<Event<C, R>> items = new ArrayDeque<>();
+
+        protected Fifo(final int capacity, final OverflowStrategy overflow) {
+            super(capacity, overflow);
+        }
+
+        @Override
+        public void offer(final Event<C, R> event, final long nowNanos) {
+            if (makeRoom(items.size() >= capacity, items::poll))
+                items.add(event);
+        }
+
+        @Override
+        public Event<C, R> poll(final long nowNanos, final boolean flush) {
+            return items.poll();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return items.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            items.clear();
+        }
+    }
+
+    protected static class Window<C, R> extends EventBuffer<C, R, List<Event<C, R>>> {
+
+        protected final ArrayDeque<List<Event<C, R>>> ready = new ArrayDeque<>();
+        protected final int size;
+        protected final long timeNanos;
+        protected List<Event<C, R>> current;
+        protected long openedAt;
+
+        protected Window(final int capacity, final OverflowStrategy overflow, final int size, final long timeNanos) {
+            super(capacity, overflow);
+            this.size = Math.max(1, size);
+            this.timeNanos = timeNanos;
+            this.current = new ArrayList<>(this.size);
+        }
+
+        @Override
+        public void offer(final Event<C, R> event, final long nowNanos) {
+            if (current.isEmpty())
+                openedAt = nowNanos;
+            current.add(event);
+            if (current.size() >= size)
+                close();
+        }
+
+        @Override
+        public List<Event<C, R>> poll(final long nowNanos, final boolean flush) {
+            if (ready.isEmpty() && !current.isEmpty() && (flush || (timeNanos > 0 && nowNanos - openedAt >= timeNanos)))
+                close();
+            return ready.poll();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return ready.isEmpty() && current.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            ready.clear();
+            current.clear();
+        }
+
+        protected void close() {
+            final List<Event<C, R>> window = current;
+            current = new ArrayList<>(size);
+            if (makeRoom(ready.size() >= capacity, ready::poll))
+                ready.add(window);
+        }
+    }
+
+    protected static class Sample<C, R> extends EventBuffer<C, R, Event<C, R>> {
+
+        protected final long periodNanos;
+        protected Event<C, R> latest;
+        protected long emittedAt = System.nanoTime();
+
+        protected Sample(final long periodNanos) {
+            super(1, OverflowStrategy.DROP_OLDEST);
+            this.periodNanos = periodNanos;
+        }
+
+        @Override
+        public void offer(final Event<C, R> event, final long nowNanos) {
+            latest = event;
+        }
+
+        @Override
+        public Event<C, R> poll(final long nowNanos, final boolean flush) {
+            if (latest == null || (!flush && nowNanos - emittedAt < periodNanos))
+                return null;
+            final Event<C, R> result = latest;
+            latest = null;
+            emittedAt = nowNanos;
+            return result;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return latest == null;
+        }
+
+        @Override
+        public void clear() {
+            latest = null;
+        }
+    }
+
+    protected static class Conflate<C, R> extends EventBuffer<C, R, Event<C, R>> {
+
+        protected final LinkedHashMap<Object, Event<C, R>> latest = new LinkedHashMap<>();
+        protected final Function<? super Event<C, R>, ?> key;
+
+        protected Conflate(final int capacity, final OverflowStrategy overflow, final Function<? super Event<C, R>, ?> key) {
+            super(capacity, overflow);
+            this.key = key;
+        }
+
+        @Override
+        public void offer(final Event<C, R> event, final long nowNanos) {
+            final Object id = key.apply(event);
+            if (latest.containsKey(id) || makeRoom(latest.size() >= capacity, latest::pollFirstEntry))
+                latest.put(id, event);
+        }
+
+        @Override
+        public Event<C, R> poll(final long nowNanos, final boolean flush) {
+            final Map.Entry<Object, Event<C, R>> entry = latest.pollFirstEntry();
+            return entry == null ? null : entry.getValue();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return latest.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            latest.clear();
+        }
+    }
+}
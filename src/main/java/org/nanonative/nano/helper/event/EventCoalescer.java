@@ -0,0 +1,153 @@
+package org.nanonative.nano.helper.event;
+
+import org.nanonative.nano.core.model.Context;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces bursts of values per key into a single emission.
+ * <p>
+ * A value is emitted after no other value of the same key arrived for the debounce window, but no later than the max latency
+ * after the first value of the burst. Values of a burst are combined with the merge function, the default keeps the latest.
+ * Each pending key is awaited by one virtual thread which ends with the emission.
+ * </p>
+ *
+ * @param <K> key to deduplicate by, e.g. a path or group
+ * @param <V> coalesced value
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class EventCoalescer<K, V> {
+
+    protected final Context context;
+    protected final long debounceNanos;
+    protected final long maxLatencyNanos;
+    protected final BinaryOperator<V> merge;
+    protected final Consumer<V> target;
+    protected final Map<K, Pending<V>> pending = new ConcurrentHashMap<>();
+    protected final LongAdder received = new LongAdder();
+    protected final LongAdder emitted = new LongAdder();
+
+    protected static final class Pending<V> {
+        V value;
+        final long first;
+        long last;
+
+        Pending(final V value, final long now) {
+            this.value = value;
+            this.first = now;
+            this.last = now;
+        }
+    }
+
+    /**
+     * @param context      context which runs the waiting threads
+     * @param debounceMs   quiet time after the last value of a key, {@code <= 0} emits every value right away
+     * @param maxLatencyMs max time between the first value of a burst and its emission, {@code <= 0} for no bound
+     * @param merge        combines the pending and the new value, null keeps the latest
+     * @param target       receives the coalesced values
+     */
+    public EventCoalescer(final Context context, final long debounceMs, final long maxLatencyMs, final BinaryOperator<V> merge, final Consumer<V> target) {
+        this.context = context;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, debounceMs));
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxLatencyMs));
+        this.merge = merge == null ? (previous, next) -> next : merge;
+        this.target = target;
+    }
+
+    /**
+     * Adds a value to the burst of its key.
+     *
+     * @param key   key to deduplicate by
+     * @param value value to emit
+     * @return self for chaining
+     */
+    public EventCoalescer<K, V> offer(final K key, final V value) {
+        received.increment();
+        if (debounceNanos == 0) {
+            emit(value);
+            return this;
+        }
+        final long now = System.nanoTime();
+        final Pending<V> created = new Pending<>(value, now);
+        final Pending<V> result = pending.compute(key, (k, current) -> {
+            if (current == null)
+                return created;
+            current.value = merge.apply(current.value, value);
+            current.last = now;
+            return current;
+        });
+        if (result == created)
+            context.run(() -> await(key, created));
+        return this;
+    }
+
+    /**
+     * Emits all pending values without waiting.
+     */
+    public EventCoalescer<K, V> flush() {
+        pending.keySet().forEach(key -> ofRemoved(key).ifPresent(this::emit));
+        return this;
+    }
+
+    /**
+     * Drops all pending values.
+     */
+    public EventCoalescer<K, V> clear() {
+        pending.clear();
+        return this;
+    }
+
+    public int pending() {
+        return pending.size();
+    }
+
+    public long received() {
+        return received.sum();
+    }
+
+    public long emitted() {
+        return emitted.sum();
+    }
+
+    protected void await(final K key, final Pending<V> expected) {
+        while (true) {
+            final long[] waitNanos = {0};
+            final Object[] ready = {null};
+            pending.computeIfPresent(key, (k, current) -> {
+                if (current != expected)
+                    return current;
+                final long now = System.nanoTime();
+                final long quiet = debounceNanos - (now - current.last);
+                final long remaining = maxLatencyNanos > 0 ? Math.min(quiet, maxLatencyNanos - (now - current.first)) : quiet;
+                if (remaining > 0) {
+                    waitNanos[0] = remaining;
+                    return current;
+                }
+                ready[0] = current;
+                return null;
+            });
+            if (waitNanos[0] <= 0) {
+                if (ready[0] != null)
+                    emit(expected.value);
+                return;
+            }
+            LockSupport.parkNanos(waitNanos[0]);
+        }
+    }
+
+    protected Optional<V> ofRemoved(final K key) {
+        return Optional.ofNullable(pending.remove(key)).map(removed -> removed.value);
+    }
+
+    protected void emit(final V value) {
+        emitted.increment();
+        target.accept(value);
+    }
+}
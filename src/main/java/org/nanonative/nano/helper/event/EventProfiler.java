@@ -0,0 +1,107 @@
+package org.nanonative.nano.helper.event;
+
+import org.nanonative.nano.helper.event.model.Channel;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opt-in latency profiler of the event dispatch per {@link Channel} and handler.
+ * <p>
+ * Only one of {@code sampleRate} dispatches is measured, the decision is taken once per event so unsampled events pay a
+ * single random number. Handlers are identified by their class, listeners of the same lambda share one {@link HandlerProfile}.
+ * Lambdas are named by their declaring class and numbered in the order they are first profiled, e.g. {@code MyService$lambda#2}.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class EventProfiler {
+
+    protected final int sampleRate;
+    protected final Map<Integer, Map<Class<?>, HandlerProfile>> profiles = new ConcurrentHashMap<>();
+    protected final Map<Class<?>, String> names = new ConcurrentHashMap<>();
+    protected final Map<String, AtomicInteger> lambdas = new ConcurrentHashMap<>();
+
+    /**
+     * @param sampleRate profiles one of {@code sampleRate} dispatches, {@code 1} profiles every dispatch
+     */
+    public EventProfiler(final int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    /**
+     * @return {@code true} if the current dispatch should be measured
+     */
+    public boolean sample() {
+        return sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    /**
+     * Records a sampled handler invocation.
+     *
+     * @param channel      channel of the event
+     * @param handler      listener or service
+     * @param nanos        duration of the handler
+     * @param failed       handler threw an exception
+     * @param acknowledged handler acknowledged the event
+     */
+    public void record(final Channel<?, ?> channel, final Object handler, final long nanos, final boolean failed, final boolean acknowledged) {
+        profiles.computeIfAbsent(channel.id(), id -> new ConcurrentHashMap<>())
+            .computeIfAbsent(handler.getClass(), type -> new HandlerProfile(channel.name(), nameOf(type), sampleRate))
+            .record(nanos, failed, acknowledged);
+    }
+
+    /**
+     * @return all profiles
+     */
+    public List<HandlerProfile> profiles() {
+        return profiles.values().stream().flatMap(handlers -> handlers.values().stream()).toList();
+    }
+
+    /**
+     * @param limit max number of results
+     * @return profiles with the highest p99 latency first
+     */
+    public List<HandlerProfile> slowest(final int limit) {
+        return profiles().stream()
+            .sorted(Comparator.comparingDouble((HandlerProfile profile) -> profile.latencyMs().quantile(0.99))
+                .thenComparingDouble(profile -> profile.latencyMs().mean())
+                .reversed())
+            .limit(Math.max(0, limit))
+            .toList();
+    }
+
+    public int sampleRate() {
+        return sampleRate;
+    }
+
+    public EventProfiler reset() {
+        profiles.clear();
+        return this;
+    }
+
+    /**
+     * @param type class of a listener or service
+     * @return {@link #handlerName(Class)}, numbered for lambdas so lambdas of the same class stay apart
+     */
+    protected String nameOf(final Class<?> type) {
+        return names.computeIfAbsent(type, key -> {
+            final String name = handlerName(key);
+            return name.endsWith("$lambda") ? name + "#" + lambdas.computeIfAbsent(name, declaring -> new AtomicInteger()).incrementAndGet() : name;
+        });
+    }
+
+    /**
+     * @param type class of a listener or service
+     * @return simple name of the class, lambdas are named by their declaring class
+     */
+    public static String handlerName(final Class<?> type) {
+        final String name = type.getName();
+        final int lambda = name.indexOf("$$Lambda");
+        final String declaring = lambda > 0 ? name.substring(0, lambda) + "$lambda" : name;
+        return declaring.substring(declaring.lastIndexOf('.') + 1);
+    }
+}
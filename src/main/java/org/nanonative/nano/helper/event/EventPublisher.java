@@ -0,0 +1,121 @@
+package org.nanonative.nano.helper.event;
+
+import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.helper.event.model.Channel;
+import org.nanonative.nano.helper.event.model.Event;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * {@link Flow.Publisher} of the events of a {@link Channel} with backpressure.
+ * <p>
+ * Every subscriber gets its own bounded {@link EventBuffer} and receives items only as far as it requested them.
+ * Events which arrive while the buffer is full are handled by the {@link OverflowStrategy}. Subscribers don't acknowledge events.
+ * The operators {@link #window(int, long, TimeUnit)}, {@link #sample(long, TimeUnit)} and {@link #conflate(Function)} return a new
+ * publisher with another buffer strategy, e.g. to write metrics or database rows in batches.
+ * </p>
+ *
+ * @param <C> payload of the channel
+ * @param <R> response of the channel
+ * @param <T> items emitted to the subscribers
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class EventPublisher<C, R, T> implements Flow.Publisher<T> {
+
+    protected final Context context;
+    protected final Channel<C, R> channel;
+    protected final int capacity;
+    protected final OverflowStrategy overflow;
+    protected final long tickNanos;
+    protected final BiFunction<Integer, OverflowStrategy, EventBuffer<C, R, T>> buffers;
+
+    /**
+     * @param context context which subscribes the channel
+     * @param channel channel to publish
+     * @return publisher of single events with a buffer of {@link Flow#defaultBufferSize()} and {@link OverflowStrategy#DROP_OLDEST}
+     */
+    public static <C, R> EventPublisher<C, R, Event<C, R>> of(final Context context, final Channel<C, R> channel) {
+        return new EventPublisher<>(context, channel, Flow.defaultBufferSize(), OverflowStrategy.DROP_OLDEST, 0, EventBuffer::fifo);
+    }
+
+    protected EventPublisher(final Context context, final Channel<C, R> channel, final int capacity, final OverflowStrategy overflow, final long tickNanos, final BiFunction<Integer, OverflowStrategy, EventBuffer<C, R, T>> buffers) {
+        this.context = Objects.requireNonNull(context, "context");
+        this.channel = Objects.requireNonNull(channel, "channel");
+        this.capacity = Math.max(1, capacity);
+        this.overflow = overflow == null ? OverflowStrategy.DROP_OLDEST : overflow;
+        this.tickNanos = tickNanos;
+        this.buffers = buffers;
+    }
+
+    /**
+     * @param capacity max buffered items per subscriber
+     * @param overflow behaviour of a full buffer
+     * @return new publisher with the given buffer limits
+     */
+    public EventPublisher<C, R, T> buffer(final int capacity, final OverflowStrategy overflow) {
+        return new EventPublisher<>(context, channel, capacity, overflow, tickNanos, buffers);
+    }
+
+    /**
+     * Emits lists of up to {@code size} events. A window is emitted earlier when its first event is older than {@code time}.
+     * The buffer capacity limits the number of pending windows.
+     *
+     * @param size max events per window
+     * @param time max age of a window, {@code <= 0} to wait until the window is full
+     * @param unit unit of the time
+     * @return new publisher of event windows
+     */
+    public EventPublisher<C, R, List<Event<C, R>>> window(final int size, final long time, final TimeUnit unit) {
+        final long nanos = time > 0 ? unit.toNanos(time) : 0;
+        return new EventPublisher<>(context, channel, capacity, overflow, nanos, (cap, ovf) -> EventBuffer.window(cap, ovf, size, nanos));
+    }
+
+    /**
+     * Emits the latest event at most once per period, events in between are skipped.
+     *
+     * @param period sample period
+     * @param unit   unit of the period
+     * @return new publisher of sampled events
+     */
+    public EventPublisher<C, R, Event<C, R>> sample(final long period, final TimeUnit unit) {
+        final long nanos = Math.max(1, unit.toNanos(period));
+        return new EventPublisher<>(context, channel, capacity, overflow, nanos, (cap, ovf) -> EventBuffer.sample(nanos));
+    }
+
+    /**
+     * Keeps only the latest pending event per key, e.g. the last state of an entity.
+     * The buffer capacity limits the number of pending keys.
+     *
+     * @param key key of an event
+     * @return new publisher of conflated events
+     */
+    public EventPublisher<C, R, Event<C, R>> conflate(final Function<? super Event<C, R>, ?> key) {
+        Objects.requireNonNull(key, "key");
+        return new EventPublisher<>(context, channel, capacity, overflow, 0, (cap, ovf) -> EventBuffer.conflate(cap, ovf, key));
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        final EventSubscription<C, R, T> subscription = new EventSubscription<>(context, channel, subscriber, buffers.apply(capacity, overflow), tickNanos);
+        subscriber.onSubscribe(subscription);
+        subscription.start();
+    }
+
+    public Channel<C, R> channel() {
+        return channel;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public OverflowStrategy overflow() {
+        return overflow;
+    }
+}
@@ -0,0 +1,220 @@
+package org.nanonative.nano.helper.event;
+
+import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.helper.event.model.Channel;
+import org.nanonative.nano.helper.event.model.Event;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.nanonative.nano.core.model.Context.EVENT_APP_SHUTDOWN;
+
+/**
+ * Subscription of one {@link Flow.Subscriber} to an {@link EventPublisher}.
+ * <p>
+ * The channel listener only offers events to the bounded {@link EventBuffer}, so senders are never slowed down by the subscriber.
+ * Items are emitted on a single drain thread at a time and only as far as the subscriber requested them.
+ * The subscription completes on {@link Context#EVENT_APP_SHUTDOWN} after the buffered items were emitted.
+ * </p>
+ *
+ * @param <C> payload of the channel
+ * @param <R> response of the channel
+ * @param <T> items emitted to the subscriber
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class EventSubscription<C, R, T> implements Flow.Subscription {
+
+    protected final Context context;
+    protected final Channel<C, R> channel;
+    protected final Flow.Subscriber<? super T> subscriber;
+    protected final EventBuffer<C, R, T> buffer;
+    protected final long tickNanos;
+    protected final AtomicLong demand = new AtomicLong();
+    protected final AtomicLong delivered = new AtomicLong();
+    protected final AtomicInteger wip = new AtomicInteger();
+    protected final AtomicBoolean terminated = new AtomicBoolean(false);
+    protected final Consumer<Event<C, R>> listener = this::offer;
+    protected final Consumer<Event<Void, Void>> shutdown = event -> complete();
+    protected volatile boolean cancelled;
+    protected volatile boolean done;
+    protected volatile Throwable error;
+
+    /**
+     * @param context    context which runs the drain thread
+     * @param channel    subscribed channel
+     * @param subscriber receiver of the items
+     * @param buffer     buffer of this subscriber
+     * @param tickNanos  interval to emit time based items like windows and samples, {@code <= 0} to disable
+     */
+    public EventSubscription(final Context context, final Channel<C, R> channel, final Flow.Subscriber<? super T> subscriber, final EventBuffer<C, R, T> buffer, final long tickNanos) {
+        this.context = context;
+        this.channel = channel;
+        this.subscriber = subscriber;
+        this.buffer = buffer;
+        this.tickNanos = tickNanos;
+    }
+
+    /**
+     * Starts listening to the channel, called after {@link Flow.Subscriber#onSubscribe(Flow.Subscription)}.
+     */
+    public EventSubscription<C, R, T> start() {
+        if (cancelled || terminated.get())
+            return this;
+        context.subscribeEvent(channel, listener);
+        context.subscribeEvent(EVENT_APP_SHUTDOWN, shutdown);
+        // cancelled during subscribe
+        if (cancelled || terminated.get())
+            unsubscribe();
+        else if (tickNanos > 0)
+            context.run(this::drain, tickNanos, tickNanos, TimeUnit.NANOSECONDS, () -> cancelled || terminated.get());
+        return this;
+    }
+
+    @Override
+    public void request(final long n) {
+        if (n <= 0) {
+            // reactive streams rule 3.9
+            fail(new IllegalArgumentException("Non-positive request [" + n + "] of channel [" + channel.name() + "]"));
+            return;
+        }
+        demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        unsubscribe();
+        drain();
+    }
+
+    /**
+     * Completes the subscription after all buffered items were emitted.
+     */
+    public void complete() {
+        done = true;
+        unsubscribe();
+        drain();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isTerminated() {
+        return terminated.get();
+    }
+
+    /**
+     * @return outstanding demand of the subscriber
+     */
+    public long demand() {
+        return demand.get();
+    }
+
+    public long delivered() {
+        return delivered.get();
+    }
+
+    public long dropped() {
+        synchronized (buffer) {
+            return buffer.dropped();
+        }
+    }
+
+    protected void offer(final Event<C, R> event) {
+        if (cancelled || done)
+            return;
+        try {
+            synchronized (buffer) {
+                buffer.offer(event, System.nanoTime());
+            }
+            drain();
+        } catch (final IllegalStateException overflow) {
+            fail(overflow);
+        }
+    }
+
+    protected void fail(final Throwable throwable) {
+        error = throwable;
+        done = true;
+        unsubscribe();
+        drain();
+    }
+
+    protected void drain() {
+        if (wip.getAndIncrement() == 0)
+            context.run(this::drainLoop);
+    }
+
+    protected void drainLoop() {
+        int missed = 1;
+        do {
+            emit();
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    protected void emit() {
+        while (!terminated.get()) {
+            if (cancelled) {
+                terminated.set(true);
+                clear();
+                return;
+            }
+            final Throwable failure = error;
+            if (failure != null) {
+                clear();
+                if (terminated.compareAndSet(false, true))
+                    subscriber.onError(failure);
+                return;
+            }
+            final boolean finished = done;
+            final T item;
+            try {
+                synchronized (buffer) {
+                    item = demand.get() > 0 ? buffer.poll(System.nanoTime(), finished) : null;
+                }
+            } catch (final IllegalStateException overflow) {
+                error = overflow;
+                continue;
+            }
+            if (item == null) {
+                if (finished && isEmpty() && terminated.compareAndSet(false, true))
+                    subscriber.onComplete();
+                return;
+            }
+            if (demand.get() != Long.MAX_VALUE)
+                demand.decrementAndGet();
+            delivered.incrementAndGet();
+            try {
+                subscriber.onNext(item);
+            } catch (final RuntimeException e) {
+                // reactive streams rule 2.13, the failing subscriber is cancelled
+                cancel();
+                context.error(e, () -> "Subscriber [{}] of channel [{}] failed", subscriber.getClass().getSimpleName(), channel.name());
+            }
+        }
+    }
+
+    protected boolean isEmpty() {
+        synchronized (buffer) {
+            return buffer.isEmpty();
+        }
+    }
+
+    protected void clear() {
+        synchronized (buffer) {
+            buffer.clear();
+        }
+    }
+
+    protected void unsubscribe() {
+        context.unsubscribeEvent(channel, listener);
+        context.unsubscribeEvent(EVENT_APP_SHUTDOWN, shutdown);
+    }
+}
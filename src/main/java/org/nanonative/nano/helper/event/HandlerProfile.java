@@ -0,0 +1,107 @@
+package org.nanonative.nano.helper.event;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import org.nanonative.nano.services.metric.model.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sampled statistics of one handler (listener or service) on one channel, recorded by the {@link EventProfiler}.
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class HandlerProfile {
+
+    protected final String channel;
+    protected final String handler;
+    protected final int sampleRate;
+    protected final LongAdder samples = new LongAdder();
+    protected final LongAdder errors = new LongAdder();
+    protected final LongAdder acknowledged = new LongAdder();
+    protected final Histogram latencyMs = new Histogram();
+
+    public HandlerProfile(final String channel, final String handler, final int sampleRate) {
+        this.channel = channel;
+        this.handler = handler;
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    /**
+     * Records one sampled invocation.
+     *
+     * @param nanos        duration of the handler
+     * @param failed       handler threw an exception
+     * @param acknowledged handler acknowledged the event
+     */
+    public HandlerProfile record(final long nanos, final boolean failed, final boolean acknowledged) {
+        samples.increment();
+        if (failed)
+            errors.increment();
+        if (acknowledged)
+            this.acknowledged.increment();
+        latencyMs.record(nanos / 1_000_000d);
+        return this;
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    public String handler() {
+        return handler;
+    }
+
+    public long samples() {
+        return samples.sum();
+    }
+
+    /**
+     * @return estimated invocations, samples times the sample rate
+     */
+    public long count() {
+        return samples.sum() * sampleRate;
+    }
+
+    /**
+     * @return estimated errors, sampled errors times the sample rate
+     */
+    public long errors() {
+        return errors.sum() * sampleRate;
+    }
+
+    /**
+     * @return share of sampled invocations which acknowledged the event
+     */
+    public double ackRate() {
+        final long total = samples.sum();
+        return total == 0 ? 0d : (double) acknowledged.sum() / total;
+    }
+
+    public Histogram latencyMs() {
+        return latencyMs;
+    }
+
+    /**
+     * @return tags of the channel and handler for metrics
+     */
+    public Map<String, String> tags() {
+        return Map.of("channel", channel, "handler", handler);
+    }
+
+    public LinkedTypeMap toMap() {
+        return new LinkedTypeMap()
+            .putR("channel", channel)
+            .putR("handler", handler)
+            .putR("count", count())
+            .putR("errors", errors())
+            .putR("ackRate", ackRate())
+            .putR("meanMs", latencyMs.mean())
+            .putR("p99Ms", latencyMs.quantile(0.99))
+            .putR("maxMs", latencyMs.max());
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toJson();
+    }
+}
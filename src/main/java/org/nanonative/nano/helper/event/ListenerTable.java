@@ -0,0 +1,152 @@
+package org.nanonative.nano.helper.event;
+
+import org.nanonative.nano.helper.event.model.Channel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Copy-on-write table of listeners indexed by the dense {@link Channel#id()}.
+ * <p>
+ * Dispatch reads {@link #array(int)} without locking, boxing or hashing. Subscriptions are rare compared to events, they are
+ * serialized and copy the listeners of one channel and the outer array, so readers never see a table which is modified in place.
+ * Each listener is registered at most once per channel, listeners are called in subscription order.
+ * </p>
+ *
+ * @param <L> listener type
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class ListenerTable<L> implements Iterable<L> {
+
+    protected static final Object[] EMPTY = new Object[0];
+    protected volatile Object[][] table = new Object[64][];
+    protected volatile int size;
+
+    /**
+     * @param channelId id of the {@link Channel}
+     * @param listener  listener to add
+     * @return {@code true} if the listener was not registered yet
+     */
+    public synchronized boolean add(final int channelId, final L listener) {
+        if (channelId < 0 || listener == null)
+            return false;
+        final Object[][] current = table;
+        final Object[] listeners = channelId < current.length ? current[channelId] : null;
+        if (listeners != null && indexOf(listeners, listener) != -1)
+            return false;
+        final Object[][] copy = channelId < current.length ? current.clone() : Arrays.copyOf(current, Math.max(current.length * 2, channelId + 1));
+        if (listeners == null || listeners.length == 0) {
+            size++;
+            copy[channelId] = new Object[]{listener};
+        } else {
+            final Object[] row = Arrays.copyOf(listeners, listeners.length + 1);
+            row[listeners.length] = listener;
+            copy[channelId] = row;
+        }
+        // volatile write publishes the new table
+        table = copy;
+        return true;
+    }
+
+    /**
+     * @param channelId id of the {@link Channel}
+     * @param listener  listener to remove
+     * @return {@code true} if the listener was registered
+     */
+    public synchronized boolean remove(final int channelId, final Object listener) {
+        final Object[][] current = table;
+        final Object[] listeners = channelId >= 0 && channelId < current.length ? current[channelId] : null;
+        final int index = listeners == null ? -1 : indexOf(listeners, listener);
+        if (index == -1)
+            return false;
+        final Object[] row = new Object[listeners.length - 1];
+        System.arraycopy(listeners, 0, row, 0, index);
+        System.arraycopy(listeners, index + 1, row, index, listeners.length - index - 1);
+        // an emptied row is kept for get(int), but its channel no longer counts as subscribed
+        if (row.length == 0)
+            size--;
+        final Object[][] copy = current.clone();
+        copy[channelId] = row;
+        table = copy;
+        return true;
+    }
+
+    /**
+     * Hot path of the dispatch, the returned array must not be modified.
+     *
+     * @param channelId id of the {@link Channel}
+     * @return snapshot of the listeners, never null
+     */
+    public Object[] array(final int channelId) {
+        final Object[][] current = table;
+        final Object[] listeners = channelId >= 0 && channelId < current.length ? current[channelId] : null;
+        return listeners == null ? EMPTY : listeners;
+    }
+
+    /**
+     * @param channelId id of the {@link Channel}
+     * @return unmodifiable snapshot of the listeners, null if the channel was never subscribed
+     */
+    @SuppressWarnings("unchecked")
+    public List<L> get(final int channelId) {
+        final Object[][] current = table;
+        final Object[] listeners = channelId >= 0 && channelId < current.length ? current[channelId] : null;
+        return listeners == null ? null : (List<L>) Collections.unmodifiableList(Arrays.asList(listeners));
+    }
+
+    /**
+     * @return all listeners of all channels
+     */
+    @SuppressWarnings("unchecked")
+    public List<L> values() {
+        final List<L> result = new ArrayList<>();
+        for (final Object[] listeners : table)
+            if (listeners != null)
+                for (final Object listener : listeners)
+                    result.add((L) listener);
+        return result;
+    }
+
+    @Override
+    public Iterator<L> iterator() {
+        return values().iterator();
+    }
+
+    /**
+     * @return number of subscribed channels
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return number of listeners of all channels
+     */
+    public long count() {
+        long result = 0;
+        for (final Object[] listeners : table)
+            result += listeners == null ? 0 : listeners.length;
+        return result;
+    }
+
+    public synchronized ListenerTable<L> clear() {
+        table = new Object[64][];
+        size = 0;
+        return this;
+    }
+
+    protected static int indexOf(final Object[] listeners, final Object listener) {
+        for (int i = 0; i < listeners.length; i++)
+            if (Objects.equals(listeners[i], listener))
+                return i;
+        return -1;
+    }
+}
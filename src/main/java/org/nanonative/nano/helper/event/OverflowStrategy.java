@@ -0,0 +1,19 @@
+package org.nanonative.nano.helper.event;
+
+/**
+ * Behaviour of a full subscriber buffer of an {@link EventPublisher}.
+ */
+public enum OverflowStrategy {
+    /**
+     * Drops the oldest buffered item to make room for the new one.
+     */
+    DROP_OLDEST,
+    /**
+     * Drops the new item and keeps the buffer as is.
+     */
+    DROP_NEWEST,
+    /**
+     * Cancels the subscription and signals {@link java.util.concurrent.Flow.Subscriber#onError(Throwable)}.
+     */
+    ERROR
+}
@@ -1,7 +1,6 @@
 package org.nanonative.nano.helper.event.model;
 
 import berlin.yuna.typemap.model.LinkedTypeMap;
-import org.nanonative.nano.core.NanoBase;
 import org.nanonative.nano.helper.NanoUtils;
 
 import java.util.Optional;
@@ -45,29 +44,21 @@ public record Channel<T, R>(int id, String name, Class<T> payload, Class<R> resp
      * @param response The class type of the response for the {@link Channel}.
      * @return The {@link Channel}  of the newly registered event payload, or the {@link Channel}  of the existing event payload if it already exists. Returns null if the input is null or empty.
      */
-    @SuppressWarnings("unchecked")
     public static <C, R> Channel<C, R> registerChannelId(final String name, final Class<C> type, final Class<R> response) {
-        return (Channel<C, R>) ofNullable(name)
+        return ofNullable(name)
             .filter(NanoUtils::hasText)
-            .map(nme -> channelOf(nme).orElseGet(() -> {
-                final Channel<C, R> channel = new Channel<>(NanoBase.EVENT_ID_COUNTER.incrementAndGet(), nme, type, response);
-                EVENT_CHANNELS.put(channel.id(), channel);
-                return channel;
-            }))
+            .map(nme -> EVENT_CHANNELS.register(nme, type, response))
             .orElse(null);
     }
 
     /**
      * Attempts to find the {@link Channel} based on its name.
-     * This method is primarily used for debugging or startup purposes and is not optimized for performance.
      *
      * @param name The name of the {@link Channel}.
      * @return An {@link Optional} containing the {@link Channel} of the {@link Event} payload if found, or empty if not found
      */
     public static Optional<Channel<?, ?>> channelOf(final String name) {
-        return !NanoUtils.hasText(name) ? Optional.empty() : EVENT_CHANNELS.values().stream()
-            .filter(channel -> channel.name().equals(name))
-            .findFirst();
+        return EVENT_CHANNELS.get(name);
     }
 
     /**
@@ -0,0 +1,110 @@
+package org.nanonative.nano.helper.event.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of all {@link Channel}s, stored in a dense array indexed by the channel id with an additional name index.
+ * <p>
+ * Lookups by id are a plain array read without boxing or hashing. Registrations are serialized, copy the array (growing by
+ * doubling) and republish it, so channels which are created at runtime (e.g. per tenant) stay cheap.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class ChannelRegistry {
+
+    protected final AtomicInteger counter;
+    protected final Map<String, Channel<?, ?>> names = new ConcurrentHashMap<>();
+    protected volatile Channel<?, ?>[] channels = new Channel<?, ?>[64];
+
+    /**
+     * @param counter source of the dense channel ids
+     */
+    public ChannelRegistry(final AtomicInteger counter) {
+        this.counter = counter;
+    }
+
+    /**
+     * Registers a new {@link Channel} or returns the existing {@link Channel} of the same name.
+     *
+     * @param name     name of the {@link Channel}
+     * @param payload  class type of the payload
+     * @param response class type of the response
+     * @return the registered {@link Channel}
+     */
+    @SuppressWarnings("unchecked")
+    public <C, R> Channel<C, R> register(final String name, final Class<C> payload, final Class<R> response) {
+        final Channel<?, ?> existing = names.get(name);
+        if (existing != null)
+            return (Channel<C, R>) existing;
+        synchronized (this) {
+            final Channel<?, ?> raced = names.get(name);
+            if (raced != null)
+                return (Channel<C, R>) raced;
+            final Channel<C, R> channel = new Channel<>(counter.incrementAndGet(), name, payload, response);
+            final Channel<?, ?>[] current = channels;
+            final Channel<?, ?>[] array = Arrays.copyOf(current, channel.id() < current.length ? current.length : Math.max(current.length * 2, channel.id() + 1));
+            array[channel.id()] = channel;
+            // volatile write publishes the new array, readers never see it modified in place
+            channels = array;
+            names.put(name, channel);
+            return channel;
+        }
+    }
+
+    /**
+     * @param id id of the {@link Channel}
+     * @return the {@link Channel} or null if not found
+     */
+    public Channel<?, ?> get(final int id) {
+        final Channel<?, ?>[] array = channels;
+        return id >= 0 && id < array.length ? array[id] : null;
+    }
+
+    /**
+     * @param name name of the {@link Channel}
+     * @return the {@link Channel} if found
+     */
+    public Optional<Channel<?, ?>> get(final String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(names.get(name));
+    }
+
+    public boolean containsKey(final int id) {
+        return get(id) != null;
+    }
+
+    /**
+     * @return highest assigned channel id, useful to size tables indexed by the channel id
+     */
+    public int maxId() {
+        return counter.get();
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public boolean isEmpty() {
+        return names.isEmpty();
+    }
+
+    /**
+     * @return all registered channels ordered by id
+     */
+    public Collection<Channel<?, ?>> values() {
+        return Arrays.stream(channels).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * @return all registered channel names
+     */
+    public List<String> names() {
+        return List.copyOf(names.keySet());
+    }
+}
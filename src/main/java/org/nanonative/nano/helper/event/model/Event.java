@@ -4,9 +4,18 @@ import berlin.yuna.typemap.model.LinkedTypeMap;
 import berlin.yuna.typemap.model.Type;
 import berlin.yuna.typemap.model.TypeMap;
 import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.core.model.NanoThread;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -26,6 +35,7 @@ public class Event<C, R> extends TypeMap {
     protected transient Supplier<C> payload;
     protected transient C payloadRaw;
     protected transient R response;
+    protected transient CompletableFuture<R> future;
     protected Throwable error;
     protected final AtomicBoolean isAcknowledged = new AtomicBoolean(false);
 
@@ -231,6 +241,25 @@ public class Event<C, R> extends TypeMap {
         return context;
     }
 
+    /**
+     * Returns the remaining time budget inherited from the {@link Context#deadline()} of the event.
+     *
+     * @return remaining milliseconds, {@link Long#MAX_VALUE} without a deadline
+     */
+    public long remainingMs() {
+        return context.remainingMs();
+    }
+
+    /**
+     * Returns {@code true} if the deadline of the event context has passed and the caller already gave up.
+     * Handlers can use this to skip expensive work early.
+     *
+     * @return {@code true} when expired
+     */
+    public boolean isExpired() {
+        return context.isExpired();
+    }
+
     /**
      * Returns {@code true} if a response listener is installed (i.e., the event is asynchronous).
      *
@@ -281,6 +310,8 @@ public class Event<C, R> extends TypeMap {
         if (responseListener != null)
             responseListener.accept(response);
         this.response = response;
+        if (future != null && !isBroadcast())
+            future.complete(response);
         if (!isAcknowledged())
             ofNullable(get("parentEvent")).filter(Event.class::isInstance).map(Event.class::cast).ifPresentOrElse(event -> event.isAcknowledged.set(true),
                 () -> Optional.of(containsEvent()).filter(containsEvent -> containsEvent).flatMap(containsEvent -> payloadOpt()).filter(Event.class::isInstance).map(Event.class::cast).ifPresent(event -> event.isAcknowledged.set(true)));
@@ -382,6 +413,68 @@ public class Event<C, R> extends TypeMap {
         return this;
     }
 
+    /**
+     * Sends the event on a virtual thread without blocking the caller.
+     * The returned future completes with the first response of {@link #respond(Object)}, exceptionally with the listener error,
+     * and is cancelled if no listener acknowledged the event. Broadcast events complete after all listeners were called. A {@link Context#deadline()} bounds the future with a timeout.
+     *
+     * @return future of the response
+     */
+    public CompletableFuture<R> sendAsync() {
+        final CompletableFuture<R> result = new CompletableFuture<>();
+        this.future = result;
+        if (context.isExpired()) {
+            context.deadlineExceeded("event");
+            result.completeExceptionally(new TimeoutException("Deadline exceeded for channel [" + channel.name() + "]"));
+            return result;
+        }
+        // taps see the event before it leaves the caller, like with send()
+        context.nano().tap(this);
+        new NanoThread().onComplete((thread, throwable) -> {
+            final Throwable failure = throwable != null ? throwable : error();
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else if (isAcknowledged()) {
+                result.complete(response);
+            } else {
+                result.cancel(false);
+            }
+        }).run(() -> context, () -> context.nano().sendEventSameThread(this));
+        return context.hasDeadline() ? result.orTimeout(context.remainingMs(), TimeUnit.MILLISECONDS) : result;
+    }
+
+    /**
+     * Sends the event on a virtual thread without blocking the caller (see {@link #sendAsync()}).
+     *
+     * @param timeout max time to wait for a response
+     * @param unit    time unit of the timeout
+     * @return future of the response which completes exceptionally with {@link TimeoutException} after the timeout
+     */
+    public CompletableFuture<R> sendAsync(final long timeout, final TimeUnit unit) {
+        return sendAsync().orTimeout(timeout, unit);
+    }
+
+    /**
+     * Broadcasts the event to all listeners and services and gathers every response.
+     * Listeners which only acknowledge contribute {@code null}.
+     *
+     * @return future of all responses in the order they were given
+     */
+    public CompletableFuture<List<R>> sendGather() {
+        final List<R> responses = new CopyOnWriteArrayList<>();
+        final Consumer<R> previous = responseListener;
+        broadcast(true).async(response -> {
+            responses.add(response);
+            if (previous != null)
+                previous.accept(response);
+        });
+        return sendAsync().handle((response, throwable) -> {
+            if (throwable != null && !(throwable instanceof CancellationException))
+                throw throwable instanceof CompletionException completion ? completion : new CompletionException(throwable);
+            return new ArrayList<>(responses);
+        });
+    }
+
     /**
      * Sends the event to the Nano instance for processing.
      *
@@ -0,0 +1,245 @@
+package org.nanonative.nano.services.bridge;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Outbound state of one remote Nano instance which survives reconnects.
+ * <p>
+ * Events and responses are queued, get a sequence number when they are written and stay unacknowledged until the remote acks them.
+ * The number of unacknowledged messages is the credit window: the writer stops when the remote falls behind, the bounded queue
+ * fills up and senders wait or drop. A stopped writer sleeps until acks return credits or control messages are queued.
+ * After a reconnect all unacknowledged messages are resent and the remote drops duplicates.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class BridgeLink {
+
+    public static final long LINGER_MS = 2;
+    // upper bound of a writer waiting for credits, in case the service stops without closing the connection
+    public static final long IDLE_MS = 100;
+
+    protected final String key;
+    protected final int window;
+    protected final int batchSize;
+    protected final int compressBytes;
+    protected final BlockingQueue<BridgeMessage> outbound;
+    protected final Queue<BridgeMessage> control = new ConcurrentLinkedQueue<>();
+    protected final ConcurrentSkipListMap<Long, BridgeMessage> unacked = new ConcurrentSkipListMap<>();
+    protected final AtomicInteger credits;
+    protected final AtomicLong seq = new AtomicLong();
+    protected final LongAdder sent = new LongAdder();
+    protected final LongAdder dropped = new LongAdder();
+    protected final ReentrantLock writer = new ReentrantLock();
+    protected final ReentrantLock signal = new ReentrantLock();
+    protected final Condition wakeup = signal.newCondition();
+    protected volatile SocketChannel channel;
+    protected volatile String remoteNode;
+
+    /**
+     * @param key           address or node id of the remote
+     * @param window        max unacknowledged messages (credits)
+     * @param batchSize     max messages per frame
+     * @param compressBytes frame body size from which frames are compressed
+     * @param queueSize     max queued messages
+     */
+    public BridgeLink(final String key, final int window, final int batchSize, final int compressBytes, final int queueSize) {
+        this.key = key;
+        this.window = Math.max(1, window);
+        this.credits = new AtomicInteger(this.window);
+        this.batchSize = Math.max(1, batchSize);
+        this.compressBytes = compressBytes;
+        this.outbound = new LinkedBlockingQueue<>(Math.max(1, queueSize));
+    }
+
+    /**
+     * Queues an event or response. Waits up to {@code waitMs} while connected and the queue is full.
+     *
+     * @return {@code false} if the message was dropped
+     */
+    public boolean send(final BridgeMessage message, final long waitMs) {
+        try {
+            final boolean queued = isConnected() && waitMs > 0 ? outbound.offer(message, waitMs, TimeUnit.MILLISECONDS) : outbound.offer(message);
+            if (!queued)
+                dropped.increment();
+            return queued;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Releases the credits of all messages up to the acknowledged sequence.
+     */
+    public void acknowledged(final long lastSeq) {
+        int released = 0;
+        for (final Long ackedSeq : unacked.headMap(lastSeq, true).keySet()) {
+            if (unacked.remove(ackedSeq) != null)
+                released++;
+        }
+        if (released > 0) {
+            credits.addAndGet(released);
+            wakeUp();
+        }
+    }
+
+    /**
+     * Queues an ack which is written with the next frame.
+     */
+    public void ack(final long lastSeq) {
+        control.add(BridgeMessage.ack(lastSeq));
+        wakeUp();
+    }
+
+    /**
+     * Switches the link to a new connection and closes the previous one.
+     */
+    public void connect(final SocketChannel newChannel, final String remote) {
+        final SocketChannel previous = channel;
+        remoteNode = remote;
+        // acks belong to the previous connection, the remote might have restarted
+        control.clear();
+        channel = newChannel;
+        close(previous);
+        wakeUp();
+    }
+
+    /**
+     * Writes frames until the connection closes or is replaced. Resends unacknowledged messages first.
+     *
+     * @param current connection owned by this writer
+     * @param running service state
+     */
+    public void writeLoop(final SocketChannel current, final BooleanSupplier running) {
+        final List<BridgeMessage> batch = new ArrayList<>(batchSize);
+        // the writer of a replaced connection finishes before unacknowledged messages are resent
+        writer.lock();
+        try {
+            final List<BridgeMessage> resend = new ArrayList<>(unacked.values());
+            for (int i = 0; i < resend.size(); i += batchSize)
+                BridgeMessage.write(current, resend.subList(i, Math.min(resend.size(), i + batchSize)), compressBytes);
+            while (running.getAsBoolean() && channel == current && current.isOpen()) {
+                batch.clear();
+                for (BridgeMessage message; batch.size() < batchSize && (message = control.poll()) != null; )
+                    batch.add(message);
+                if (credits.get() > 0 && batch.size() < batchSize) {
+                    final BridgeMessage first = batch.isEmpty() ? outbound.poll(LINGER_MS, TimeUnit.MILLISECONDS) : outbound.poll();
+                    if (first != null) {
+                        batch.add(sequenced(first));
+                        for (BridgeMessage message; batch.size() < batchSize && credits.get() > 0 && (message = outbound.poll()) != null; )
+                            batch.add(sequenced(message));
+                    }
+                } else if (batch.isEmpty()) {
+                    // no credits left, wait for acks of the remote
+                    awaitCredits(current);
+                }
+                if (!batch.isEmpty())
+                    BridgeMessage.write(current, batch, compressBytes);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final IOException ignored) {
+            // reader notices the closed connection and reconnects
+        } finally {
+            writer.unlock();
+            close(current);
+        }
+    }
+
+    public boolean isConnected() {
+        final SocketChannel current = channel;
+        return current != null && current.isOpen();
+    }
+
+    /**
+     * Closes the current connection, queued and unacknowledged messages are kept for the next connection.
+     */
+    public void disconnect() {
+        close(channel);
+        wakeUp();
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public String remoteNode() {
+        return remoteNode;
+    }
+
+    public int queued() {
+        return outbound.size();
+    }
+
+    public int unacknowledged() {
+        return window - credits.get();
+    }
+
+    public long sent() {
+        return sent.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public int credits() {
+        return credits.get();
+    }
+
+    protected BridgeMessage sequenced(final BridgeMessage message) {
+        final BridgeMessage result = message.withSeq(seq.incrementAndGet());
+        // only the writer takes credits, so they never go below zero
+        credits.decrementAndGet();
+        unacked.put(result.seq(), result);
+        sent.increment();
+        return result;
+    }
+
+    protected void awaitCredits(final SocketChannel current) throws InterruptedException {
+        signal.lock();
+        try {
+            while (credits.get() <= 0 && control.isEmpty() && channel == current && current.isOpen()) {
+                if (!wakeup.await(IDLE_MS, TimeUnit.MILLISECONDS))
+                    return;
+            }
+        } finally {
+            signal.unlock();
+        }
+    }
+
+    protected void wakeUp() {
+        signal.lock();
+        try {
+            wakeup.signalAll();
+        } finally {
+            signal.unlock();
+        }
+    }
+
+    protected static void close(final SocketChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (final IOException ignored) {
+                // already closed
+            }
+        }
+    }
+}
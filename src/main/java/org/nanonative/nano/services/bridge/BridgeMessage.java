@@ -0,0 +1,182 @@
+package org.nanonative.nano.services.bridge;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Message of the {@link BridgeService} wire protocol.
+ * <p>
+ * Frame: {@code [length:int][flags:byte][body]}, body: {@code [count:int]} followed by messages
+ * {@code [type:byte][seq:long][requestId:long][flag:byte][nameLength:short][name][dataLength:int][data]}.
+ * Bodies larger than the compression threshold are deflated and prefixed by their raw length.
+ * </p>
+ *
+ * @param type      one of {@code TYPE_*}
+ * @param seq       sequence number of events and responses, last received sequence of acks
+ * @param requestId correlation id of requests and responses, {@code 0} for fire and forget events
+ * @param flag      response was acknowledged by the remote
+ * @param name      channel name of events, node id of hellos
+ * @param data      serialized payload or response
+ */
+public record BridgeMessage(byte type, long seq, long requestId, boolean flag, String name, byte[] data) {
+
+    public static final byte TYPE_HELLO = 0;
+    public static final byte TYPE_EVENT = 1;
+    public static final byte TYPE_RESPONSE = 2;
+    public static final byte TYPE_ACK = 3;
+    public static final byte FLAG_COMPRESSED = 1;
+    public static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+    protected static final byte[] EMPTY = new byte[0];
+
+    public BridgeMessage {
+        name = name == null ? "" : name;
+        data = data == null ? EMPTY : data;
+    }
+
+    public static BridgeMessage hello(final String nodeId) {
+        return new BridgeMessage(TYPE_HELLO, 0, 0, false, nodeId, EMPTY);
+    }
+
+    public static BridgeMessage ack(final long seq) {
+        return new BridgeMessage(TYPE_ACK, seq, 0, false, null, EMPTY);
+    }
+
+    public static BridgeMessage event(final String channel, final long requestId, final byte[] data) {
+        return new BridgeMessage(TYPE_EVENT, 0, requestId, false, channel, data);
+    }
+
+    public static BridgeMessage response(final long requestId, final boolean acknowledged, final byte[] data) {
+        return new BridgeMessage(TYPE_RESPONSE, 0, requestId, acknowledged, null, data);
+    }
+
+    /**
+     * @return copy of this message with the given sequence number
+     */
+    public BridgeMessage withSeq(final long seq) {
+        return new BridgeMessage(type, seq, requestId, flag, name, data);
+    }
+
+    /**
+     * @return {@code true} for events and responses which are sequenced, acknowledged and resent on reconnect
+     */
+    public boolean isSequenced() {
+        return type == TYPE_EVENT || type == TYPE_RESPONSE;
+    }
+
+    /**
+     * Writes a batch of messages as one frame.
+     *
+     * @param channel       target channel
+     * @param batch         messages
+     * @param compressBytes body size from which the body is deflated, {@code <= 0} to disable compression
+     */
+    public static void write(final WritableByteChannel channel, final List<BridgeMessage> batch, final int compressBytes) throws IOException {
+        final List<byte[]> names = new ArrayList<>(batch.size());
+        int size = Integer.BYTES;
+        for (final BridgeMessage message : batch) {
+            final byte[] name = message.name().getBytes(UTF_8);
+            names.add(name);
+            size += Byte.BYTES * 2 + Long.BYTES * 2 + Short.BYTES + name.length + Integer.BYTES + message.data().length;
+        }
+        final ByteBuffer body = ByteBuffer.allocate(size).putInt(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            final BridgeMessage message = batch.get(i);
+            body.put(message.type()).putLong(message.seq()).putLong(message.requestId()).put((byte) (message.flag() ? 1 : 0))
+                .putShort((short) names.get(i).length).put(names.get(i))
+                .putInt(message.data().length).put(message.data());
+        }
+        final boolean compress = compressBytes > 0 && size >= compressBytes;
+        final byte[] payload = compress ? deflate(body.array()) : body.array();
+        final int length = Byte.BYTES + (compress ? Integer.BYTES : 0) + payload.length;
+        final ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + length).putInt(length).put(compress ? FLAG_COMPRESSED : 0);
+        if (compress)
+            frame.putInt(size);
+        frame.put(payload).flip();
+        while (frame.hasRemaining())
+            channel.write(frame);
+    }
+
+    /**
+     * Reads the next frame.
+     *
+     * @param channel source channel
+     * @return messages of the frame
+     * @throws EOFException if the channel was closed
+     */
+    public static List<BridgeMessage> read(final ReadableByteChannel channel) throws IOException {
+        final int length = readFully(channel, ByteBuffer.allocate(Integer.BYTES)).getInt();
+        if (length < 1 || length > MAX_FRAME_BYTES)
+            throw new IOException("Invalid bridge frame length [" + length + "]");
+        final ByteBuffer frame = readFully(channel, ByteBuffer.allocate(length));
+        final ByteBuffer body = frame.get() == FLAG_COMPRESSED ? inflate(frame) : frame.slice();
+        final int count = body.getInt();
+        final List<BridgeMessage> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final byte type = body.get();
+            final long seq = body.getLong();
+            final long requestId = body.getLong();
+            final boolean flag = body.get() == 1;
+            final byte[] name = new byte[body.getShort()];
+            body.get(name);
+            final byte[] data = new byte[body.getInt()];
+            body.get(data);
+            result.add(new BridgeMessage(type, seq, requestId, flag, new String(name, UTF_8), data));
+        }
+        return result;
+    }
+
+    protected static ByteBuffer readFully(final ReadableByteChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0)
+                throw new EOFException("Bridge connection closed");
+        }
+        return buffer.flip();
+    }
+
+    protected static byte[] deflate(final byte[] raw) {
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+            final byte[] chunk = new byte[8192];
+            while (!deflater.finished())
+                out.write(chunk, 0, deflater.deflate(chunk));
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    protected static ByteBuffer inflate(final ByteBuffer frame) throws IOException {
+        final int size = frame.getInt();
+        if (size < Integer.BYTES || size > MAX_FRAME_BYTES)
+            throw new IOException("Invalid bridge frame size [" + size + "]");
+        final byte[] raw = new byte[size];
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(frame);
+            int length = 0;
+            while (length < raw.length && !inflater.finished() && !inflater.needsInput())
+                length += inflater.inflate(raw, length, raw.length - length);
+            if (length != raw.length)
+                throw new IOException("Truncated compressed bridge frame");
+            return ByteBuffer.wrap(raw);
+        } catch (final DataFormatException e) {
+            throw new IOException("Invalid compressed bridge frame", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
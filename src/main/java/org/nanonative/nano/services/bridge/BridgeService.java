@@ -0,0 +1,383 @@
+package org.nanonative.nano.services.bridge;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import berlin.yuna.typemap.model.TypeMapI;
+import org.nanonative.nano.core.model.Service;
+import org.nanonative.nano.helper.event.model.Channel;
+import org.nanonative.nano.helper.event.model.Event;
+import org.nanonative.nano.services.journal.JournalCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Optional.ofNullable;
+import static org.nanonative.nano.helper.NanoUtils.splitConfig;
+import static org.nanonative.nano.helper.config.ConfigRegister.registerConfig;
+
+/**
+ * Mirrors {@link Channel}s between Nano instances over persistent TCP or Unix domain socket connections.
+ * <p>
+ * Events of bridged channels which no local listener acknowledged are forwarded like a service would handle them.
+ * Events without response type are sent to all remotes, events with response type are sent as request to one remote and
+ * answered with its response. Messages are batched into length-prefixed binary frames, compressed above a threshold and
+ * limited by a credit window of unacknowledged messages. Unacknowledged messages are resent after a reconnect.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class BridgeService extends Service {
+
+    // Register configurations
+    public static final String CONFIG_BRIDGE_LISTEN = registerConfig("app_service_bridge_listen", "Address to accept bridge connections: `<port>`, `<host>:<port>` or `unix:<path>` (see " + BridgeService.class.getSimpleName() + ")");
+    public static final String CONFIG_BRIDGE_CONNECT = registerConfig("app_service_bridge_connect", "Comma separated addresses of remote bridges: `<host>:<port>` or `unix:<path>` (see " + BridgeService.class.getSimpleName() + ")");
+    public static final String CONFIG_BRIDGE_CHANNELS = registerConfig("app_service_bridge_channels", "Comma separated channel names to bridge (see " + BridgeService.class.getSimpleName() + ")");
+    public static final String CONFIG_BRIDGE_WINDOW = registerConfig("app_service_bridge_window", "Max unacknowledged messages per connection (see " + BridgeService.class.getSimpleName() + "). default = `1024`");
+    public static final String CONFIG_BRIDGE_BATCH = registerConfig("app_service_bridge_batch", "Max messages per frame (see " + BridgeService.class.getSimpleName() + "). default = `256`");
+    public static final String CONFIG_BRIDGE_COMPRESS_BYTES = registerConfig("app_service_bridge_compress_bytes", "Frame size from which frames are compressed, 0 to disable (see " + BridgeService.class.getSimpleName() + "). default = `4096`");
+    public static final String CONFIG_BRIDGE_QUEUE = registerConfig("app_service_bridge_queue", "Max queued messages per remote (see " + BridgeService.class.getSimpleName() + "). default = `65536`");
+    public static final String CONFIG_BRIDGE_TIMEOUT_MS = registerConfig("app_service_bridge_timeout_ms", "Max milliseconds to wait for a queue slot or a remote response (see " + BridgeService.class.getSimpleName() + "). default = `10000`");
+    public static final String CONFIG_BRIDGE_RECONNECT_MS = registerConfig("app_service_bridge_reconnect_ms", "Milliseconds between reconnect attempts (see " + BridgeService.class.getSimpleName() + "). default = `500`");
+
+    /**
+     * Event key holding the node id of the remote which sent the event.
+     */
+    public static final String BRIDGE_ORIGIN = "bridgeOrigin";
+    public static final String UNIX_PREFIX = "unix:";
+
+    protected final String nodeId = UUID.randomUUID().toString();
+    protected final Set<Integer> channels = ConcurrentHashMap.newKeySet();
+    protected final Map<String, BridgeLink> links = new ConcurrentHashMap<>();
+    protected final Map<String, AtomicLong> received = new ConcurrentHashMap<>();
+    protected final Map<Long, CompletableFuture<BridgeMessage>> requests = new ConcurrentHashMap<>();
+    protected final AtomicLong requestIds = new AtomicLong();
+    protected final AtomicBoolean running = new AtomicBoolean(false);
+    protected final AtomicReference<ServerSocketChannel> server = new AtomicReference<>();
+    protected JournalCodec codec = JournalCodec.JSON;
+    protected String listen;
+    protected List<String> connect = List.of();
+    protected int window = 1024;
+    protected int batchSize = 256;
+    protected int compressBytes = 4096;
+    protected int queueSize = 65536;
+    protected long timeoutMs = 10_000;
+    protected long reconnectMs = 500;
+
+    @Override
+    public void start() {
+        if (running.compareAndSet(false, true)) {
+            ofNullable(listen).ifPresent(this::listen);
+            connect.forEach(address -> {
+                final BridgeLink link = links.computeIfAbsent(address, this::newLink);
+                context.run(() -> connectLoop(address, link));
+            });
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (running.compareAndSet(true, false)) {
+            ofNullable(server.getAndSet(null)).ifPresent(this::close);
+            links.values().forEach(BridgeLink::disconnect);
+            requests.values().forEach(future -> future.cancel(false));
+            requests.clear();
+        }
+    }
+
+    @Override
+    public Object onFailure(final Event<?, ?> error) {
+        return null;
+    }
+
+    @Override
+    public void onEvent(final Event<?, ?> event) {
+        if (running.get() && channels.contains(event.channel().id()) && !event.containsKey(BRIDGE_ORIGIN))
+            forward(event);
+    }
+
+    @Override
+    public void configure(final TypeMapI<?> changes, final TypeMapI<?> merged) {
+        merged.asStringOpt(CONFIG_BRIDGE_LISTEN).ifPresent(address -> listen = address);
+        connect = splitConfig(merged, CONFIG_BRIDGE_CONNECT);
+        merged.asIntOpt(CONFIG_BRIDGE_WINDOW).filter(value -> value > 0).ifPresent(value -> window = value);
+        merged.asIntOpt(CONFIG_BRIDGE_BATCH).filter(value -> value > 0).ifPresent(value -> batchSize = value);
+        merged.asIntOpt(CONFIG_BRIDGE_COMPRESS_BYTES).ifPresent(value -> compressBytes = value);
+        merged.asIntOpt(CONFIG_BRIDGE_QUEUE).filter(value -> value > 0).ifPresent(value -> queueSize = value);
+        merged.asLongOpt(CONFIG_BRIDGE_TIMEOUT_MS).filter(value -> value > 0).ifPresent(value -> timeoutMs = value);
+        merged.asLongOpt(CONFIG_BRIDGE_RECONNECT_MS).filter(value -> value > 0).ifPresent(value -> reconnectMs = value);
+        splitConfig(merged, CONFIG_BRIDGE_CHANNELS).stream()
+            .map(Channel::channelOf)
+            .forEach(channel -> channel.ifPresent(this::bridge));
+    }
+
+    @Override
+    public Set<String> configKeys() {
+        return Set.of("app_service_bridge");
+    }
+
+    /**
+     * Bridges all events of the given channel.
+     *
+     * @param channel channel to bridge, must be registered with the same name on the remote
+     * @return self for chaining
+     */
+    public BridgeService bridge(final Channel<?, ?> channel) {
+        if (channel != null)
+            channels.add(channel.id());
+        return this;
+    }
+
+    /**
+     * @param codec payload serializer, default {@link JournalCodec#JSON}
+     * @return self for chaining
+     */
+    public BridgeService codec(final JournalCodec codec) {
+        this.codec = codec == null ? JournalCodec.JSON : codec;
+        return this;
+    }
+
+    /**
+     * @return bound listen address e.g. to find the port of {@code app_service_bridge_listen=0}, null if not listening
+     */
+    public SocketAddress address() {
+        try {
+            final ServerSocketChannel current = server.get();
+            return current == null ? null : current.getLocalAddress();
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+
+    public Collection<BridgeLink> links() {
+        return List.copyOf(links.values());
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Parses {@code <port>}, {@code <host>:<port>}, {@code tcp://<host>:<port>} and {@code unix:<path>}.
+     *
+     * @param address address string
+     * @return socket address
+     */
+    public static SocketAddress addressOf(final String address) {
+        final String value = address.trim();
+        if (value.startsWith(UNIX_PREFIX))
+            return UnixDomainSocketAddress.of(value.substring(UNIX_PREFIX.length()).replaceFirst("^//", ""));
+        final String hostPort = value.replaceFirst("^tcp://", "");
+        final int colon = hostPort.lastIndexOf(':');
+        return colon < 0
+            ? new InetSocketAddress(Integer.parseInt(hostPort))
+            : new InetSocketAddress(hostPort.substring(0, colon), Integer.parseInt(hostPort.substring(colon + 1)));
+    }
+
+    protected void forward(final Event<?, ?> event) {
+        final byte[] data = codec.encode(event.payload());
+        if (event.channel().response() == Void.class) {
+            links.values().forEach(link -> link.send(BridgeMessage.event(event.channel().name(), 0, data), timeoutMs));
+            return;
+        }
+        links.values().stream().filter(BridgeLink::isConnected).findFirst()
+            .or(() -> links.values().stream().findFirst())
+            .ifPresent(link -> request(event, link, data));
+    }
+
+    protected void request(final Event<?, ?> event, final BridgeLink link, final byte[] data) {
+        final long requestId = requestIds.incrementAndGet();
+        final CompletableFuture<BridgeMessage> future = new CompletableFuture<>();
+        requests.put(requestId, future);
+        try {
+            if (!link.send(BridgeMessage.event(event.channel().name(), requestId, data), timeoutMs))
+                return;
+            final BridgeMessage response = future.get(Math.min(timeoutMs, event.remainingMs()), TimeUnit.MILLISECONDS);
+            if (response.flag())
+                respond(event, codec.decode(response.data(), event.channel().response()));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException | TimeoutException | CancellationException e) {
+            context.debug(() -> "Bridge request [{}] of channel [{}] to [{}] failed with [{}]", requestId, event.channel().name(), link.key(), e.getClass().getSimpleName());
+        } finally {
+            requests.remove(requestId);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static <R> void respond(final Event<?, R> event, final Object response) {
+        event.respond((R) response);
+    }
+
+    protected void listen(final String address) {
+        try {
+            final SocketAddress socketAddress = addressOf(address);
+            final ServerSocketChannel channel;
+            if (socketAddress instanceof final UnixDomainSocketAddress unix) {
+                Files.deleteIfExists(unix.getPath());
+                channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            } else {
+                channel = ServerSocketChannel.open();
+            }
+            channel.bind(socketAddress);
+            server.set(channel);
+            context.run(() -> acceptLoop(channel));
+            context.info(() -> "Bridge [{}] listening on [{}]", nodeId, channel.getLocalAddress());
+        } catch (final IOException e) {
+            context.error(e, () -> "Failed to listen on bridge address [{}]", address);
+        }
+    }
+
+    protected void acceptLoop(final ServerSocketChannel channel) {
+        while (running.get() && channel.isOpen()) {
+            try {
+                final SocketChannel socket = channel.accept();
+                context.run(() -> {
+                    final String remote = handshake(socket);
+                    if (remote != null)
+                        serve(links.computeIfAbsent(remote, this::newLink), socket, remote);
+                });
+            } catch (final IOException e) {
+                if (running.get())
+                    context.debug(() -> "Bridge accept failed [{}]", e.getMessage());
+            }
+        }
+    }
+
+    protected void connectLoop(final String address, final BridgeLink link) {
+        while (running.get() && !Thread.currentThread().isInterrupted()) {
+            try {
+                final SocketAddress socketAddress = addressOf(address);
+                final SocketChannel socket = socketAddress instanceof UnixDomainSocketAddress ? SocketChannel.open(StandardProtocolFamily.UNIX) : SocketChannel.open();
+                socket.connect(socketAddress);
+                final String remote = handshake(socket);
+                if (remote != null)
+                    serve(link, socket, remote);
+            } catch (final IOException e) {
+                context.trace(() -> "Bridge connect to [{}] failed [{}]", address, e.getMessage());
+            }
+            if (running.get())
+                sleep(reconnectMs);
+        }
+    }
+
+    protected String handshake(final SocketChannel socket) {
+        try {
+            BridgeMessage.write(socket, List.of(BridgeMessage.hello(nodeId)), 0);
+            final List<BridgeMessage> hello = BridgeMessage.read(socket);
+            if (hello.size() == 1 && hello.getFirst().type() == BridgeMessage.TYPE_HELLO)
+                return hello.getFirst().name();
+        } catch (final IOException e) {
+            context.debug(() -> "Bridge handshake failed [{}]", e.getMessage());
+        }
+        close(socket);
+        return null;
+    }
+
+    /**
+     * Runs the writer on a new thread and reads on the current thread until the connection closes.
+     */
+    protected void serve(final BridgeLink link, final SocketChannel socket, final String remote) {
+        link.connect(socket, remote);
+        context.run(() -> link.writeLoop(socket, running::get));
+        final AtomicLong lastReceived = received.computeIfAbsent(remote, key -> new AtomicLong());
+        try {
+            while (running.get() && socket.isOpen()) {
+                boolean sequenced = false;
+                for (final BridgeMessage message : BridgeMessage.read(socket)) {
+                    if (message.type() == BridgeMessage.TYPE_ACK) {
+                        link.acknowledged(message.seq());
+                    } else if (message.isSequenced()) {
+                        sequenced = true;
+                        // duplicates of resent messages
+                        if (message.seq() > lastReceived.get()) {
+                            lastReceived.set(message.seq());
+                            receive(link, remote, message);
+                        }
+                    }
+                }
+                if (sequenced)
+                    link.ack(lastReceived.get());
+            }
+        } catch (final IOException e) {
+            context.trace(() -> "Bridge connection [{}] closed [{}]", link.key(), e.getMessage());
+        } finally {
+            close(socket);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected void receive(final BridgeLink link, final String remote, final BridgeMessage message) {
+        if (message.type() == BridgeMessage.TYPE_RESPONSE) {
+            ofNullable(requests.remove(message.requestId())).ifPresent(future -> future.complete(message));
+            return;
+        }
+        final Channel channel = Channel.channelOf(message.name()).orElse(null);
+        if (channel == null) {
+            if (message.requestId() > 0)
+                link.send(BridgeMessage.response(message.requestId(), false, null), timeoutMs);
+            return;
+        }
+        final Object payload = codec.decode(message.data(), channel.payload());
+        final Event event = context.newEvent(channel, () -> payload);
+        event.put(BRIDGE_ORIGIN, remote);
+        if (message.requestId() > 0) {
+            // requests must not block the connection
+            context.run(() -> {
+                event.send();
+                link.send(BridgeMessage.response(message.requestId(), event.isAcknowledged(), codec.encode(event.response())), timeoutMs);
+            });
+        } else {
+            event.send();
+        }
+    }
+
+    protected BridgeLink newLink(final String key) {
+        return new BridgeLink(key, window, batchSize, compressBytes, queueSize);
+    }
+
+    protected void close(final Closeable channel) {
+        try {
+            channel.close();
+        } catch (final IOException ignored) {
+            // already closed
+        }
+    }
+
+    protected static void sleep(final long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new LinkedTypeMap()
+            .putR("name", name())
+            .putR("node", nodeId)
+            .putR("channels", channels.size())
+            .putR("links", links.size())
+            .putR("class", this.getClass().getSimpleName())
+            .toJson();
+    }
+}
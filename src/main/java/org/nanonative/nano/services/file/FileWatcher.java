@@ -3,6 +3,7 @@ package org.nanonative.nano.services.file;
 import berlin.yuna.typemap.model.LinkedTypeMap;
 import berlin.yuna.typemap.model.TypeMapI;
 import org.nanonative.nano.core.model.Service;
+import org.nanonative.nano.helper.event.EventCoalescer;
 import org.nanonative.nano.helper.event.model.Channel;
 import org.nanonative.nano.helper.event.model.Event;
 
@@ -24,6 +25,7 @@ import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
 import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.nanonative.nano.helper.config.ConfigRegister.registerConfig;
 import static org.nanonative.nano.helper.event.model.Channel.registerChannelId;
 
 @SuppressWarnings({"java:S135"}) // too many break statements
@@ -34,8 +36,16 @@ public class FileWatcher extends Service {
     public static final Channel<FileWatchRequest, Void> EVENT_FILE_UNWATCH = registerChannelId("UNWATCH", FileWatchRequest.class);
     public static final Channel<FileChangeEvent, Void> EVENT_FILE_CHANGE = registerChannelId("FILE_CHANGE", FileChangeEvent.class);
 
+    // Register configurations
+    public static final String CONFIG_FILE_DEBOUNCE_MS = registerConfig("app_service_file_debounce_ms", "Quiet time before a burst of changes of one file is emitted as one event (see " + FileWatcher.class.getSimpleName() + "). default = `50`, disabled = `0`");
+    public static final String CONFIG_FILE_MAX_LATENCY_MS = registerConfig("app_service_file_max_latency_ms", "Max delay of a file change event during continuous changes (see " + FileWatcher.class.getSimpleName() + "). default = `1000`");
+
     // Watcher
     protected final AtomicReference<WatchService> watchService = new AtomicReference<>();
+    // Coalesces the raw watch events of one file and group
+    protected final AtomicReference<EventCoalescer<Map.Entry<Path, String>, FileChangeEvent>> coalescer = new AtomicReference<>();
+    protected long debounceMs = 50;
+    protected long maxLatencyMs = 1000;
 
     // Directories <-> keys
     protected final Map<WatchKey, Path> keyToDir = new ConcurrentHashMap<>();
@@ -58,8 +68,10 @@ public class FileWatcher extends Service {
     public void start() {
         try {
             final WatchService ws = FileSystems.getDefault().newWatchService();
-            if (watchService.compareAndSet(null, ws))
+            if (watchService.compareAndSet(null, ws)) {
+                coalescer.set(newCoalescer());
                 context.run(() -> watchQueue(ws));
+            }
         } catch (Exception e) {
             context.error(e, () -> "Failed to initialize " + getClass().getSimpleName());
         }
@@ -78,6 +90,8 @@ public class FileWatcher extends Service {
             try {ws.close();} catch (Exception ignored) {}
         }
 
+        Optional.ofNullable(coalescer.getAndSet(null)).ifPresent(EventCoalescer::clear);
+
         // Clear group state
         groups.clear();
         dirToGroups.clear();
@@ -221,8 +235,7 @@ public class FileWatcher extends Service {
 
     protected void dispatch(final Path eventPath, final WatchEvent.Kind<?> kind) {
         // 1) generic event
-        final FileChangeEvent base = FileChangeEvent.of(eventPath, kind);
-        context.newEvent(EVENT_FILE_CHANGE).payload(() -> base).send();
+        coalesce(FileChangeEvent.of(eventPath, kind));
 
         // 2) group-scoped events
         final Path parent = Optional.ofNullable(eventPath.getParent()).orElse(eventPath);
@@ -235,14 +248,46 @@ public class FileWatcher extends Service {
             if (s == null) continue;
             // allowlist empty -> whole dir; otherwise only selected files
             if (s.files.isEmpty() || s.files.contains(eventPath)) {
-                final FileChangeEvent ge = FileChangeEvent.of(eventPath, kind, g);
-                context.newEvent(EVENT_FILE_CHANGE).payload(() -> ge).broadcast(true).send();
+                coalesce(FileChangeEvent.of(eventPath, kind, g));
             }
         }
     }
 
+    protected void coalesce(final FileChangeEvent change) {
+        final EventCoalescer<Map.Entry<Path, String>, FileChangeEvent> current = coalescer.get();
+        if (current != null)
+            current.offer(Map.entry(change.path(), change.group().orElse("")), change);
+        else
+            emit(change);
+    }
+
+    protected void emit(final FileChangeEvent change) {
+        // group events of a burst can outlive their group
+        if (change.group().isPresent() && (unwatchedGroups.containsKey(change.group().get()) || !groups.containsKey(change.group().get())))
+            return;
+        context.newEvent(EVENT_FILE_CHANGE).payload(() -> change).broadcast(change.group().isPresent()).send();
+    }
+
+    protected EventCoalescer<Map.Entry<Path, String>, FileChangeEvent> newCoalescer() {
+        // a created file which is written right after is still reported as created
+        return new EventCoalescer<>(context, debounceMs, maxLatencyMs, (previous, next) -> previous.isCreate() && next.isModify() ? previous : next, this::emit);
+    }
+
+    @Override
+    public void configure(final TypeMapI<?> changes, final TypeMapI<?> merged) {
+        final long previousDebounceMs = debounceMs;
+        final long previousMaxLatencyMs = maxLatencyMs;
+        merged.asLongOpt(CONFIG_FILE_DEBOUNCE_MS).ifPresent(ms -> debounceMs = ms);
+        merged.asLongOpt(CONFIG_FILE_MAX_LATENCY_MS).ifPresent(ms -> maxLatencyMs = ms);
+        // pending bursts are only flushed if the coalescing changes
+        if (watchService.get() != null && (debounceMs != previousDebounceMs || maxLatencyMs != previousMaxLatencyMs))
+            Optional.ofNullable(coalescer.getAndSet(newCoalescer())).ifPresent(EventCoalescer::flush);
+    }
+
     @Override
-    public void configure(final TypeMapI<?> changes, final TypeMapI<?> merged) { /* hooks later */ }
+    public Set<String> configKeys() {
+        return Set.of("app_service_file");
+    }
 
     @Override
     public String toString() {
@@ -254,6 +299,7 @@ public class FileWatcher extends Service {
             .putR("groups", groups.size())
             .putR("groupDirs", dirCount)
             .putR("groupFiles", fileCount)
+            .putR("debounceMs", debounceMs)
             .putR("class", getClass().getSimpleName())
             .toJson();
     }
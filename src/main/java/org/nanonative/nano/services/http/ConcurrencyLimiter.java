@@ -0,0 +1,222 @@
+package org.nanonative.nano.services.http;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive concurrency limit with a bounded, prioritised wait queue.
+ * <p>
+ * The limit follows the gradient between the long term (no load) latency and the latest latency:
+ * it grows while latencies stay flat and shrinks as soon as requests start to queue up downstream.
+ * Dropped requests (e.g. timeouts) cut the limit multiplicatively like AIMD.
+ * Requests above the limit wait in a bounded queue, everything else is rejected immediately.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class ConcurrencyLimiter {
+
+    /**
+     * Priority class of a request. {@link #HIGH} is served first and may use the whole wait queue,
+     * {@link #LOW} is shed first as it may only use half of the wait queue.
+     */
+    public enum Priority {
+        HIGH(1.0),
+        NORMAL(0.8),
+        LOW(0.5);
+
+        private final double queueShare;
+
+        Priority(final double queueShare) {
+            this.queueShare = queueShare;
+        }
+    }
+
+    public static final double SMOOTHING = 0.2;
+    public static final double RTT_TOLERANCE = 2.0;
+    public static final double BACKOFF_RATIO = 0.9;
+    public static final int LONG_WINDOW = 600;
+
+    protected final int minLimit;
+    protected final int maxLimit;
+    protected final int maxQueue;
+    protected final long maxWaitMs;
+    protected final AtomicInteger inFlight = new AtomicInteger();
+    protected final AtomicInteger queued = new AtomicInteger();
+    protected final LongAdder rejected = new LongAdder();
+    protected final Map<Priority, Deque<CompletableFuture<Void>>> queues = new EnumMap<>(Priority.class);
+    // Samples are statistical, a sample which can't get the lock is just skipped
+    protected final ReentrantLock sampleLock = new ReentrantLock();
+    protected volatile int limit;
+    protected double estimatedLimit;
+    protected double longRttNs;
+
+    public ConcurrencyLimiter(final int minLimit, final int maxLimit, final int maxQueue, final long maxWaitMs) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.maxQueue = Math.max(0, maxQueue);
+        this.maxWaitMs = Math.max(0, maxWaitMs);
+        this.estimatedLimit = Math.clamp(20, this.minLimit, this.maxLimit);
+        this.limit = (int) estimatedLimit;
+        for (final Priority priority : Priority.values())
+            queues.put(priority, new ConcurrentLinkedDeque<>());
+    }
+
+    /**
+     * Acquires a slot. Waits up to {@link #maxWaitMs()} in the queue if the limit is reached.
+     *
+     * @param priority priority class of the request
+     * @return {@code true} if the request may proceed and must call {@link #release(long, boolean)}, {@code false} if it was rejected
+     */
+    public boolean acquire(final Priority priority) {
+        if (tryAcquire())
+            return true;
+        final Priority prio = priority == null ? Priority.NORMAL : priority;
+        if (!reserveQueueSlot(prio)) {
+            rejected.increment();
+            return false;
+        }
+        final CompletableFuture<Void> waiter = new CompletableFuture<>();
+        queues.get(prio).addLast(waiter);
+        // a slot could be released between the failed tryAcquire and the enqueue
+        drain();
+        try {
+            waiter.get(maxWaitMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (final TimeoutException | ExecutionException e) {
+            return abandon(prio, waiter);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return abandon(prio, waiter);
+        }
+    }
+
+    /**
+     * Releases a slot and feeds the latency into the limit.
+     *
+     * @param rttNs   round trip time of the request in nanoseconds
+     * @param dropped {@code true} if the request failed due to overload e.g. timeout
+     * @return self for chaining
+     */
+    public ConcurrencyLimiter release(final long rttNs, final boolean dropped) {
+        final int current = inFlight.getAndDecrement();
+        sample(rttNs, current, dropped);
+        drain();
+        return this;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public int queued() {
+        return queued.get();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long maxWaitMs() {
+        return maxWaitMs;
+    }
+
+    protected boolean tryAcquire() {
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= limit)
+                return false;
+            if (inFlight.compareAndSet(current, current + 1))
+                return true;
+        }
+    }
+
+    protected boolean reserveQueueSlot(final Priority priority) {
+        final int capacity = (int) (maxQueue * priority.queueShare);
+        while (true) {
+            final int current = queued.get();
+            if (current >= capacity)
+                return false;
+            if (queued.compareAndSet(current, current + 1))
+                return true;
+        }
+    }
+
+    protected boolean abandon(final Priority priority, final CompletableFuture<Void> waiter) {
+        if (waiter.cancel(false)) {
+            queues.get(priority).remove(waiter);
+            queued.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        // granted in the meantime
+        return true;
+    }
+
+    /**
+     * Hands free slots to waiting requests, highest priority first.
+     */
+    protected void drain() {
+        for (final Deque<CompletableFuture<Void>> queue : queues.values()) {
+            CompletableFuture<Void> waiter;
+            while ((waiter = queue.pollFirst()) != null) {
+                if (waiter.isDone())
+                    continue;
+                if (!tryAcquire()) {
+                    queue.addFirst(waiter);
+                    return;
+                }
+                if (waiter.complete(null)) {
+                    queued.decrementAndGet();
+                } else {
+                    inFlight.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    protected void sample(final long rttNs, final int inFlightAtRelease, final boolean dropped) {
+        if (rttNs <= 0 || !sampleLock.tryLock())
+            return;
+        try {
+            if (dropped) {
+                estimatedLimit = estimatedLimit * BACKOFF_RATIO;
+            } else if (inFlightAtRelease * 2 >= estimatedLimit) {
+                // only learn from samples where the limit was actually in use
+                longRttNs = longRttNs == 0 ? rttNs : longRttNs + (rttNs - longRttNs) / LONG_WINDOW;
+                final double gradient = Math.clamp(RTT_TOLERANCE * longRttNs / rttNs, 0.5, 1.0);
+                final double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+                estimatedLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+            }
+            estimatedLimit = Math.clamp(estimatedLimit, minLimit, maxLimit);
+            limit = (int) estimatedLimit;
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new LinkedTypeMap()
+            .putR("class", this.getClass().getSimpleName())
+            .putR("limit", limit)
+            .putR("inFlight", inFlight.get())
+            .putR("queued", queued.get())
+            .putR("rejected", rejected.sum())
+            .toJson();
+    }
+}
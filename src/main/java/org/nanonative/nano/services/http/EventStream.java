@@ -0,0 +1,220 @@
+package org.nanonative.nano.services.http;
+
+import berlin.yuna.typemap.model.TypeInfo;
+import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.helper.event.model.Channel;
+import org.nanonative.nano.helper.event.model.Event;
+import org.nanonative.nano.services.http.model.HttpObject;
+import org.nanonative.nano.services.http.model.JsonCodec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Pushes messages to connected clients as Server-Sent Events ({@code text/event-stream}).
+ * <p>
+ * A handler answers with {@link HttpObject#eventStream(EventStream)}, the {@link HttpServer} then keeps the connection open
+ * and parks its virtual thread on the queue of the connection. {@link #publish(String, Object)} serializes a message once
+ * and offers the same bytes to every connection. The queues are bounded, clients which can't keep up are evicted instead of
+ * buffering without limit. Idle connections get a comment line as heartbeat, which also detects disconnected clients.
+ * {@link #bridge(Context, Channel, Function)} forwards the events of any {@link Channel}.
+ * </p>
+ */
+public class EventStream implements AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_SIZE = 256;
+    public static final long DEFAULT_HEARTBEAT_MS = 15_000;
+    protected static final byte[] HEARTBEAT = ":\n\n".getBytes(US_ASCII);
+    // identity marker to end a connection
+    protected static final byte[] CLOSE = new byte[0];
+
+    protected final int queueSize;
+    protected final long heartbeatMs;
+    protected final Set<BlockingQueue<byte[]>> connections = ConcurrentHashMap.newKeySet();
+    protected final List<Runnable> bridges = new CopyOnWriteArrayList<>();
+    protected final AtomicLong sequence = new AtomicLong();
+    protected final LongAdder evicted = new LongAdder();
+    protected volatile boolean closed;
+
+    public EventStream() {
+        this(DEFAULT_QUEUE_SIZE, DEFAULT_HEARTBEAT_MS);
+    }
+
+    /**
+     * @param queueSize   max queued messages per connection before the client is evicted
+     * @param heartbeatMs idle time after which a heartbeat is sent
+     */
+    public EventStream(final int queueSize, final long heartbeatMs) {
+        if (queueSize < 1 || heartbeatMs < 1)
+            throw new IllegalArgumentException("Queue size and heartbeat must be positive, got [" + queueSize + "] and [" + heartbeatMs + "]");
+        this.queueSize = queueSize;
+        this.heartbeatMs = heartbeatMs;
+    }
+
+    /**
+     * Publishes an unnamed message, see {@link #publish(String, Object)}.
+     *
+     * @param data message
+     * @return number of connections which received the message
+     */
+    public int publish(final Object data) {
+        return publish(null, data);
+    }
+
+    /**
+     * Serializes the message once and queues the same bytes for all connections. Connections with a full queue are evicted.
+     * Maps, collections and {@link TypeInfo} are sent as JSON, everything else as string.
+     *
+     * @param event event name, {@code null} for the default {@code message} event
+     * @param data  message
+     * @return number of connections which received the message
+     */
+    public int publish(final String event, final Object data) {
+        if (connections.isEmpty())
+            return 0;
+        final byte[] frame = frameOf(sequence.incrementAndGet(), event, data);
+        int result = 0;
+        for (final BlockingQueue<byte[]> connection : connections) {
+            if (connection.offer(frame))
+                result++;
+            else
+                evict(connection);
+        }
+        return result;
+    }
+
+    /**
+     * Publishes the payload of every event of the channel, named after the channel.
+     *
+     * @param context context to subscribe with
+     * @param channel channel to forward
+     * @param <C>     payload type
+     * @param <R>     response type
+     * @return self for chaining
+     */
+    public <C, R> EventStream bridge(final Context context, final Channel<C, R> channel) {
+        return bridge(context, channel, Function.identity());
+    }
+
+    /**
+     * Publishes the mapped payload of every event of the channel, named after the channel.
+     * The subscription ends with {@link #close()}.
+     *
+     * @param context context to subscribe with
+     * @param channel channel to forward
+     * @param mapper  maps the payload to the message
+     * @param <C>     payload type
+     * @param <R>     response type
+     * @return self for chaining
+     */
+    public <C, R> EventStream bridge(final Context context, final Channel<C, R> channel, final Function<? super C, ?> mapper) {
+        final Consumer<Event<C, R>> listener = context.subscribeEvent(channel, (event, payload) -> publish(channel.name(), mapper.apply(payload)));
+        bridges.add(() -> context.unsubscribeEvent(channel, listener));
+        return this;
+    }
+
+    /**
+     * @return connected clients
+     */
+    public int connections() {
+        return connections.size();
+    }
+
+    /**
+     * @return clients evicted because they couldn't keep up
+     */
+    public long evicted() {
+        return evicted.sum();
+    }
+
+    /**
+     * Streams the queued messages to a client until it disconnects, is evicted or the stream is closed.
+     * Blocks the calling thread, the {@link HttpServer} calls it on the virtual thread of the request.
+     *
+     * @param out response body of the client
+     */
+    public void serve(final OutputStream out) {
+        final BlockingQueue<byte[]> connection = new ArrayBlockingQueue<>(queueSize);
+        connections.add(connection);
+        try {
+            byte[] frame = HEARTBEAT;
+            while (!closed) {
+                // batches everything queued into one flush
+                do {
+                    if (frame == CLOSE)
+                        return;
+                    out.write(frame);
+                } while ((frame = connection.poll()) != null);
+                out.flush();
+                frame = connection.poll(heartbeatMs, TimeUnit.MILLISECONDS);
+                if (frame == null)
+                    frame = HEARTBEAT;
+            }
+        } catch (final IOException ignored) {
+            // client disconnected
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    /**
+     * Ends all bridges and connections.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        bridges.forEach(Runnable::run);
+        bridges.clear();
+        connections.forEach(this::end);
+    }
+
+    protected void evict(final BlockingQueue<byte[]> connection) {
+        if (end(connection))
+            evicted.increment();
+    }
+
+    protected boolean end(final BlockingQueue<byte[]> connection) {
+        if (!connections.remove(connection))
+            return false;
+        do {
+            connection.clear();
+        } while (!connection.offer(CLOSE));
+        return true;
+    }
+
+    protected static byte[] frameOf(final long id, final String event, final Object data) {
+        final String text;
+        if (data == null)
+            text = "";
+        else if (data instanceof final String value)
+            text = value;
+        else if (data instanceof Map<?, ?> || data instanceof Collection<?> || data instanceof TypeInfo<?>)
+            text = new String(JsonCodec.toBytes(data), US_ASCII);
+        else
+            text = String.valueOf(data);
+        final StringBuilder result = new StringBuilder(text.length() + 32).append("id: ").append(id).append('\n');
+        if (event != null)
+            result.append("event: ").append(event.replaceAll("[\r\n]", "")).append('\n');
+        for (final String line : text.split("\r\n|\r|\n", -1))
+            result.append("data: ").append(line).append('\n');
+        return result.append('\n').toString().getBytes(UTF_8);
+    }
+}
@@ -3,10 +3,12 @@ package org.nanonative.nano.services.http;
 import berlin.yuna.typemap.logic.TypeConverter;
 import berlin.yuna.typemap.model.LinkedTypeMap;
 import berlin.yuna.typemap.model.TypeMapI;
+import org.nanonative.nano.core.model.Context;
 import org.nanonative.nano.core.model.Service;
 import org.nanonative.nano.helper.NanoUtils;
 import org.nanonative.nano.helper.event.model.Channel;
 import org.nanonative.nano.helper.event.model.Event;
+import org.nanonative.nano.services.http.model.HttpHeaders;
 import org.nanonative.nano.services.http.model.HttpObject;
 
 import java.io.IOException;
@@ -16,6 +18,7 @@ import java.net.http.HttpResponse;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 
 import static java.net.http.HttpClient.Redirect.ALWAYS;
@@ -72,7 +75,7 @@ public class HttpClient extends Service {
     @Override
     @SuppressWarnings("unchecked")
     public void onEvent(final Event<?,?> event) {
-        event.channel(EVENT_SEND_HTTP).ifPresent(e -> e.respond(send(e.payload(), event.as(Consumer.class, "callback"))));
+        event.channel(EVENT_SEND_HTTP).ifPresent(e -> e.respond(send(e.context(), e.payload(), event.as(Consumer.class, "callback"))));
     }
 
     @Override
@@ -81,6 +84,11 @@ public class HttpClient extends Service {
         changes.asIntOpt(CONFIG_HTTP_CLIENT_READ_TIMEOUT_MS).ifPresent(value -> readTimeoutMs = value);
     }
 
+    @Override
+    public Set<String> configKeys() {
+        return Set.of(CONFIG_HTTP_CLIENT_MAX_RETRIES, CONFIG_HTTP_CLIENT_READ_TIMEOUT_MS);
+    }
+
     @Override
     public String toString() {
         return new LinkedTypeMap()
@@ -113,9 +121,36 @@ public class HttpClient extends Service {
      * @return the response as an {@link HttpObject}
      */
     public HttpObject send(final HttpRequest request, final Consumer<HttpObject> callback) {
+        return send(context, request, callback);
+    }
+
+    /**
+     * Sends an HTTP request within the time budget of the given {@link Context}.
+     * The remaining budget of {@link Context#deadline()} caps the read timeout and is propagated downstream via {@link HttpHeaders#X_REQUEST_TIMEOUT_MS}.
+     * Requests whose deadline already expired are not sent and answered with 504.
+     * <b>If a response listener is provided, it processes the response asynchronously.</b>
+     *
+     * @param requestContext context which may carry a deadline
+     * @param request        the {@link HttpObject} or {@link HttpRequest} representing the HTTP request to send
+     * @param callback       an optional consumer to process the response asynchronously
+     * @return the response as an {@link HttpObject}
+     */
+    public HttpObject send(final Context requestContext, final HttpRequest request, final Consumer<HttpObject> callback) {
+        if (request == null)
+            return new HttpObject().failure(400, new IllegalArgumentException("Invalid request [null]"));
+        final Context deadlineContext = requestContext != null && requestContext.hasDeadline() ? requestContext : null;
+        long timeoutMs = readTimeoutMs;
+        if (deadlineContext != null) {
+            final long remainingMs = deadlineContext.remainingMs();
+            if (remainingMs <= 0)
+                return deadlineExceeded(deadlineContext, request, new HttpObject(), callback);
+            timeoutMs = Math.min(timeoutMs, remainingMs);
+            if (request instanceof final HttpObject httpObject)
+                httpObject.header(HttpHeaders.X_REQUEST_TIMEOUT_MS, remainingMs);
+        }
         if (request instanceof final HttpObject httpObject)
-            httpObject.timeout(readTimeoutMs);
-        return request != null ? send(0, request, new HttpObject(), callback) : new HttpObject().failure(400, new IllegalArgumentException("Invalid request [null]"));
+            httpObject.timeout(timeoutMs);
+        return send(0, request, new HttpObject(), callback, deadlineContext);
     }
 
     /**
@@ -167,7 +202,7 @@ public class HttpClient extends Service {
         return client;
     }
 
-    protected HttpObject send(final int attempt, final HttpRequest request, final HttpObject response, final Consumer<HttpObject> callback) {
+    protected HttpObject send(final int attempt, final HttpRequest request, final HttpObject response, final Consumer<HttpObject> callback, final Context deadlineContext) {
         if (client == null)
             configure(context);
         try {
@@ -177,7 +212,7 @@ public class HttpClient extends Service {
                 client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).thenAccept(httpResponse -> responseOf(httpResponse, response)).thenRun(() -> callback.accept(response));
             }
         } catch (final IOException e) {
-            return circuitBreaker(attempt, request, response, callback, e);
+            return circuitBreaker(attempt, request, response, callback, deadlineContext, e);
         } catch (final InterruptedException e) {
             Thread.currentThread().interrupt();
         } catch (final Exception e) {
@@ -203,15 +238,19 @@ public class HttpClient extends Service {
      * @param attempt   The current retry attempt number.
      * @param request   The {@link HttpObject} representing the original HTTP request.
      * @param response  The {@link HttpObject} to populate with the response upon successful request completion.
+     * @param deadlineContext Optional {@link Context} with a deadline, no retry is started which would exceed it.
      * @param throwable The {@link Throwable} that triggered the need for a retry.
      * @return A modified {@link HttpObject} containing the result of the retry attempts. If all retries are exhausted without success,
      * it returns the {@link HttpObject} populated with the failure information.
      */
-    protected HttpObject circuitBreaker(final int attempt, final HttpRequest request, final HttpObject response, final Consumer<HttpObject> callback, final Throwable throwable) {
+    protected HttpObject circuitBreaker(final int attempt, final HttpRequest request, final HttpObject response, final Consumer<HttpObject> callback, final Context deadlineContext, final Throwable throwable) {
         if (attempt < retries) {
+            final long backoffMs = (long) Math.pow(2, attempt) * 256;
+            if (deadlineContext != null && deadlineContext.remainingMs() <= backoffMs)
+                return deadlineExceeded(deadlineContext, request, response, callback);
             try {
-                Thread.sleep((long) Math.pow(2, attempt) * 256);
-                return send(attempt + 1, request, response, callback);
+                Thread.sleep(backoffMs);
+                return send(attempt + 1, request, response, callback, deadlineContext);
             } catch (final InterruptedException ie) {
                 Thread.currentThread().interrupt();
                 return response.path(request.uri().toString()).failure(-99, ie);
@@ -219,4 +258,12 @@ public class HttpClient extends Service {
         }
         return response.path(request.uri().toString()).failure(-1, throwable);
     }
+
+    protected HttpObject deadlineExceeded(final Context deadlineContext, final HttpRequest request, final HttpObject response, final Consumer<HttpObject> callback) {
+        deadlineContext.deadlineExceeded("http_client");
+        response.path(request.uri().toString()).failure(504, "Gateway Timeout", "Deadline exceeded");
+        if (callback != null)
+            callback.accept(response);
+        return response;
+    }
 }
@@ -3,7 +3,9 @@ package org.nanonative.nano.services.http;
 import berlin.yuna.typemap.model.LinkedTypeMap;
 import berlin.yuna.typemap.model.TypeMapI;
 import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpsServer;
 import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.core.model.LazyService;
 import org.nanonative.nano.core.model.Service;
 import org.nanonative.nano.helper.NanoUtils;
 import org.nanonative.nano.helper.event.model.Channel;
@@ -11,33 +13,39 @@ import org.nanonative.nano.helper.event.model.Event;
 import org.nanonative.nano.services.file.FileChangeEvent;
 import org.nanonative.nano.services.http.model.HttpHeaders;
 import org.nanonative.nano.services.http.model.HttpObject;
+import org.nanonative.nano.services.http.model.Multipart;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
-import static berlin.yuna.typemap.logic.TypeConverter.collectionOf;
 import static org.nanonative.nano.core.model.Context.EVENT_APP_ERROR;
 import static org.nanonative.nano.core.model.NanoThread.GLOBAL_THREAD_POOL;
+import static org.nanonative.nano.helper.NanoUtils.splitConfig;
 import static org.nanonative.nano.helper.config.ConfigRegister.registerConfig;
 import static org.nanonative.nano.helper.event.model.Channel.registerChannelId;
 import static org.nanonative.nano.services.file.FileWatchRequest.forFilesWithGroup;
 import static org.nanonative.nano.services.file.FileWatcher.EVENT_FILE_CHANGE;
 import static org.nanonative.nano.services.file.FileWatcher.EVENT_FILE_UNWATCH;
 import static org.nanonative.nano.services.file.FileWatcher.EVENT_FILE_WATCH;
+import static org.nanonative.nano.services.http.HttpClient.EVENT_SEND_HTTP;
 import static org.nanonative.nano.services.http.HttpsHelper.configureHttps;
 import static org.nanonative.nano.services.http.HttpsHelper.createDefaultServer;
 import static org.nanonative.nano.services.http.HttpsHelper.createHttpsServer;
+import static org.nanonative.nano.services.http.model.HttpMethod.GET;
 
 @SuppressWarnings("unused")
 public class HttpServer extends Service {
@@ -45,15 +53,33 @@ public class HttpServer extends Service {
 
     // Register configurations
     public static final String CONFIG_SERVICE_HTTP_PORT = registerConfig("app_service_http_port", "Default port for the HTTP service (see " + HttpServer.class.getSimpleName() + ")");
-    public static final String CONFIG_SERVICE_HTTP_CLIENT = registerConfig("app_service_http_client", "Boolean if " + HttpClient.class.getSimpleName() + " should start as well");
+    public static final String CONFIG_SERVICE_HTTP_CLIENT = registerConfig("app_service_http_client", "Boolean if " + HttpClient.class.getSimpleName() + " should start lazily with the first request");
 //    public static final String CONFIG_SERVICE_HTTPS_CERTS = registerConfig("app_service_https_certs", "Comma-separated paths to SSL certificates, private keys, or keystores. Can be files or directories.");
     public static final String CONFIG_SERVICE_HTTPS_CERT = registerConfig("app_service_https_cert", "SSL certificate path");
     public static final String CONFIG_SERVICE_HTTPS_CA = registerConfig("app_service_https_ca", "SSL CA certificate path");
     public static final String CONFIG_SERVICE_HTTPS_KEY = registerConfig("app_service_https_key", "SSL private key path");
     public static final String CONFIG_SERVICE_HTTPS_KTS = registerConfig("app_service_https_kts", "SSL keystore path");
     public static final String CONFIG_SERVICE_HTTPS_PASSWORD = registerConfig("app_service_https_password", "Optional password for SSL keystores/private keys");
+    public static final String CONFIG_SERVICE_HTTPS_PROTOCOLS = registerConfig("app_service_https_protocols", "Comma-separated TLS protocols. default = `TLSv1.3,TLSv1.2`");
+    public static final String CONFIG_SERVICE_HTTPS_CIPHERS = registerConfig("app_service_https_ciphers", "Comma-separated cipher suites in order of preference. default = JDK defaults");
+    public static final String CONFIG_SERVICE_HTTPS_SESSION_CACHE = registerConfig("app_service_https_session_cache_size", "Max cached TLS sessions for resumption. default = `20480`, unlimited = `0`");
+    public static final String CONFIG_SERVICE_HTTPS_SESSION_TIMEOUT = registerConfig("app_service_https_session_timeout_s", "Lifetime of cached TLS sessions in seconds. default = `86400`");
+    public static final String CONFIG_SERVICE_HTTP_LIMIT = registerConfig("app_service_http_limit", "Enables the adaptive concurrency limit with load shedding (see " + ConcurrencyLimiter.class.getSimpleName() + "). default = `false`");
+    public static final String CONFIG_SERVICE_HTTP_LIMIT_MIN = registerConfig("app_service_http_limit_min", "Lower bound of the adaptive concurrency limit. default = `4`");
+    public static final String CONFIG_SERVICE_HTTP_LIMIT_MAX = registerConfig("app_service_http_limit_max", "Upper bound of the adaptive concurrency limit. default = `1000`");
+    public static final String CONFIG_SERVICE_HTTP_LIMIT_QUEUE = registerConfig("app_service_http_limit_queue", "Max requests waiting for a free slot before they are rejected with 503. default = `256`");
+    public static final String CONFIG_SERVICE_HTTP_LIMIT_QUEUE_MS = registerConfig("app_service_http_limit_queue_ms", "Max time in milliseconds a request waits for a free slot. default = `1000`");
+    public static final String CONFIG_SERVICE_HTTP_LIMIT_HIGH_ROUTES = registerConfig("app_service_http_limit_high_routes", "Comma separated path patterns (e.g. `/health,/api/**`) which are served first under load");
+    public static final String CONFIG_SERVICE_HTTP_LIMIT_LOW_ROUTES = registerConfig("app_service_http_limit_low_routes", "Comma separated path patterns (e.g. `/reports/**`) which are shed first under load");
+    public static final String CONFIG_SERVICE_HTTP_TIMEOUT_MS = registerConfig("app_service_http_timeout_ms", "Default deadline in milliseconds for incoming requests, inherited by the request context and its HttpClient calls. default = none");
+    public static final String CONFIG_SERVICE_HTTP_MULTIPART_MEMORY = registerConfig("app_service_http_multipart_memory", "Max bytes of a multipart part kept in memory before it is written to a temp file. default = `65536`");
+    public static final String CONFIG_SERVICE_HTTP_MULTIPART_MAX_PART = registerConfig("app_service_http_multipart_max_part", "Max bytes of a single multipart part, larger parts fail the request. default = unlimited");
+    public static final String CONFIG_SERVICE_HTTP_MULTIPART_MAX = registerConfig("app_service_http_multipart_max", "Max bytes of all parts of a multipart request. default = unlimited");
+    public static final String CONFIG_SERVICE_HTTP_MULTIPART_DIR = registerConfig("app_service_http_multipart_dir", "Directory for the temp files of large multipart parts. default = `java.io.tmpdir`");
+    public static final String CONFIG_SERVICE_HTTP_TIMEOUT_ROUTES = registerConfig("app_service_http_timeout_routes", "Comma separated per route deadlines in milliseconds (e.g. `/reports/**=30000,/api/**=2000`), first match wins");
 
     // Register event channels
+    public static final Channel<HttpObject, HttpObject> EVENT_HTTP_REQUEST_FILTER = registerChannelId("HTTP_REQUEST_FILTER", HttpObject.class, HttpObject.class);
     public static final Channel<HttpObject, HttpObject> EVENT_HTTP_REQUEST = registerChannelId("HTTP_REQUEST", HttpObject.class, HttpObject.class);
     public static final Channel<HttpObject, HttpObject> EVENT_HTTP_REQUEST_UNHANDLED = registerChannelId("HTTP_REQUEST_UNHANDLED", HttpObject.class, HttpObject.class);
 
@@ -61,6 +87,14 @@ public class HttpServer extends Service {
     // important for port finding when using multiple HttpServers
     protected static final Lock STARTUP_LOCK = new ReentrantLock();
 
+    protected volatile ConcurrencyLimiter limiter;
+    protected final RouteMetrics routeMetrics = new RouteMetrics();
+    protected List<String> highPriorityRoutes = List.of();
+    protected List<String> lowPriorityRoutes = List.of();
+    protected long defaultTimeoutMs = -1;
+    protected Map<String, Long> routeTimeouts = Map.of();
+    protected Multipart.Limits multipartLimits = Multipart.Limits.DEFAULT;
+
     public InetSocketAddress address() {
         return server == null ? null : server.getAddress();
     }
@@ -73,6 +107,27 @@ public class HttpServer extends Service {
         return server;
     }
 
+    /**
+     * @return the TLS configuration or null if the server is not configured for HTTPS
+     */
+    public TlsConfigurator tls() {
+        return server instanceof final HttpsServer https && https.getHttpsConfigurator() instanceof final TlsConfigurator tls ? tls : null;
+    }
+
+    /**
+     * @return the adaptive concurrency limiter or null if {@link #CONFIG_SERVICE_HTTP_LIMIT} is disabled
+     */
+    public ConcurrencyLimiter limiter() {
+        return limiter;
+    }
+
+    /**
+     * @return request statistics per method and route template
+     */
+    public RouteMetrics routeMetrics() {
+        return routeMetrics;
+    }
+
     @Override
     public void start() {
         try {
@@ -86,28 +141,48 @@ public class HttpServer extends Service {
             }
             server.setExecutor(GLOBAL_THREAD_POOL);
             server.createContext("/", exchange -> {
-                final HttpObject request = new HttpObject(exchange);
-                final Event<HttpObject, HttpObject> event = context.newEvent(EVENT_HTTP_REQUEST, () -> request);
+                final HttpObject request = new HttpObject(exchange).multipartLimits(multipartLimits);
+                final long receivedNs = System.nanoTime();
+                routeMetrics.start();
+                HttpObject response = null;
                 try {
-                    final AtomicBoolean internalError = new AtomicBoolean(false);
-                    event.send().peek(setError(internalError)).responseOpt().ifPresentOrElse(
-                            response -> sendResponse(exchange, request, response),
-                            () -> context.newEvent(EVENT_HTTP_REQUEST_UNHANDLED, () -> request).send().responseOpt().ifPresentOrElse(
-                                    response -> sendResponse(exchange, request, response),
-                                    () -> sendResponse(exchange, request, new HttpObject().failure(internalError.get() ? 500 : 404, internalError.get() ? "Internal Server Error" : "Not Found", null))
-                            )
-                    );
-                } catch (final Exception e) {
-                    context.newEvent(EVENT_APP_ERROR).payload(() -> event).error(e).containsEvent(true).send();
-                    event.responseOpt().ifPresentOrElse(
-                            response -> sendResponse(exchange, request, response),
-                            () -> sendResponse(exchange, request, new HttpObject().failure(500, "Internal Server Error", null))
-                    );
+                    try {
+                        final ConcurrencyLimiter currentLimiter = limiter;
+                        if (currentLimiter == null) {
+                            response = handleRequest(exchange, request);
+                        } else if (currentLimiter.acquire(priorityOf(request))) {
+                            final long startNs = System.nanoTime();
+                            int statusCode = 500;
+                            try {
+                                response = handleRequest(exchange, request);
+                                statusCode = response.statusCode();
+                            } finally {
+                                currentLimiter.release(System.nanoTime() - startNs, statusCode == 503 || statusCode == 504);
+                            }
+                        } else {
+                            response = new HttpObject()
+                                .failure(503, "Service Unavailable", null)
+                                .header(HttpHeaders.RETRY_AFTER, Math.max(1, (currentLimiter.maxWaitMs() + 999) / 1000));
+                            sendResponse(exchange, request, response);
+                        }
+                    } finally {
+                        routeMetrics.end(request.methodType(), request.route(), response == null ? 500 : statusCodeOf(response),
+                            System.nanoTime() - receivedNs, contentLengthOf(request), response == null ? -1 : response.body().length);
+                    }
+                    // long-lived streams don't hold a concurrency slot
+                    if (response.eventStream() != null)
+                        serveEventStream(exchange, response.eventStream());
+                } finally {
+                    // e.g. temp files of multipart uploads
+                    request.cleanup();
                 }
             });
             server.start();
             context.info(() -> "[{}] starting on port [{}]", name(), context.get(CONFIG_SERVICE_HTTP_PORT));
-            context.asBooleanOpt(CONFIG_SERVICE_HTTP_CLIENT).map(shouldStart -> context.service(HttpClient.class) == null ? true : null).ifPresent(start -> context.runAwait(new HttpClient()));
+            // the client starts with the first request
+            context.asBooleanOpt(CONFIG_SERVICE_HTTP_CLIENT).filter(Boolean::booleanValue)
+                .filter(shouldStart -> context.nano().services().stream().noneMatch(service -> HttpClient.class.isAssignableFrom(LazyService.typeOf(service))))
+                .ifPresent(start -> context.runAwait(LazyService.of(HttpClient.class, HttpClient::new, EVENT_SEND_HTTP)));
         } catch (final IOException e) {
             context.error(e, () -> "[{}] failed to start with port [{}]", name(), context.get(CONFIG_SERVICE_HTTP_PORT));
         } finally {
@@ -115,6 +190,89 @@ public class HttpServer extends Service {
         }
     }
 
+    /**
+     * Sends {@link #EVENT_HTTP_REQUEST_FILTER} unless no listener is subscribed, which saves an event per request for servers without filters.
+     *
+     * @param requestContext context of the request
+     * @param request        the request
+     * @return the response of a filter which short circuits the request
+     */
+    protected Optional<HttpObject> filter(final Context requestContext, final HttpObject request) {
+        if (context.nano().listeners().array(EVENT_HTTP_REQUEST_FILTER.id()).length == 0)
+            return Optional.empty();
+        return requestContext.newEvent(EVENT_HTTP_REQUEST_FILTER, () -> request).send().responseOpt();
+    }
+
+    /**
+     * Sends the request to the listeners and services and answers with their response, 404 if nobody felt responsible or 500 on errors.
+     * A response to {@link #EVENT_HTTP_REQUEST_FILTER} (e.g. rate limits) short circuits the request before it reaches {@link #EVENT_HTTP_REQUEST}.
+     * The filter event is only sent while listeners are subscribed to it.
+     * Requests with a deadline (see {@link #timeoutOf(HttpObject)}) get a lightweight request context (see {@link Context#newEmptyContext(Class)})
+     * which carries the deadline without copying the configs, requests arriving already expired are answered with 504.
+     *
+     * @param exchange the exchange of the request
+     * @param request  the request
+     * @return the response which was sent
+     */
+    protected HttpObject handleRequest(final HttpExchange exchange, final HttpObject request) {
+        final long timeoutMs = timeoutOf(request);
+        final Context requestContext = timeoutMs < 0 ? context : context.newEmptyContext(HttpServer.class).timeoutMs(timeoutMs);
+        final Event<HttpObject, HttpObject> event = requestContext.newEvent(EVENT_HTTP_REQUEST, () -> request);
+        HttpObject response;
+        try {
+            final AtomicBoolean internalError = new AtomicBoolean(false);
+            if (timeoutMs == 0) {
+                requestContext.deadlineExceeded("http_server");
+                response = new HttpObject().failure(504, "Gateway Timeout", "Deadline exceeded");
+            } else {
+                response = filter(requestContext, request)
+                    .or(() -> event.send().peek(setError(internalError)).responseOpt())
+                    .or(() -> requestContext.newEvent(EVENT_HTTP_REQUEST_UNHANDLED, () -> request).send().responseOpt())
+                    .orElseGet(() -> new HttpObject().failure(internalError.get() ? 500 : 404, internalError.get() ? "Internal Server Error" : "Not Found", null));
+            }
+        } catch (final Exception e) {
+            requestContext.newEvent(EVENT_APP_ERROR).payload(() -> event).error(e).containsEvent(true).send();
+            response = event.responseOpt().orElseGet(() -> new HttpObject().failure(500, "Internal Server Error", null));
+        }
+        sendResponse(exchange, request, response);
+        return response;
+    }
+
+    /**
+     * Resolves the time budget of a request from the {@link HttpHeaders#X_REQUEST_TIMEOUT_MS} header and the configured route deadlines.
+     * The tighter budget wins.
+     *
+     * @param request the request
+     * @return timeout in milliseconds, {@code -1} if the request has no deadline
+     */
+    protected long timeoutOf(final HttpObject request) {
+        long result = defaultTimeoutMs;
+        for (final Map.Entry<String, Long> route : routeTimeouts.entrySet()) {
+            if (request.pathMatches(route.getKey())) {
+                result = route.getValue();
+                break;
+            }
+        }
+        final String header = request.header(HttpHeaders.X_REQUEST_TIMEOUT_MS);
+        if (header != null) {
+            try {
+                final long budget = Math.max(0, Long.parseLong(header.trim()));
+                result = result < 0 ? budget : Math.min(result, budget);
+            } catch (final NumberFormatException ignored) {
+                // invalid budgets are ignored
+            }
+        }
+        return result;
+    }
+
+    protected ConcurrencyLimiter.Priority priorityOf(final HttpObject request) {
+        if (!highPriorityRoutes.isEmpty() && highPriorityRoutes.stream().anyMatch(request::pathMatches))
+            return ConcurrencyLimiter.Priority.HIGH;
+        if (!lowPriorityRoutes.isEmpty() && lowPriorityRoutes.stream().anyMatch(request::pathMatches))
+            return ConcurrencyLimiter.Priority.LOW;
+        return ConcurrencyLimiter.Priority.NORMAL;
+    }
+
     @Override
     public void stop() {
         if (server != null) {
@@ -128,7 +286,8 @@ public class HttpServer extends Service {
 
     @Override
     public void onEvent(final Event<?, ?> event) {
-        if (server == null)
+        // certificates are reloaded on the running server
+        if (server != null)
             event.channel(EVENT_FILE_CHANGE).map(Event::payload).flatMap(FileChangeEvent::group).ifPresent(group -> {
                 if (group.equals(CONFIG_SERVICE_HTTPS_CERT))
                     configureHttps(context, server);
@@ -137,6 +296,28 @@ public class HttpServer extends Service {
 
     @Override
     public void configure(final TypeMapI<?> configs, final TypeMapI<?> merged) {
+        if (configs == merged || configs.containsKey(CONFIG_SERVICE_HTTP_TIMEOUT_MS) || configs.containsKey(CONFIG_SERVICE_HTTP_TIMEOUT_ROUTES)) {
+            defaultTimeoutMs = merged.asLongOpt(CONFIG_SERVICE_HTTP_TIMEOUT_MS).filter(ms -> ms > 0).orElse(-1L);
+            routeTimeouts = routeTimeoutsOf(splitConfig(merged, CONFIG_SERVICE_HTTP_TIMEOUT_ROUTES));
+        }
+        if (configs == merged || hasLimitConfig(configs)) {
+            highPriorityRoutes = splitConfig(merged, CONFIG_SERVICE_HTTP_LIMIT_HIGH_ROUTES);
+            lowPriorityRoutes = splitConfig(merged, CONFIG_SERVICE_HTTP_LIMIT_LOW_ROUTES);
+            limiter = merged.asBooleanOpt(CONFIG_SERVICE_HTTP_LIMIT).filter(Boolean::booleanValue).map(enabled -> new ConcurrencyLimiter(
+                    merged.asIntOpt(CONFIG_SERVICE_HTTP_LIMIT_MIN).orElse(4),
+                    merged.asIntOpt(CONFIG_SERVICE_HTTP_LIMIT_MAX).orElse(1000),
+                    merged.asIntOpt(CONFIG_SERVICE_HTTP_LIMIT_QUEUE).orElse(256),
+                    merged.asLongOpt(CONFIG_SERVICE_HTTP_LIMIT_QUEUE_MS).orElse(1000L)
+            )).orElse(null);
+        }
+        if (configs == merged || hasMultipartConfig(configs)) {
+            multipartLimits = new Multipart.Limits(
+                merged.asLongOpt(CONFIG_SERVICE_HTTP_MULTIPART_MEMORY).filter(bytes -> bytes >= 0).orElse(Multipart.Limits.DEFAULT.memoryThreshold()),
+                merged.asLongOpt(CONFIG_SERVICE_HTTP_MULTIPART_MAX_PART).orElse(-1L),
+                merged.asLongOpt(CONFIG_SERVICE_HTTP_MULTIPART_MAX).orElse(-1L),
+                merged.asStringOpt(CONFIG_SERVICE_HTTP_MULTIPART_DIR).filter(NanoUtils::hasText).map(Path::of).orElse(null)
+            );
+        }
         if (hasHttpsConfig(merged) && server != null) {
             context.putAll(configs);
             refreshCertWatchers(context);
@@ -144,11 +325,54 @@ public class HttpServer extends Service {
         }
     }
 
+    @Override
+    public Set<String> configKeys() {
+        return Set.of("app_service_http", "app_service_https");
+    }
+
+    /**
+     * Sends one request to this server, which loads the classes of the request path.
+     *
+     * @param context the context of the training run
+     */
+    @Override
+    public void train(final Context context) {
+        final int port = port();
+        if (port > 0 && context.newEvent(EVENT_SEND_HTTP, () -> new HttpObject().methodType(GET).path("http://localhost:" + port + "/")).send().response() == null)
+            context.warn(() -> "Training request to port [{}] was not sent, no [{}] is registered", port, HttpClient.class.getSimpleName());
+    }
+
     @Override
     public Object onFailure(final Event<?, ?> error) {
         return null;
     }
 
+    protected static Map<String, Long> routeTimeoutsOf(final List<String> routes) {
+        final Map<String, Long> result = new LinkedHashMap<>();
+        for (final String route : routes) {
+            final int index = route.lastIndexOf('=');
+            if (index > 0) {
+                try {
+                    final long timeoutMs = Long.parseLong(route.substring(index + 1).trim());
+                    if (timeoutMs > 0)
+                        result.put(route.substring(0, index).trim(), timeoutMs);
+                } catch (final NumberFormatException ignored) {
+                    // invalid routes are ignored
+                }
+            }
+        }
+        return result;
+    }
+
+    protected static boolean hasLimitConfig(final Map<?, ?> config) {
+        return Stream.of(CONFIG_SERVICE_HTTP_LIMIT, CONFIG_SERVICE_HTTP_LIMIT_MIN, CONFIG_SERVICE_HTTP_LIMIT_MAX, CONFIG_SERVICE_HTTP_LIMIT_QUEUE,
+                CONFIG_SERVICE_HTTP_LIMIT_QUEUE_MS, CONFIG_SERVICE_HTTP_LIMIT_HIGH_ROUTES, CONFIG_SERVICE_HTTP_LIMIT_LOW_ROUTES).anyMatch(config::containsKey);
+    }
+
+    protected static boolean hasMultipartConfig(final Map<?, ?> config) {
+        return Stream.of(CONFIG_SERVICE_HTTP_MULTIPART_MEMORY, CONFIG_SERVICE_HTTP_MULTIPART_MAX_PART, CONFIG_SERVICE_HTTP_MULTIPART_MAX, CONFIG_SERVICE_HTTP_MULTIPART_DIR).anyMatch(config::containsKey);
+    }
+
     protected static boolean hasHttpsConfig(final Map<?, ?> config) {
         return config.containsKey(CONFIG_SERVICE_HTTPS_CERT)
                 || config.containsKey(CONFIG_SERVICE_HTTPS_KEY)
@@ -167,16 +391,20 @@ public class HttpServer extends Service {
 
     protected void sendResponse(final HttpExchange exchange, final HttpObject request, final HttpObject response) {
         try {
+            if (response.eventStream() != null) {
+                // headers only, the stream follows chunked and uncompressed
+                response.writeHeaders(exchange.getResponseHeaders()).remove(HttpHeaders.CONTENT_LENGTH);
+                exchange.sendResponseHeaders(statusCodeOf(response), 0);
+                return;
+            }
             byte[] body = response.body();
-            final int statusCode = response.statusCode() > -1 && response.statusCode() < 600 ? response.statusCode() : 200;
+            final int statusCode = statusCodeOf(response);
             final Optional<String> encoding = request.acceptEncodings().stream().filter(s -> s.equals("gzip") || s.equals("deflate")).findFirst();
-            response.headerMap().remove("#throwable#");
-            response.headerMap().asMap(String.class, value -> collectionOf(value, String.class)).forEach((key, value) -> exchange.getResponseHeaders().put(key, value));
-            response.computedHeaders(false).forEach((key, value) -> exchange.getResponseHeaders().put(key, value));
+            response.writeHeaders(exchange.getResponseHeaders());
 
             if (encoding.isPresent())
                 body = encodeBody(body, encoding.get());
-            exchange.getResponseHeaders().put(HttpHeaders.CONTENT_ENCODING, List.of(encoding.orElse("identity")));
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_ENCODING, encoding.orElse("identity"));
             exchange.sendResponseHeaders(statusCode, body.length);
             try (final OutputStream os = exchange.getResponseBody()) {
                 os.write(body);
@@ -186,6 +414,36 @@ public class HttpServer extends Service {
         }
     }
 
+    /**
+     * Pushes the messages of the {@link EventStream} to the client until it disconnects, parks the virtual thread of the request meanwhile.
+     *
+     * @param exchange the exchange of the request, its headers are already sent
+     * @param stream   the stream to serve
+     */
+    protected void serveEventStream(final HttpExchange exchange, final EventStream stream) {
+        try (final OutputStream os = exchange.getResponseBody()) {
+            stream.serve(os);
+        } catch (final IOException ignored) {
+            // client disconnected
+        }
+    }
+
+    protected static int statusCodeOf(final HttpObject response) {
+        return response.statusCode() > -1 && response.statusCode() < 600 ? response.statusCode() : 200;
+    }
+
+    /**
+     * @return the {@link HttpHeaders#CONTENT_LENGTH} of the request without reading its body, {@code -1} if unknown
+     */
+    protected static long contentLengthOf(final HttpObject request) {
+        final String length = request.header(HttpHeaders.CONTENT_LENGTH);
+        try {
+            return length == null ? -1 : Long.parseLong(length.trim());
+        } catch (final NumberFormatException ignored) {
+            return -1;
+        }
+    }
+
     protected byte[] encodeBody(final byte[] body, final String contentEncoding) {
         if ("gzip".equalsIgnoreCase(contentEncoding)) {
             return NanoUtils.encodeGzip(body);
@@ -0,0 +1,313 @@
+package org.nanonative.nano.services.http;
+
+import javax.crypto.Cipher;
+import javax.crypto.EncryptedPrivateKeyInfo;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Reads PEM private keys in memory without external tools.
+ * <p>
+ * Supported blocks are {@code PRIVATE KEY} (PKCS#8), {@code ENCRYPTED PRIVATE KEY} (PKCS#8 with the PBE algorithms of the
+ * JDK), {@code RSA PRIVATE KEY} (PKCS#1) and {@code EC PRIVATE KEY} (SEC1). PKCS#1 and SEC1 keys are wrapped into PKCS#8
+ * and may be encrypted with the OpenSSL {@code Proc-Type: 4,ENCRYPTED} header using AES-CBC or DES-CBC.
+ * </p>
+ */
+@SuppressWarnings("java:S112")
+public class PrivateKeyReader {
+
+    // DER tags
+    protected static final int TAG_INTEGER = 0x02;
+    protected static final int TAG_OCTET_STRING = 0x04;
+    protected static final int TAG_NULL = 0x05;
+    protected static final int TAG_OID = 0x06;
+    protected static final int TAG_SEQUENCE = 0x30;
+    protected static final int TAG_EC_PARAMETERS = 0xA0;
+
+    // Algorithm OIDs
+    protected static final byte[] OID_RSA = {0x2A, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xF7, 0x0D, 0x01, 0x01, 0x01};
+    protected static final byte[] OID_RSA_PSS = {0x2A, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xF7, 0x0D, 0x01, 0x01, 0x0A};
+    protected static final byte[] OID_EC = {0x2A, (byte) 0x86, 0x48, (byte) 0xCE, 0x3D, 0x02, 0x01};
+    protected static final byte[] OID_DSA = {0x2A, (byte) 0x86, 0x48, (byte) 0xCE, 0x38, 0x04, 0x01};
+    protected static final byte[] OID_X25519 = {0x2B, 0x65, 0x6E};
+    protected static final byte[] OID_X448 = {0x2B, 0x65, 0x6F};
+    protected static final byte[] OID_ED25519 = {0x2B, 0x65, 0x70};
+    protected static final byte[] OID_ED448 = {0x2B, 0x65, 0x71};
+
+    /**
+     * Reads the first private key of a PEM file.
+     *
+     * @param file     PEM file
+     * @param password password of an encrypted key, nullable
+     * @return the private key
+     * @throws IOException              if the file cannot be read
+     * @throws GeneralSecurityException if the key cannot be decrypted or decoded
+     */
+    public static PrivateKey read(final Path file, final char[] password) throws IOException, GeneralSecurityException {
+        return read(Files.readString(file, StandardCharsets.US_ASCII), password);
+    }
+
+    /**
+     * Reads the first private key block of a PEM text. Other blocks like {@code EC PARAMETERS} are skipped.
+     *
+     * @param pem      PEM text
+     * @param password password of an encrypted key, nullable
+     * @return the private key
+     * @throws GeneralSecurityException if the key cannot be decrypted or decoded
+     */
+    public static PrivateKey read(final String pem, final char[] password) throws GeneralSecurityException {
+        int begin = pem.indexOf("-----BEGIN ");
+        while (begin >= 0) {
+            final int typeEnd = pem.indexOf("-----", begin + 11);
+            if (typeEnd < 0)
+                break;
+            final String type = pem.substring(begin + 11, typeEnd);
+            final String endMarker = "-----END " + type + "-----";
+            final int end = pem.indexOf(endMarker, typeEnd);
+            if (end < 0)
+                throw new IllegalArgumentException("Missing [" + endMarker + "]");
+            if (type.endsWith("PRIVATE KEY"))
+                return readBlock(type, pem.substring(typeEnd + 5, end), password);
+            begin = pem.indexOf("-----BEGIN ", end + endMarker.length());
+        }
+        throw new IllegalArgumentException("No PEM private key found");
+    }
+
+    /**
+     * Converts the first private key of a PEM text to an unencrypted PKCS#8 DER encoding.
+     *
+     * @param pem      PEM text
+     * @param password password of an encrypted key, nullable
+     * @return PKCS#8 DER encoding
+     * @throws GeneralSecurityException if the key cannot be decrypted or decoded
+     */
+    public static byte[] toPkcs8(final String pem, final char[] password) throws GeneralSecurityException {
+        return read(pem, password).getEncoded();
+    }
+
+    protected static PrivateKey readBlock(final String type, final String block, final char[] password) throws GeneralSecurityException {
+        final StringBuilder base64 = new StringBuilder(block.length());
+        String dekInfo = null;
+        for (final String line : block.split("\\R")) {
+            final int colon = line.indexOf(':');
+            if (colon > 0) {
+                if (line.regionMatches(true, 0, "DEK-Info", 0, colon))
+                    dekInfo = line.substring(colon + 1).trim();
+            } else {
+                base64.append(line.trim());
+            }
+        }
+        byte[] der = Base64.getDecoder().decode(base64.toString());
+        if (dekInfo != null)
+            der = decryptLegacy(der, dekInfo, password);
+        return switch (type) {
+            case "PRIVATE KEY" -> pkcs8(der);
+            case "ENCRYPTED PRIVATE KEY" -> decryptPkcs8(der, password);
+            case "RSA PRIVATE KEY" -> pkcs8(wrapPkcs8(sequence(der(TAG_OID, OID_RSA), der(TAG_NULL)), der));
+            case "EC PRIVATE KEY" -> pkcs8(wrapPkcs8(sequence(der(TAG_OID, OID_EC), curveOf(der)), der));
+            default -> throw new IllegalArgumentException("Unsupported PEM key type [" + type + "]");
+        };
+    }
+
+    /**
+     * @param der PKCS#8 DER encoding
+     * @return the private key of the algorithm named in the encoding
+     */
+    protected static PrivateKey pkcs8(final byte[] der) throws GeneralSecurityException {
+        return KeyFactory.getInstance(algorithmOf(der)).generatePrivate(new PKCS8EncodedKeySpec(der));
+    }
+
+    protected static PrivateKey decryptPkcs8(final byte[] der, final char[] password) throws GeneralSecurityException {
+        if (password == null)
+            throw new IllegalArgumentException("Missing password for encrypted private key");
+        try {
+            final EncryptedPrivateKeyInfo info = new EncryptedPrivateKeyInfo(der);
+            final String algorithm = info.getAlgName();
+            final PKCS8EncodedKeySpec spec = info.getKeySpec(SecretKeyFactory.getInstance(algorithm).generateSecret(new PBEKeySpec(password)));
+            return pkcs8(spec.getEncoded());
+        } catch (final IOException e) {
+            throw new GeneralSecurityException("Invalid encrypted private key", e);
+        }
+    }
+
+    /**
+     * Decrypts a key of the OpenSSL {@code Proc-Type: 4,ENCRYPTED} format, the key derivation is {@code EVP_BytesToKey}
+     * with MD5, one iteration and the first eight bytes of the IV as salt.
+     */
+    protected static byte[] decryptLegacy(final byte[] der, final String dekInfo, final char[] password) throws GeneralSecurityException {
+        if (password == null)
+            throw new IllegalArgumentException("Missing password for encrypted private key");
+        final int comma = dekInfo.indexOf(',');
+        final String cipherName = dekInfo.substring(0, Math.max(comma, 0)).trim().toUpperCase(Locale.ROOT);
+        final byte[] iv = HexFormat.of().parseHex(dekInfo.substring(comma + 1).trim());
+        final String transformation;
+        final int keyLength;
+        switch (cipherName) {
+            case "AES-128-CBC" -> {
+                transformation = "AES/CBC/PKCS5Padding";
+                keyLength = 16;
+            }
+            case "AES-192-CBC" -> {
+                transformation = "AES/CBC/PKCS5Padding";
+                keyLength = 24;
+            }
+            case "AES-256-CBC" -> {
+                transformation = "AES/CBC/PKCS5Padding";
+                keyLength = 32;
+            }
+            case "DES-EDE3-CBC" -> {
+                transformation = "DESede/CBC/PKCS5Padding";
+                keyLength = 24;
+            }
+            case "DES-CBC" -> {
+                transformation = "DES/CBC/PKCS5Padding";
+                keyLength = 8;
+            }
+            default -> throw new IllegalArgumentException("Unsupported PEM encryption [" + dekInfo + "]");
+        }
+        final byte[] passwordBytes = new String(password).getBytes(StandardCharsets.UTF_8);
+        final byte[] key = bytesToKey(passwordBytes, Arrays.copyOf(iv, 8), keyLength);
+        try {
+            final Cipher cipher = Cipher.getInstance(transformation);
+            cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key, transformation.substring(0, transformation.indexOf('/'))), new IvParameterSpec(iv));
+            return cipher.doFinal(der);
+        } finally {
+            Arrays.fill(passwordBytes, (byte) 0);
+            Arrays.fill(key, (byte) 0);
+        }
+    }
+
+    protected static byte[] bytesToKey(final byte[] password, final byte[] salt, final int keyLength) throws GeneralSecurityException {
+        final MessageDigest md5 = MessageDigest.getInstance("MD5");
+        final byte[] key = new byte[keyLength];
+        byte[] digest = new byte[0];
+        for (int offset = 0; offset < keyLength; offset += digest.length) {
+            md5.update(digest);
+            md5.update(password);
+            md5.update(salt);
+            digest = md5.digest();
+            System.arraycopy(digest, 0, key, offset, Math.min(digest.length, keyLength - offset));
+        }
+        return key;
+    }
+
+    /**
+     * @param privateKey PKCS#1 or SEC1 DER encoding
+     * @return PKCS#8 {@code PrivateKeyInfo} with version 0, the algorithm identifier and the key as octet string
+     */
+    protected static byte[] wrapPkcs8(final byte[] algorithm, final byte[] privateKey) {
+        return sequence(der(TAG_INTEGER, new byte[]{0}), algorithm, der(TAG_OCTET_STRING, privateKey));
+    }
+
+    /**
+     * @param sec1 SEC1 {@code ECPrivateKey} DER encoding
+     * @return the encoded named curve OID of the {@code [0] parameters} field
+     */
+    protected static byte[] curveOf(final byte[] sec1) {
+        final int[] key = tlv(sec1, 0);
+        for (int offset = key[1]; offset < key[2]; ) {
+            final int[] field = tlv(sec1, offset);
+            if (field[0] == TAG_EC_PARAMETERS) {
+                final int[] curve = tlv(sec1, field[1]);
+                if (curve[0] != TAG_OID)
+                    throw new IllegalArgumentException("Unsupported EC parameters, only named curves are supported");
+                return Arrays.copyOfRange(sec1, field[1], curve[2]);
+            }
+            offset = field[2];
+        }
+        throw new IllegalArgumentException("EC private key without curve parameters");
+    }
+
+    /**
+     * @param pkcs8 PKCS#8 DER encoding
+     * @return JCA name of the key algorithm
+     */
+    protected static String algorithmOf(final byte[] pkcs8) {
+        final int[] info = tlv(pkcs8, 0);
+        final int[] version = tlv(pkcs8, info[1]);
+        final int[] algorithm = tlv(pkcs8, version[2]);
+        final int[] oid = tlv(pkcs8, algorithm[1]);
+        final byte[] value = Arrays.copyOfRange(pkcs8, oid[1], oid[2]);
+        if (Arrays.equals(value, OID_RSA)) return "RSA";
+        if (Arrays.equals(value, OID_EC)) return "EC";
+        if (Arrays.equals(value, OID_RSA_PSS)) return "RSASSA-PSS";
+        if (Arrays.equals(value, OID_ED25519)) return "Ed25519";
+        if (Arrays.equals(value, OID_ED448)) return "Ed448";
+        if (Arrays.equals(value, OID_X25519)) return "X25519";
+        if (Arrays.equals(value, OID_X448)) return "X448";
+        if (Arrays.equals(value, OID_DSA)) return "DSA";
+        throw new IllegalArgumentException("Unsupported key algorithm [" + HexFormat.of().formatHex(value) + "]");
+    }
+
+    /**
+     * Reads the header of a DER element.
+     *
+     * @param der    DER encoding
+     * @param offset start of the element
+     * @return tag, start and end of the value
+     */
+    protected static int[] tlv(final byte[] der, final int offset) {
+        if (offset + 1 >= der.length)
+            throw new IllegalArgumentException("Invalid DER encoding at [" + offset + "]");
+        final int tag = der[offset] & 0xFF;
+        int length = der[offset + 1] & 0xFF;
+        int start = offset + 2;
+        if (length > 0x7F) {
+            final int bytes = length & 0x7F;
+            if (bytes > 4 || start + bytes > der.length)
+                throw new IllegalArgumentException("Invalid DER length at [" + offset + "]");
+            length = 0;
+            for (int i = 0; i < bytes; i++)
+                length = (length << 8) | (der[start++] & 0xFF);
+        }
+        if (length < 0 || start + length > der.length)
+            throw new IllegalArgumentException("Invalid DER length at [" + offset + "]");
+        return new int[]{tag, start, start + length};
+    }
+
+    protected static byte[] sequence(final byte[]... elements) {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (final byte[] element : elements)
+            content.writeBytes(element);
+        return der(TAG_SEQUENCE, content.toByteArray());
+    }
+
+    protected static byte[] der(final int tag, final byte... value) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(value.length + 6);
+        out.write(tag);
+        if (value.length < 0x80) {
+            out.write(value.length);
+        } else {
+            final int bytes = (32 - Integer.numberOfLeadingZeros(value.length) + 7) / 8;
+            out.write(0x80 | bytes);
+            for (int i = bytes - 1; i >= 0; i--)
+                out.write(value.length >>> (i * 8));
+        }
+        out.writeBytes(value);
+        return out.toByteArray();
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a static utility class.
+     */
+    private PrivateKeyReader() {
+        // Utility class
+    }
+}
@@ -0,0 +1,130 @@
+package org.nanonative.nano.services.http;
+
+import org.nanonative.nano.services.http.model.HttpMethod;
+import org.nanonative.nano.services.metric.model.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request statistics of the {@link HttpServer} per method and route template.
+ * <p>
+ * Routes are the path expressions of {@link org.nanonative.nano.services.http.model.HttpObject#pathMatch(String)}, never raw
+ * paths, and are capped at {@link #MAX_ROUTES} to keep the number of series bounded. Each route holds its cells (status class
+ * counters, latency and size histograms) which are created once and recorded lock free, so a request costs a map lookup and
+ * a few atomic increments. The {@link org.nanonative.nano.services.metric.logic.MetricService} binds the cells on heartbeat.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class RouteMetrics {
+
+    public static final int MAX_ROUTES = 512;
+    public static final String UNMATCHED_ROUTE = "unmatched";
+    public static final String OTHER_ROUTE = "other";
+    public static final String OTHER_METHOD = "OTHER";
+    public static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+    /**
+     * Boundaries for request and response sizes in bytes.
+     */
+    public static final double[] BUCKETS_BYTES = {128, 512, 1024, 4096, 16384, 65536, 262144, 1048576, 4194304, 16777216, 67108864};
+    protected static final HttpMethod[] METHODS = HttpMethod.values();
+
+    protected final Map<String, Route[]> routes = new ConcurrentHashMap<>();
+    protected final AtomicLong active = new AtomicLong();
+
+    /**
+     * Cells of one method and route template.
+     */
+    public record Route(String method, String route, AtomicLong[] statusCounts, Histogram latencyMs, Histogram requestBytes, Histogram responseBytes) {
+
+        /**
+         * @param statusClass index of {@link #STATUS_CLASSES}
+         * @return the counter cell of the status class
+         */
+        public long requests(final int statusClass) {
+            return statusCounts[statusClass].get();
+        }
+    }
+
+    /**
+     * Marks a request as started, see {@link #active()}.
+     */
+    public void start() {
+        active.incrementAndGet();
+    }
+
+    /**
+     * Records a completed request and ends it.
+     *
+     * @param method        request method, {@code null} for unknown methods
+     * @param route         matched route template, {@code null} if no route matched
+     * @param statusCode    response status
+     * @param durationNs    time from receiving the request to sending the response
+     * @param requestBytes  request body size
+     * @param responseBytes response body size
+     */
+    public void end(final HttpMethod method, final String route, final int statusCode, final long durationNs, final long requestBytes, final long responseBytes) {
+        active.decrementAndGet();
+        final Route cells = cellsOf(method, route);
+        cells.statusCounts[Math.clamp(statusCode / 100 - 1, 0, STATUS_CLASSES.length - 1)].incrementAndGet();
+        cells.latencyMs.record(durationNs / 1_000_000d);
+        if (requestBytes >= 0)
+            cells.requestBytes.record(requestBytes);
+        if (responseBytes >= 0)
+            cells.responseBytes.record(responseBytes);
+    }
+
+    /**
+     * @return requests which are currently handled
+     */
+    public long active() {
+        return active.get();
+    }
+
+    /**
+     * @return cells of all recorded methods and routes
+     */
+    public List<Route> routes() {
+        final List<Route> result = new ArrayList<>();
+        routes.values().forEach(cells -> {
+            for (final Route route : cells) {
+                if (route != null)
+                    result.add(route);
+            }
+        });
+        return result;
+    }
+
+    protected Route cellsOf(final HttpMethod method, final String route) {
+        String key = route == null ? UNMATCHED_ROUTE : route;
+        Route[] cells = routes.get(key);
+        if (cells == null) {
+            // routes beyond the cap share one series
+            if (routes.size() >= MAX_ROUTES)
+                key = OTHER_ROUTE;
+            cells = routes.computeIfAbsent(key, k -> new Route[METHODS.length + 1]);
+        }
+        final int index = method == null ? METHODS.length : method.ordinal();
+        Route result = cells[index];
+        if (result == null) {
+            synchronized (cells) {
+                result = cells[index];
+                if (result == null) {
+                    result = new Route(method == null ? OTHER_METHOD : method.name(), key, counters(STATUS_CLASSES.length), new Histogram(), new Histogram(BUCKETS_BYTES), new Histogram(BUCKETS_BYTES));
+                    cells[index] = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    protected static AtomicLong[] counters(final int size) {
+        final AtomicLong[] result = new AtomicLong[size];
+        for (int i = 0; i < size; i++)
+            result[i] = new AtomicLong();
+        return result;
+    }
+}
@@ -0,0 +1,138 @@
+package org.nanonative.nano.services.http;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.X509ExtendedKeyManager;
+import java.net.Socket;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.Objects;
+
+/**
+ * Key manager which delegates to a replaceable key manager. The {@link javax.net.ssl.SSLContext} and its session cache stay
+ * the same while certificates are swapped, so existing sessions stay resumable. New handshakes use the new certificates.
+ * <p>
+ * Chosen aliases carry the generation of their key manager, so a handshake which overlaps a swap still gets the key and
+ * the certificate chain of the same key manager. Server aliases are only chosen during full handshakes, the handshake
+ * session is marked with {@link #FULL_HANDSHAKE}.
+ * </p>
+ */
+public class SwappableKeyManager extends X509ExtendedKeyManager {
+
+    public static final String FULL_HANDSHAKE = "nano_tls_full_handshake";
+    protected volatile Generation current;
+    protected volatile Generation previous;
+
+    protected record Generation(int id, X509ExtendedKeyManager keyManager) {
+
+        String alias(final String alias) {
+            return alias == null ? null : id + ":" + alias;
+        }
+
+        String[] aliases(final String[] aliases) {
+            if (aliases == null)
+                return null;
+            final String[] result = new String[aliases.length];
+            for (int i = 0; i < aliases.length; i++)
+                result[i] = alias(aliases[i]);
+            return result;
+        }
+    }
+
+    public SwappableKeyManager(final X509ExtendedKeyManager delegate) {
+        this.current = new Generation(0, Objects.requireNonNull(delegate, "delegate"));
+    }
+
+    /**
+     * Replaces the certificates for all following handshakes.
+     *
+     * @param keyManager new key manager
+     * @return self for chaining
+     */
+    public synchronized SwappableKeyManager swap(final X509ExtendedKeyManager keyManager) {
+        final Generation active = current;
+        current = new Generation(active.id() + 1, Objects.requireNonNull(keyManager, "keyManager"));
+        previous = active;
+        return this;
+    }
+
+    public X509ExtendedKeyManager delegate() {
+        return current.keyManager();
+    }
+
+    @Override
+    public String chooseEngineServerAlias(final String keyType, final Principal[] issuers, final SSLEngine engine) {
+        final Generation active = current;
+        final String alias = active.keyManager().chooseEngineServerAlias(keyType, issuers, engine);
+        if (alias != null && engine != null) {
+            final SSLSession session = engine.getHandshakeSession();
+            if (session != null)
+                session.putValue(FULL_HANDSHAKE, Boolean.TRUE);
+        }
+        return active.alias(alias);
+    }
+
+    @Override
+    public String chooseEngineClientAlias(final String[] keyType, final Principal[] issuers, final SSLEngine engine) {
+        final Generation active = current;
+        return active.alias(active.keyManager().chooseEngineClientAlias(keyType, issuers, engine));
+    }
+
+    @Override
+    public String[] getClientAliases(final String keyType, final Principal[] issuers) {
+        final Generation active = current;
+        return active.aliases(active.keyManager().getClientAliases(keyType, issuers));
+    }
+
+    @Override
+    public String chooseClientAlias(final String[] keyType, final Principal[] issuers, final Socket socket) {
+        final Generation active = current;
+        return active.alias(active.keyManager().chooseClientAlias(keyType, issuers, socket));
+    }
+
+    @Override
+    public String[] getServerAliases(final String keyType, final Principal[] issuers) {
+        final Generation active = current;
+        return active.aliases(active.keyManager().getServerAliases(keyType, issuers));
+    }
+
+    @Override
+    public String chooseServerAlias(final String keyType, final Principal[] issuers, final Socket socket) {
+        final Generation active = current;
+        return active.alias(active.keyManager().chooseServerAlias(keyType, issuers, socket));
+    }
+
+    @Override
+    public X509Certificate[] getCertificateChain(final String alias) {
+        final Generation generation = generationOf(alias);
+        return generation == null ? null : generation.keyManager().getCertificateChain(alias.substring(alias.indexOf(':') + 1));
+    }
+
+    @Override
+    public PrivateKey getPrivateKey(final String alias) {
+        final Generation generation = generationOf(alias);
+        return generation == null ? null : generation.keyManager().getPrivateKey(alias.substring(alias.indexOf(':') + 1));
+    }
+
+    /**
+     * @param alias alias with generation prefix
+     * @return the current or previous generation of the alias, null if the alias is older or unknown
+     */
+    protected Generation generationOf(final String alias) {
+        final int separator = alias == null ? -1 : alias.indexOf(':');
+        if (separator <= 0)
+            return null;
+        final int id;
+        try {
+            id = Integer.parseInt(alias, 0, separator, 10);
+        } catch (final NumberFormatException ignored) {
+            return null;
+        }
+        final Generation active = current;
+        if (active.id() == id)
+            return active;
+        final Generation last = previous;
+        return last != null && last.id() == id ? last : null;
+    }
+}
@@ -0,0 +1,205 @@
+package org.nanonative.nano.services.http;
+
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsParameters;
+import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.services.metric.model.MetricType;
+import org.nanonative.nano.services.metric.model.MetricUpdate;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLContextSpi;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedKeyManager;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.nanonative.nano.helper.NanoUtils.splitConfig;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTPS_CIPHERS;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTPS_PROTOCOLS;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTPS_SESSION_CACHE;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTPS_SESSION_TIMEOUT;
+import static org.nanonative.nano.services.http.HttpsHelper.TYPE_TLS;
+import static org.nanonative.nano.services.metric.logic.MetricService.EVENT_METRIC_UPDATE;
+
+/**
+ * {@link HttpsConfigurator} with one stable {@link SSLContext} for the lifetime of the server.
+ * <p>
+ * Certificates are swapped through the {@link SwappableKeyManager}, so the session cache survives certificate rotations and
+ * clients keep resuming their sessions. Protocols, cipher suites and the session cache are configured from the
+ * {@code app_service_https_*} configs. Every handshake updates the metrics {@code https.handshakes} (tag {@code resumed}),
+ * {@code https.handshake.ms} and {@code https.resumption.rate}.
+ * </p>
+ */
+@SuppressWarnings("java:S112")
+public class TlsConfigurator extends HttpsConfigurator {
+
+    public static final List<String> DEFAULT_PROTOCOLS = List.of("TLSv1.3", "TLSv1.2");
+    // the built-in server speaks HTTP/1.1 only
+    public static final String[] APPLICATION_PROTOCOLS = {"http/1.1"};
+
+    protected final SwappableKeyManager keyManager;
+    protected final LongAdder handshakes = new LongAdder();
+    protected final LongAdder resumed = new LongAdder();
+    protected volatile SSLParameters parameters;
+    protected volatile Context context;
+
+    /**
+     * Creates the configurator and its {@link SSLContext}.
+     *
+     * @param context    configuration context
+     * @param keyManager initial certificates
+     * @return configured {@link TlsConfigurator}
+     * @throws GeneralSecurityException if the {@link SSLContext} cannot be created
+     */
+    public static TlsConfigurator of(final Context context, final X509ExtendedKeyManager keyManager) throws GeneralSecurityException {
+        final SwappableKeyManager swappable = new SwappableKeyManager(keyManager);
+        final SSLContext tls = SSLContext.getInstance(TYPE_TLS);
+        tls.init(new KeyManager[]{swappable}, null, null);
+        return new TlsConfigurator(new MeteredContextSpi(tls), swappable).configure(context);
+    }
+
+    protected TlsConfigurator(final MeteredContextSpi spi, final SwappableKeyManager keyManager) {
+        super(new SSLContext(spi, spi.delegate.getProvider(), spi.delegate.getProtocol()) {});
+        this.keyManager = keyManager;
+        spi.listener = this::onHandshake;
+    }
+
+    /**
+     * Applies the protocol, cipher and session cache configs. Existing sessions stay in the cache.
+     *
+     * @param context configuration context
+     * @return self for chaining
+     */
+    public TlsConfigurator configure(final Context context) {
+        this.context = context;
+        final SSLContext tls = getSSLContext();
+        final SSLParameters supported = tls.getSupportedSSLParameters();
+        final SSLParameters result = tls.getDefaultSSLParameters();
+        final List<String> protocols = splitConfig(context, CONFIG_SERVICE_HTTPS_PROTOCOLS);
+        result.setProtocols(supportedOf(protocols.isEmpty() ? DEFAULT_PROTOCOLS : protocols, supported.getProtocols(), CONFIG_SERVICE_HTTPS_PROTOCOLS));
+        final List<String> ciphers = splitConfig(context, CONFIG_SERVICE_HTTPS_CIPHERS);
+        if (!ciphers.isEmpty()) {
+            result.setCipherSuites(supportedOf(ciphers, supported.getCipherSuites(), CONFIG_SERVICE_HTTPS_CIPHERS));
+            result.setUseCipherSuitesOrder(true);
+        }
+        result.setApplicationProtocols(APPLICATION_PROTOCOLS);
+        final SSLSessionContext sessions = tls.getServerSessionContext();
+        context.asIntOpt(CONFIG_SERVICE_HTTPS_SESSION_CACHE).filter(size -> size >= 0).ifPresent(sessions::setSessionCacheSize);
+        context.asIntOpt(CONFIG_SERVICE_HTTPS_SESSION_TIMEOUT).filter(seconds -> seconds >= 0).ifPresent(sessions::setSessionTimeout);
+        this.parameters = result;
+        return this;
+    }
+
+    @Override
+    public void configure(final HttpsParameters params) {
+        params.setSSLParameters(parameters);
+    }
+
+    public SwappableKeyManager keyManager() {
+        return keyManager;
+    }
+
+    /**
+     * @return completed handshakes
+     */
+    public long handshakes() {
+        return handshakes.sum();
+    }
+
+    /**
+     * @return completed handshakes which resumed a session
+     */
+    public long resumedHandshakes() {
+        return resumed.sum();
+    }
+
+    protected void onHandshake(final long durationNs, final boolean resumption) {
+        handshakes.increment();
+        if (resumption)
+            resumed.increment();
+        final Context ctx = context;
+        if (ctx == null)
+            return;
+        final Map<String, String> tags = Map.of("resumed", String.valueOf(resumption));
+        final double rate = (double) resumed.sum() / Math.max(1, handshakes.sum());
+        ctx.newEvent(EVENT_METRIC_UPDATE, () -> new MetricUpdate(MetricType.COUNTER, "https.handshakes", 1, tags)).async(true).send();
+        ctx.newEvent(EVENT_METRIC_UPDATE, () -> new MetricUpdate(MetricType.HISTOGRAM, "https.handshake.ms", durationNs / 1_000_000d, tags)).async(true).send();
+        ctx.newEvent(EVENT_METRIC_UPDATE, () -> new MetricUpdate(MetricType.GAUGE, "https.resumption.rate", rate, null)).async(true).send();
+    }
+
+    protected static String[] supportedOf(final List<String> wanted, final String[] supported, final String config) {
+        final List<String> available = Arrays.asList(supported);
+        final String[] result = wanted.stream().filter(available::contains).toArray(String[]::new);
+        if (result.length == 0)
+            throw new IllegalArgumentException("None of " + wanted + " is supported for [" + config + "]");
+        return result;
+    }
+
+    /**
+     * Delegates to the real {@link SSLContext} and wraps its engines into {@link MeteredSSLEngine}s.
+     */
+    protected static class MeteredContextSpi extends SSLContextSpi {
+
+        protected final SSLContext delegate;
+        protected volatile MeteredSSLEngine.HandshakeListener listener = (durationNs, resumed) -> {};
+
+        protected MeteredContextSpi(final SSLContext delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected void engineInit(final KeyManager[] km, final TrustManager[] tm, final SecureRandom sr) {
+            throw new UnsupportedOperationException("Initialized by " + TlsConfigurator.class.getSimpleName());
+        }
+
+        @Override
+        protected SSLSocketFactory engineGetSocketFactory() {
+            return delegate.getSocketFactory();
+        }
+
+        @Override
+        protected SSLServerSocketFactory engineGetServerSocketFactory() {
+            return delegate.getServerSocketFactory();
+        }
+
+        @Override
+        protected SSLEngine engineCreateSSLEngine() {
+            return new MeteredSSLEngine(delegate.createSSLEngine(), listener);
+        }
+
+        @Override
+        protected SSLEngine engineCreateSSLEngine(final String host, final int port) {
+            return new MeteredSSLEngine(delegate.createSSLEngine(host, port), listener);
+        }
+
+        @Override
+        protected SSLSessionContext engineGetServerSessionContext() {
+            return delegate.getServerSessionContext();
+        }
+
+        @Override
+        protected SSLSessionContext engineGetClientSessionContext() {
+            return delegate.getClientSessionContext();
+        }
+
+        @Override
+        protected SSLParameters engineGetDefaultSSLParameters() {
+            return delegate.getDefaultSSLParameters();
+        }
+
+        @Override
+        protected SSLParameters engineGetSupportedSSLParameters() {
+            return delegate.getSupportedSSLParameters();
+        }
+    }
+}
@@ -25,6 +25,7 @@ public enum ContentType {
     IMAGE_WEBP("image/webp"),
     MULTIPART_FORM_DATA("multipart/form-data"),
     TEXT_CSS("text/css"),
+    TEXT_EVENT_STREAM("text/event-stream"),
     TEXT_HTML("text/html"),
     TEXT_PLAIN("text/plain"),
     TEXT_XML("text/xml"),
@@ -73,4 +73,8 @@ public class HttpHeaders {
     public static final String ACCESS_CONTROL_REQUEST_METHOD = "access-control-request-method";
     public static final String ACCESS_CONTROL_REQUEST_HEADERS = "access-control-request-headers";
     public static final String ORIGIN = "origin";
+    public static final String X_RATE_LIMIT_LIMIT = "x-ratelimit-limit";
+    public static final String X_RATE_LIMIT_REMAINING = "x-ratelimit-remaining";
+    public static final String X_RATE_LIMIT_RESET = "x-ratelimit-reset";
+    public static final String X_REQUEST_TIMEOUT_MS = "x-request-timeout-ms";
 }
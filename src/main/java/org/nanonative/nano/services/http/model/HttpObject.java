@@ -11,9 +11,13 @@ import com.sun.net.httpserver.HttpExchange;
 import org.nanonative.nano.core.model.Context;
 import org.nanonative.nano.helper.NanoUtils;
 import org.nanonative.nano.helper.event.model.Event;
+import org.nanonative.nano.services.http.EventStream;
 import org.nanonative.nano.services.http.HttpClient;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.URLDecoder;
@@ -21,12 +25,14 @@ import java.net.http.HttpRequest;
 import java.nio.charset.Charset;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.ZonedDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -43,6 +49,7 @@ import java.util.zip.Inflater;
 
 import static berlin.yuna.typemap.logic.TypeConverter.collectionOf;
 import static berlin.yuna.typemap.logic.TypeConverter.convertObj;
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.emptyList;
 import static java.util.Optional.ofNullable;
@@ -50,6 +57,7 @@ import static java.util.zip.GZIPInputStream.GZIP_MAGIC;
 import static org.nanonative.nano.helper.NanoUtils.hasText;
 import static org.nanonative.nano.services.http.HttpClient.EVENT_SEND_HTTP;
 import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST;
+import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST_FILTER;
 import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST_UNHANDLED;
 import static org.nanonative.nano.services.http.model.ContentType.APPLICATION_PROBLEM_JSON;
 import static org.nanonative.nano.services.http.model.HttpHeaders.ACCEPT;
@@ -91,8 +99,12 @@ public class HttpObject extends HttpRequest {
     protected TypeMap headers;
     protected TypeMap queryParams;
     protected TypeMap pathParams;
+    protected String route;
     protected int statusCode = -1;
     protected Long timeoutMs;
+    protected Multipart multipart;
+    protected Multipart.Limits multipartLimits;
+    protected EventStream eventStream;
     protected final HttpExchange exchange;
 
     // common modifiable fields
@@ -102,10 +114,25 @@ public class HttpObject extends HttpRequest {
     public static final String[] USER_AGENT_MOBILE = {"mobile", "ios", "ipad", "ipod", "htc", "nokia", "wii", "psp", "windows phone", "blackberry", "webos", "opera mini", "opera mobi", "kindle", "silk", "puffin", "ucbrowser", "ucweb", "baidubrowser", "baiduboxapp", "samsungbrowser", "miuibrowser", "miuib"};
     public static final List<String> JAVA_MANAGED_HEADERS = List.of(CONTENT_LENGTH, CONNECTION, HOST, TRANSFER_ENCODING);
 
+    // immutable default header values, shared by all requests and responses
+    public static final List<String> DEFAULT_ACCEPT = List.of(ContentType.WILDCARD.value());
+    public static final List<String> DEFAULT_ACCEPT_ENCODING = List.of("gzip, deflate");
+    public static final List<String> DEFAULT_CACHE_CONTROL = List.of("no-cache");
+    public static final List<String> DEFAULT_USER_AGENT = List.of(NanoUtils.generateNanoName("%s/%s (%s %s)"));
+    protected static final Map<ContentType, List<String>> CONTENT_TYPE_HEADERS = contentTypeHeaders();
+    protected static volatile HttpDate httpDate = new HttpDate(Long.MIN_VALUE, null);
+
+    /**
+     * Formatted {@link HttpHeaders#DATE} value of one epoch second.
+     */
+    protected record HttpDate(long epochSecond, String value) {}
+
     /**
      * Constructs a new {@link HttpObject} from a specified {@link HttpExchange}.
-     * Initializes headers, method, and path.
+     * Initializes method and path.
      * The {@link HttpExchange} is lazy loaded. Methods like {@link HttpObject#body()} will trigger the loading of the request body.
+     * Single header lookups like {@link HttpObject#header(String)} read the case-insensitive request {@link Headers} directly,
+     * the {@link HttpObject#headerMap()} and the {@link HttpObject#queryParams()} are parsed on first access.
      *
      * @param exchange the HttpExchange containing the request details.
      */
@@ -114,8 +141,6 @@ public class HttpObject extends HttpRequest {
         if (exchange != null) {
             path(exchange.getRequestURI().getPath());
             methodType(exchange.getRequestMethod());
-            headerMap(exchange.getRequestHeaders());
-            queryParamsOf(exchange.getRequestURI().getQuery());
         }
     }
 
@@ -171,7 +196,7 @@ public class HttpObject extends HttpRequest {
      * @return a list of {@link ContentType} objects representing each content payload specified.
      */
     public List<ContentType> contentTypes() {
-        final List<ContentType> contentTypes = splitHeaderValue(headerMap().asList(String.class, CONTENT_TYPE), ContentType::fromValue);
+        final List<ContentType> contentTypes = splitHeaderValue(headerValues(CONTENT_TYPE), ContentType::fromValue);
         return contentTypes.isEmpty() ? List.of(guessContentType(this, body())) : contentTypes;
     }
 
@@ -227,7 +252,7 @@ public class HttpObject extends HttpRequest {
     }
 
     public List<ContentType> accepts() {
-        return splitHeaderValue(headerMap().asList(String.class, ACCEPT), ContentType::fromValue);
+        return splitHeaderValue(headerValues(ACCEPT), ContentType::fromValue);
     }
 
     public HttpObject accept(final String... contentType) {
@@ -263,11 +288,11 @@ public class HttpObject extends HttpRequest {
     }
 
     public List<String> acceptEncodings() {
-        return splitHeaderValue(headerMap().asList(String.class, ACCEPT_ENCODING), v -> v);
+        return splitHeaderValue(headerValues(ACCEPT_ENCODING), v -> v);
     }
 
     public boolean hasAcceptEncoding(final String... encodings) {
-        final List<String> result = splitHeaderValue(headerMap().asList(String.class, ACCEPT_ENCODING), v -> v);
+        final List<String> result = splitHeaderValue(headerValues(ACCEPT_ENCODING), v -> v);
         return Arrays.stream(encodings).allMatch(result::contains);
     }
 
@@ -277,11 +302,11 @@ public class HttpObject extends HttpRequest {
     }
 
     public List<String> contentEncodings() {
-        return splitHeaderValue(headerMap().asList(String.class, CONTENT_ENCODING), v -> v);
+        return splitHeaderValue(headerValues(CONTENT_ENCODING), v -> v);
     }
 
     public boolean hasContentEncoding(final String... encodings) {
-        final List<String> result = splitHeaderValue(headerMap().asList(String.class, CONTENT_ENCODING), v -> v);
+        final List<String> result = splitHeaderValue(headerValues(CONTENT_ENCODING), v -> v);
         return Arrays.stream(encodings).allMatch(result::contains);
     }
 
@@ -290,7 +315,7 @@ public class HttpObject extends HttpRequest {
     }
 
     public List<Locale> acceptLanguages() {
-        final List<Locale> result = splitHeaderValue(headerMap().asList(String.class, ACCEPT_LANGUAGE), Locale::forLanguageTag);
+        final List<Locale> result = splitHeaderValue(headerValues(ACCEPT_LANGUAGE), Locale::forLanguageTag);
         return result.isEmpty() ? List.of(Locale.ENGLISH) : result;
     }
 
@@ -349,14 +374,108 @@ public class HttpObject extends HttpRequest {
 
     /**
      * Returns a {@link TypeInfo} representation of the {@link HttpObject#body()}, decoded using the {@link Charset} from {@link HttpObject#encoding()} specified in the {@link HttpHeaders#CONTENT_TYPE} header.
+     * UTF-8 bodies are parsed from the bytes by the {@link JsonCodec}, other charsets and malformed JSON use the lenient {@link JsonDecoder}.
      *
      * @return the body as a json.
      */
     @SuppressWarnings("java:S1452") // generic wildcard payload
     public TypeInfo<?> bodyAsJson() {
+        if (isUtf8(encoding())) {
+            try {
+                return JsonCodec.read(body());
+            } catch (final IllegalArgumentException ignored) {
+                // lenient fallback
+            }
+        }
         return JsonDecoder.jsonTypeOf(bodyAsString());
     }
 
+    /**
+     * Parses the request body as JSON straight from the {@link HttpExchange} stream without loading the body into memory.
+     * The stream is consumed, {@link HttpObject#body()} is empty afterwards.
+     * Falls back to {@link HttpObject#bodyAsJson()} if the body is already loaded, compressed or not UTF-8.
+     *
+     * @return the body as a json.
+     * @throws IllegalArgumentException if the JSON is malformed
+     */
+    @SuppressWarnings("java:S1452") // generic wildcard payload
+    public TypeInfo<?> streamBodyAsJson() {
+        if (body != null || exchange == null || containsHeader(CONTENT_ENCODING) || !isUtf8(encoding()))
+            return bodyAsJson();
+        try (final InputStream bodyStream = exchange.getRequestBody()) {
+            return JsonCodec.read(bodyStream);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            body = new byte[0];
+        }
+    }
+
+    /**
+     * Streams the {@code multipart/form-data} body part by part from the request {@link InputStream}, small parts stay in
+     * memory and large parts are written to temp files, see {@link Multipart}. The temp files are deleted with
+     * {@link HttpObject#cleanup()}, which the {@link org.nanonative.nano.services.http.HttpServer} calls when the request is completed.
+     * Reads from {@link HttpObject#body()} if the body was already loaded.
+     *
+     * @return the {@link Multipart} parts, the same instance on every call.
+     * @throws IllegalStateException if the {@link HttpHeaders#CONTENT_TYPE} has no multipart boundary.
+     */
+    public Multipart multipart() {
+        if (multipart == null) {
+            final String boundary = Multipart.boundaryOf(header(CONTENT_TYPE));
+            if (boundary == null)
+                throw new IllegalStateException("Missing multipart boundary in [" + CONTENT_TYPE + "] header");
+            final InputStream bodyStream = body == null && exchange != null ? exchange.getRequestBody() : new ByteArrayInputStream(body());
+            multipart = new Multipart(bodyStream, boundary, multipartLimits);
+            if (body == null)
+                body = new byte[0];
+        }
+        return multipart;
+    }
+
+    /**
+     * Sets the size limits for {@link HttpObject#multipart()}.
+     *
+     * @param limits the {@link Multipart.Limits}, {@code null} for {@link Multipart.Limits#DEFAULT}.
+     * @return this {@link HttpObject} to allow method chaining.
+     */
+    public HttpObject multipartLimits(final Multipart.Limits limits) {
+        this.multipartLimits = limits;
+        return this;
+    }
+
+    /**
+     * Answers with a Server-Sent Events stream instead of a body. The {@link org.nanonative.nano.services.http.HttpServer}
+     * keeps the connection open and pushes the messages of the {@link EventStream} until the client disconnects.
+     *
+     * @param stream the {@link EventStream} to subscribe the client to.
+     * @return this {@link HttpObject} to allow method chaining.
+     */
+    public HttpObject eventStream(final EventStream stream) {
+        this.eventStream = stream;
+        headerMap().put(CONTENT_TYPE, ContentType.TEXT_EVENT_STREAM.value());
+        headerMap().put(CACHE_CONTROL, "no-cache");
+        return this;
+    }
+
+    /**
+     * @return the {@link EventStream} of the response or {@code null} for regular responses.
+     */
+    public EventStream eventStream() {
+        return eventStream;
+    }
+
+    /**
+     * Releases the resources of the request like the temp files of {@link HttpObject#multipart()}.
+     *
+     * @return this {@link HttpObject} to allow method chaining.
+     */
+    public HttpObject cleanup() {
+        if (multipart != null)
+            multipart.close();
+        return this;
+    }
+
     /**
      * Returns {@link LinkedTypeMap} of the {@link HttpObject#body()}, decoded using the {@link Charset} from {@link HttpObject#encoding()} specified in the {@link HttpHeaders#CONTENT_TYPE} header.
      *
@@ -408,7 +527,7 @@ public class HttpObject extends HttpRequest {
      * @return this {@link HttpObject} to allow method chaining.
      */
     public HttpObject bodyT(final TypeInfo<?> body) {
-        return body(body.toJson().getBytes(encoding()));
+        return bodyJson(body);
     }
 
     /**
@@ -418,7 +537,7 @@ public class HttpObject extends HttpRequest {
      * @return this {@link HttpObject} to allow method chaining.
      */
     public HttpObject body(final Collection<?> body) {
-        return bodyT((body instanceof final TypeInfo<?> info ? info : new TypeList(body)));
+        return bodyJson(body);
     }
 
     /**
@@ -428,7 +547,21 @@ public class HttpObject extends HttpRequest {
      * @return this {@link HttpObject} to allow method chaining.
      */
     public HttpObject body(final Map<?, ?> body) {
-        return bodyT((body instanceof final TypeInfo<?> info ? info : new LinkedTypeMap(body)));
+        return bodyJson(body);
+    }
+
+    /**
+     * Encodes the body with the {@link JsonCodec} straight into bytes. The JSON is ASCII, so only charsets which are not
+     * ASCII compatible need a conversion. The compression detection of {@link HttpObject#body(byte[])} is skipped.
+     *
+     * @param body the {@link Map}, {@link Collection} or {@link TypeInfo} to encode.
+     * @return this {@link HttpObject} to allow method chaining.
+     */
+    protected HttpObject bodyJson(final Object body) {
+        final byte[] json = JsonCodec.toBytes(body);
+        final Charset charset = encoding();
+        this.body = charset.name().startsWith("UTF-16") || charset.name().startsWith("UTF-32") ? new String(json, US_ASCII).getBytes(charset) : json;
+        return this;
     }
 
     /**
@@ -516,6 +649,7 @@ public class HttpObject extends HttpRequest {
      *     <li>Single asterisk ({@literal *}): Matches any single path segment.</li>
      *     <li>Double asterisk (**): Matches zero or more path segments.</li>
      *     <li>Path variables: Captures the value of the segment and stores it in {@link HttpObject#pathParams()}.</li>
+     *     <li>A match keeps the expression as {@link HttpObject#route()} for metrics.</li>
      * </ul>
      * <lp>
      *
@@ -526,21 +660,58 @@ public class HttpObject extends HttpRequest {
         if (this.path == null || expression == null)
             return false;
 
+        pathParams().clear();
+        if (!matchPath(this.path, expression, pathParams))
+            return false;
+        route = expression;
+        return true;
+    }
+
+    /**
+     * Checks if the current {@link HttpObject#path()} matches a specified expression like {@link HttpObject#pathMatch(String)},
+     * but neither captures {@link HttpObject#pathParams()} nor sets the {@link HttpObject#route()}.
+     * Used by filters which look at a request before its handler, e.g. priorities, timeouts and rate limits.
+     *
+     * @param expression the path expression to match against the current path.
+     * @return {@code true} if the current path matches the expression, {@code false} otherwise.
+     */
+    public boolean pathMatches(final String expression) {
+        return this.path != null && expression != null && matchPath(this.path, expression, null);
+    }
+
+    /**
+     * Checks if the current {@link HttpObject#path()} matches a specified expression like {@link HttpObject#pathMatches(String)}
+     * and captures the path variables into the given map instead of {@link HttpObject#pathParams()}.
+     *
+     * @param expression the path expression to match against the current path.
+     * @param params     receives the path variables, cleared if the path doesn't match.
+     * @return {@code true} if the current path matches the expression, {@code false} otherwise.
+     */
+    public boolean pathMatches(final String expression, final TypeMap params) {
+        if (this.path == null || expression == null)
+            return false;
+        params.clear();
+        if (matchPath(this.path, expression, params))
+            return true;
+        params.clear();
+        return false;
+    }
+
+    protected static boolean matchPath(final String path, final String expression, final TypeMap params) {
         final String[] partsToMatch = NanoUtils.split(removeLast(expression, "/"), "/");
-        final String[] parts = NanoUtils.split(this.path, "/");
+        final String[] parts = NanoUtils.split(path, "/");
 
-        pathParams().clear();
         for (int i = 0; i < partsToMatch.length; i++) {
             if ("*".equals(partsToMatch[i]))
                 continue;
             if ("**".equals(partsToMatch[i]))
-                return true;
+                break;
             if (parts.length - 1 < i)
                 return false;
             if (!partsToMatch[i].equals(parts[i])) {
                 if (partsToMatch[i].startsWith("{")) {
-                    final String key = partsToMatch[i].substring(1, partsToMatch[i].length() - 1);
-                    pathParams.put(key, parts[i]);
+                    if (params != null)
+                        params.put(partsToMatch[i].substring(1, partsToMatch[i].length() - 1), parts[i]);
                 } else {
                     return false;
                 }
@@ -549,6 +720,15 @@ public class HttpObject extends HttpRequest {
         return true;
     }
 
+    /**
+     * Returns the route template of the request, e.g. {@code /users/{id}} instead of {@code /users/42}.
+     *
+     * @return the expression of the last successful {@link HttpObject#pathMatch(String)}, or {@code null} if nothing matched.
+     */
+    public String route() {
+        return route;
+    }
+
 
     /**
      * Retrieves a map of path parameters extracted from the URL.
@@ -578,7 +758,11 @@ public class HttpObject extends HttpRequest {
      * @return the value of the header, or {@code null} if the header is not found or {@code key} is {@code null}.
      */
     public String header(final String key) {
-        return key == null || headers == null ? null : headers.asString(key.toLowerCase());
+        if (key == null)
+            return null;
+        if (headers == null)
+            return exchange == null ? null : exchange.getRequestHeaders().getFirst(key);
+        return headers.asString(key.toLowerCase());
     }
 
     /**
@@ -588,7 +772,11 @@ public class HttpObject extends HttpRequest {
      * @return {@code true} if the header exists, {@code false} otherwise.
      */
     public boolean containsHeader(final String key) {
-        return key != null && headers != null && headers.containsKey(key.toLowerCase());
+        if (key == null)
+            return false;
+        if (headers == null)
+            return exchange != null && exchange.getRequestHeaders().containsKey(key);
+        return headers.containsKey(key.toLowerCase());
     }
 
     /**
@@ -692,10 +880,22 @@ public class HttpObject extends HttpRequest {
      */
     public TypeMap headerMap() {
         if (headers == null)
-            headers = new TypeMap();
+            headers = exchange == null ? new TypeMap() : convertHeaders(exchange.getRequestHeaders());
         return headers;
     }
 
+    /**
+     * Retrieves all values of a specified header without parsing the {@link HttpObject#headerMap()} of a request.
+     *
+     * @param key the key of the header to retrieve.
+     * @return the values of the header, empty if the header is not found.
+     */
+    public List<String> headerValues(final String key) {
+        if (headers == null && exchange != null)
+            return ofNullable(exchange.getRequestHeaders().get(key)).orElse(emptyList());
+        return headerMap().asList(String.class, key.toLowerCase());
+    }
+
     /**
      * <p>
      * Constructs and returns a map of HTTP headers to be included in an HTTP response.
@@ -720,17 +920,91 @@ public class HttpObject extends HttpRequest {
      * </p>
      */
     public Map<String, List<String>> computedHeaders(final boolean isRequest) {
+        return defaultHeaders(isRequest).asMap(String.class, value -> collectionOf(value, String.class));
+    }
+
+    /**
+     * Writes the {@link HttpObject#computedHeaders(boolean)} of a response straight into the given {@link Headers}
+     * without intermediate maps. The internal {@link HttpObject#HTTP_EXCEPTION_HEADER} is skipped.
+     *
+     * @param target the headers to write to, usually {@link HttpExchange#getResponseHeaders()}.
+     * @return the {@code target} headers.
+     */
+    public Headers writeHeaders(final Headers target) {
+        final TypeMap result = headerMap();
+        result.forEach((key, value) -> {
+            if (value == null || HTTP_EXCEPTION_HEADER.equals(key))
+                return;
+            final String name = String.valueOf(key);
+            if (value instanceof final Collection<?> values) {
+                target.remove(name);
+                for (final Object item : values)
+                    target.add(name, item instanceof final String text ? text : convertObj(item, String.class));
+            } else {
+                target.set(name, value instanceof final String text ? text : convertObj(value, String.class));
+            }
+        });
+        // defaults are shared immutable values and don't touch the header map
+        if (!result.containsKey(CACHE_CONTROL))
+            target.put(CACHE_CONTROL, DEFAULT_CACHE_CONTROL);
+        if (!result.containsKey(CONTENT_TYPE))
+            target.put(CONTENT_TYPE, contentTypeHeader(contentTypes()));
+        if (!result.containsKey(CONTENT_LENGTH))
+            target.set(CONTENT_LENGTH, String.valueOf(body().length));
+        if (!result.containsKey(DATE))
+            target.set(DATE, httpDate());
+        if (!result.containsKey(USER_AGENT))
+            target.put(USER_AGENT, DEFAULT_USER_AGENT);
+        return target;
+    }
+
+    protected TypeMap defaultHeaders(final boolean isRequest) {
         final TypeMap result = headerMap();
         if (isRequest) {
-            result.putIfAbsent(ACCEPT_ENCODING, "gzip, deflate");
-            result.computeIfAbsent(ACCEPT, fallback -> ContentType.WILDCARD.value());
+            result.putIfAbsent(ACCEPT_ENCODING, DEFAULT_ACCEPT_ENCODING);
+            result.putIfAbsent(ACCEPT, DEFAULT_ACCEPT);
         }
-        result.putIfAbsent(CACHE_CONTROL, "no-cache");
-        result.computeIfAbsent(CONTENT_TYPE, value -> contentTypes().stream().map(ContentType::value).toList());
+        result.putIfAbsent(CACHE_CONTROL, DEFAULT_CACHE_CONTROL);
+        result.computeIfAbsent(CONTENT_TYPE, value -> contentTypeHeader(contentTypes()));
         result.computeIfAbsent(CONTENT_LENGTH, value -> this.body().length);
-        result.computeIfAbsent(DATE, value -> HTTP_DATE_FORMATTER.format(ZonedDateTime.now().withZoneSameInstant(java.time.ZoneOffset.UTC)));
-        result.computeIfAbsent(USER_AGENT, fallback -> NanoUtils.generateNanoName("%s/%s (%s %s)"));
-        return result.asMap(String.class, value -> collectionOf(value, String.class));
+        result.computeIfAbsent(DATE, value -> httpDate());
+        result.putIfAbsent(USER_AGENT, DEFAULT_USER_AGENT);
+        return result;
+    }
+
+    /**
+     * Returns the current time formatted according to RFC 7231 for the {@link HttpHeaders#DATE} header.
+     * The value is formatted once per second and shared by all callers within that second.
+     *
+     * @return the current HTTP date.
+     */
+    public static String httpDate() {
+        final long epochSecond = System.currentTimeMillis() / 1000;
+        HttpDate result = httpDate;
+        if (result.epochSecond() != epochSecond) {
+            result = new HttpDate(epochSecond, HTTP_DATE_FORMATTER.format(Instant.ofEpochSecond(epochSecond).atZone(ZoneOffset.UTC)));
+            httpDate = result;
+        }
+        return result.value();
+    }
+
+    /**
+     * Returns the {@link HttpHeaders#CONTENT_TYPE} values, shared immutable values for single content types.
+     *
+     * @param contentTypes the content types.
+     * @return the header values.
+     */
+    protected static List<String> contentTypeHeader(final List<ContentType> contentTypes) {
+        if (contentTypes.size() == 1)
+            return CONTENT_TYPE_HEADERS.get(contentTypes.getFirst());
+        return contentTypes.stream().map(ContentType::value).toList();
+    }
+
+    private static Map<ContentType, List<String>> contentTypeHeaders() {
+        final Map<ContentType, List<String>> result = new EnumMap<>(ContentType.class);
+        for (final ContentType type : ContentType.values())
+            result.put(type, List.of(type.value()));
+        return Collections.unmodifiableMap(result);
     }
 
     /**
@@ -779,7 +1053,7 @@ public class HttpObject extends HttpRequest {
     public long size() {
         return Math.max(
             body().length,
-            headers == null ? -1L : headers.asStringOpt(CONTENT_RANGE).map(s -> s.replace("bytes 0-0/", "")).map(s -> convertObj(s, Long.class)).orElse(-1L)
+            ofNullable(header(CONTENT_RANGE)).map(s -> s.replace("bytes 0-0/", "")).map(s -> convertObj(s, Long.class)).orElse(-1L)
         );
     }
 
@@ -1077,7 +1351,7 @@ public class HttpObject extends HttpRequest {
      * @return the event after attaching this {@link HttpObject} as a response, facilitating chaining and further manipulation.
      */
     public <C, R> Event<C, R> respond(final Event<C, R> event) {
-        event.channel(EVENT_HTTP_REQUEST).or(() -> event.channel(EVENT_HTTP_REQUEST_UNHANDLED)).ifPresent(request -> request.respond(this));
+        event.channel(EVENT_HTTP_REQUEST).or(() -> event.channel(EVENT_HTTP_REQUEST_UNHANDLED)).or(() -> event.channel(EVENT_HTTP_REQUEST_FILTER)).ifPresent(request -> request.respond(this));
         return event;
     }
 
@@ -1469,7 +1743,7 @@ public class HttpObject extends HttpRequest {
             .add("statusCode=" + statusCode)
             .add("path=" + path)
             .add("method=" + method())
-            .add("headers=" + headers)
+            .add("headers=" + (exchange == null ? headers : headerMap()))
             .add("body=" + bodyAsString())
             .toString();
     }
@@ -1504,6 +1778,10 @@ public class HttpObject extends HttpRequest {
             .toList();
     }
 
+    protected static boolean isUtf8(final Charset charset) {
+        return UTF_8.equals(charset) || US_ASCII.equals(charset);
+    }
+
     public static boolean isMethod(final HttpObject request, final HttpMethod method) {
         return request.method.name().equals(method.name());
     }
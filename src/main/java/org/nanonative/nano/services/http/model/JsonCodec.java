@@ -0,0 +1,650 @@
+package org.nanonative.nano.services.http.model;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import berlin.yuna.typemap.model.TypeInfo;
+import berlin.yuna.typemap.model.TypeList;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import static berlin.yuna.typemap.logic.TypeConverter.convertObj;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Streaming JSON codec for {@link HttpObject} bodies which works on bytes instead of Strings.
+ * <p>
+ * The writer encodes {@link Map}s, {@link Collection}s, arrays and {@link TypeInfo}s straight into a pooled byte buffer or an
+ * {@link OutputStream}. The output is the same as {@link TypeInfo#toJson()}: pure ASCII with non ASCII characters escaped, so it
+ * is valid in every ASCII compatible charset. Map keys are always written as JSON strings.
+ * </p><p>
+ * The reader parses UTF-8 bytes or an {@link InputStream} into {@link LinkedTypeMap}s, {@link TypeList}s, {@link String}s,
+ * {@link Long}s, {@link Double}s and {@link Boolean}s like {@link berlin.yuna.typemap.logic.JsonDecoder}. Top level values which
+ * are not objects or arrays are wrapped into a {@link TypeList}, empty input becomes an empty {@link String}. Non finite numbers
+ * are written as {@code null}, as JSON has no {@code NaN} or {@code Infinity}. Malformed input throws an {@link IllegalArgumentException}.
+ * </p>
+ */
+@SuppressWarnings("java:S112")
+public class JsonCodec {
+
+    public static final int BUFFER_SIZE = 16 * 1024;
+    // larger buffers are not returned to the pool
+    public static final int MAX_POOLED_SIZE = 8 * 1024 * 1024;
+    public static final int POOL_SIZE = 4;
+    public static final int MAX_DEPTH = 512;
+
+    protected static final ArrayBlockingQueue<byte[]> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+    protected static final byte[] HEX = "0123456789abcdef".getBytes(UTF_8);
+    protected static final byte[] NULL = "null".getBytes(UTF_8);
+    protected static final byte[] TRUE = "true".getBytes(UTF_8);
+    protected static final byte[] FALSE = "false".getBytes(UTF_8);
+    protected static final byte[] EMPTY_OBJECT = "{}".getBytes(UTF_8);
+
+    /**
+     * Encodes a value to JSON bytes using a pooled buffer.
+     *
+     * @param value {@link Map}, {@link Collection}, array or simple value, {@code null} is encoded as {@code {}}
+     * @return JSON bytes
+     */
+    public static byte[] toBytes(final Object value) {
+        final Writer writer = new Writer(null);
+        try {
+            writer.root(value);
+            return Arrays.copyOf(writer.buffer, writer.position);
+        } catch (final IOException e) {
+            // unreachable, there is no stream to write to
+            throw new IllegalStateException(e);
+        } finally {
+            writer.release();
+        }
+    }
+
+    /**
+     * Encodes a value to JSON and writes it to the stream in chunks of {@link #BUFFER_SIZE}.
+     * The stream is flushed, but not closed.
+     *
+     * @param value {@link Map}, {@link Collection}, array or simple value, {@code null} is encoded as {@code {}}
+     * @param out   target stream
+     * @throws IOException if the stream fails
+     */
+    public static void write(final Object value, final OutputStream out) throws IOException {
+        final Writer writer = new Writer(out);
+        try {
+            writer.root(value);
+            writer.flush();
+            out.flush();
+        } finally {
+            writer.release();
+        }
+    }
+
+    /**
+     * Parses UTF-8 JSON bytes.
+     *
+     * @param json JSON bytes
+     * @return {@link LinkedTypeMap} or {@link TypeList}
+     * @throws IllegalArgumentException if the JSON is malformed
+     */
+    @SuppressWarnings("java:S1452") // generic wildcard payload
+    public static TypeInfo<?> read(final byte[] json) {
+        try {
+            return new Reader(json, json.length, null).root();
+        } catch (final IOException e) {
+            // unreachable, there is no stream to read from
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Parses UTF-8 JSON from a stream without reading it into memory first. The stream is read to its end, but not closed.
+     *
+     * @param in source stream
+     * @return {@link LinkedTypeMap} or {@link TypeList}
+     * @throws IOException              if the stream fails
+     * @throws IllegalArgumentException if the JSON is malformed
+     */
+    @SuppressWarnings("java:S1452") // generic wildcard payload
+    public static TypeInfo<?> read(final InputStream in) throws IOException {
+        final byte[] buffer = acquire();
+        try {
+            return new Reader(buffer, 0, in).root();
+        } finally {
+            release(buffer);
+        }
+    }
+
+    protected static byte[] acquire() {
+        final byte[] result = POOL.poll();
+        return result == null ? new byte[BUFFER_SIZE] : result;
+    }
+
+    protected static void release(final byte[] buffer) {
+        if (buffer.length <= MAX_POOLED_SIZE)
+            POOL.offer(buffer);
+    }
+
+    /**
+     * Writes into a growing buffer, or into a fixed buffer which is flushed to the stream when full.
+     */
+    protected static class Writer {
+
+        protected final OutputStream out;
+        protected byte[] buffer = acquire();
+        protected int position;
+        protected int depth;
+
+        protected Writer(final OutputStream out) {
+            this.out = out;
+        }
+
+        protected void root(final Object value) throws IOException {
+            if (value == null)
+                write(EMPTY_OBJECT);
+            else
+                value(value);
+        }
+
+        protected void value(final Object value) throws IOException {
+            switch (value) {
+                case null -> write(NULL);
+                case final String text -> string(text);
+                case final Boolean bool -> write(Boolean.TRUE.equals(bool) ? TRUE : FALSE);
+                case final Double number when !Double.isFinite(number) -> write(NULL);
+                case final Float number when !Float.isFinite(number) -> write(NULL);
+                case final Long number -> number(number);
+                case final Integer number -> number(number);
+                case final Short number -> number(number);
+                case final Byte number -> number(number);
+                case final Number number -> ascii(number.toString());
+                case final Map<?, ?> map -> object(map);
+                case final Collection<?> collection -> array(collection);
+                default -> {
+                    if (value.getClass().isArray()) {
+                        array(value);
+                    } else {
+                        final String text = convertObj(value, String.class);
+                        if (text == null)
+                            write(NULL);
+                        else
+                            string(text);
+                    }
+                }
+            }
+        }
+
+        protected void object(final Map<?, ?> map) throws IOException {
+            enter();
+            write('{');
+            boolean first = true;
+            for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!first)
+                    write(',');
+                first = false;
+                final Object key = entry.getKey();
+                if (key instanceof final String text)
+                    string(text);
+                else if (key == null)
+                    string("null");
+                else
+                    string(String.valueOf(convertObj(key, String.class)));
+                write(':');
+                value(entry.getValue());
+            }
+            write('}');
+            depth--;
+        }
+
+        protected void array(final Collection<?> collection) throws IOException {
+            enter();
+            write('[');
+            boolean first = true;
+            for (final Object item : collection) {
+                if (!first)
+                    write(',');
+                first = false;
+                value(item);
+            }
+            write(']');
+            depth--;
+        }
+
+        protected void array(final Object array) throws IOException {
+            enter();
+            write('[');
+            final int length = Array.getLength(array);
+            for (int i = 0; i < length; i++) {
+                if (i > 0)
+                    write(',');
+                value(Array.get(array, i));
+            }
+            write(']');
+            depth--;
+        }
+
+        protected void enter() {
+            if (++depth > MAX_DEPTH)
+                throw new IllegalArgumentException("JSON exceeds the max depth of [" + MAX_DEPTH + "], is the structure cyclic?");
+        }
+
+        protected void string(final String text) throws IOException {
+            final int length = text.length();
+            ensure(length + 2);
+            buffer[position++] = '"';
+            for (int i = 0; i < length; i++) {
+                final char c = text.charAt(i);
+                if (c >= 0x20 && c < 0x7F && c != '"' && c != '\\') {
+                    if (position == buffer.length)
+                        ensure(1);
+                    buffer[position++] = (byte) c;
+                } else {
+                    escape(c);
+                }
+            }
+            write('"');
+        }
+
+        protected void escape(final char c) throws IOException {
+            ensure(6);
+            buffer[position++] = '\\';
+            switch (c) {
+                case '"' -> buffer[position++] = '"';
+                case '\\' -> buffer[position++] = '\\';
+                case '\b' -> buffer[position++] = 'b';
+                case '\f' -> buffer[position++] = 'f';
+                case '\n' -> buffer[position++] = 'n';
+                case '\r' -> buffer[position++] = 'r';
+                case '\t' -> buffer[position++] = 't';
+                default -> {
+                    buffer[position++] = 'u';
+                    buffer[position++] = HEX[(c >> 12) & 0xF];
+                    buffer[position++] = HEX[(c >> 8) & 0xF];
+                    buffer[position++] = HEX[(c >> 4) & 0xF];
+                    buffer[position++] = HEX[c & 0xF];
+                }
+            }
+        }
+
+        protected void number(final long value) throws IOException {
+            if (value == Long.MIN_VALUE) {
+                ascii(Long.toString(value));
+                return;
+            }
+            ensure(20);
+            long remaining = value;
+            if (remaining < 0) {
+                buffer[position++] = '-';
+                remaining = -remaining;
+            }
+            final int start = position;
+            do {
+                buffer[position++] = (byte) ('0' + remaining % 10);
+                remaining /= 10;
+            } while (remaining > 0);
+            // digits were written in reverse order
+            for (int left = start, right = position - 1; left < right; left++, right--) {
+                final byte swap = buffer[left];
+                buffer[left] = buffer[right];
+                buffer[right] = swap;
+            }
+        }
+
+        protected void ascii(final String text) throws IOException {
+            ensure(text.length());
+            for (int i = 0; i < text.length(); i++)
+                buffer[position++] = (byte) text.charAt(i);
+        }
+
+        protected void write(final byte[] bytes) throws IOException {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        protected void write(final char c) throws IOException {
+            if (position == buffer.length)
+                ensure(1);
+            buffer[position++] = (byte) c;
+        }
+
+        /**
+         * Makes room for the given number of bytes, which must not be larger than {@link #BUFFER_SIZE} when writing to a stream.
+         */
+        protected void ensure(final int length) throws IOException {
+            if (position + length <= buffer.length)
+                return;
+            if (out != null && length <= buffer.length) {
+                flush();
+            } else {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+            }
+        }
+
+        protected void flush() throws IOException {
+            if (out != null && position > 0) {
+                out.write(buffer, 0, position);
+                position = 0;
+            }
+        }
+
+        protected void release() {
+            JsonCodec.release(buffer);
+        }
+    }
+
+    /**
+     * Recursive descent parser on bytes, refills its buffer from the stream if present.
+     */
+    protected static class Reader {
+
+        protected final InputStream in;
+        protected final byte[] buffer;
+        protected int limit;
+        protected int position;
+        protected int depth;
+        protected byte[] scratch;
+
+        protected Reader(final byte[] buffer, final int limit, final InputStream in) {
+            this.buffer = buffer;
+            this.limit = limit;
+            this.in = in;
+        }
+
+        protected TypeInfo<?> root() throws IOException {
+            final int c = skipWhitespace();
+            final Object result;
+            if (c == -1) {
+                // empty input like the JsonDecoder
+                result = "";
+            } else {
+                result = value();
+                if (skipWhitespace() != -1)
+                    throw error("Unexpected content after the JSON value");
+            }
+            return result instanceof final TypeInfo<?> info ? info : new TypeList(Collections.singletonList(result));
+        }
+
+        protected Object value() throws IOException {
+            final int c = skipWhitespace();
+            return switch (c) {
+                case '{' -> object();
+                case '[' -> array();
+                case '"' -> {
+                    position++;
+                    yield string();
+                }
+                case 't' -> literal(TRUE, Boolean.TRUE);
+                case 'f' -> literal(FALSE, Boolean.FALSE);
+                case 'n' -> literal(NULL, null);
+                case -1 -> throw error("Unexpected end of JSON");
+                default -> {
+                    if (c == '-' || (c >= '0' && c <= '9'))
+                        yield number();
+                    throw error("Unexpected character [" + (char) c + "]");
+                }
+            };
+        }
+
+        protected LinkedTypeMap object() throws IOException {
+            enter();
+            position++;
+            final LinkedTypeMap result = new LinkedTypeMap();
+            if (skipWhitespace() == '}') {
+                position++;
+                depth--;
+                return result;
+            }
+            while (true) {
+                if (skipWhitespace() != '"')
+                    throw error("Expected a key");
+                position++;
+                final String key = string();
+                if (skipWhitespace() != ':')
+                    throw error("Expected [:]");
+                position++;
+                result.put(key, value());
+                final int c = skipWhitespace();
+                position++;
+                if (c == '}')
+                    break;
+                if (c != ',')
+                    throw error("Expected [,] or [}]");
+            }
+            depth--;
+            return result;
+        }
+
+        protected TypeList array() throws IOException {
+            enter();
+            position++;
+            final TypeList result = new TypeList();
+            if (skipWhitespace() == ']') {
+                position++;
+                depth--;
+                return result;
+            }
+            while (true) {
+                result.add(value());
+                final int c = skipWhitespace();
+                position++;
+                if (c == ']')
+                    break;
+                if (c != ',')
+                    throw error("Expected [,] or []]");
+            }
+            depth--;
+            return result;
+        }
+
+        protected void enter() {
+            if (++depth > MAX_DEPTH)
+                throw error("JSON exceeds the max depth of [" + MAX_DEPTH + "]");
+        }
+
+        /**
+         * Reads a string after its opening quote. Strings without escapes inside the buffer are decoded without copying.
+         */
+        protected String string() throws IOException {
+            final int start = position;
+            for (int i = start; i < limit; i++) {
+                final byte b = buffer[i];
+                if (b == '"') {
+                    position = i + 1;
+                    return new String(buffer, start, i - start, UTF_8);
+                }
+                if (b == '\\' || (b >= 0 && b < 0x20))
+                    break;
+            }
+            int length = 0;
+            while (true) {
+                if (position >= limit && !fill())
+                    throw error("Unterminated string");
+                final byte b = buffer[position++];
+                if (b == '"')
+                    return new String(scratch, 0, length, UTF_8);
+                if (b >= 0 && b < 0x20)
+                    throw error("Unescaped control character in string");
+                if (b == '\\') {
+                    length = unescape(length);
+                } else {
+                    ensureScratch(length + 1);
+                    scratch[length++] = b;
+                }
+            }
+        }
+
+        protected int unescape(final int length) throws IOException {
+            final int c = read();
+            ensureScratch(length + 4);
+            int result = length;
+            switch (c) {
+                case '"', '\\', '/' -> scratch[result++] = (byte) c;
+                case 'b' -> scratch[result++] = '\b';
+                case 'f' -> scratch[result++] = '\f';
+                case 'n' -> scratch[result++] = '\n';
+                case 'r' -> scratch[result++] = '\r';
+                case 't' -> scratch[result++] = '\t';
+                case 'u' -> {
+                    int codePoint = hex();
+                    if (Character.isHighSurrogate((char) codePoint) && peekEscapedUnicode()) {
+                        position += 2;
+                        final int low = hex();
+                        codePoint = Character.isLowSurrogate((char) low) ? Character.toCodePoint((char) codePoint, (char) low) : '?';
+                    }
+                    result = utf8(codePoint, result);
+                }
+                default -> throw error("Invalid escape sequence [\\" + (char) c + "]");
+            }
+            return result;
+        }
+
+        protected boolean peekEscapedUnicode() throws IOException {
+            if (position + 1 >= limit && !fill(2))
+                return false;
+            return buffer[position] == '\\' && buffer[position + 1] == 'u';
+        }
+
+        protected int hex() throws IOException {
+            int result = 0;
+            for (int i = 0; i < 4; i++) {
+                final int digit = Character.digit(read(), 16);
+                if (digit < 0)
+                    throw error("Invalid unicode escape");
+                result = (result << 4) | digit;
+            }
+            return result;
+        }
+
+        protected int utf8(final int codePoint, final int length) {
+            int result = length;
+            if (Character.isSurrogate((char) codePoint) && codePoint <= 0xFFFF) {
+                scratch[result++] = '?';
+            } else if (codePoint < 0x80) {
+                scratch[result++] = (byte) codePoint;
+            } else if (codePoint < 0x800) {
+                scratch[result++] = (byte) (0xC0 | (codePoint >> 6));
+                scratch[result++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (codePoint < 0x10000) {
+                scratch[result++] = (byte) (0xE0 | (codePoint >> 12));
+                scratch[result++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                scratch[result++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                scratch[result++] = (byte) (0xF0 | (codePoint >> 18));
+                scratch[result++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                scratch[result++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                scratch[result++] = (byte) (0x80 | (codePoint & 0x3F));
+            }
+            return result;
+        }
+
+        /**
+         * Integers which fit into a {@link Long} become {@link Long}s, larger integers stay {@link String}s and decimals become {@link Double}s.
+         */
+        protected Object number() throws IOException {
+            int length = 0;
+            long value = 0;
+            boolean negative = false;
+            boolean decimal = false;
+            int digits = 0;
+            while (true) {
+                if (position >= limit && !fill())
+                    break;
+                final byte b = buffer[position];
+                if (b >= '0' && b <= '9') {
+                    value = value * 10 + (b - '0');
+                    digits++;
+                } else if (b == '-' && length == 0) {
+                    negative = true;
+                } else if (b == '.' || b == 'e' || b == 'E' || b == '+' || b == '-') {
+                    decimal = true;
+                } else {
+                    break;
+                }
+                ensureScratch(length + 1);
+                scratch[length++] = b;
+                position++;
+            }
+            if (digits == 0)
+                throw error("Invalid number");
+            if (!decimal && digits < 19)
+                return negative ? -value : value;
+            final String text = new String(scratch, 0, length, UTF_8);
+            try {
+                return decimal ? (Object) Double.parseDouble(text) : (Object) Long.parseLong(text);
+            } catch (final NumberFormatException ignored) {
+                if (decimal)
+                    throw error("Invalid number [" + text + "]");
+                return text;
+            }
+        }
+
+        protected Object literal(final byte[] expected, final Object result) throws IOException {
+            for (final byte b : expected) {
+                if (read() != b)
+                    throw error("Invalid literal, expected [" + new String(expected, UTF_8) + "]");
+            }
+            return result;
+        }
+
+        protected int skipWhitespace() throws IOException {
+            while (true) {
+                if (position >= limit && !fill())
+                    return -1;
+                final byte b = buffer[position];
+                if (b != ' ' && b != '\n' && b != '\r' && b != '\t')
+                    return b & 0xFF;
+                position++;
+            }
+        }
+
+        protected int read() throws IOException {
+            if (position >= limit && !fill())
+                return -1;
+            return buffer[position++] & 0xFF;
+        }
+
+        protected boolean fill() throws IOException {
+            return fill(1);
+        }
+
+        /**
+         * Moves the unread bytes to the start of the buffer and reads from the stream until the given number of bytes is available.
+         */
+        protected boolean fill(final int available) throws IOException {
+            if (in == null)
+                return false;
+            final int remaining = limit - position;
+            if (remaining > 0 && position > 0)
+                System.arraycopy(buffer, position, buffer, 0, remaining);
+            limit = remaining;
+            position = 0;
+            while (limit < available) {
+                final int read = in.read(buffer, limit, buffer.length - limit);
+                if (read < 0)
+                    return false;
+                limit += read;
+            }
+            return true;
+        }
+
+        protected void ensureScratch(final int length) {
+            if (scratch == null)
+                scratch = new byte[Math.max(64, length)];
+            else if (length > scratch.length)
+                scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, length));
+        }
+
+        protected IllegalArgumentException error(final String message) {
+            return new IllegalArgumentException(message + " at position [" + position + "]");
+        }
+    }
+
+    private JsonCodec() {
+        // static utility
+    }
+}
@@ -0,0 +1,510 @@
+package org.nanonative.nano.services.http.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Streaming {@code multipart/form-data} parser over the request {@link InputStream}.
+ * <p>
+ * Parts are read one at a time while iterating. Parts up to {@link Limits#memoryThreshold()} stay in memory, larger parts are
+ * written to a temp file with a {@link FileChannel}, so uploads of any size need a constant amount of memory.
+ * {@link Limits#maxPartSize()} and {@link Limits#maxSize()} are enforced while reading and throw an {@link IllegalStateException}.
+ * {@link #close()} deletes all temp files which were not moved with {@link Part#moveTo(Path)}, the
+ * {@link org.nanonative.nano.services.http.HttpServer} closes it when the request is completed.
+ * </p>
+ */
+public class Multipart implements Iterator<Multipart.Part>, Closeable {
+
+    public static final int BUFFER_SIZE = 64 * 1024;
+    public static final int MAX_HEADER_SIZE = 16 * 1024;
+    public static final int MAX_BOUNDARY_LENGTH = 200;
+
+    /**
+     * @param memoryThreshold max bytes of a part kept in memory
+     * @param maxPartSize     max bytes of a single part, negative for unlimited
+     * @param maxSize         max bytes of all parts, negative for unlimited
+     * @param tempDir         directory for the temp files, {@code null} for the default temp directory
+     */
+    public record Limits(long memoryThreshold, long maxPartSize, long maxSize, Path tempDir) {
+        public static final Limits DEFAULT = new Limits(64 * 1024, -1, -1, null);
+    }
+
+    protected final InputStream in;
+    protected final Limits limits;
+    protected final byte[] delimiter;
+    protected final int[] skip = new int[256];
+    protected final byte[] buffer = new byte[BUFFER_SIZE];
+    protected final List<Part> parts = new ArrayList<>();
+    protected int position;
+    protected int limit;
+    protected long size;
+    protected boolean started;
+    protected boolean finished;
+    protected Part next;
+
+    /**
+     * @param in       multipart body, is not closed by this parser
+     * @param boundary boundary from the {@link HttpHeaders#CONTENT_TYPE} header, see {@link #boundaryOf(String)}
+     * @param limits   size limits, {@code null} for {@link Limits#DEFAULT}
+     */
+    public Multipart(final InputStream in, final String boundary, final Limits limits) {
+        if (boundary == null || boundary.isEmpty() || boundary.length() > MAX_BOUNDARY_LENGTH)
+            throw new IllegalArgumentException("Invalid multipart boundary [" + boundary + "]");
+        this.in = in;
+        this.limits = limits == null ? Limits.DEFAULT : limits;
+        this.delimiter = ("\r\n--" + boundary).getBytes(US_ASCII);
+        Arrays.fill(skip, delimiter.length);
+        for (int i = 0; i < delimiter.length - 1; i++)
+            skip[delimiter[i] & 0xFF] = delimiter.length - 1 - i;
+        // the first boundary has no leading line break
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        limit = 2;
+    }
+
+    /**
+     * Extracts the boundary parameter of a {@code multipart/*} content type.
+     *
+     * @param contentType value of the {@link HttpHeaders#CONTENT_TYPE} header
+     * @return the boundary or {@code null} if there is none
+     */
+    public static String boundaryOf(final String contentType) {
+        return contentType == null ? null : parametersOf(contentType).get("boundary");
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = readPart();
+            } catch (final IOException e) {
+                finished = true;
+                throw new UncheckedIOException(e);
+            } catch (final RuntimeException e) {
+                finished = true;
+                throw e;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Part next() {
+        if (!hasNext())
+            throw new NoSuchElementException("No more multipart parts");
+        final Part result = next;
+        next = null;
+        return result;
+    }
+
+    /**
+     * Reads all remaining parts.
+     *
+     * @return remaining parts
+     */
+    public List<Part> parts() {
+        final List<Part> result = new ArrayList<>();
+        forEachRemaining(result::add);
+        return result;
+    }
+
+    /**
+     * @return total bytes of all parts read so far
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Deletes the temp files of all parts which were not moved. The request stream is not closed.
+     */
+    @Override
+    public void close() {
+        finished = true;
+        next = null;
+        for (final Part part : parts)
+            part.delete();
+        parts.clear();
+    }
+
+    protected Part readPart() throws IOException {
+        if (!started) {
+            started = true;
+            if (!skipToDelimiter())
+                throw new IllegalStateException("Missing multipart boundary");
+        }
+        if (!available(2))
+            throw new IllegalStateException("Unexpected end of multipart body");
+        if (buffer[position] == '-' && buffer[position + 1] == '-') {
+            finished = true;
+            return null;
+        }
+        readLine(); // transport padding after the boundary
+        final Part part = new Part(readHeaders());
+        parts.add(part);
+        try {
+            readBody(part);
+        } catch (final IOException | RuntimeException e) {
+            part.delete();
+            throw e;
+        }
+        return part;
+    }
+
+    protected Map<String, String> readHeaders() throws IOException {
+        final Map<String, String> result = new LinkedHashMap<>();
+        int headerSize = 0;
+        String line;
+        while (!(line = readLine()).isEmpty()) {
+            headerSize += line.length();
+            if (headerSize > MAX_HEADER_SIZE)
+                throw new IllegalStateException("Multipart headers exceed [" + MAX_HEADER_SIZE + "] bytes");
+            final int separator = line.indexOf(':');
+            if (separator > 0)
+                result.put(line.substring(0, separator).trim().toLowerCase(Locale.ROOT), line.substring(separator + 1).trim());
+        }
+        return result;
+    }
+
+    /**
+     * Streams the body of a part until the next delimiter into memory or into its temp file.
+     * The last bytes of the buffer are kept as they could be the start of the delimiter.
+     */
+    protected void readBody(final Part part) throws IOException {
+        while (true) {
+            final int index = indexOfDelimiter();
+            if (index >= 0) {
+                write(part, index - position);
+                position = index + delimiter.length;
+                part.complete();
+                return;
+            }
+            final int safe = limit - delimiter.length + 1;
+            if (safe > position)
+                write(part, safe - position);
+            if (!fill())
+                throw new IllegalStateException("Unexpected end of multipart body, missing closing boundary");
+        }
+    }
+
+    protected void write(final Part part, final int length) throws IOException {
+        if (length <= 0)
+            return;
+        part.size += length;
+        size += length;
+        if (limits.maxPartSize() >= 0 && part.size > limits.maxPartSize())
+            throw new IllegalStateException("Multipart part [" + part.name() + "] exceeds the limit of [" + limits.maxPartSize() + "] bytes");
+        if (limits.maxSize() >= 0 && size > limits.maxSize())
+            throw new IllegalStateException("Multipart body exceeds the limit of [" + limits.maxSize() + "] bytes");
+        if (part.channel == null && part.size <= limits.memoryThreshold()) {
+            if (part.size > part.memory.length)
+                part.memory = Arrays.copyOf(part.memory, (int) Math.min(limits.memoryThreshold(), Math.max(part.size, part.memory.length * 2L)));
+            System.arraycopy(buffer, position, part.memory, (int) (part.size - length), length);
+        } else {
+            if (part.channel == null)
+                part.spill(limits.tempDir(), (int) (part.size - length));
+            final ByteBuffer chunk = ByteBuffer.wrap(buffer, position, length);
+            while (chunk.hasRemaining())
+                part.channel.write(chunk);
+        }
+        position += length;
+    }
+
+    protected boolean skipToDelimiter() throws IOException {
+        while (true) {
+            final int index = indexOfDelimiter();
+            if (index >= 0) {
+                position = index + delimiter.length;
+                return true;
+            }
+            position = Math.max(position, limit - delimiter.length + 1);
+            if (!fill())
+                return false;
+        }
+    }
+
+    /**
+     * Boyer-Moore-Horspool search of the delimiter in the unread bytes of the buffer.
+     */
+    protected int indexOfDelimiter() {
+        final int last = delimiter.length - 1;
+        int i = position;
+        while (i + last < limit) {
+            int j = last;
+            while (j >= 0 && buffer[i + j] == delimiter[j])
+                j--;
+            if (j < 0)
+                return i;
+            i += skip[buffer[i + last] & 0xFF];
+        }
+        return -1;
+    }
+
+    protected String readLine() throws IOException {
+        int start = position;
+        while (true) {
+            for (int i = start; i + 1 < limit; i++) {
+                if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                    final String result = new String(buffer, position, i - position, UTF_8);
+                    position = i + 2;
+                    return result;
+                }
+            }
+            if (limit - position >= MAX_HEADER_SIZE)
+                throw new IllegalStateException("Multipart header line exceeds [" + MAX_HEADER_SIZE + "] bytes");
+            start = Math.max(position, limit - 1);
+            final int offset = start - position;
+            if (!fill())
+                throw new IllegalStateException("Unexpected end of multipart headers");
+            start = position + offset;
+        }
+    }
+
+    protected boolean available(final int length) throws IOException {
+        while (limit - position < length) {
+            if (!fill())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Moves the unread bytes to the start of the buffer and reads more bytes.
+     *
+     * @return false at the end of the stream
+     */
+    protected boolean fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.length)
+            return false;
+        final int read = in.read(buffer, limit, buffer.length - limit);
+        if (read <= 0)
+            return false;
+        limit += read;
+        return true;
+    }
+
+    /**
+     * Parses the parameters of a header value like {@code form-data; name="field"; filename="a.txt"}.
+     * {@code filename*} with RFC 5987 encoding replaces {@code filename}.
+     */
+    protected static Map<String, String> parametersOf(final String value) {
+        final Map<String, String> result = new LinkedHashMap<>();
+        int i = value.indexOf(';');
+        while (i >= 0 && i < value.length()) {
+            final int equals = value.indexOf('=', i + 1);
+            if (equals < 0)
+                break;
+            final String key = value.substring(i + 1, equals).trim().toLowerCase(Locale.ROOT);
+            int end;
+            String param;
+            if (equals + 1 < value.length() && value.charAt(equals + 1) == '"') {
+                final StringBuilder quoted = new StringBuilder();
+                end = equals + 2;
+                while (end < value.length() && value.charAt(end) != '"') {
+                    if (value.charAt(end) == '\\' && end + 1 < value.length())
+                        end++;
+                    quoted.append(value.charAt(end++));
+                }
+                param = quoted.toString();
+                end = value.indexOf(';', end);
+            } else {
+                end = value.indexOf(';', equals);
+                param = value.substring(equals + 1, end < 0 ? value.length() : end).trim();
+            }
+            if (key.endsWith("*")) {
+                final int charsetEnd = param.indexOf("''");
+                result.put(key.substring(0, key.length() - 1), URLDecoder.decode(charsetEnd < 0 ? param : param.substring(charsetEnd + 2), UTF_8));
+            } else {
+                result.putIfAbsent(key, param);
+            }
+            i = end;
+        }
+        return result;
+    }
+
+    /**
+     * One part of a multipart body, either in memory or in a temp file.
+     */
+    public static class Part {
+
+        protected final Map<String, String> headers;
+        protected final Map<String, String> disposition;
+        protected byte[] memory = new byte[256];
+        protected long size;
+        protected Path file;
+        protected FileChannel channel;
+        protected boolean moved;
+
+        protected Part(final Map<String, String> headers) {
+            this.headers = Collections.unmodifiableMap(headers);
+            this.disposition = parametersOf(headers.getOrDefault("content-disposition", ""));
+        }
+
+        /**
+         * @return form field name
+         */
+        public String name() {
+            return disposition.get("name");
+        }
+
+        /**
+         * @return file name of file uploads, {@code null} for simple fields
+         */
+        public String fileName() {
+            return disposition.get("filename");
+        }
+
+        public String contentType() {
+            return headers.get(HttpHeaders.CONTENT_TYPE);
+        }
+
+        /**
+         * @param key case-insensitive header name
+         * @return header value or {@code null}
+         */
+        public String header(final String key) {
+            return key == null ? null : headers.get(key.toLowerCase(Locale.ROOT));
+        }
+
+        public Map<String, String> headers() {
+            return headers;
+        }
+
+        public long size() {
+            return size;
+        }
+
+        public boolean isFile() {
+            return fileName() != null;
+        }
+
+        public boolean isInMemory() {
+            return file == null;
+        }
+
+        /**
+         * @return temp file of a spilled part, {@code null} if the part is in memory
+         */
+        public Path path() {
+            return file;
+        }
+
+        /**
+         * Reads the content into memory, use {@link #inputStream()} or {@link #moveTo(Path)} for large parts.
+         *
+         * @return content of the part
+         */
+        public byte[] bytes() {
+            if (file == null)
+                return Arrays.copyOf(memory, (int) size);
+            try {
+                return Files.readAllBytes(file);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @return content of the part as UTF-8 string
+         */
+        public String asString() {
+            return file == null ? new String(memory, 0, (int) size, UTF_8) : new String(bytes(), UTF_8);
+        }
+
+        public InputStream inputStream() throws IOException {
+            return file == null ? new ByteArrayInputStream(memory, 0, (int) size) : Files.newInputStream(file);
+        }
+
+        /**
+         * Moves the content to a target file, which is kept after the request.
+         *
+         * @param target target file, replaced if it exists
+         * @return the target
+         * @throws IOException if the file can't be written
+         */
+        public Path moveTo(final Path target) throws IOException {
+            if (file == null) {
+                try (final FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    final ByteBuffer content = ByteBuffer.wrap(memory, 0, (int) size);
+                    while (content.hasRemaining())
+                        out.write(content);
+                }
+            } else {
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            file = target;
+            moved = true;
+            memory = null;
+            return target;
+        }
+
+        /**
+         * Moves the bytes read so far from memory into a new temp file.
+         *
+         * @param tempDir  directory of the temp file, {@code null} for the default temp directory
+         * @param inMemory bytes in memory
+         */
+        protected void spill(final Path tempDir, final int inMemory) throws IOException {
+            file = tempDir == null ? Files.createTempFile("nano_multipart_", ".part") : Files.createTempFile(tempDir, "nano_multipart_", ".part");
+            channel = FileChannel.open(file, StandardOpenOption.WRITE);
+            final ByteBuffer content = ByteBuffer.wrap(memory, 0, inMemory);
+            while (content.hasRemaining())
+                channel.write(content);
+            memory = null;
+        }
+
+        protected void complete() throws IOException {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+
+        protected void delete() {
+            try {
+                complete();
+            } catch (final IOException ignored) {
+                // deleted anyway
+            }
+            if (file != null && !moved) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (final IOException ignored) {
+                    // best effort, the temp directory is cleaned by the OS
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Part{name=" + name() + ", fileName=" + fileName() + ", size=" + size + ", inMemory=" + isInMemory() + "}";
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package org.nanonative.nano.services.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Append-only journal of {@link JournalSegment}s in one directory.
+ * <p>
+ * Appends are serialized by a single {@link ReentrantLock}, as {@link java.nio.MappedByteBuffer#force()} would pin the carrier
+ * of a virtual thread inside {@code synchronized}, and written into the memory-mapped active segment.
+ * Reads hold a shared lock on the mappings, so segments are only unmapped while nobody reads them.
+ * Durability is a group commit: {@link #flush()} is called every {@code flushEvents} appends and by the owner on a timer.
+ * Full segments are rotated, sealed segments are deleted by {@link #retain(long)} when the journal exceeds its size or age limit.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class Journal implements AutoCloseable {
+
+    protected final Path dir;
+    protected volatile int segmentBytes;
+    protected final int flushEvents;
+    protected final long retentionBytes;
+    protected final long retentionMs;
+    protected final ConcurrentSkipListMap<Long, JournalSegment> segments = new ConcurrentSkipListMap<>();
+    protected final ReentrantLock lock = new ReentrantLock();
+    protected final ReentrantReadWriteLock mappings = new ReentrantReadWriteLock();
+    protected volatile JournalSegment active;
+    protected volatile boolean closed;
+    protected int unflushed;
+
+    /**
+     * Opens the journal and recovers existing segments.
+     *
+     * @param dir            directory of the segment files
+     * @param segmentBytes   size of each segment file
+     * @param flushEvents    appends after which the active segment is flushed, {@code <= 0} to flush only on {@link #flush()}
+     * @param retentionBytes max bytes of all segments, {@code <= 0} for unlimited
+     * @param retentionMs    max age of sealed segments, {@code <= 0} for unlimited
+     */
+    public Journal(final Path dir, final int segmentBytes, final int flushEvents, final long retentionBytes, final long retentionMs) {
+        this.dir = dir;
+        segmentBytes(segmentBytes);
+        this.flushEvents = flushEvents;
+        this.retentionBytes = retentionBytes;
+        this.retentionMs = retentionMs;
+        try {
+            Files.createDirectories(dir);
+            try (final Stream<Path> files = Files.list(dir)) {
+                files.map(Path::getFileName).map(Path::toString)
+                    .filter(name -> name.endsWith(JournalSegment.SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - JournalSegment.SUFFIX.length())))
+                    .forEach(base -> segments.put(base, new JournalSegment(dir, base, this.segmentBytes)));
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to open journal [" + dir + "]", e);
+        }
+        active = segments.isEmpty() ? newSegment(0) : segments.lastEntry().getValue();
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param timestampMs epoch millis of the event
+     * @param channel     channel name
+     * @param data        serialized payload
+     * @return offset of the record
+     * @throws IllegalArgumentException if the record is larger than a segment
+     * @throws IllegalStateException    if the journal is closed
+     */
+    public long append(final long timestampMs, final String channel, final byte[] data) {
+        final byte[] name = channel.getBytes(UTF_8);
+        lock.lock();
+        try {
+            if (closed)
+                throw new IllegalStateException("Journal [" + dir + "] is closed");
+            long offset = active.append(timestampMs, name, data);
+            if (offset < 0) {
+                rotate();
+                offset = active.append(timestampMs, name, data);
+                if (offset < 0)
+                    throw new IllegalArgumentException("Journal record of [" + data.length + "] bytes exceeds segment size [" + segmentBytes + "]");
+            }
+            if (flushEvents > 0 && ++unflushed >= flushEvents)
+                flush();
+            return offset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces all appended records of the active segment to the storage device.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            if (!closed) {
+                active.flush();
+                unflushed = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads records from {@code fromOffset} (inclusive) in order until the end or until the consumer returns {@code false}.
+     *
+     * @param fromOffset first offset to read, offsets which were already deleted by retention are skipped
+     * @param consumer   record consumer, returns {@code false} to stop
+     * @return number of records read
+     */
+    public long read(final long fromOffset, final Predicate<JournalRecord> consumer) {
+        final long[] count = {0};
+        mappings.readLock().lock();
+        try {
+            final Long start = segments.floorKey(fromOffset);
+            for (final JournalSegment segment : segments.tailMap(start == null ? Long.MIN_VALUE : start).values()) {
+                if (closed || !segment.read(fromOffset, journalRecord -> {
+                    count[0]++;
+                    return consumer.test(journalRecord);
+                }))
+                    break;
+            }
+        } finally {
+            mappings.readLock().unlock();
+        }
+        return count[0];
+    }
+
+    /**
+     * Deletes the oldest sealed segments while the journal is larger than {@code retentionBytes} or older than {@code retentionMs}.
+     *
+     * @param nowMs current epoch millis
+     * @return number of deleted segments
+     */
+    public int retain(final long nowMs) {
+        lock.lock();
+        try {
+            int deleted = 0;
+            long bytes = bytes();
+            for (final JournalSegment segment : new ArrayList<>(segments.values())) {
+                if (closed || segment == active)
+                    break;
+                final boolean tooLarge = retentionBytes > 0 && bytes > retentionBytes;
+                final boolean tooOld = retentionMs > 0 && nowMs - segment.lastTimestampMs() > retentionMs;
+                if (!tooLarge && !tooOld)
+                    break;
+                segments.remove(segment.baseOffset());
+                segment.delete();
+                // a running read keeps the mapping, which is then released by the garbage collector
+                if (mappings.writeLock().tryLock()) {
+                    try {
+                        segment.unmap();
+                    } finally {
+                        mappings.writeLock().unlock();
+                    }
+                }
+                bytes -= segment.size();
+                deleted++;
+            }
+            return deleted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return offset of the oldest retained record
+     */
+    public long firstOffset() {
+        return segments.firstKey();
+    }
+
+    /**
+     * @return offset which the next append will get
+     */
+    public long nextOffset() {
+        return active.nextOffset();
+    }
+
+    /**
+     * @return bytes of all segment files
+     */
+    public long bytes() {
+        return segments.values().stream().mapToLong(JournalSegment::size).sum();
+    }
+
+    public List<JournalSegment> segments() {
+        return List.copyOf(segments.values());
+    }
+
+    public Path dir() {
+        return dir;
+    }
+
+    public int segmentBytes() {
+        return segmentBytes;
+    }
+
+    /**
+     * Changes the size of new segments, applied on the next rotation. Existing segments keep their size.
+     *
+     * @param segmentBytes size of each segment file
+     * @return self for chaining
+     */
+    public Journal segmentBytes(final int segmentBytes) {
+        this.segmentBytes = Math.max(segmentBytes, JournalSegment.HEADER_BYTES + JournalSegment.RECORD_HEADER_BYTES + Integer.BYTES);
+        return this;
+    }
+
+    /**
+     * Flushes and unmaps all segments, waits for running reads.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed)
+                return;
+            active.flush();
+            closed = true;
+            mappings.writeLock().lock();
+            try {
+                segments.values().forEach(JournalSegment::unmap);
+            } finally {
+                mappings.writeLock().unlock();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    protected void rotate() {
+        active.flush();
+        active = newSegment(active.nextOffset());
+        retain(System.currentTimeMillis());
+    }
+
+    protected JournalSegment newSegment(final long baseOffset) {
+        final JournalSegment segment = new JournalSegment(dir, baseOffset, segmentBytes);
+        segments.put(baseOffset, segment);
+        return segment;
+    }
+}
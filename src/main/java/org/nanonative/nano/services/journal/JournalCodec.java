@@ -0,0 +1,43 @@
+package org.nanonative.nano.services.journal;
+
+import berlin.yuna.typemap.logic.JsonDecoder;
+import berlin.yuna.typemap.logic.JsonEncoder;
+
+import static berlin.yuna.typemap.logic.TypeConverter.convertObj;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Serializes event payloads for the {@link Journal}.
+ */
+public interface JournalCodec {
+
+    /**
+     * Default codec using the {@code TypeMap} JSON encoder and converter.
+     */
+    JournalCodec JSON = new JournalCodec() {
+        @Override
+        public byte[] encode(final Object payload) {
+            return payload == null ? new byte[0] : JsonEncoder.toJson(payload).getBytes(UTF_8);
+        }
+
+        @Override
+        public Object decode(final byte[] data, final Class<?> type) {
+            if (data == null || data.length == 0 || type == null || type == Void.class)
+                return null;
+            return convertObj(JsonDecoder.jsonOf(new String(data, UTF_8)), type);
+        }
+    };
+
+    /**
+     * @param payload event payload, can be null
+     * @return serialized payload, empty for null
+     */
+    byte[] encode(Object payload);
+
+    /**
+     * @param data serialized payload
+     * @param type payload type of the channel
+     * @return payload or null
+     */
+    Object decode(byte[] data, Class<?> type);
+}
@@ -0,0 +1,33 @@
+package org.nanonative.nano.services.journal;
+
+import org.nanonative.nano.helper.event.model.Channel;
+
+import java.util.Optional;
+
+/**
+ * Single entry of the {@link Journal}.
+ *
+ * @param offset      monotonic position of the record in the journal
+ * @param timestampMs epoch millis when the event was sent
+ * @param channel     name of the {@link Channel}
+ * @param data        payload serialized by the {@link JournalCodec}
+ */
+public record JournalRecord(long offset, long timestampMs, String channel, byte[] data) {
+
+    /**
+     * @return registered channel of this record, empty if the channel is unknown to this process
+     */
+    public Optional<Channel<?, ?>> resolveChannel() {
+        return Channel.channelOf(channel);
+    }
+
+    /**
+     * @param codec codec which wrote the record
+     * @param type  payload type
+     * @return decoded payload
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T payload(final JournalCodec codec, final Class<T> type) {
+        return (T) codec.decode(data, type);
+    }
+}
@@ -0,0 +1,231 @@
+package org.nanonative.nano.services.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Fixed size, memory-mapped, append-only file of {@link JournalRecord}s.
+ * <p>
+ * Layout: {@code [magic:int][baseOffset:long]} followed by records {@code [length:int][crc32:int][offset:long][timestampMs:long][channelLength:short][channel][data]}.
+ * A length of {@code 0} marks the end, a CRC mismatch marks a torn write after a crash.
+ * Offsets within a segment are contiguous, a sparse in-memory index stores the position of every {@link #INDEX_INTERVAL}th record.
+ * </p>
+ */
+public class JournalSegment {
+
+    public static final int MAGIC = 0x4E4A524E; // NJRN
+    public static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+    public static final int RECORD_HEADER_BYTES = Integer.BYTES * 2 + Long.BYTES * 2 + Short.BYTES;
+    public static final int INDEX_INTERVAL = 64;
+    public static final String SUFFIX = ".journal";
+
+    protected final Path path;
+    protected final long baseOffset;
+    protected final int capacity;
+    // dropped on unmap, the garbage collector then releases the mapping. Guarded by the locks of the Journal
+    protected MappedByteBuffer buffer;
+    protected volatile boolean unmapped;
+    protected final CRC32 crc = new CRC32();
+    protected int[] index = new int[16];
+    protected volatile int position = HEADER_BYTES;
+    protected volatile long nextOffset;
+    protected volatile long lastTimestampMs;
+    protected int flushedPosition = HEADER_BYTES;
+
+    /**
+     * Opens or creates a segment and recovers its write position.
+     *
+     * @param dir        journal directory
+     * @param baseOffset offset of the first record
+     * @param capacity   size of the file in bytes
+     */
+    public JournalSegment(final Path dir, final long baseOffset, final int capacity) {
+        this.path = dir.resolve(fileName(baseOffset));
+        this.baseOffset = baseOffset;
+        this.nextOffset = baseOffset;
+        try (final FileChannel channel = FileChannel.open(path, CREATE, READ, WRITE)) {
+            final boolean exists = channel.size() > 0;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, exists ? channel.size() : capacity);
+            this.capacity = buffer.capacity();
+            this.lastTimestampMs = Files.getLastModifiedTime(path).toMillis();
+            if (exists && buffer.getInt(0) == MAGIC) {
+                recover();
+            } else {
+                buffer.putInt(0, MAGIC);
+                buffer.putLong(Integer.BYTES, baseOffset);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to open journal segment [" + path + "]", e);
+        }
+    }
+
+    /**
+     * Appends a record if it fits into the remaining capacity.
+     *
+     * @return offset of the record or {@code -1} if the segment is full
+     */
+    public long append(final long timestampMs, final byte[] channel, final byte[] data) {
+        final int length = RECORD_HEADER_BYTES - Integer.BYTES * 2 + channel.length + data.length;
+        final int start = position;
+        if (start + Integer.BYTES * 2 + length + Integer.BYTES > capacity)
+            return -1;
+        final long offset = nextOffset;
+        final ByteBuffer body = buffer.slice(start + Integer.BYTES * 2, length)
+            .putLong(offset)
+            .putLong(timestampMs)
+            .putShort((short) channel.length)
+            .put(channel)
+            .put(data)
+            .flip();
+        crc.reset();
+        crc.update(body);
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+        buffer.putInt(start, length);
+        indexRecord(offset, start);
+        lastTimestampMs = timestampMs;
+        nextOffset = offset + 1;
+        position = start + Integer.BYTES * 2 + length;
+        return offset;
+    }
+
+    /**
+     * Reads records starting at {@code fromOffset} until the end of the segment or until the consumer returns {@code false}.
+     *
+     * @return {@code false} if the consumer stopped the iteration
+     */
+    public boolean read(final long fromOffset, final Predicate<JournalRecord> consumer) {
+        final int end = position;
+        final ByteBuffer view = buffer.duplicate();
+        int pos = positionOf(Math.max(fromOffset, baseOffset), end);
+        while (pos < end) {
+            final int length = view.getInt(pos);
+            final long offset = view.getLong(pos + Integer.BYTES * 2);
+            if (offset >= fromOffset && !consumer.test(recordAt(view, pos, length)))
+                return false;
+            pos += Integer.BYTES * 2 + length;
+        }
+        return true;
+    }
+
+    /**
+     * Forces written but not yet flushed bytes to the storage device.
+     */
+    public void flush() {
+        final int end = position;
+        if (end > flushedPosition) {
+            buffer.force(flushedPosition, end - flushedPosition);
+            flushedPosition = end;
+        }
+    }
+
+    /**
+     * Drops the memory mapping, which the garbage collector releases once no read holds a view of it anymore.
+     * The segment must not be accessed afterwards, see {@link Journal#close()}.
+     */
+    public void unmap() {
+        unmapped = true;
+        buffer = null;
+    }
+
+    public void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to delete journal segment [" + path + "]", e);
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public long baseOffset() {
+        return baseOffset;
+    }
+
+    public long nextOffset() {
+        return nextOffset;
+    }
+
+    public long lastTimestampMs() {
+        return lastTimestampMs;
+    }
+
+    public int size() {
+        return capacity;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    public static String fileName(final long baseOffset) {
+        return String.format("%020d", baseOffset) + SUFFIX;
+    }
+
+    protected void recover() {
+        int pos = HEADER_BYTES;
+        while (pos + Integer.BYTES * 2 <= capacity) {
+            final int length = buffer.getInt(pos);
+            if (length < RECORD_HEADER_BYTES - Integer.BYTES * 2 || pos + Integer.BYTES * 2 + length > capacity)
+                break;
+            crc.reset();
+            crc.update(buffer.slice(pos + Integer.BYTES * 2, length));
+            if ((int) crc.getValue() != buffer.getInt(pos + Integer.BYTES))
+                break;
+            final long offset = buffer.getLong(pos + Integer.BYTES * 2);
+            indexRecord(offset, pos);
+            lastTimestampMs = buffer.getLong(pos + Integer.BYTES * 2 + Long.BYTES);
+            nextOffset = offset + 1;
+            pos += Integer.BYTES * 2 + length;
+        }
+        // clear a torn tail so the next append starts on a clean end marker
+        if (pos + Integer.BYTES <= capacity)
+            buffer.putInt(pos, 0);
+        position = pos;
+        flushedPosition = pos;
+    }
+
+    protected void indexRecord(final long offset, final int pos) {
+        final long relative = offset - baseOffset;
+        if (relative % INDEX_INTERVAL != 0)
+            return;
+        final int slot = (int) (relative / INDEX_INTERVAL);
+        if (slot >= index.length)
+            index = Arrays.copyOf(index, index.length * 2);
+        index[slot] = pos;
+    }
+
+    protected int positionOf(final long offset, final int end) {
+        final long last = nextOffset;
+        final int[] snapshot = index;
+        final long slot = (Math.min(offset, last - 1) - baseOffset) / INDEX_INTERVAL;
+        if (slot <= 0 || slot >= snapshot.length)
+            return HEADER_BYTES;
+        final int pos = snapshot[(int) slot];
+        return pos >= HEADER_BYTES && pos < end ? pos : HEADER_BYTES;
+    }
+
+    protected static JournalRecord recordAt(final ByteBuffer view, final int pos, final int length) {
+        final int body = pos + Integer.BYTES * 2;
+        final int channelLength = view.getShort(body + Long.BYTES * 2);
+        final byte[] channel = new byte[channelLength];
+        final byte[] data = new byte[length - (RECORD_HEADER_BYTES - Integer.BYTES * 2) - channelLength];
+        view.get(body + Long.BYTES * 2 + Short.BYTES, channel);
+        view.get(body + Long.BYTES * 2 + Short.BYTES + channelLength, data);
+        return new JournalRecord(view.getLong(body), view.getLong(body + Long.BYTES), new String(channel, UTF_8), data);
+    }
+}
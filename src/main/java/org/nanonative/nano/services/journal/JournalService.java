@@ -0,0 +1,243 @@
+package org.nanonative.nano.services.journal;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import berlin.yuna.typemap.model.TypeMapI;
+import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.core.model.Service;
+import org.nanonative.nano.helper.event.model.Channel;
+import org.nanonative.nano.helper.event.model.Event;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static java.util.Optional.ofNullable;
+import static org.nanonative.nano.helper.NanoUtils.splitConfig;
+import static org.nanonative.nano.helper.config.ConfigRegister.registerConfig;
+import static org.nanonative.nano.helper.event.model.Channel.registerChannelId;
+
+/**
+ * Durable journal for selected {@link Channel}s.
+ * <p>
+ * Events of journaled channels are appended when they are sent, before async events are queued, so in flight events survive
+ * a shutdown or crash. Payloads are serialized by a {@link JournalCodec} into memory-mapped {@link JournalSegment}s.
+ * {@link #replay(Context, long)} re-publishes the events from an offset, replayed events are not journaled again.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class JournalService extends Service {
+
+    // Register configurations
+    public static final String CONFIG_JOURNAL_CHANNELS = registerConfig("app_service_journal_channels", "Comma separated channel names to journal (see " + JournalService.class.getSimpleName() + ")");
+    public static final String CONFIG_JOURNAL_DIR = registerConfig("app_service_journal_dir", "Directory of the journal segments (see " + JournalService.class.getSimpleName() + "). default = `<tmp>/nano/journal`");
+    public static final String CONFIG_JOURNAL_SEGMENT_BYTES = registerConfig("app_service_journal_segment_bytes", "Size of each journal segment file (see " + JournalService.class.getSimpleName() + "). default = `16777216`");
+    public static final String CONFIG_JOURNAL_FLUSH_MS = registerConfig("app_service_journal_flush_ms", "Milliseconds between journal flushes (see " + JournalService.class.getSimpleName() + "). default = `100`");
+    public static final String CONFIG_JOURNAL_FLUSH_EVENTS = registerConfig("app_service_journal_flush_events", "Appended events after which the journal is flushed (see " + JournalService.class.getSimpleName() + "). default = `1024`");
+    public static final String CONFIG_JOURNAL_RETENTION_BYTES = registerConfig("app_service_journal_retention_bytes", "Max bytes of all journal segments (see " + JournalService.class.getSimpleName() + "). default = `1073741824`");
+    public static final String CONFIG_JOURNAL_RETENTION_MS = registerConfig("app_service_journal_retention_ms", "Max age of journal segments in milliseconds (see " + JournalService.class.getSimpleName() + "). default = `604800000`");
+
+    // Register event channels
+    public static final Channel<Long, Long> EVENT_JOURNAL_REPLAY = registerChannelId("JOURNAL_REPLAY", Long.class, Long.class);
+
+    /**
+     * Event key holding the journal offset of journaled and replayed events.
+     */
+    public static final String JOURNAL_OFFSET = "journalOffset";
+
+    protected final Map<Integer, Consumer<Event<?, ?>>> taps = new ConcurrentHashMap<>();
+    protected final Set<Integer> configuredChannels = ConcurrentHashMap.newKeySet();
+    protected final AtomicReference<Journal> journal = new AtomicReference<>();
+    protected final AtomicBoolean running = new AtomicBoolean(false);
+    protected final LongAdder appended = new LongAdder();
+    protected final LongAdder failed = new LongAdder();
+    protected JournalCodec codec = JournalCodec.JSON;
+    protected Path dir = Path.of(System.getProperty("java.io.tmpdir"), "nano", "journal");
+    protected int segmentBytes = 16 * 1024 * 1024;
+    protected long flushMs = 100;
+    protected int flushEvents = 1024;
+    protected long retentionBytes = 1024L * 1024 * 1024;
+    protected long retentionMs = TimeUnit.DAYS.toMillis(7);
+
+    @Override
+    public void start() {
+        if (running.compareAndSet(false, true)) {
+            journal.set(new Journal(dir, segmentBytes, flushEvents, retentionBytes, retentionMs));
+            taps.forEach((id, tap) -> ofNullable(Channel.channelOf(id)).ifPresent(channel -> context.nano().tapEvent(channel, tap)));
+            context.run(this::flush, flushMs, flushMs, TimeUnit.MILLISECONDS, () -> !running.get());
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (running.compareAndSet(true, false)) {
+            taps.forEach((id, tap) -> context.nano().untapEvent(id, tap));
+            ofNullable(journal.getAndSet(null)).ifPresent(Journal::close);
+        }
+    }
+
+    @Override
+    public Object onFailure(final Event<?, ?> error) {
+        return null;
+    }
+
+    @Override
+    public void onEvent(final Event<?, ?> event) {
+        event.channel(EVENT_JOURNAL_REPLAY).ifPresent(ev -> ev.respond(replay(ev.context(), ofNullable(ev.payload()).orElse(0L))));
+    }
+
+    @Override
+    public void configure(final TypeMapI<?> changes, final TypeMapI<?> merged) {
+        final Path previousDir = dir;
+        merged.asStringOpt(CONFIG_JOURNAL_DIR).map(Path::of).ifPresent(path -> dir = path);
+        merged.asIntOpt(CONFIG_JOURNAL_SEGMENT_BYTES).filter(bytes -> bytes > 0).ifPresent(bytes -> segmentBytes = bytes);
+        merged.asLongOpt(CONFIG_JOURNAL_FLUSH_MS).filter(ms -> ms > 0).ifPresent(ms -> flushMs = ms);
+        merged.asIntOpt(CONFIG_JOURNAL_FLUSH_EVENTS).ifPresent(events -> flushEvents = events);
+        merged.asLongOpt(CONFIG_JOURNAL_RETENTION_BYTES).ifPresent(bytes -> retentionBytes = bytes);
+        merged.asLongOpt(CONFIG_JOURNAL_RETENTION_MS).ifPresent(ms -> retentionMs = ms);
+        // a running journal takes the segment size on its next rotation, but can't move
+        ofNullable(journal.get()).ifPresent(current -> {
+            current.segmentBytes(segmentBytes);
+            if (!dir.equals(previousDir) && !dir.equals(current.dir()))
+                context.warn(() -> "Journal dir [{}] applies after restart, journaling continues in [{}]", dir, current.dir());
+        });
+        final List<Channel<?, ?>> channels = splitConfig(merged, CONFIG_JOURNAL_CHANNELS).stream()
+            .map(Channel::channelOf)
+            .flatMap(Optional::stream)
+            .toList();
+        // channels removed from the config are no longer journaled, channels added by code stay
+        configuredChannels.stream()
+            .filter(id -> channels.stream().noneMatch(channel -> channel.id() == id))
+            .map(id -> Channel.channelOf((int) id))
+            .toList()
+            .forEach(this::unjournal);
+        configuredChannels.clear();
+        channels.forEach(channel -> {
+            journal(channel);
+            configuredChannels.add(channel.id());
+        });
+    }
+
+    @Override
+    public Set<String> configKeys() {
+        return Set.of("app_service_journal");
+    }
+
+    /**
+     * Journals all events of the given channel.
+     *
+     * @param channel channel to journal
+     * @return self for chaining
+     */
+    public JournalService journal(final Channel<?, ?> channel) {
+        if (channel != null && !taps.containsKey(channel.id())) {
+            final Consumer<Event<?, ?>> tap = this::append;
+            taps.put(channel.id(), tap);
+            if (running.get())
+                context.nano().tapEvent(channel, tap);
+        }
+        return this;
+    }
+
+    /**
+     * Stops journaling the given channel.
+     *
+     * @param channel channel to stop journaling
+     * @return self for chaining
+     */
+    public JournalService unjournal(final Channel<?, ?> channel) {
+        if (channel != null) {
+            configuredChannels.remove(channel.id());
+            ofNullable(taps.remove(channel.id()))
+                .filter(tap -> running.get())
+                .ifPresent(tap -> context.nano().untapEvent(channel.id(), tap));
+        }
+        return this;
+    }
+
+    /**
+     * @param codec payload serializer, default {@link JournalCodec#JSON}
+     * @return self for chaining
+     */
+    public JournalService codec(final JournalCodec codec) {
+        this.codec = codec == null ? JournalCodec.JSON : codec;
+        return this;
+    }
+
+    /**
+     * Re-publishes journaled events in order, starting at {@code fromOffset}.
+     * Records of channels unknown to this process are skipped.
+     *
+     * @param context    context which sends the events
+     * @param fromOffset first offset to replay
+     * @return number of replayed events
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public long replay(final Context context, final long fromOffset) {
+        final Journal current = journal.get();
+        if (current == null)
+            return 0;
+        final long[] count = {0};
+        current.read(fromOffset, journalRecord -> {
+            journalRecord.resolveChannel().ifPresent(channel -> {
+                final Object payload = journalRecord.payload(codec, channel.payload());
+                final Event event = context.newEvent((Channel) channel, () -> payload);
+                event.put(JOURNAL_OFFSET, journalRecord.offset());
+                event.send();
+                count[0]++;
+            });
+            return running.get();
+        });
+        return count[0];
+    }
+
+    /**
+     * @return the open journal, null if the service is not running
+     */
+    public Journal journal() {
+        return journal.get();
+    }
+
+    public long appended() {
+        return appended.sum();
+    }
+
+    protected void append(final Event<?, ?> event) {
+        final Journal current = journal.get();
+        if (current == null || event.containsKey(JOURNAL_OFFSET))
+            return;
+        try {
+            event.put(JOURNAL_OFFSET, current.append(System.currentTimeMillis(), event.channel().name(), codec.encode(event.payload())));
+            appended.increment();
+        } catch (final RuntimeException e) {
+            failed.increment();
+            context.error(e, () -> "Failed to journal event of channel [{}]", event.channel().name());
+        }
+    }
+
+    protected void flush() {
+        ofNullable(journal.get()).ifPresent(current -> {
+            current.flush();
+            current.retain(System.currentTimeMillis());
+        });
+    }
+
+    @Override
+    public String toString() {
+        return new LinkedTypeMap()
+            .putR("name", name())
+            .putR("channels", taps.size())
+            .putR("appended", appended.sum())
+            .putR("failed", failed.sum())
+            .putR("dir", dir.toString())
+            .putR("class", this.getClass().getSimpleName())
+            .toJson();
+    }
+}
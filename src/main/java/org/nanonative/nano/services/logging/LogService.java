@@ -9,6 +9,7 @@ import org.nanonative.nano.services.logging.model.LogLevel;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.logging.Formatter;
@@ -61,6 +62,11 @@ public class LogService extends Service {
         excludePatterns = merged.asStringOpt(CONFIG_LOG_EXCLUDE_PATTERNS).map(patterns -> Arrays.stream(patterns.split(",")).map(String::trim).toList()).orElseGet(List::of);
     }
 
+    @Override
+    public Set<String> configKeys() {
+        return Set.of("app_log");
+    }
+
     public synchronized LogService level(final Level level) {
         this.level = level;
         return this;
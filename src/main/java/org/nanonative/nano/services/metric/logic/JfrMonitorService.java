@@ -0,0 +1,257 @@
+package org.nanonative.nano.services.metric.logic;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import berlin.yuna.typemap.model.TypeList;
+import berlin.yuna.typemap.model.TypeMapI;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import org.nanonative.nano.core.model.NanoThread;
+import org.nanonative.nano.core.model.Service;
+import org.nanonative.nano.helper.event.model.Event;
+import org.nanonative.nano.services.http.model.ContentType;
+import org.nanonative.nano.services.http.model.HttpHeaders;
+import org.nanonative.nano.services.metric.model.MetricType;
+import org.nanonative.nano.services.metric.model.MetricUpdate;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static java.util.Optional.ofNullable;
+import static org.nanonative.nano.helper.config.ConfigRegister.registerConfig;
+import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST;
+import static org.nanonative.nano.services.metric.logic.MetricService.EVENT_METRIC_UPDATE;
+
+/**
+ * Streams JDK Flight Recorder events and turns them into metrics via {@link MetricService#EVENT_METRIC_UPDATE}.
+ * Covers virtual thread pinning and submit failures, carrier thread saturation, GC pauses, safepoints, allocation rate and monitor contention.
+ * The slowest pinning and contention stack traces are served as JSON on {@link #CONFIG_JFR_PINNING_PATH}.
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class JfrMonitorService extends Service {
+
+    // Register configurations
+    public static final String CONFIG_JFR_THRESHOLD_MS = registerConfig("app_service_jfr_threshold_ms", "Minimum duration in milliseconds for pinning, contention and safepoint events (see " + JfrMonitorService.class.getSimpleName() + "). default = `10`");
+    public static final String CONFIG_JFR_STACK_DEPTH = registerConfig("app_service_jfr_stack_depth", "Number of stack frames kept per pinning or contention trace (see " + JfrMonitorService.class.getSimpleName() + "). default = `12`");
+    public static final String CONFIG_JFR_PINNING_PATH = registerConfig("app_service_jfr_pinning_url", "Diagnostics path which lists the top pinning and contention stack traces (see " + JfrMonitorService.class.getSimpleName() + "). default = `/diagnostics/pinning`");
+
+    // JFR event types
+    public static final String JFR_VIRTUAL_THREAD_PINNED = "jdk.VirtualThreadPinned";
+    public static final String JFR_VIRTUAL_THREAD_SUBMIT_FAILED = "jdk.VirtualThreadSubmitFailed";
+    public static final String JFR_GARBAGE_COLLECTION = "jdk.GarbageCollection";
+    public static final String JFR_SAFEPOINT = "jdk.SafepointBegin";
+    public static final String JFR_ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+    public static final String JFR_MONITOR_ENTER = "jdk.JavaMonitorEnter";
+    public static final String JFR_THREAD_CPU_LOAD = "jdk.ThreadCPULoad";
+
+    // Thread group of the carrier threads which run virtual threads
+    public static final String CARRIER_THREAD_GROUP = NanoThread.CARRIER_THREAD_GROUP;
+
+    // Trace tables are bounded to keep the memory footprint nano
+    public static final int MAX_TRACES = 256;
+    public static final int TOP_TRACES = 10;
+
+    protected final AtomicReference<RecordingStream> stream = new AtomicReference<>();
+    protected final Map<String, Trace> pinnedTraces = new ConcurrentHashMap<>();
+    protected final Map<String, Trace> contentionTraces = new ConcurrentHashMap<>();
+    protected final Map<Long, Double> carrierLoads = new ConcurrentHashMap<>();
+    protected final LongAdder allocatedBytes = new LongAdder();
+    protected final AtomicLong allocationWindowNs = new AtomicLong(System.nanoTime());
+    protected long thresholdMs = 10;
+    protected int stackDepth = 12;
+    protected String pinningPath = "/diagnostics/pinning";
+
+    /**
+     * Aggregated occurrences of one stack trace.
+     */
+    public record Trace(List<String> frames, LongAdder count, DoubleAdder totalMs, DoubleAccumulator maxMs) {
+
+        public Trace(final List<String> frames) {
+            this(frames, new LongAdder(), new DoubleAdder(), new DoubleAccumulator(Math::max, 0d));
+        }
+
+        public Trace record(final double durationMs) {
+            count.increment();
+            totalMs.add(durationMs);
+            maxMs.accumulate(durationMs);
+            return this;
+        }
+
+        public LinkedTypeMap toMap() {
+            return new LinkedTypeMap()
+                .putR("count", count.sum())
+                .putR("total_ms", totalMs.sum())
+                .putR("max_ms", maxMs.get())
+                .putR("stack", new TypeList(frames));
+        }
+    }
+
+    @Override
+    public void start() {
+        try {
+            final RecordingStream recording = new RecordingStream();
+            final Duration threshold = Duration.ofMillis(thresholdMs);
+            recording.enable(JFR_VIRTUAL_THREAD_PINNED).withThreshold(threshold).withStackTrace();
+            recording.enable(JFR_VIRTUAL_THREAD_SUBMIT_FAILED);
+            recording.enable(JFR_GARBAGE_COLLECTION);
+            recording.enable(JFR_SAFEPOINT).withThreshold(threshold);
+            recording.enable(JFR_ALLOCATION_SAMPLE).with("throttle", "100/s");
+            recording.enable(JFR_MONITOR_ENTER).withThreshold(threshold).withStackTrace();
+            recording.enable(JFR_THREAD_CPU_LOAD).withPeriod(Duration.ofSeconds(1));
+            recording.setMaxAge(Duration.ofSeconds(30));
+            recording.onEvent(JFR_VIRTUAL_THREAD_PINNED, this::onPinned);
+            recording.onEvent(JFR_VIRTUAL_THREAD_SUBMIT_FAILED, event -> sendMetric(MetricType.COUNTER, "jvm.threads.virtual.submit.failed", 1, null));
+            recording.onEvent(JFR_GARBAGE_COLLECTION, event -> sendMetric(MetricType.HISTOGRAM, "jvm.gc.pause.ms", toMillis(event.getDuration("sumOfPauses")), Map.of("gc", String.valueOf(event.getString("name")))));
+            recording.onEvent(JFR_SAFEPOINT, event -> sendMetric(MetricType.HISTOGRAM, "jvm.safepoint.ms", toMillis(event.getDuration()), null));
+            recording.onEvent(JFR_ALLOCATION_SAMPLE, event -> allocatedBytes.add(event.getLong("weight")));
+            recording.onEvent(JFR_MONITOR_ENTER, this::onMonitorEnter);
+            recording.onEvent(JFR_THREAD_CPU_LOAD, this::onThreadCpuLoad);
+            recording.onFlush(this::onFlush);
+            if (stream.compareAndSet(null, recording)) {
+                recording.startAsync();
+            } else {
+                recording.close();
+            }
+        } catch (final Exception | LinkageError e) {
+            context.warn(e, () -> "Flight Recorder is not available, [{}] is flying blind", name());
+        }
+    }
+
+    @Override
+    public void stop() {
+        ofNullable(stream.getAndSet(null)).ifPresent(RecordingStream::close);
+        pinnedTraces.clear();
+        contentionTraces.clear();
+        carrierLoads.clear();
+        allocatedBytes.reset();
+    }
+
+    @Override
+    public Object onFailure(final Event<?, ?> error) {
+        return null;
+    }
+
+    @Override
+    public void onEvent(final Event<?, ?> event) {
+        event.channel(EVENT_HTTP_REQUEST).map(Event::payload).ifPresent(request ->
+            ofNullable(pinningPath)
+                .filter(request::pathMatch)
+                .filter(path -> request.isMethodGet())
+                .ifPresent(path -> request.createResponse()
+                    .statusCode(200)
+                    .body(new LinkedTypeMap()
+                        .putR("pinned", topTraces(pinnedTraces))
+                        .putR("contention", topTraces(contentionTraces)))
+                    .headerMap(Map.of(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_JSON))
+                    .respond(event)
+                )
+        );
+    }
+
+    @Override
+    public void configure(final TypeMapI<?> changes, final TypeMapI<?> merged) {
+        thresholdMs = merged.asLongOpt(CONFIG_JFR_THRESHOLD_MS).filter(ms -> ms >= 0).orElse(thresholdMs);
+        stackDepth = merged.asIntOpt(CONFIG_JFR_STACK_DEPTH).filter(depth -> depth > 0).orElse(stackDepth);
+        pinningPath = merged.asStringOpt(CONFIG_JFR_PINNING_PATH).orElse(pinningPath);
+    }
+
+    @Override
+    public Set<String> configKeys() {
+        return Set.of("app_service_jfr");
+    }
+
+    /**
+     * @return pinning traces ordered by their total pinned time
+     */
+    public List<Trace> pinnedTraces() {
+        return pinnedTraces.values().stream().sorted(byTotal()).toList();
+    }
+
+    /**
+     * @return monitor contention traces ordered by their total blocked time
+     */
+    public List<Trace> contentionTraces() {
+        return contentionTraces.values().stream().sorted(byTotal()).toList();
+    }
+
+    protected void onPinned(final RecordedEvent event) {
+        final double durationMs = toMillis(event.getDuration());
+        recordTrace(pinnedTraces, event.getStackTrace(), durationMs);
+        sendMetric(MetricType.HISTOGRAM, "jvm.threads.virtual.pinned.ms", durationMs, null);
+    }
+
+    protected void onMonitorEnter(final RecordedEvent event) {
+        final double durationMs = toMillis(event.getDuration());
+        recordTrace(contentionTraces, event.getStackTrace(), durationMs);
+        sendMetric(MetricType.HISTOGRAM, "jvm.threads.monitor.contention.ms", durationMs, null);
+    }
+
+    protected void onThreadCpuLoad(final RecordedEvent event) {
+        final RecordedThread thread = event.getThread();
+        if (thread != null && thread.getThreadGroup() != null && CARRIER_THREAD_GROUP.equals(thread.getThreadGroup().getName()))
+            carrierLoads.put(thread.getJavaThreadId(), (double) event.getFloat("user") + event.getFloat("system"));
+    }
+
+    protected void onFlush() {
+        final long now = System.nanoTime();
+        final long elapsedNs = now - allocationWindowNs.getAndSet(now);
+        final long bytes = allocatedBytes.sumThenReset();
+        if (elapsedNs > 0)
+            sendMetric(MetricType.GAUGE, "jvm.memory.allocation.rate.bytes", bytes * 1_000_000_000d / elapsedNs, null);
+        // carriers sampled since the last flush, busy is the sum of their CPU load (busy / carriers = saturation)
+        if (!carrierLoads.isEmpty()) {
+            sendMetric(MetricType.GAUGE, "jvm.threads.carrier", carrierLoads.size(), null);
+            sendMetric(MetricType.GAUGE, "jvm.threads.carrier.busy", carrierLoads.values().stream().mapToDouble(Double::doubleValue).sum(), null);
+            carrierLoads.clear();
+        }
+    }
+
+    protected void recordTrace(final Map<String, Trace> traces, final RecordedStackTrace stackTrace, final double durationMs) {
+        if (stackTrace == null)
+            return;
+        final List<String> frames = stackTrace.getFrames().stream()
+            .filter(RecordedFrame::isJavaFrame)
+            .limit(stackDepth)
+            .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+            .toList();
+        final String key = String.join("\n", frames);
+        final Trace trace = traces.get(key);
+        if (trace != null) {
+            trace.record(durationMs);
+        } else if (traces.size() < MAX_TRACES) {
+            traces.computeIfAbsent(key, k -> new Trace(frames)).record(durationMs);
+        }
+    }
+
+    protected TypeList topTraces(final Map<String, Trace> traces) {
+        return traces.values().stream()
+            .sorted(byTotal())
+            .limit(TOP_TRACES)
+            .map(Trace::toMap)
+            .collect(Collectors.toCollection(TypeList::new));
+    }
+
+    protected void sendMetric(final MetricType type, final String name, final double value, final Map<String, String> tags) {
+        context.newEvent(EVENT_METRIC_UPDATE, () -> new MetricUpdate(type, name, value, tags)).send();
+    }
+
+    protected static Comparator<Trace> byTotal() {
+        return Comparator.comparingDouble((Trace trace) -> trace.totalMs().sum()).reversed();
+    }
+
+    protected static double toMillis(final Duration duration) {
+        return duration == null ? 0d : duration.toNanos() / 1_000_000d;
+    }
+}
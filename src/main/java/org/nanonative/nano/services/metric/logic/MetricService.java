@@ -5,11 +5,15 @@ import org.nanonative.nano.core.Nano;
 import org.nanonative.nano.core.model.Context;
 import org.nanonative.nano.core.model.NanoThread;
 import org.nanonative.nano.core.model.Service;
+import org.nanonative.nano.helper.event.HandlerProfile;
 import org.nanonative.nano.helper.event.model.Channel;
 import org.nanonative.nano.helper.event.model.Event;
+import org.nanonative.nano.services.http.HttpServer;
+import org.nanonative.nano.services.http.RouteMetrics;
 import org.nanonative.nano.services.http.model.ContentType;
 import org.nanonative.nano.services.http.model.HttpHeaders;
 import org.nanonative.nano.services.logging.model.LogLevel;
+import org.nanonative.nano.services.metric.model.Histogram;
 import org.nanonative.nano.services.metric.model.MetricCache;
 import org.nanonative.nano.services.metric.model.MetricUpdate;
 
@@ -30,6 +34,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -51,12 +57,14 @@ public class MetricService extends Service {
     protected String dynamoPath;
     protected String influx;
     protected String wavefront;
+    protected String eventsPath;
 
     // Register configurations
     public static final String CONFIG_METRIC_SERVICE_BASE_PATH = registerConfig("app_service_metrics_base_url", "Base path for the metric service");
     public static final String CONFIG_METRIC_SERVICE_PROMETHEUS_PATH = registerConfig("app_service_prometheus_metrics_url", "Prometheus path for the metric service");
     public static final String CONFIG_METRIC_SERVICE_INFLUX_PATH = registerConfig("app_service_influx_metrics_url", "Influx path for the metric service");
     public static final String CONFIG_METRIC_SERVICE_WAVEFRONT_PATH = registerConfig("app_service_wavefront_metrics_url", "Wavefront path for the metric service");
+    public static final String CONFIG_METRIC_SERVICE_EVENTS_PATH = registerConfig("app_service_events_metrics_url", "Debug path listing the slowest event handlers, requires `app_event_profile_sample_rate` (see " + MetricService.class.getSimpleName() + ")");
     public static final String CONFIG_METRIC_SERVICE_DYNAMO_PATH = registerConfig("app_service_dynamo_metrics_url", "Dynamo path for the metric service");
 
     // Register event channels
@@ -72,6 +80,7 @@ public class MetricService extends Service {
         metrics.gauges().clear();
         metrics.timers().clear();
         metrics.counters().clear();
+        metrics.histograms().clear();
     }
 
     @Override
@@ -87,6 +96,7 @@ public class MetricService extends Service {
         });
         event.channel(EVENT_METRIC_UPDATE).map(Event::payloadAck).map(this::updateMetric);
         addMetricsEndpoint(event);
+        addEventsEndpoint(event);
 
     }
 
@@ -98,9 +108,15 @@ public class MetricService extends Service {
         dynamoPath = merged.asStringOpt(CONFIG_METRIC_SERVICE_DYNAMO_PATH).orElseGet(() -> basePath.map(base -> base + "/dynamo").orElse(null));
         influx = merged.asStringOpt(CONFIG_METRIC_SERVICE_INFLUX_PATH).orElseGet(() -> basePath.map(base -> base + "/influx").orElse(null));
         wavefront = merged.asStringOpt(CONFIG_METRIC_SERVICE_WAVEFRONT_PATH).orElseGet(() -> basePath.map(base -> base + "/wavefront").orElse(null));
+        eventsPath = merged.asStringOpt(CONFIG_METRIC_SERVICE_EVENTS_PATH).orElseGet(() -> basePath.map(base -> base + "/events").orElse(null));
         configs.asOpt(LogLevel.class, CONFIG_LOG_LEVEL).ifPresent(level -> metrics.gaugeSet("logger", 1, Map.of("level", level.name())));
     }
 
+    @Override
+    public Set<String> configKeys() {
+        return Set.of(CONFIG_METRIC_SERVICE_BASE_PATH, CONFIG_METRIC_SERVICE_PROMETHEUS_PATH, CONFIG_METRIC_SERVICE_INFLUX_PATH, CONFIG_METRIC_SERVICE_WAVEFRONT_PATH, CONFIG_METRIC_SERVICE_EVENTS_PATH, CONFIG_METRIC_SERVICE_DYNAMO_PATH, CONFIG_LOG_LEVEL);
+    }
+
     protected void addMetricsEndpoint(final Event<?, ?> event) {
         event.channel(EVENT_HTTP_REQUEST).map(Event::payload).ifPresent(request ->
                 ofNullable(prometheusPath)
@@ -152,6 +168,22 @@ public class MetricService extends Service {
         );
     }
 
+    protected void addEventsEndpoint(final Event<?, ?> event) {
+        event.channel(EVENT_HTTP_REQUEST).map(Event::payload).ifPresent(request ->
+                ofNullable(eventsPath)
+                        .filter(request::pathMatch)
+                        .filter(path -> request.isMethodGet())
+                        .ifPresent(path ->
+                                request.createResponse()
+                                        .statusCode(200)
+                                        .body(ofNullable(context.nano().profiler())
+                                                .map(profiler -> profiler.slowest(request.queryParams().asIntOpt("limit").orElse(20)).stream().map(HandlerProfile::toMap).toList())
+                                                .orElseGet(List::of))
+                                        .respond(event)
+                        )
+        );
+    }
+
     @SuppressWarnings("SameReturnValue")
     public boolean updateMetric(final MetricUpdate metric) {
         switch (metric.type()) {
@@ -159,6 +191,7 @@ public class MetricService extends Service {
             case COUNTER -> metrics.counterIncrement(metric.name(), metric.tags());
             case TIMER_START -> metrics.timerStart(metric.name(), metric.tags());
             case TIMER_END -> metrics.timerStop(metric.name(), metric.tags());
+            case HISTOGRAM -> metrics.histogramRecord(metric.name(), metric.value().doubleValue(), metric.tags());
         }
         return true;
     }
@@ -178,15 +211,54 @@ public class MetricService extends Service {
         updateClassLoaderMetrics(nano::context);
         updateDeadlockMetrics(nano::context);
         updateCompilerMetrics(nano);
+        updateHttpMetrics(nano);
+        updateEventMetrics(nano);
         nano.context().tryExecute(() -> {
             metrics.gaugeSet("service.metrics.gauges", metrics.gauges().size());
             metrics.gaugeSet("service.metrics.timers", metrics.timers().size());
             metrics.gaugeSet("service.metrics.counters", metrics.counters().size());
+            metrics.gaugeSet("service.metrics.histograms", metrics.histograms().size());
             metrics.gaugeSet("service.metrics.bytes", estimateMetricCacheSize());
         });
         return this;
     }
 
+    public void updateHttpMetrics(final Nano nano) {
+        tryExecute(nano::context, () -> nano.services(HttpServer.class).forEach(server -> {
+            final String port = String.valueOf(server.port());
+            final Map<String, String> tags = Map.of("port", port);
+            ofNullable(server.limiter()).ifPresent(limiter -> {
+                metrics.gaugeSet("http.server.limit", limiter.limit(), tags);
+                metrics.gaugeSet("http.server.inflight", limiter.inFlight(), tags);
+                metrics.gaugeSet("http.server.queued", limiter.queued(), tags);
+                metrics.gaugeSet("http.server.rejected", limiter.rejected(), tags);
+            });
+            final RouteMetrics routeMetrics = server.routeMetrics();
+            metrics.gaugeSet("http.server.requests.active", routeMetrics.active(), tags);
+            for (final RouteMetrics.Route route : routeMetrics.routes()) {
+                final Map<String, String> routeTags = Map.of("port", port, "method", route.method(), "route", route.route());
+                metrics.histogramBind("http.server.request.ms", routeTags, route.latencyMs());
+                metrics.histogramBind("http.server.request.bytes", routeTags, route.requestBytes());
+                metrics.histogramBind("http.server.response.bytes", routeTags, route.responseBytes());
+                for (int i = 0; i < RouteMetrics.STATUS_CLASSES.length; i++) {
+                    // status classes are bound with their first request
+                    if (route.requests(i) > 0)
+                        metrics.counterBind("http.server.requests", Map.of("port", port, "method", route.method(), "route", route.route(), "status", RouteMetrics.STATUS_CLASSES[i]), route.statusCounts()[i]);
+                }
+            }
+        }));
+    }
+
+    public void updateEventMetrics(final Nano nano) {
+        tryExecute(nano::context, () -> ofNullable(nano.profiler()).ifPresent(profiler -> profiler.profiles().forEach(profile -> {
+            final Map<String, String> tags = profile.tags();
+            metrics.histogramBind("event.handler.latency", tags, profile.latencyMs());
+            metrics.gaugeSet("event.handler.count", profile.count(), tags);
+            metrics.gaugeSet("event.handler.errors", profile.errors(), tags);
+            metrics.gaugeSet("event.handler.ack.rate", profile.ackRate(), tags);
+        })));
+    }
+
     public void updateCompilerMetrics(final Nano nano) {
         nano.context().tryExecute(() -> {
             final CompilationMXBean compilationMXBean = ManagementFactory.getCompilationMXBean();
@@ -221,7 +293,14 @@ public class MetricService extends Service {
         tryExecute(context, () -> {
             metrics.gaugeSet("jvm.threads.live", Thread.activeCount());
             metrics.gaugeSet("jvm.threads.nano", NanoThread.activeNanoThreads());
-            metrics.gaugeSet("jvm.threads.carrier", NanoThread.activeNanoThreads());
+        });
+        tryExecute(context, () -> {
+            final ForkJoinPool pool = NanoThread.GLOBAL_COMPUTE_POOL;
+            metrics.gaugeSet("jvm.threads.compute.parallelism", pool.getParallelism());
+            metrics.gaugeSet("jvm.threads.compute.pool", pool.getPoolSize());
+            metrics.gaugeSet("jvm.threads.compute.active", pool.getActiveThreadCount());
+            metrics.gaugeSet("jvm.threads.compute.queued", pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount());
+            metrics.gaugeSet("jvm.threads.compute.steals", pool.getStealCount());
         });
         tryExecute(context, () -> {
             final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
@@ -388,10 +467,11 @@ public class MetricService extends Service {
 
     public long estimateMetricCacheSize() {
         long totalSize = 0;
-        // Calculate size for counters, gauges, and timers
+        // Calculate size for counters, gauges, timers and histograms
         totalSize += estimateMapSize(new HashMap<>(metrics.counters()), 28) +
                 estimateMapSize(new HashMap<>(metrics.gauges()), 24) +
-                estimateMapSize(new HashMap<>(metrics.timers()), 16);
+                estimateMapSize(new HashMap<>(metrics.timers()), 16) +
+                estimateMapSize(new HashMap<>(metrics.histograms()), 96 + 16L * (Histogram.DEFAULT_BUCKETS_MS.length + 1));
 
         return totalSize;
     }
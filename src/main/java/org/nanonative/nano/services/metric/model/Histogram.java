@@ -0,0 +1,129 @@
+package org.nanonative.nano.services.metric.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram with fixed bucket boundaries.
+ * Recording is a binary search plus one atomic increment, so it is safe to use on hot paths.
+ * Quantiles are estimated by the upper bound of the matching bucket.
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class Histogram extends Number {
+
+    /**
+     * Default boundaries for latencies in milliseconds.
+     */
+    public static final double[] DEFAULT_BUCKETS_MS = {0.1, 0.5, 1, 2.5, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final double[] bounds;
+    private final AtomicLongArray buckets;
+    private final LongAdder count = new LongAdder();
+    private final DoubleAdder sum = new DoubleAdder();
+    private final DoubleAccumulator max = new DoubleAccumulator(Math::max, 0d);
+
+    public Histogram() {
+        this(DEFAULT_BUCKETS_MS);
+    }
+
+    /**
+     * @param bounds inclusive upper bounds of the buckets, the overflow bucket (+Inf) is added automatically
+     */
+    public Histogram(final double... bounds) {
+        this.bounds = bounds == null || bounds.length == 0 ? DEFAULT_BUCKETS_MS : Arrays.stream(bounds).sorted().distinct().toArray();
+        this.buckets = new AtomicLongArray(this.bounds.length + 1);
+    }
+
+    public Histogram record(final double value) {
+        final int index = Arrays.binarySearch(bounds, value);
+        buckets.incrementAndGet(index < 0 ? -index - 1 : index);
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+        return this;
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public double sum() {
+        return sum.sum();
+    }
+
+    public double max() {
+        return max.get();
+    }
+
+    public double mean() {
+        final long total = count();
+        return total == 0 ? 0d : sum() / total;
+    }
+
+    /**
+     * @return copy of the bucket boundaries without the overflow bucket
+     */
+    public double[] bounds() {
+        return bounds.clone();
+    }
+
+    /**
+     * @return cumulative counts per bucket, the last entry is the overflow bucket (+Inf)
+     */
+    public long[] cumulativeCounts() {
+        final long[] result = new long[buckets.length()];
+        long total = 0;
+        for (int i = 0; i < result.length; i++) {
+            total += buckets.get(i);
+            result[i] = total;
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the quantile by the upper bound of the bucket which contains it.
+     *
+     * @param quantile quantile between 0 and 1 e.g. 0.99
+     * @return estimated value, {@link #max()} when the quantile falls into the overflow bucket
+     */
+    public double quantile(final double quantile) {
+        final long[] cumulative = cumulativeCounts();
+        final long total = cumulative[cumulative.length - 1];
+        if (total == 0)
+            return 0d;
+        final double rank = Math.ceil(Math.min(1d, Math.max(0d, quantile)) * total);
+        for (int i = 0; i < bounds.length; i++) {
+            if (cumulative[i] >= rank)
+                return Math.min(bounds[i], max());
+        }
+        return max();
+    }
+
+    @Override
+    public int intValue() {
+        return (int) count();
+    }
+
+    @Override
+    public long longValue() {
+        return count();
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) mean();
+    }
+
+    @Override
+    public double doubleValue() {
+        return mean();
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(count());
+    }
+}
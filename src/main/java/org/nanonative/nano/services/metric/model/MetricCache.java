@@ -15,6 +15,8 @@ public class MetricCache {
     private final ConcurrentHashMap<String, Metric<AtomicLong>> counters = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Metric<Double>> gauges = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Metric<Long>> timers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Metric<Histogram>> histograms = new ConcurrentHashMap<>();
+    private static final double[] HISTOGRAM_QUANTILES = {0.5, 0.95, 0.99};
 
     public record Metric<T extends Number>(T value, TreeMap<String, String> tags, String metricName) {
     }
@@ -31,6 +33,10 @@ public class MetricCache {
         return timers;
     }
 
+    public Map<String, Metric<Histogram>> histograms() {
+        return histograms;
+    }
+
     public Map<String, Metric<? extends Number>> sorted() {
         final TreeMap<String, Metric<? extends Number>> result = new TreeMap<>();
         result.putAll(counters);
@@ -52,6 +58,24 @@ public class MetricCache {
         return this;
     }
 
+    /**
+     * Registers a counter which is incremented elsewhere, e.g. by the {@link org.nanonative.nano.services.http.RouteMetrics}.
+     * Repeated calls with the same name and tags keep the first counter.
+     *
+     * @param name    metric name
+     * @param tags    optional tags
+     * @param counter counter to export
+     * @return self for chaining
+     */
+    public MetricCache counterBind(final String name, final Map<String, String> tags, final AtomicLong counter) {
+        if (name != null && counter != null) {
+            final String id = sanitizeMetricName(name);
+            final TreeMap<String, String> sortedTags = new TreeMap<>(tags != null ? tags : emptyMap());
+            counters.computeIfAbsent(tags == null ? id : generateUniqueKey(id, sortedTags), key -> new Metric<>(counter, sortedTags, id));
+        }
+        return this;
+    }
+
     public long counter(final String name) {
         return counter(name, null);
     }
@@ -118,10 +142,64 @@ public class MetricCache {
         return ofNullable(timers.get(tags == null ? id : generateUniqueKey(id, new TreeMap<>(tags)))).map(Metric::value).orElse(-1L);
     }
 
+    public MetricCache histogramRecord(final String name, final double value) {
+        return histogramRecord(name, value, null);
+    }
+
+    public MetricCache histogramRecord(final String name, final double value, final Map<String, String> tags) {
+        return histogramRecord(name, value, tags, Histogram.DEFAULT_BUCKETS_MS);
+    }
+
+    /**
+     * Records a value in a histogram. The bucket boundaries are only used when the histogram is created.
+     *
+     * @param name   metric name
+     * @param value  value to record e.g. a latency in milliseconds
+     * @param tags   optional tags
+     * @param bounds bucket boundaries for a new histogram
+     * @return self for chaining
+     */
+    public MetricCache histogramRecord(final String name, final double value, final Map<String, String> tags, final double... bounds) {
+        if (name != null && value > -1) {
+            final String id = sanitizeMetricName(name);
+            final TreeMap<String, String> sortedTags = new TreeMap<>(tags != null ? tags : emptyMap());
+            histograms.computeIfAbsent(tags == null ? id : generateUniqueKey(id, sortedTags), key -> new Metric<>(new Histogram(bounds), sortedTags, id)).value.record(value);
+        }
+        return this;
+    }
+
+    /**
+     * Registers a histogram which is recorded elsewhere, e.g. by the {@link org.nanonative.nano.helper.event.EventProfiler}.
+     * A different histogram with the same name and tags replaces the bound one, e.g. after the profiler was replaced.
+     *
+     * @param name      metric name
+     * @param tags      optional tags
+     * @param histogram histogram to export
+     * @return self for chaining
+     */
+    public MetricCache histogramBind(final String name, final Map<String, String> tags, final Histogram histogram) {
+        if (name != null && histogram != null) {
+            final String id = sanitizeMetricName(name);
+            final TreeMap<String, String> sortedTags = new TreeMap<>(tags != null ? tags : emptyMap());
+            histograms.compute(tags == null ? id : generateUniqueKey(id, sortedTags), (key, bound) -> bound != null && bound.value == histogram ? bound : new Metric<>(histogram, sortedTags, id));
+        }
+        return this;
+    }
+
+    public Histogram histogram(final String name) {
+        return histogram(name, null);
+    }
+
+    public Histogram histogram(final String name, final Map<String, String> tags) {
+        final String id = sanitizeMetricName(name);
+        return ofNullable(histograms.get(tags == null ? id : generateUniqueKey(id, new TreeMap<>(tags)))).map(Metric::value).orElse(null);
+    }
+
     // Adjustments for metric formatting methods to use metric.metricName instead of the unique key
     public String prometheus() {
         final StringBuilder result = new StringBuilder();
         sorted().forEach((id, metric) -> result.append(formatPrometheusMetric(metric)));
+        new TreeMap<>(histograms).forEach((id, metric) -> result.append(formatPrometheusHistogram(metric)));
         return result.toString();
     }
 
@@ -129,21 +207,44 @@ public class MetricCache {
     public String influx() {
         final StringBuilder sb = new StringBuilder();
         sorted().forEach((id, metric) -> sb.append(metric.metricName()).append(formatInfluxTags(metric.tags())).append(" value=").append(metric.value() instanceof final AtomicLong val ? val.get() : metric.value()).append("\n"));
+        histogramSummaries().forEach((id, metric) -> sb.append(metric.metricName()).append(formatInfluxTags(metric.tags())).append(" value=").append(metric.value()).append("\n"));
         return sb.toString();
     }
 
     public String dynatrace() {
         final StringBuilder sb = new StringBuilder();
         sorted().forEach((id, metric) -> sb.append(formatDynatraceMetric(metric)));
+        histogramSummaries().forEach((id, metric) -> sb.append(formatDynatraceMetric(metric)));
         return sb.toString();
     }
 
     public String wavefront() {
         final StringBuilder sb = new StringBuilder();
         sorted().forEach((id, metric) -> sb.append(formatWavefrontMetric(metric)));
+        histogramSummaries().forEach((id, metric) -> sb.append(formatWavefrontMetric(metric)));
         return sb.toString();
     }
 
+    /**
+     * Flattens the histograms into count, sum, max and quantile metrics for formats without native histogram support.
+     *
+     * @return sorted summary metrics
+     */
+    public Map<String, Metric<? extends Number>> histogramSummaries() {
+        final TreeMap<String, Metric<? extends Number>> result = new TreeMap<>();
+        histograms.forEach((id, metric) -> {
+            final Histogram histogram = metric.value();
+            result.put(id + ".count", new Metric<>(histogram.count(), metric.tags(), metric.metricName() + ".count"));
+            result.put(id + ".sum", new Metric<>(histogram.sum(), metric.tags(), metric.metricName() + ".sum"));
+            result.put(id + ".max", new Metric<>(histogram.max(), metric.tags(), metric.metricName() + ".max"));
+            for (final double quantile : HISTOGRAM_QUANTILES) {
+                final String suffix = ".p" + Math.round(quantile * 100);
+                result.put(id + suffix, new Metric<>(histogram.quantile(quantile), metric.tags(), metric.metricName() + suffix));
+            }
+        });
+        return result;
+    }
+
     // Utility method for generating unique keys remains unchanged
     public String generateUniqueKey(final String name, final Map<String, String> tags) {
         final String tagString = tags.entrySet().stream()
@@ -166,6 +267,25 @@ public class MetricCache {
         return metric.metricName.replace(".", "_") + tagsString + " " + metric.value + "\n";
     }
 
+    private String formatPrometheusHistogram(final Metric<Histogram> metric) {
+        final String name = metric.metricName.replace(".", "_");
+        final String tagsString = metric.tags.entrySet().stream()
+            .map(entry -> entry.getKey() + "=\"" + entry.getValue() + "\"")
+            .collect(Collectors.joining(","));
+        final String tagPrefix = tagsString.isEmpty() ? "" : tagsString + ",";
+        final String tagBlock = tagsString.isEmpty() ? "" : "{" + tagsString + "}";
+        final Histogram histogram = metric.value;
+        final double[] bounds = histogram.bounds();
+        final long[] cumulative = histogram.cumulativeCounts();
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < bounds.length; i++)
+            sb.append(name).append("_bucket{").append(tagPrefix).append("le=\"").append(bounds[i]).append("\"} ").append(cumulative[i]).append("\n");
+        sb.append(name).append("_bucket{").append(tagPrefix).append("le=\"+Inf\"} ").append(cumulative[bounds.length]).append("\n");
+        sb.append(name).append("_sum").append(tagBlock).append(" ").append(histogram.sum()).append("\n");
+        sb.append(name).append("_count").append(tagBlock).append(" ").append(cumulative[bounds.length]).append("\n");
+        return sb.toString();
+    }
+
     private String formatInfluxTags(final Map<String, String> tags) {
         final StringBuilder tagsBuilder = new StringBuilder();
         tags.forEach((key, value) -> tagsBuilder.append(",").append(key).append("=").append(value));
@@ -6,4 +6,5 @@ public enum MetricType {
     GAUGE,
     TIMER_START,
     TIMER_END,
+    HISTOGRAM,
 }
@@ -0,0 +1,94 @@
+package org.nanonative.nano.services.ratelimit;
+
+import berlin.yuna.typemap.model.TypeMap;
+import org.nanonative.nano.services.http.model.HttpObject;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Definition of a rate limit.
+ *
+ * @param name            unique name of the limit, used for metrics and {@link RateLimitRequest#limit()}
+ * @param tokensPerSecond refill rate of the buckets
+ * @param burst           capacity of the buckets
+ * @param key             selects the bucket key of an HTTP request and the path params of the matching {@link #paths()}, null keys are not limited
+ * @param paths           path patterns (see {@link HttpObject#pathMatches(String)}) which are limited, empty = all paths
+ */
+public record RateLimit(
+    String name,
+    double tokensPerSecond,
+    long burst,
+    BiFunction<HttpObject, TypeMap, String> key,
+    List<String> paths
+) {
+
+    public static final String KEY_IP = "ip";
+    public static final String KEY_TOKEN = "token";
+    public static final String KEY_HEADER = "header:";
+    public static final String KEY_PATH = "path:";
+
+    public RateLimit {
+        burst = burst < 1 ? (long) Math.ceil(tokensPerSecond) : burst;
+        key = key == null ? byIp() : key;
+        paths = paths == null ? List.of() : List.copyOf(paths);
+    }
+
+    /**
+     * Creates a limit for programmatic usage via {@link RateLimitService#EVENT_RATE_LIMIT} only.
+     */
+    public static RateLimit of(final String name, final double tokensPerSecond, final long burst) {
+        return new RateLimit(name, tokensPerSecond, burst, (request, params) -> null, List.of());
+    }
+
+    /**
+     * Buckets per client IP address.
+     */
+    public static BiFunction<HttpObject, TypeMap, String> byIp() {
+        return (request, params) -> ofNullable(request.address()).map(InetAddress::getHostAddress).orElse(null);
+    }
+
+    /**
+     * Buckets per auth token (see {@link HttpObject#authToken()}).
+     */
+    public static BiFunction<HttpObject, TypeMap, String> byAuthToken() {
+        return (request, params) -> request.authToken();
+    }
+
+    /**
+     * Buckets per header value e.g. {@code x-api-key}.
+     */
+    public static BiFunction<HttpObject, TypeMap, String> byHeader(final String header) {
+        return (request, params) -> request.header(header);
+    }
+
+    /**
+     * Buckets per path param of the matching {@link #paths()} e.g. {@code /users/{userId}}.
+     * The params are captured by the limit itself, as no handler matched the request yet.
+     */
+    public static BiFunction<HttpObject, TypeMap, String> byPathParam(final String param) {
+        return (request, params) -> params.asString(param);
+    }
+
+    /**
+     * Parses the key selector from config values: {@code ip}, {@code token}, {@code header:<name>} or {@code path:<param>}.
+     *
+     * @param spec key selector
+     * @return key function, {@link #byIp()} as fallback
+     */
+    public static BiFunction<HttpObject, TypeMap, String> keyOf(final String spec) {
+        if (spec == null)
+            return byIp();
+        final String value = spec.trim();
+        if (KEY_TOKEN.equalsIgnoreCase(value))
+            return byAuthToken();
+        if (value.toLowerCase().startsWith(KEY_HEADER))
+            return byHeader(value.substring(KEY_HEADER.length()).trim());
+        if (value.toLowerCase().startsWith(KEY_PATH))
+            return byPathParam(value.substring(KEY_PATH.length()).trim());
+        return byIp();
+    }
+}
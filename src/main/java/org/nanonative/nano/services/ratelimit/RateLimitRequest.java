@@ -0,0 +1,19 @@
+package org.nanonative.nano.services.ratelimit;
+
+/**
+ * Programmatic rate limit check via {@link RateLimitService#EVENT_RATE_LIMIT}.
+ *
+ * @param limit   name of the {@link RateLimit}
+ * @param key     bucket key e.g. user id
+ * @param permits tokens to take
+ */
+public record RateLimitRequest(String limit, String key, int permits) {
+
+    public RateLimitRequest {
+        permits = Math.max(1, permits);
+    }
+
+    public static RateLimitRequest of(final String limit, final String key) {
+        return new RateLimitRequest(limit, key, 1);
+    }
+}
@@ -0,0 +1,14 @@
+package org.nanonative.nano.services.ratelimit;
+
+/**
+ * Result of a rate limit check.
+ *
+ * @param limit        name of the {@link RateLimit}
+ * @param allowed      {@code true} if the tokens were granted
+ * @param capacity     capacity of the bucket
+ * @param remaining    remaining tokens
+ * @param retryAfterMs milliseconds until the request could be granted, 0 if allowed
+ * @param resetMs      milliseconds until the bucket is full again
+ */
+public record RateLimitResult(String limit, boolean allowed, long capacity, long remaining, long retryAfterMs, long resetMs) {
+}
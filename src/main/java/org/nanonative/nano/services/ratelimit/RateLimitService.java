@@ -0,0 +1,240 @@
+package org.nanonative.nano.services.ratelimit;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import berlin.yuna.typemap.model.TypeMap;
+import berlin.yuna.typemap.model.TypeMapI;
+import org.nanonative.nano.core.model.Service;
+import org.nanonative.nano.helper.event.model.Channel;
+import org.nanonative.nano.helper.event.model.Event;
+import org.nanonative.nano.services.http.model.HttpHeaders;
+import org.nanonative.nano.services.http.model.HttpObject;
+import org.nanonative.nano.services.metric.model.MetricType;
+import org.nanonative.nano.services.metric.model.MetricUpdate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static java.util.Optional.ofNullable;
+import static org.nanonative.nano.helper.NanoUtils.splitConfig;
+import static org.nanonative.nano.helper.config.ConfigRegister.registerConfig;
+import static org.nanonative.nano.helper.event.model.Channel.registerChannelId;
+import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST_FILTER;
+import static org.nanonative.nano.services.metric.logic.MetricService.EVENT_METRIC_UPDATE;
+
+/**
+ * Token bucket rate limits for HTTP requests and programmatic checks.
+ * <p>
+ * HTTP requests are checked on {@link org.nanonative.nano.services.http.HttpServer#EVENT_HTTP_REQUEST_FILTER}
+ * before any handler sees them and are answered with {@code 429 Too Many Requests} and {@code X-RateLimit-*} headers.
+ * Other code can ask via {@link #EVENT_RATE_LIMIT}. Buckets live in striped maps and expire when idle.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class RateLimitService extends Service {
+
+    // Register configurations
+    public static final String CONFIG_RATE_LIMIT_RATE = registerConfig("app_service_ratelimit_rate", "Requests per second of the default HTTP rate limit, disabled if not set (see " + RateLimitService.class.getSimpleName() + ")");
+    public static final String CONFIG_RATE_LIMIT_BURST = registerConfig("app_service_ratelimit_burst", "Burst capacity of the default HTTP rate limit (see " + RateLimitService.class.getSimpleName() + "). default = rate");
+    public static final String CONFIG_RATE_LIMIT_KEY = registerConfig("app_service_ratelimit_key", "Key of the default HTTP rate limit: `ip`, `token`, `header:<name>` or `path:<param>` (see " + RateLimitService.class.getSimpleName() + "). default = `ip`");
+    public static final String CONFIG_RATE_LIMIT_PATHS = registerConfig("app_service_ratelimit_paths", "Comma separated path patterns (e.g. `/api/**`) of the default HTTP rate limit (see " + RateLimitService.class.getSimpleName() + "). default = all paths");
+    public static final String CONFIG_RATE_LIMIT_IDLE_MS = registerConfig("app_service_ratelimit_idle_ms", "Milliseconds after which unused buckets are removed (see " + RateLimitService.class.getSimpleName() + "). default = `60000`");
+
+    // Register event channels
+    public static final Channel<RateLimitRequest, RateLimitResult> EVENT_RATE_LIMIT = registerChannelId("RATE_LIMIT", RateLimitRequest.class, RateLimitResult.class);
+
+    public static final String DEFAULT_LIMIT = "default";
+    public static final int SHARDS = 16;
+
+    protected final Map<String, Limiter> limits = new ConcurrentHashMap<>();
+    protected final AtomicBoolean running = new AtomicBoolean(false);
+    protected final AtomicInteger sweepShard = new AtomicInteger();
+    protected Consumer<Event<HttpObject, HttpObject>> filterListener;
+    protected long idleMs = 60_000;
+
+    /**
+     * Buckets and counters of one {@link RateLimit}.
+     * Keys are striped over {@link #SHARDS} maps so that the idle sweep only touches one stripe per tick.
+     */
+    public record Limiter(RateLimit limit, List<Map<String, TokenBucket>> shards, LongAdder allowed, LongAdder rejected) {
+
+        public Limiter(final RateLimit limit) {
+            this(limit, IntStream.range(0, SHARDS).<Map<String, TokenBucket>>mapToObj(i -> new ConcurrentHashMap<>()).toList(), new LongAdder(), new LongAdder());
+        }
+
+        public RateLimitResult acquire(final String key, final int permits) {
+            final TokenBucket bucket = shards.get(Math.floorMod(key.hashCode(), SHARDS)).computeIfAbsent(key, k -> new TokenBucket(limit.burst(), limit.tokensPerSecond()));
+            final long remaining = bucket.tryAcquire(permits);
+            if (remaining >= 0) {
+                allowed.increment();
+                return new RateLimitResult(limit.name(), true, bucket.capacity(), remaining, 0, bucket.resetMs());
+            }
+            rejected.increment();
+            return new RateLimitResult(limit.name(), false, bucket.capacity(), 0, bucket.retryAfterMs(-remaining), bucket.resetMs());
+        }
+
+        public int keys() {
+            int result = 0;
+            for (final Map<String, TokenBucket> shard : shards)
+                result += shard.size();
+            return result;
+        }
+
+        public boolean matches(final HttpObject request) {
+            return match(request) != null;
+        }
+
+        /**
+         * @param request HTTP request
+         * @return path params of the first matching path pattern, {@code null} if no pattern matches
+         */
+        public TypeMap match(final HttpObject request) {
+            final TypeMap result = new TypeMap();
+            if (limit.paths().isEmpty())
+                return result;
+            for (final String pattern : limit.paths()) {
+                if (request.pathMatches(pattern, result))
+                    return result;
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running.compareAndSet(false, true)) {
+            // subscribed as listener, the HttpServer skips the filter event while nobody listens
+            filterListener = context.subscribeEvent(EVENT_HTTP_REQUEST_FILTER, this::filter);
+            context.run(this::sweep, 1, 1, TimeUnit.SECONDS, () -> !running.get());
+        }
+    }
+
+    @Override
+    public void stop() {
+        running.set(false);
+        ofNullable(filterListener).ifPresent(listener -> context.unsubscribeEvent(EVENT_HTTP_REQUEST_FILTER, listener));
+        filterListener = null;
+        limits.clear();
+    }
+
+    @Override
+    public Object onFailure(final Event<?, ?> error) {
+        return null;
+    }
+
+    @Override
+    public void onEvent(final Event<?, ?> event) {
+        event.channel(EVENT_RATE_LIMIT).ifPresent(ev -> ofNullable(ev.payload())
+            .filter(request -> request.key() != null)
+            .flatMap(request -> ofNullable(limits.get(request.limit())).map(limiter -> limiter.acquire(request.key(), request.permits())))
+            .ifPresent(ev::respond)
+        );
+    }
+
+    @Override
+    public void configure(final TypeMapI<?> changes, final TypeMapI<?> merged) {
+        idleMs = merged.asLongOpt(CONFIG_RATE_LIMIT_IDLE_MS).filter(ms -> ms > 0).orElse(idleMs);
+        if (changes == merged || changes.keySet().stream().anyMatch(key -> String.valueOf(key).startsWith("app_service_ratelimit_"))) {
+            merged.asDoubleOpt(CONFIG_RATE_LIMIT_RATE).filter(rate -> rate > 0).ifPresentOrElse(rate -> limit(new RateLimit(
+                DEFAULT_LIMIT,
+                rate,
+                merged.asLongOpt(CONFIG_RATE_LIMIT_BURST).orElse(0L),
+                RateLimit.keyOf(merged.asString(CONFIG_RATE_LIMIT_KEY)),
+                splitConfig(merged, CONFIG_RATE_LIMIT_PATHS)
+            )), () -> limits.remove(DEFAULT_LIMIT));
+        }
+    }
+
+    @Override
+    public Set<String> configKeys() {
+        return Set.of("app_service_ratelimit");
+    }
+
+    /**
+     * Registers or replaces a rate limit. Replacing a limit resets its buckets.
+     *
+     * @param limit rate limit definition
+     * @return self for chaining
+     */
+    public RateLimitService limit(final RateLimit limit) {
+        if (limit != null && limit.name() != null)
+            limits.put(limit.name(), new Limiter(limit));
+        return this;
+    }
+
+    /**
+     * @param name name of the limit
+     * @return self for chaining
+     */
+    public RateLimitService removeLimit(final String name) {
+        if (name != null)
+            limits.remove(name);
+        return this;
+    }
+
+    public Collection<Limiter> limits() {
+        return List.copyOf(limits.values());
+    }
+
+    protected void filter(final Event<HttpObject, HttpObject> event, final HttpObject request) {
+        for (final Limiter limiter : limits.values()) {
+            final TypeMap params = limiter.match(request);
+            if (params == null)
+                continue;
+            final String key = limiter.limit().key().apply(request, params);
+            if (key == null)
+                continue;
+            final RateLimitResult result = limiter.acquire(key, 1);
+            if (!result.allowed()) {
+                request.createResponse()
+                    .failure(429, "Too Many Requests", "Rate limit [" + result.limit() + "] exceeded")
+                    .header(HttpHeaders.X_RATE_LIMIT_LIMIT, result.capacity())
+                    .header(HttpHeaders.X_RATE_LIMIT_REMAINING, result.remaining())
+                    .header(HttpHeaders.X_RATE_LIMIT_RESET, toSeconds(result.resetMs()))
+                    .header(HttpHeaders.RETRY_AFTER, toSeconds(result.retryAfterMs()))
+                    .respond(event);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes idle buckets of one stripe per tick and publishes the counters.
+     */
+    protected void sweep() {
+        final int shard = Math.floorMod(sweepShard.getAndIncrement(), SHARDS);
+        final long now = TokenBucket.nowMs();
+        for (final Limiter limiter : limits.values()) {
+            limiter.shards().get(shard).values().removeIf(bucket -> bucket.isIdle(now, idleMs));
+            final Map<String, String> tags = Map.of("limit", limiter.limit().name());
+            sendMetric(MetricType.GAUGE, "ratelimit.allowed", limiter.allowed().sum(), tags);
+            sendMetric(MetricType.GAUGE, "ratelimit.rejected", limiter.rejected().sum(), tags);
+            sendMetric(MetricType.GAUGE, "ratelimit.keys", limiter.keys(), tags);
+        }
+    }
+
+    protected void sendMetric(final MetricType type, final String name, final double value, final Map<String, String> tags) {
+        context.newEvent(EVENT_METRIC_UPDATE, () -> new MetricUpdate(type, name, value, tags)).send();
+    }
+
+    protected static long toSeconds(final long ms) {
+        return (ms + 999) / 1000;
+    }
+
+    @Override
+    public String toString() {
+        return new LinkedTypeMap()
+            .putR("name", name())
+            .putR("limits", limits.size())
+            .putR("class", this.getClass().getSimpleName())
+            .toJson();
+    }
+}
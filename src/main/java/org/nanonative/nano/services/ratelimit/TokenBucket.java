@@ -0,0 +1,125 @@
+package org.nanonative.nano.services.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock free token bucket. Tokens and the last refill time share one packed long,
+ * so acquiring is a single compare and set without any lock.
+ * <p>
+ * Layout: upper 44 bits refill time in milliseconds, lower 20 bits tokens.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class TokenBucket {
+
+    public static final int TOKEN_BITS = 20;
+    public static final long MAX_TOKENS = (1L << TOKEN_BITS) - 1;
+    protected static final long CLOCK_EPOCH_NS = System.nanoTime();
+
+    protected final long capacity;
+    protected final double tokensPerMs;
+    protected final AtomicLong state;
+    protected volatile long lastAccessMs;
+
+    /**
+     * @param capacity        max tokens (burst), limited to {@link #MAX_TOKENS}
+     * @param tokensPerSecond refill rate
+     */
+    public TokenBucket(final long capacity, final double tokensPerSecond) {
+        this.capacity = Math.clamp(capacity, 1, MAX_TOKENS);
+        this.tokensPerMs = Math.max(tokensPerSecond, 0.001) / 1000d;
+        this.lastAccessMs = nowMs();
+        this.state = new AtomicLong(pack(lastAccessMs, this.capacity));
+    }
+
+    /**
+     * Takes permits from the bucket.
+     *
+     * @param permits number of tokens to take
+     * @return remaining tokens if the permits were granted, else the negative number of missing tokens
+     */
+    public long tryAcquire(final int permits) {
+        return tryAcquire(permits, nowMs());
+    }
+
+    /**
+     * Takes permits from the bucket.
+     *
+     * @param permits number of tokens to take
+     * @param nowMs   current time of {@link #nowMs()}
+     * @return remaining tokens if the permits were granted, else the negative number of missing tokens
+     */
+    public long tryAcquire(final int permits, final long nowMs) {
+        lastAccessMs = nowMs;
+        while (true) {
+            final long current = state.get();
+            long time = current >>> TOKEN_BITS;
+            long tokens = current & MAX_TOKENS;
+            final long elapsed = nowMs - time;
+            if (tokens >= capacity) {
+                time = Math.max(time, nowMs);
+            } else if (elapsed > 0) {
+                final long added = (long) (elapsed * tokensPerMs);
+                if (tokens + added >= capacity) {
+                    tokens = capacity;
+                    time = nowMs;
+                } else if (added > 0) {
+                    // only consume the time of whole tokens to not lose partial refills
+                    tokens += added;
+                    time += (long) (added / tokensPerMs);
+                }
+            }
+            if (tokens < permits)
+                return tokens - permits;
+            if (state.compareAndSet(current, pack(time, tokens - permits)))
+                return tokens - permits;
+        }
+    }
+
+    /**
+     * @param missingTokens tokens which are missing
+     * @return milliseconds until the missing tokens are refilled
+     */
+    public long retryAfterMs(final long missingTokens) {
+        return missingTokens <= 0 ? 0 : (long) Math.ceil(missingTokens / tokensPerMs);
+    }
+
+    /**
+     * @return milliseconds until the bucket is full again
+     */
+    public long resetMs() {
+        return retryAfterMs(capacity - tokens());
+    }
+
+    public long tokens() {
+        return state.get() & MAX_TOKENS;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public long lastAccessMs() {
+        return lastAccessMs;
+    }
+
+    /**
+     * @param nowMs  current time of {@link #nowMs()}
+     * @param idleMs idle time
+     * @return {@code true} if the bucket was not used for the given idle time
+     */
+    public boolean isIdle(final long nowMs, final long idleMs) {
+        return nowMs - lastAccessMs > idleMs;
+    }
+
+    /**
+     * @return monotonic milliseconds used by the buckets
+     */
+    public static long nowMs() {
+        return (System.nanoTime() - CLOCK_EPOCH_NS) / 1_000_000L;
+    }
+
+    protected static long pack(final long timeMs, final long tokens) {
+        return (timeMs << TOKEN_BITS) | (tokens & MAX_TOKENS);
+    }
+}
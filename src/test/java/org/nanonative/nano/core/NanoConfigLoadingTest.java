@@ -2,12 +2,16 @@ package org.nanonative.nano.core;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.junit.jupiter.api.parallel.ResourceLock;
 import org.junit.jupiter.api.parallel.Resources;
 import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.helper.config.ConfigChange;
+import org.nanonative.nano.helper.config.ConfigLoader;
 import org.nanonative.nano.testutil.TestFiles;
 
 import java.nio.charset.StandardCharsets;
@@ -15,12 +19,15 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.core.model.Context.APP_PARAMS;
 import static org.nanonative.nano.core.model.Context.CONFIG_FILE_LOCATIONS_KEY;
 import static org.nanonative.nano.core.model.Context.CONFIG_PROFILES;
 import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
@@ -327,6 +334,68 @@ final class NanoConfigLoadingTest {
         nano.shutdown(nano.context()).waitForStop();
     }
 
+    @Test
+    void timings_of_the_config_load_are_available() {
+        Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, APP_PARAMS, true));
+        assertThat(nano.configLoader().timings()).containsKeys("args", "environment", "properties", "files", "overlays", "placeholders", "total");
+        assertThat(nano.configLoader().timings().get("total")).isPositive();
+        assertThat(nano.configLoader().files()).anyMatch(file -> file.endsWith("config/application.properties"));
+        assertThat(nano.configLoader().toString()).contains("total [", "files [");
+        nano.shutdown(nano.context()).waitForStop();
+    }
+
+    @Test
+    void reload_keeps_start_configs_and_args() {
+        Nano nano = new Nano(ctx -> List.of(), Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, "test_reload_dsl", "dsl"), "--test_reload_cli=cli");
+        final Map<Object, Object> changes = ConfigChange.configDiffOf(nano.context(), nano.reloadConfigs());
+        assertThat(changes).doesNotContainKeys("test_reload_dsl", "test_reload_cli", CONFIG_LOG_LEVEL, Context.CONTEXT_TRACE_ID_KEY);
+        assertThat(nano.context().asString("test_reload_cli")).isEqualTo("cli");
+        nano.shutdown(nano.context()).waitForStop();
+    }
+
+    @Test
+    void standardised_keys_are_stable() {
+        for (String key : List.of("app_profiles", "App.Profiles", " app-profiles ", "a+b:c{d}$e", "already_standard_1", "ÄÖÜ.key", ""))
+            assertThat(NanoBase.standardiseKey(NanoBase.standardiseKey(key))).isEqualTo(NanoBase.standardiseKey(key));
+        assertThat(NanoBase.standardiseKey("App.Profiles")).isEqualTo("app_profiles");
+        assertThat(NanoBase.standardiseKey(" a-b ")).isEqualTo("a_b");
+        assertThat(NanoBase.standardiseKey("a+b:c{d}$e")).isEqualTo("a_b_c_d__e");
+        assertThat(NanoBase.standardiseKey(42)).isEqualTo("42");
+        assertThat(NanoBase.standardiseKey(null)).isNull();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark_cold_config_load_with_large_environment(final TestReporter reporter) {
+        final int keys = 10_000;
+        final Map<Object, Object> configs = new HashMap<>();
+        for (int i = 0; i < keys; i++) {
+            System.setProperty("bench.sys.Key-" + i, "sys-" + i);
+            configs.put("bench.dsl.Key-" + i, "${bench.sys.key_" + i + ":none}");
+        }
+        try {
+            ConfigLoader best = null;
+            Context ctx = null;
+            for (int round = 0; round < 5; round++) {
+                final ConfigLoader loader = new ConfigLoader();
+                ctx = loader.load(configs, "--bench.cli=true");
+                if (best == null || loader.timings().get("total") < best.timings().get("total"))
+                    best = loader;
+            }
+            final Map<String, String> report = new LinkedHashMap<>();
+            report.put("keys", String.valueOf(keys));
+            best.timings().forEach((stage, ns) -> report.put(stage + ".us", String.valueOf(ns / 1000)));
+            reporter.publishEntry(report);
+            assertThat(ctx.asString("bench_sys_key_" + (keys - 1))).isEqualTo("sys-" + (keys - 1));
+            assertThat(ctx.asString("bench_dsl_key_" + (keys - 1))).isEqualTo("sys-" + (keys - 1));
+            assertThat(ctx.asBoolean("bench_cli")).isTrue();
+            assertThat(ctx.asString("resource_key2")).isEqualTo("CC");
+        } finally {
+            for (int i = 0; i < keys; i++)
+                System.clearProperty("bench.sys.Key-" + i);
+        }
+    }
+
     private void purgeAllDirs() throws Exception {
         for (Path dir : configDirs) {
             TestFiles.deleteTree(dir);
@@ -0,0 +1,170 @@
+package org.nanonative.nano.core;
+
+import berlin.yuna.typemap.model.TypeMap;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.services.http.HttpServer;
+import org.nanonative.nano.services.http.model.HttpObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.core.config.TestConfig.TEST_TIMEOUT;
+import static org.nanonative.nano.core.model.Context.CONFIG_TRAINING_RUN;
+import static org.nanonative.nano.helper.NanoUtils.waitForCondition;
+import static org.nanonative.nano.services.http.HttpClient.EVENT_SEND_HTTP;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_CLIENT;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_PORT;
+import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST;
+import static org.nanonative.nano.services.http.model.HttpMethod.GET;
+import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
+
+@Execution(ExecutionMode.CONCURRENT)
+class NanoStartupTest {
+
+    /**
+     * Starts an HTTP server, sends the first request and stops. Exits with {@code 1} if the request failed.
+     * Writes the epoch millis of the first response to the file of the {@link #FIRST_REQUEST_FILE} property.
+     */
+    public static class StartupApp {
+
+        public static final String FIRST_REQUEST_FILE = "startup_first_request_file";
+
+        public static void main(final String[] args) throws IOException {
+            final Nano nano = new Nano(args, new HttpServer());
+            nano.subscribeEvent(EVENT_HTTP_REQUEST, event -> event.payloadOpt()
+                .filter(request -> request.pathMatch("/startup"))
+                .ifPresent(request -> request.createResponse().statusCode(200).body(Map.of("started", true)).respond(event)));
+            if (nano.context().asBooleanOpt(CONFIG_TRAINING_RUN).orElse(false))
+                return;
+            final HttpServer server = nano.service(HttpServer.class);
+            final HttpObject response = nano.context(StartupApp.class).newEvent(EVENT_SEND_HTTP, () -> new HttpObject()
+                .methodType(GET)
+                .path("http://localhost:" + server.port() + "/startup")).send().response();
+            final long firstRequestMs = System.currentTimeMillis();
+            final String file = System.getProperty(FIRST_REQUEST_FILE);
+            if (file != null)
+                Files.writeString(Path.of(file), String.valueOf(firstRequestMs));
+            nano.stop(StartupApp.class).waitForStop();
+            if (response == null || response.statusCode() != 200)
+                System.exit(1);
+        }
+    }
+
+    @Test
+    void trainingRunShouldStopAfterRequests() {
+        final List<String> requests = new CopyOnWriteArrayList<>();
+        final Nano nano = new Nano(context -> {
+            context.subscribeEvent(EVENT_HTTP_REQUEST, event -> {
+                requests.add(event.payload().path());
+                event.payload().createResponse().statusCode(204).respond(event);
+            });
+            return List.of(new HttpServer());
+        }, Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_TRAINING_RUN, true, CONFIG_SERVICE_HTTP_PORT, 0, CONFIG_SERVICE_HTTP_CLIENT, true));
+
+        assertThat(waitForCondition(() -> !nano.isReady(), TEST_TIMEOUT)).isTrue();
+        assertThat(requests).containsExactly("/");
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkTimeToFirstRequestWithAppCds(@TempDir final Path dir, final TestReporter reporter) throws Exception {
+        final String classPath = classPathJar(dir.resolve("app.jar")) + File.pathSeparator + locationOf(TypeMap.class);
+        final Path archive = dir.resolve("app.jsa");
+
+        // training run records the archive at exit
+        final Startup training = run(dir, classPath, "-XX:ArchiveClassesAtExit=" + archive, "-D" + CONFIG_TRAINING_RUN + "=true");
+        assertThat(training.firstRequestMs()).isNegative();
+        final boolean archived = Files.isRegularFile(archive);
+
+        final int runs = 3;
+        Startup plain = null;
+        Startup shared = null;
+        for (int i = 0; i < runs; i++) {
+            plain = Startup.min(plain, run(dir, classPath, "-Xshare:auto"));
+            if (archived)
+                shared = Startup.min(shared, run(dir, classPath, "-XX:SharedArchiveFile=" + archive));
+        }
+        assertThat(plain.firstRequestMs()).isBetween(0L, plain.exitMs());
+
+        final Map<String, String> report = new LinkedHashMap<>();
+        report.put("runs", String.valueOf(runs));
+        report.put("training.exit.ms", String.valueOf(training.exitMs()));
+        report.put("plain.first.request.ms", String.valueOf(plain.firstRequestMs()));
+        report.put("plain.exit.ms", String.valueOf(plain.exitMs()));
+        report.put("archive.first.request.ms", shared == null ? "n/a" : String.valueOf(shared.firstRequestMs()));
+        report.put("archive.exit.ms", shared == null ? "n/a" : String.valueOf(shared.exitMs()));
+        reporter.publishEntry(report);
+    }
+
+    /**
+     * Millis from the process start until the first response and until the process exit.
+     *
+     * @param firstRequestMs {@code -1} if no request was sent, like on the training run
+     * @param exitMs         millis until the process exited
+     */
+    private record Startup(long firstRequestMs, long exitMs) {
+
+        static Startup min(final Startup best, final Startup current) {
+            return best == null ? current : new Startup(Math.min(best.firstRequestMs, current.firstRequestMs), Math.min(best.exitMs, current.exitMs));
+        }
+    }
+
+    private static Startup run(final Path dir, final String classPath, final String... jvmArgs) throws IOException, InterruptedException {
+        final Path firstRequest = Files.createTempFile(dir, "first_request", ".ms");
+        Files.delete(firstRequest);
+        final List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(List.of(jvmArgs));
+        command.addAll(List.of("-D" + CONFIG_LOG_LEVEL + "=" + TEST_LOG_LEVEL, "-D" + CONFIG_SERVICE_HTTP_PORT + "=0", "-D" + CONFIG_SERVICE_HTTP_CLIENT + "=true"));
+        command.add("-D" + StartupApp.FIRST_REQUEST_FILE + "=" + firstRequest);
+        command.addAll(List.of("-cp", classPath, StartupApp.class.getName()));
+        // wall clock, as the child process reports its first response in epoch millis
+        final long startMs = System.currentTimeMillis();
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        assertThat(process.waitFor(TEST_TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+        final long exitMs = System.currentTimeMillis() - startMs;
+        assertThat(process.exitValue()).isZero();
+        return new Startup(Files.isRegularFile(firstRequest) ? Long.parseLong(Files.readString(firstRequest).trim()) - startMs : -1, exitMs);
+    }
+
+    /**
+     * AppCDS archives only classes from jar files, so the class directories are packed into one jar.
+     */
+    private static Path classPathJar(final Path jar) throws IOException, URISyntaxException {
+        try (final JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (final Path root : List.of(locationOf(Nano.class), locationOf(NanoStartupTest.class))) {
+                try (final Stream<Path> files = Files.walk(root)) {
+                    for (final Path file : files.filter(Files::isRegularFile).toList()) {
+                        out.putNextEntry(new JarEntry(root.relativize(file).toString().replace('\\', '/')));
+                        Files.copy(file, out);
+                        out.closeEntry();
+                    }
+                }
+            }
+        }
+        return jar;
+    }
+
+    private static Path locationOf(final Class<?> type) throws URISyntaxException {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+}
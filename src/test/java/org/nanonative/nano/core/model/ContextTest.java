@@ -1,29 +1,42 @@
 package org.nanonative.nano.core.model;
 
+import org.assertj.core.api.InstanceOfAssertFactories;
 import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.nanonative.nano.core.Nano;
 import org.nanonative.nano.core.config.TestConfig;
+import org.nanonative.nano.helper.NanoUtils;
 import org.nanonative.nano.helper.event.model.Channel;
 import org.nanonative.nano.helper.event.model.Event;
 import org.nanonative.nano.model.TestService;
 
+import java.time.Duration;
 import java.time.LocalTime;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 import static java.time.temporal.ChronoUnit.MILLIS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
 import static org.nanonative.nano.core.config.TestConfig.TEST_REPEAT;
 import static org.nanonative.nano.core.config.TestConfig.TEST_TIMEOUT;
 import static org.nanonative.nano.core.model.Context.CONTEXT_CLASS_KEY;
 import static org.nanonative.nano.core.model.Context.CONTEXT_NANO_KEY;
 import static org.nanonative.nano.core.model.Context.CONTEXT_TRACE_ID_KEY;
 import static org.nanonative.nano.core.model.Context.EVENT_APP_HEARTBEAT;
+import static org.nanonative.nano.core.model.NanoThread.GLOBAL_COMPUTE_PARALLELISM;
+import static org.nanonative.nano.core.model.NanoThread.NANO_COMPUTE_PREFIX;
 import static org.nanonative.nano.helper.NanoUtils.waitForCondition;
 import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
 
@@ -149,6 +162,91 @@ class ContextTest {
         });
     }
 
+    @RepeatedTest(TEST_REPEAT)
+    void testRunCompute() {
+        final Context context = Context.createRootContext(ContextTest.class);
+        final List<Integer> items = IntStream.rangeClosed(1, 1000).boxed().toList();
+
+        assertThat(context.<String>runCompute(() -> Thread.currentThread().getName())).startsWith(NANO_COMPUTE_PREFIX);
+        assertThat(context.computeAsync(() -> 42).join()).isEqualTo(42);
+        assertThat(context.computeMap(items, i -> i * 2)).hasSize(1000).startsWith(2, 4, 6).endsWith(2000);
+        assertThat(context.computeReduce(items, 0L, Integer::longValue, Long::sum)).isEqualTo(500500L);
+        assertThat(context.computeAsync(() -> {
+            throw new IllegalStateException("Nothing to see here, just a test exception");
+        })).failsWithin(Duration.ofMillis(TEST_TIMEOUT));
+    }
+
+    @RepeatedTest(TEST_REPEAT)
+    void testNestedRunCompute() {
+        final Context context = Context.createRootContext(ContextTest.class);
+        final List<Integer> items = IntStream.range(0, GLOBAL_COMPUTE_PARALLELISM * 4).boxed().toList();
+
+        // every worker waits on nested tasks, which would starve the bounded pool if they were queued
+        final CompletableFuture<List<Integer>> result = CompletableFuture.supplyAsync(() -> context.computeMap(items, i -> context.<Integer>runCompute(() -> context.runCompute(() -> i * 2))));
+        assertThat(result).succeedsWithin(Duration.ofMillis(TEST_TIMEOUT)).asInstanceOf(InstanceOfAssertFactories.LIST).hasSize(items.size()).startsWith(0, 2, 4);
+        assertThat(context.<String>runCompute(() -> context.runCompute(() -> Thread.currentThread().getName()))).startsWith(NANO_COMPUTE_PREFIX);
+    }
+
+    @RepeatedTest(TEST_REPEAT)
+    void testDeadline() {
+        final Nano app = new Nano();
+        final Context context = app.context(this.getClass());
+        assertThat(context.hasDeadline()).isFalse();
+        assertThat(context.remainingMs()).isEqualTo(Long.MAX_VALUE);
+
+        // deadlines are inherited and can only be tightened
+        final Context request = context.newContext(ContextTest.class).timeoutMs(200);
+        assertThat(context.hasDeadline()).isFalse();
+        assertThat(request.timeoutMs(60_000).remainingMs()).isBetween(1L, 200L);
+        assertThat(request.newContext(ContextTest.class).deadline()).isEqualTo(request.deadline());
+        assertThat(request.newEmptyContext(ContextTest.class).deadline()).isEqualTo(request.deadline());
+        assertThat(request.newEvent(TEST_CHANNEL).remainingMs()).isBetween(1L, 200L);
+
+        // runAwait returns with the deadline instead of the default wait timeout
+        final long start = System.currentTimeMillis();
+        request.runAwait(() -> Thread.sleep(TEST_TIMEOUT));
+        assertThat(System.currentTimeMillis() - start).isLessThan(TEST_TIMEOUT);
+        assertThat(request.isExpired()).isTrue();
+
+        // expired work is skipped
+        final AtomicInteger executed = new AtomicInteger();
+        request.runAwait(executed::incrementAndGet);
+        assertThat(executed.get()).isZero();
+        context.runAwait(executed::incrementAndGet);
+        assertThat(executed.get()).isEqualTo(1);
+        assertThat(app.stop(this.getClass()).waitForStop().isReady()).isFalse();
+    }
+
+    @RepeatedTest(TEST_REPEAT)
+    void testSendAsync() {
+        final Nano app = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL));
+        final Context context = app.context(this.getClass());
+        final Channel<String, String> echo = Channel.registerChannelId("TEST_ASYNC_ECHO", String.class, String.class);
+        final Channel<String, String> mirror = Channel.registerChannelId("TEST_ASYNC_MIRROR", String.class, String.class);
+        final Channel<String, String> silent = Channel.registerChannelId("TEST_ASYNC_SILENT", String.class, String.class);
+        context.subscribeEvent(echo, event -> event.respond("echo " + event.payload()));
+        context.subscribeEvent(mirror, event -> event.respond(new StringBuilder(event.payload()).reverse().toString()));
+        context.subscribeEvent(mirror, event -> event.respond("second"));
+        final List<String> tapped = new CopyOnWriteArrayList<>();
+        app.tapEvent(echo, event -> tapped.add(event.payload()));
+        app.tapEvent(mirror, event -> tapped.add(event.payload()));
+
+        assertThat(context.newEvent(echo, () -> "hi").sendAsync()).succeedsWithin(Duration.ofMillis(TEST_TIMEOUT)).isEqualTo("echo hi");
+        // nobody acknowledges
+        assertThat(context.newEvent(silent, () -> "hi").sendAsync()).failsWithin(Duration.ofMillis(TEST_TIMEOUT)).withThrowableThat().isInstanceOf(CancellationException.class);
+        // slow listeners run into the timeout
+        context.subscribeEvent(silent, event -> NanoUtils.waitForCondition(() -> false, 256));
+        assertThat(context.newEvent(silent, () -> "hi").sendAsync(10, MILLISECONDS)).failsWithin(Duration.ofMillis(TEST_TIMEOUT)).withThrowableThat().havingRootCause().isInstanceOf(TimeoutException.class);
+
+        // scatter gather
+        assertThat(context.sendAll(List.of(context.newEvent(echo, () -> "a"), context.newEvent(mirror, () -> "ab")))).succeedsWithin(Duration.ofMillis(TEST_TIMEOUT)).satisfies(responses -> assertThat(responses).hasSize(2).first().isEqualTo("echo a"));
+        assertThat(context.sendFirst(List.of(context.newEvent(silent, () -> "a"), context.newEvent(echo, () -> "b")))).succeedsWithin(Duration.ofMillis(TEST_TIMEOUT)).isEqualTo("echo b");
+        assertThat(context.newEvent(mirror, () -> "ab").sendGather()).succeedsWithin(Duration.ofMillis(TEST_TIMEOUT)).satisfies(responses -> assertThat(responses).containsExactlyInAnyOrder("ba", "second"));
+        // async sends pass the taps exactly once
+        assertThat(tapped).containsExactly("hi", "a", "ab", "b", "ab");
+        assertThat(app.stop(this.getClass()).waitForStop().isReady()).isFalse();
+    }
+
     @RepeatedTest(TEST_REPEAT)
     void testNewEventSubscription() throws InterruptedException {
         final Nano app = new Nano();
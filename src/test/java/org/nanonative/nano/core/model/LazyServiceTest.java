@@ -0,0 +1,128 @@
+package org.nanonative.nano.core.model;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.model.TestService;
+import org.nanonative.nano.services.http.HttpClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.core.config.TestConfig.TEST_TIMEOUT;
+import static org.nanonative.nano.core.model.Context.EVENT_CONFIG_CHANGE;
+import static org.nanonative.nano.helper.NanoUtils.waitForCondition;
+import static org.nanonative.nano.model.TestService.TEST_EVENT;
+import static org.nanonative.nano.services.http.HttpClient.EVENT_SEND_HTTP;
+import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
+
+@Execution(ExecutionMode.CONCURRENT)
+class LazyServiceTest {
+
+    @RepeatedTest(8)
+    void shouldStartWithFirstTriggerEvent() {
+        final List<TestService> created = new CopyOnWriteArrayList<>();
+        final LazyService<TestService> lazy = LazyService.of(TestService.class, () -> add(created, new TestService()), TEST_EVENT);
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL), lazy);
+        final Context context = nano.context(LazyServiceTest.class);
+
+        assertThat(waitForCondition(lazy::isReady, TEST_TIMEOUT)).isTrue();
+        assertThat(created).isEmpty();
+        assertThat(nano.service(TestService.class)).isNull();
+        assertThat(lazy.name()).isEqualTo(TestService.class.getSimpleName());
+        assertThat(LazyService.typeOf(lazy)).isEqualTo(TestService.class);
+
+        // configs before the activation are visible to the service
+        context.newEvent(EVENT_CONFIG_CHANGE, () -> Map.of("test_lazy_key", "before")).broadcast(true).send();
+        context.newEvent(TEST_EVENT, () -> "first").send();
+        assertThat(created).hasSize(1);
+        final TestService service = created.getFirst();
+        assertThat(service.startCount()).isEqualTo(1);
+        assertThat(service.events(TEST_EVENT)).hasSize(1).allMatch(event -> "first".equals(event.payload()));
+        assertThat(service.context().asString("test_lazy_key")).isEqualTo("before");
+        assertThat(nano.service(TestService.class)).isSameAs(service);
+        assertThat(lazy.isActive()).isTrue();
+
+        assertThat(nano.stop(LazyServiceTest.class).waitForStop().isReady()).isFalse();
+        assertThat(waitForCondition(() -> service.stopCount() == 1, TEST_TIMEOUT)).isTrue();
+    }
+
+    @Test
+    void shouldBufferEventsDuringStartup() {
+        final List<TestService> created = new CopyOnWriteArrayList<>();
+        final LazyService<TestService> lazy = LazyService.of(TestService.class, () -> add(created, new TestService().doOnStart(ctx -> sleep(200))), TEST_EVENT);
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL), lazy);
+        final Context context = nano.context(LazyServiceTest.class);
+        assertThat(waitForCondition(lazy::isReady, TEST_TIMEOUT)).isTrue();
+
+        IntStream.range(0, 16).parallel().forEach(i -> context.newEvent(TEST_EVENT, () -> i).send());
+
+        // every sender returns after its event was delivered
+        assertThat(created).hasSize(1);
+        assertThat(created.getFirst().startCount()).isEqualTo(1);
+        assertThat(created.getFirst().events(TEST_EVENT)).hasSize(16);
+        assertThat(nano.stop(LazyServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void shouldStopWhenIdleAndRestart() {
+        final List<TestService> created = new CopyOnWriteArrayList<>();
+        final LazyService<TestService> lazy = LazyService.of(TestService.class, () -> add(created, new TestService()), TEST_EVENT).idleTimeoutMs(64);
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL), lazy);
+        final Context context = nano.context(LazyServiceTest.class);
+        assertThat(waitForCondition(lazy::isReady, TEST_TIMEOUT)).isTrue();
+
+        context.newEvent(TEST_EVENT, () -> "first").send();
+        assertThat(lazy.isActive()).isTrue();
+        assertThat(waitForCondition(() -> !lazy.isActive(), TEST_TIMEOUT)).isTrue();
+        assertThat(created.getFirst().stopCount()).isEqualTo(1);
+
+        context.newEvent(TEST_EVENT, () -> "second").send();
+        assertThat(created).hasSize(2);
+        assertThat(created.getLast().events(TEST_EVENT)).hasSize(1);
+        assertThat(nano.stop(LazyServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkStartupWithLazyHttpClient(final TestReporter reporter) {
+        final int runs = 8;
+        long eager = Long.MAX_VALUE;
+        long lazy = Long.MAX_VALUE;
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            final Nano eagerNano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL), new HttpClient());
+            eager = Math.min(eager, System.nanoTime() - start);
+            assertThat(eagerNano.service(HttpClient.class)).isNotNull();
+            eagerNano.stop(LazyServiceTest.class).waitForStop();
+
+            start = System.nanoTime();
+            final Nano lazyNano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL), LazyService.of(HttpClient.class, HttpClient::new, EVENT_SEND_HTTP));
+            lazy = Math.min(lazy, System.nanoTime() - start);
+            assertThat(lazyNano.service(HttpClient.class)).isNull();
+            lazyNano.stop(LazyServiceTest.class).waitForStop();
+        }
+        reporter.publishEntry(Map.of("eager.startup.us", String.valueOf(eager / 1000), "lazy.startup.us", String.valueOf(lazy / 1000)));
+    }
+
+    private static <T> T add(final List<T> list, final T item) {
+        list.add(item);
+        return item;
+    }
+
+    private static void sleep(final long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (final InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
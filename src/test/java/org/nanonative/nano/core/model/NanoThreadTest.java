@@ -16,6 +16,7 @@ import static org.nanonative.nano.core.config.TestConfig.TEST_TIMEOUT;
 import static org.nanonative.nano.core.model.NanoThread.GLOBAL_THREAD_POOL;
 import static org.nanonative.nano.core.model.NanoThread.activeCarrierThreads;
 import static org.nanonative.nano.core.model.NanoThread.activeNanoThreads;
+import static org.nanonative.nano.core.model.NanoThread.carrierThreads;
 import static org.nanonative.nano.helper.NanoUtils.waitForCondition;
 
 @Execution(ExecutionMode.CONCURRENT)
@@ -76,10 +77,12 @@ class NanoThreadTest {
     }
 
     @RepeatedTest(TEST_REPEAT)
+    @SuppressWarnings("deprecation")
     void activeNanoThreadCount() {
         new NanoThread().run(() -> null, () -> {
             assertThat(activeNanoThreads()).isPositive();
             assertThat(activeCarrierThreads()).isPositive();
+            assertThat(carrierThreads()).isPositive();
         });
     }
 
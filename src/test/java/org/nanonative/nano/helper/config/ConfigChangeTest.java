@@ -0,0 +1,110 @@
+package org.nanonative.nano.helper.config;
+
+import berlin.yuna.typemap.model.TypeMap;
+import berlin.yuna.typemap.model.TypeMapI;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.core.model.Service;
+import org.nanonative.nano.helper.event.model.Event;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.core.config.TestConfig.TEST_TIMEOUT;
+import static org.nanonative.nano.core.model.Context.EVENT_CONFIG_CHANGE;
+import static org.nanonative.nano.helper.NanoUtils.waitForCondition;
+import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
+
+@Execution(ExecutionMode.CONCURRENT)
+class ConfigChangeTest {
+
+    static class KeyedService extends Service {
+        final List<TypeMapI<?>> changes = new CopyOnWriteArrayList<>();
+        final Set<String> keys;
+
+        KeyedService(final Set<String> keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public Object onFailure(final Event<?, ?> error) {
+            return null;
+        }
+
+        @Override
+        public void onEvent(final Event<?, ?> event) {
+        }
+
+        @Override
+        public void configure(final TypeMapI<?> changes, final TypeMapI<?> merged) {
+            if (changes != merged)
+                this.changes.add(changes);
+        }
+
+        @Override
+        public Set<String> configKeys() {
+            return keys;
+        }
+    }
+
+    @Test
+    void shouldComputeDiff() {
+        final TypeMap diff = ConfigChange.diffOf(Map.of("a", 1, "b", "x"), Map.of("a", 1, "b", "y", "c", true));
+        assertThat(diff).containsOnly(Map.entry("b", "y"), Map.entry("c", true));
+        assertThat(ConfigChange.diffOf(Map.of("a", 1), null)).isEmpty();
+        assertThat(ConfigChange.configDiffOf(Map.of(), Map.of("_internal", 1, Context.CONTEXT_TRACE_ID_KEY, "id", "app_key", 2))).containsOnlyKeys("app_key");
+
+        final ConfigChange change = new ConfigChange(1, diff);
+        assertThat(change.affects(Set.of())).isTrue();
+        assertThat(change.affects(Set.of("c"))).isTrue();
+        assertThat(new ConfigChange(1, ConfigChange.diffOf(Map.of(), Map.of("app_service_http_port", 8080)))).satisfies(http -> {
+            assertThat(http.affects(Set.of("app_service_http"))).isTrue();
+            assertThat(http.affects(Set.of("app_service_http_port"))).isTrue();
+            assertThat(http.affects(Set.of("app_service_https"))).isFalse();
+            assertThat(http.affects(Set.of("app_service_ht"))).isFalse();
+        });
+        assertThat(new ConfigChange(1, new TypeMap()).affects(Set.of())).isFalse();
+    }
+
+    @Test
+    void shouldNotifyOnlyServicesOfChangedKeys() {
+        final KeyedService all = new KeyedService(Set.of());
+        final KeyedService http = new KeyedService(Set.of("test_change_http"));
+        final KeyedService other = new KeyedService(Set.of("test_change_other"));
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, "test_change_http_port", 8080), all, http, other);
+        final Context context = nano.context(ConfigChangeTest.class);
+        assertThat(waitForCondition(() -> all.isReady() && http.isReady() && other.isReady(), TEST_TIMEOUT)).isTrue();
+        final long version = nano.configVersion();
+
+        context.newEvent(EVENT_CONFIG_CHANGE, () -> Map.of("test_change_http_port", 9090, "test_change_flag", true)).broadcast(true).send();
+        assertThat(nano.configVersion()).isEqualTo(version + 1);
+        assertThat(nano.context().asInt("test_change_http_port")).isEqualTo(9090);
+        assertThat(all.changes).hasSize(1);
+        assertThat(http.changes).hasSize(1);
+        assertThat(http.changes.getFirst()).containsOnlyKeys("test_change_http_port", "test_change_flag");
+        assertThat(other.changes).isEmpty();
+        // every service context receives the changes
+        assertThat(other.context().asInt("test_change_http_port")).isEqualTo(9090);
+
+        // unchanged values neither increase the version nor configure services
+        context.newEvent(EVENT_CONFIG_CHANGE, () -> Map.of("test_change_http_port", 9090)).broadcast(true).send();
+        assertThat(nano.configVersion()).isEqualTo(version + 1);
+        assertThat(all.changes).hasSize(1);
+        assertThat(nano.stop(ConfigChangeTest.class).waitForStop().isReady()).isFalse();
+    }
+}
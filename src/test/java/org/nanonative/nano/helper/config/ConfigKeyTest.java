@@ -0,0 +1,120 @@
+package org.nanonative.nano.helper.config;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.core.model.Context;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.core.model.Context.EVENT_CONFIG_CHANGE;
+import static org.nanonative.nano.helper.config.ConfigRegister.configDescriptionOf;
+import static org.nanonative.nano.helper.config.ConfigRegister.registerConfig;
+import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
+
+@Execution(ExecutionMode.CONCURRENT)
+class ConfigKeyTest {
+
+    record HttpConfig(String host, int port, Long connectTimeoutMs, boolean secure) {
+    }
+
+    static class PoolConfig {
+        int size = 4;
+        String name = "default";
+        Double loadFactor;
+    }
+
+    @Test
+    void shouldRegisterTypedConfig() {
+        final ConfigKey<Integer> key = registerConfig("TEST.TYPED-KEY", "Typed key", Integer.class, 42);
+        assertThat(key.key()).isEqualTo("test_typed_key").hasToString("test_typed_key");
+        assertThat(key.type()).isEqualTo(Integer.class);
+        assertThat(key.defaultValue()).isEqualTo(42);
+        assertThat(configDescriptionOf("test_typed_key")).isEqualTo("Typed key");
+        assertThat(key.resolve(Map.of("test_typed_key", "7"))).isEqualTo(7);
+        assertThat(key.resolve(Map.of("test_typed_key", "invalid"))).isEqualTo(42);
+        assertThat(key.resolve(Map.of())).isEqualTo(42);
+        assertThat(key.resolve(null)).isEqualTo(42);
+        assertThat(key.isChanged(Map.of("test_typed_key", 1))).isTrue();
+        assertThat(key.isChanged(Map.of("test_typed_key_other", 1))).isFalse();
+        assertThatThrownBy(() -> registerConfig(" ", "Invalid", Integer.class, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldCacheValueUntilConfigChange() {
+        final ConfigKey<Long> key = ConfigKey.of("test_cached_key", Long.class, -1L);
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, "test_cached_key", "100"));
+        final Context context = nano.context(ConfigKeyTest.class);
+        final long version = nano.configVersion();
+
+        assertThat(key.get(context)).isEqualTo(100L);
+        // converted once, the same instance is returned until the config changes
+        assertThat(key.get(context)).isSameAs(key.get(nano.context()));
+
+        context.newEvent(EVENT_CONFIG_CHANGE, () -> Map.of("test_cached_key", "200")).send();
+        assertThat(nano.configVersion()).isGreaterThan(version);
+        assertThat(key.get(context)).isEqualTo(200L);
+        assertThat(key.opt(context)).contains(200L);
+
+        // without nano the value is converted from the given context
+        final Context standalone = Context.createRootContext(ConfigKeyTest.class);
+        standalone.put("test_cached_key", "300");
+        assertThat(key.get(standalone)).isEqualTo(300L);
+        assertThat(nano.stop(ConfigKeyTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void shouldBindRecordsAndPojos() {
+        final Map<String, Object> configs = Map.of(
+            "test_bind_http_host", "localhost",
+            "test_bind_http_port", "8080",
+            "test_bind_http_connect_timeout_ms", 500,
+            "test_bind_pool_name", "workers",
+            "test_bind_pool_load_factor", "0.75"
+        );
+
+        final HttpConfig http = ConfigKey.bind("test_bind_http", HttpConfig.class).resolve(configs);
+        assertThat(http).isEqualTo(new HttpConfig("localhost", 8080, 500L, false));
+
+        final PoolConfig pool = ConfigBinder.bind(configs, "test_bind_pool", PoolConfig.class);
+        assertThat(pool.size).isEqualTo(4);
+        assertThat(pool.name).isEqualTo("workers");
+        assertThat(pool.loadFactor).isEqualTo(0.75);
+
+        final ConfigKey<HttpConfig> key = ConfigKey.bind("test.bind.http", HttpConfig.class);
+        assertThat(key.isChanged(Map.of("test_bind_http_port", 1))).isTrue();
+        assertThat(key.isChanged(Map.of("test_bind_https_port", 1))).isFalse();
+        assertThat(ConfigBinder.keyOf(null, "connectTimeoutMs")).isEqualTo("connect_timeout_ms");
+        assertThatThrownBy(() -> ConfigBinder.bind(configs, "test", Map.class)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkTypedLookup(final TestReporter reporter) {
+        final ConfigKey<Integer> key = ConfigKey.of("test_benchmark_key", Integer.class, 0);
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, "test_benchmark_key", "98"));
+        final Context context = nano.context(ConfigKeyTest.class);
+        final int iterations = 1_000_000;
+        long sum = 0;
+
+        final long startMap = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            sum += context.asIntOpt("test_benchmark_key").orElse(0);
+        final long mapNanos = System.nanoTime() - startMap;
+
+        final long startKey = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            sum += key.get(context);
+        final long keyNanos = System.nanoTime() - startKey;
+
+        reporter.publishEntry(Map.of("map.ns.per.lookup", String.valueOf(mapNanos / iterations), "key.ns.per.lookup", String.valueOf(keyNanos / iterations)));
+        assertThat(sum).isEqualTo(98L * iterations * 2);
+        assertThat(nano.stop(ConfigKeyTest.class).waitForStop().isReady()).isFalse();
+    }
+}
@@ -0,0 +1,79 @@
+package org.nanonative.nano.helper.event;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.helper.event.model.Channel;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.core.config.TestConfig.TEST_REPEAT;
+import static org.nanonative.nano.core.config.TestConfig.TEST_TIMEOUT;
+import static org.nanonative.nano.helper.NanoUtils.waitForCondition;
+import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
+
+@Execution(ExecutionMode.CONCURRENT)
+class EventCoalescerTest {
+
+    private static final Channel<String, Void> TEST_COALESCE = Channel.registerChannelId("TEST_COALESCE", String.class);
+
+    @RepeatedTest(TEST_REPEAT)
+    void shouldEmitLatestValuePerKeyOnce() {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL));
+        final List<String> emitted = new CopyOnWriteArrayList<>();
+        final EventCoalescer<String, String> coalescer = new EventCoalescer<>(nano.context(EventCoalescerTest.class), 30, 0, null, emitted::add);
+
+        for (int i = 0; i < 100; i++)
+            coalescer.offer(i % 2 == 0 ? "a" : "b", String.valueOf(i));
+        assertThat(waitForCondition(() -> emitted.size() == 2, TEST_TIMEOUT)).isTrue();
+        assertThat(emitted).containsExactlyInAnyOrder("98", "99");
+        assertThat(waitForCondition(() -> emitted.size() > 2, 64)).isFalse();
+        assertThat(coalescer.received()).isEqualTo(100);
+        assertThat(coalescer.emitted()).isEqualTo(2);
+        assertThat(coalescer.pending()).isZero();
+        assertThat(nano.stop(EventCoalescerTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void shouldBoundLatencyOfContinuousBursts() throws InterruptedException {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL));
+        final List<String> emitted = new CopyOnWriteArrayList<>();
+        final EventCoalescer<String, String> coalescer = new EventCoalescer<>(nano.context(EventCoalescerTest.class), 50, 100, (previous, next) -> previous + next, emitted::add);
+
+        // the debounce window never closes, the max latency emits anyway
+        final long start = System.currentTimeMillis();
+        while (emitted.isEmpty() && System.currentTimeMillis() - start < TEST_TIMEOUT) {
+            coalescer.offer("key", "x");
+            Thread.sleep(5);
+        }
+        assertThat(emitted).isNotEmpty();
+        assertThat(emitted.getFirst()).startsWith("xx");
+        assertThat(System.currentTimeMillis() - start).isLessThan(TEST_TIMEOUT);
+
+        coalescer.offer("key", "flushed").flush();
+        assertThat(emitted).contains("flushed");
+        assertThat(coalescer.pending()).isZero();
+        assertThat(nano.stop(EventCoalescerTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void shouldSubscribeCoalescedEvents() {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL));
+        final Context context = nano.context(EventCoalescerTest.class);
+        final List<String> received = new CopyOnWriteArrayList<>();
+        context.subscribeCoalesced(TEST_COALESCE, event -> event.payload().charAt(0), 30, 500, event -> received.add(event.payload()));
+
+        for (final String payload : List.of("a1", "b1", "a2", "a3", "b2"))
+            context.newEvent(TEST_COALESCE, () -> payload).send();
+        assertThat(waitForCondition(() -> received.size() == 2, TEST_TIMEOUT)).isTrue();
+        assertThat(received).containsExactlyInAnyOrder("a3", "b2");
+        assertThat(nano.stop(EventCoalescerTest.class).waitForStop().isReady()).isFalse();
+    }
+}
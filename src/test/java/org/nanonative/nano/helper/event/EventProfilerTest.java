@@ -0,0 +1,177 @@
+package org.nanonative.nano.helper.event;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.helper.event.model.Channel;
+import org.nanonative.nano.helper.event.model.Event;
+import org.nanonative.nano.services.metric.logic.MetricService;
+import org.nanonative.nano.services.metric.model.Histogram;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.core.config.TestConfig.TEST_REPEAT;
+import static org.nanonative.nano.core.model.Context.CONFIG_EVENT_PROFILE_SAMPLE_RATE;
+import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
+
+@Execution(ExecutionMode.CONCURRENT)
+class EventProfilerTest {
+
+    private static final Channel<String, String> TEST_PROFILE = Channel.registerChannelId("TEST_PROFILE", String.class, String.class);
+    private static final Channel<String, Void> TEST_PROFILE_BENCH = Channel.registerChannelId("TEST_PROFILE_BENCH", String.class);
+
+    @RepeatedTest(TEST_REPEAT)
+    void shouldProfileHandlersPerChannel() {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_EVENT_PROFILE_SAMPLE_RATE, 1));
+        final Context context = nano.context(EventProfilerTest.class);
+        context.subscribeEvent(TEST_PROFILE, new SlowHandler());
+        context.subscribeEvent(TEST_PROFILE, new FailingHandler());
+
+        for (int i = 0; i < 10; i++)
+            context.newEvent(TEST_PROFILE, () -> "hi").broadcast(true).send();
+
+        final EventProfiler profiler = nano.profiler();
+        assertThat(profiler).isNotNull();
+        final List<HandlerProfile> profiles = profiler.profiles().stream().filter(profile -> profile.channel().equals(TEST_PROFILE.name()) && profile.handler().startsWith("EventProfilerTest$")).toList();
+        assertThat(profiles).hasSize(2);
+        final HandlerProfile slow = profiles.stream().filter(profile -> profile.handler().equals("EventProfilerTest$SlowHandler")).findFirst().orElseThrow();
+        final HandlerProfile failing = profiles.stream().filter(profile -> profile.handler().equals("EventProfilerTest$FailingHandler")).findFirst().orElseThrow();
+        assertThat(slow.count()).isEqualTo(10);
+        assertThat(slow.errors()).isZero();
+        assertThat(slow.ackRate()).isEqualTo(1d);
+        assertThat(slow.latencyMs().mean()).isGreaterThanOrEqualTo(1d);
+        assertThat(failing.errors()).isEqualTo(10);
+        assertThat(failing.ackRate()).isZero();
+        assertThat(profiler.slowest(Integer.MAX_VALUE)).contains(slow, failing);
+        assertThat(slow.latencyMs().mean()).isGreaterThan(failing.latencyMs().mean());
+        assertThat(profiler.slowest(1)).hasSize(1);
+        assertThat(profiler.profiles()).anyMatch(profile -> profile.handler().equals("LogService"));
+        assertThat(slow.toString()).contains("\"channel\":\"TEST_PROFILE\"", "\"count\":10");
+
+        // disabled at runtime
+        nano.profile(0);
+        assertThat(nano.profiler()).isNull();
+        assertThat(nano.stop(EventProfilerTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void shouldOrderSlowestByP99() {
+        final EventProfiler profiler = new EventProfiler(1);
+        final SlowHandler steady = new SlowHandler();
+        final FailingHandler spiky = new FailingHandler();
+        for (int i = 0; i < 9; i++) {
+            profiler.record(TEST_PROFILE, steady, 8_000_000L, false, true);
+            profiler.record(TEST_PROFILE, spiky, 100_000L, true, false);
+        }
+        profiler.record(TEST_PROFILE, steady, 8_000_000L, false, true);
+        profiler.record(TEST_PROFILE, spiky, 40_000_000L, true, false);
+
+        // the spiky handler has the lower mean but the higher p99
+        assertThat(profiler.slowest(2)).extracting(HandlerProfile::handler).containsExactly("EventProfilerTest$FailingHandler", "EventProfilerTest$SlowHandler");
+        assertThat(profiler.slowest(1)).extracting(HandlerProfile::handler).containsExactly("EventProfilerTest$FailingHandler");
+    }
+
+    @Test
+    void shouldNameLambdasApart() {
+        final EventProfiler profiler = new EventProfiler(1);
+        final Consumer<Event<String, String>> first = Event::acknowledge;
+        final Consumer<Event<String, String>> second = event -> {};
+        profiler.record(TEST_PROFILE, first, 1_000L, false, true);
+        profiler.record(TEST_PROFILE, second, 1_000L, false, false);
+        profiler.record(TEST_PROFILE_BENCH, first, 1_000L, false, true);
+
+        assertThat(profiler.profiles()).extracting(HandlerProfile::handler)
+            .containsExactlyInAnyOrder("EventProfilerTest$lambda#1", "EventProfilerTest$lambda#2", "EventProfilerTest$lambda#1");
+    }
+
+    @Test
+    void shouldRebindLatencyOnProfilerChange() {
+        final MetricService metricService = new MetricService();
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_EVENT_PROFILE_SAMPLE_RATE, 1), metricService);
+        final Context context = nano.context(EventProfilerTest.class);
+        final SlowHandler handler = new SlowHandler();
+        context.subscribeEvent(TEST_PROFILE, handler);
+        final Map<String, String> tags = Map.of("channel", TEST_PROFILE.name(), "handler", "EventProfilerTest$SlowHandler");
+
+        context.newEvent(TEST_PROFILE, () -> "hi").send();
+        metricService.updateEventMetrics(nano);
+        final Histogram before = metricService.metrics().histogram("event.handler.latency", tags);
+        assertThat(before.count()).isEqualTo(1);
+
+        // a new sample rate replaces the profiler and its histograms
+        nano.profile(2);
+        while (nano.profiler().profiles().stream().noneMatch(profile -> profile.channel().equals(TEST_PROFILE.name())))
+            context.newEvent(TEST_PROFILE, () -> "hi").send();
+        metricService.updateEventMetrics(nano);
+        final Histogram after = metricService.metrics().histogram("event.handler.latency", tags);
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.count()).isEqualTo(1);
+        assertThat(nano.stop(EventProfilerTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkProfilingOverhead(final TestReporter reporter) {
+        final int events = 200_000;
+        final long[] nanos = new long[3];
+        final int[] rates = {0, 64, 1};
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < rates.length; i++)
+                nanos[i] = dispatch(rates[i], events);
+        }
+        reporter.publishEntry(Map.of(
+            "events", String.valueOf(events),
+            "off.ns.per.event", String.valueOf(nanos[0] / events),
+            "sampled.ns.per.event", String.valueOf(nanos[1] / events),
+            "every.ns.per.event", String.valueOf(nanos[2] / events)
+        ));
+    }
+
+    private static long dispatch(final int sampleRate, final int events) {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_EVENT_PROFILE_SAMPLE_RATE, sampleRate));
+        final Context context = nano.context(EventProfilerTest.class);
+        context.subscribeEvent(TEST_PROFILE_BENCH, event -> event.acknowledge());
+        final long start = System.nanoTime();
+        for (int i = 0; i < events; i++)
+            context.newEvent(TEST_PROFILE_BENCH, () -> "x").send();
+        final long result = System.nanoTime() - start;
+        // sampling measures only a fraction of the dispatches
+        if (sampleRate > 0) {
+            final long samples = nano.profiler().profiles().stream().filter(profile -> profile.channel().equals(TEST_PROFILE_BENCH.name())).mapToLong(HandlerProfile::samples).sum();
+            if (sampleRate == 1)
+                assertThat(samples).isEqualTo(events);
+            else
+                assertThat(samples).isBetween(1L, (long) events / 2);
+        }
+        assertThat(nano.stop(EventProfilerTest.class).waitForStop().isReady()).isFalse();
+        return result;
+    }
+
+    static class SlowHandler implements Consumer<Event<String, String>> {
+        @Override
+        public void accept(final Event<String, String> event) {
+            try {
+                Thread.sleep(2);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            event.acknowledge();
+        }
+    }
+
+    static class FailingHandler implements Consumer<Event<String, String>> {
+        @Override
+        public void accept(final Event<String, String> event) {
+            throw new IllegalStateException("profiled failure");
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.nanonative.nano.helper.event;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.helper.event.model.Channel;
+import org.nanonative.nano.helper.event.model.Event;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.core.config.TestConfig.TEST_REPEAT;
+import static org.nanonative.nano.core.config.TestConfig.TEST_TIMEOUT;
+import static org.nanonative.nano.core.config.TestConfig.await;
+import static org.nanonative.nano.helper.NanoUtils.waitForCondition;
+import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
+
+@Execution(ExecutionMode.CONCURRENT)
+class EventPublisherTest {
+
+    private static final Channel<String, Void> TEST_PUBLISHER = Channel.registerChannelId("TEST_PUBLISHER", String.class);
+
+    @RepeatedTest(TEST_REPEAT)
+    void shouldHonorDemand() {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL));
+        final Context context = nano.context(EventPublisherTest.class);
+        final TestSubscriber<Event<String, Void>> subscriber = new TestSubscriber<>(2);
+        context.publisher(TEST_PUBLISHER).subscribe(subscriber);
+
+        send(context, "a", "b", "c", "d", "e");
+        assertThat(waitForCondition(() -> subscriber.items.size() == 2, TEST_TIMEOUT)).isTrue();
+        assertThat(waitForCondition(() -> subscriber.items.size() > 2, 64)).isFalse();
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(waitForCondition(() -> subscriber.items.size() == 5, TEST_TIMEOUT)).isTrue();
+        assertThat(subscriber.items).extracting(Event::payload).containsExactly("a", "b", "c", "d", "e");
+
+        // completes on shutdown
+        assertThat(nano.stop(EventPublisherTest.class).waitForStop().isReady()).isFalse();
+        assertThat(waitForCondition(() -> subscriber.completed.getCount() == 0, TEST_TIMEOUT)).isTrue();
+    }
+
+    @Test
+    void shouldApplyOverflowStrategy() throws InterruptedException {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL));
+        final Context context = nano.context(EventPublisherTest.class);
+        final TestSubscriber<Event<String, Void>> dropOldest = new TestSubscriber<>(0);
+        final TestSubscriber<Event<String, Void>> dropNewest = new TestSubscriber<>(0);
+        final TestSubscriber<Event<String, Void>> error = new TestSubscriber<>(0);
+        context.publisher(TEST_PUBLISHER).buffer(2, OverflowStrategy.DROP_OLDEST).subscribe(dropOldest);
+        context.publisher(TEST_PUBLISHER).buffer(2, OverflowStrategy.DROP_NEWEST).subscribe(dropNewest);
+        context.publisher(TEST_PUBLISHER).buffer(2, OverflowStrategy.ERROR).subscribe(error);
+
+        send(context, "a", "b", "c", "d");
+        dropOldest.subscription.request(10);
+        dropNewest.subscription.request(10);
+        assertThat(waitForCondition(() -> dropOldest.items.size() == 2 && dropNewest.items.size() == 2, TEST_TIMEOUT)).isTrue();
+        assertThat(dropOldest.items).extracting(Event::payload).containsExactly("c", "d");
+        assertThat(dropNewest.items).extracting(Event::payload).containsExactly("a", "b");
+        assertThat(((EventSubscription<?, ?, ?>) dropOldest.subscription).dropped()).isEqualTo(2);
+        assertThat(await(error.completed)).isTrue();
+        assertThat(error.error.get()).isInstanceOf(IllegalStateException.class);
+        assertThat(nano.stop(EventPublisherTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void shouldWindowSampleAndConflate() throws InterruptedException {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL));
+        final Context context = nano.context(EventPublisherTest.class);
+        final TestSubscriber<List<Event<String, Void>>> windows = new TestSubscriber<>(Long.MAX_VALUE);
+        final TestSubscriber<Event<String, Void>> samples = new TestSubscriber<>(Long.MAX_VALUE);
+        final TestSubscriber<Event<String, Void>> latest = new TestSubscriber<>(0);
+        context.publisher(TEST_PUBLISHER).window(3, 50, MILLISECONDS).subscribe(windows);
+        context.publisher(TEST_PUBLISHER).sample(50, MILLISECONDS).subscribe(samples);
+        context.publisher(TEST_PUBLISHER).conflate(event -> event.payload().charAt(0)).subscribe(latest);
+
+        send(context, "a1", "b1", "a2", "c1", "b2", "a3", "c2");
+        // full windows are emitted right away, the last window after its time
+        assertThat(waitForCondition(() -> windows.items.size() == 3, TEST_TIMEOUT)).isTrue();
+        assertThat(windows.items).extracting(List::size).containsExactly(3, 3, 1);
+        assertThat(waitForCondition(() -> samples.items.size() == 1, TEST_TIMEOUT)).isTrue();
+        assertThat(samples.items.getFirst().payload()).isEqualTo("c2");
+        latest.subscription.request(10);
+        assertThat(waitForCondition(() -> latest.items.size() == 3, TEST_TIMEOUT)).isTrue();
+        assertThat(latest.items).extracting(Event::payload).containsExactly("a3", "b2", "c2");
+
+        latest.subscription.cancel();
+        send(context, "a4");
+        assertThat(waitForCondition(() -> windows.items.size() == 4, TEST_TIMEOUT)).isTrue();
+        assertThat(latest.items).hasSize(3);
+        assertThat(nano.stop(EventPublisherTest.class).waitForStop().isReady()).isFalse();
+        assertThat(await(windows.completed)).isTrue();
+        assertThat(latest.completed.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkSlowSubscriberDoesNotBlockSender(final TestReporter reporter) {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL));
+        final Context context = nano.context(EventPublisherTest.class);
+        final TestSubscriber<List<Event<String, Void>>> batches = new TestSubscriber<>(Long.MAX_VALUE) {
+            @Override
+            public void onNext(final List<Event<String, Void>> item) {
+                waitForCondition(() -> false, 1);
+                super.onNext(item);
+            }
+        };
+        context.publisher(TEST_PUBLISHER).buffer(100_000, OverflowStrategy.DROP_OLDEST).window(1000, 10, MILLISECONDS).subscribe(batches);
+
+        final int events = 100_000;
+        final long start = System.nanoTime();
+        for (int i = 0; i < events; i++)
+            context.newEvent(TEST_PUBLISHER, () -> "x").send();
+        final long sendNanos = System.nanoTime() - start;
+        // nothing is dropped and windows never exceed their size
+        assertThat(waitForCondition(() -> batches.items.stream().mapToInt(List::size).sum() == events, TEST_TIMEOUT * 4L)).isTrue();
+        assertThat(batches.items).allMatch(batch -> batch.size() <= 1000);
+        reporter.publishEntry(Map.of("events", String.valueOf(events), "send.ns.per.event", String.valueOf(sendNanos / events), "batches", String.valueOf(batches.items.size())));
+        assertThat(nano.stop(EventPublisherTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    private static void send(final Context context, final String... payloads) {
+        for (final String payload : payloads)
+            context.newEvent(TEST_PUBLISHER, () -> payload).send();
+    }
+
+    private static class TestSubscriber<T> implements Flow.Subscriber<T> {
+
+        final List<T> items = new CopyOnWriteArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final long initialRequest;
+        Flow.Subscription subscription;
+
+        TestSubscriber(final long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0)
+                subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(final T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error.set(throwable);
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
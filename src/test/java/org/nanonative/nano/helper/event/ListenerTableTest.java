@@ -0,0 +1,109 @@
+package org.nanonative.nano.helper.event;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.helper.event.model.Channel;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
+
+@Execution(ExecutionMode.CONCURRENT)
+class ListenerTableTest {
+
+    @Test
+    void shouldAddAndRemoveListenersInOrder() {
+        final ListenerTable<String> table = new ListenerTable<>();
+        assertThat(table.isEmpty()).isTrue();
+        assertThat(table.get(3)).isNull();
+        assertThat(table.array(3)).isEmpty();
+        assertThat(table.array(-1)).isEmpty();
+
+        assertThat(table.add(3, "a")).isTrue();
+        assertThat(table.add(3, "b")).isTrue();
+        assertThat(table.add(3, "a")).isFalse();
+        assertThat(table.add(-1, "a")).isFalse();
+        // grows beyond the initial capacity
+        assertThat(table.add(10_000, "c")).isTrue();
+
+        assertThat(table.get(3)).containsExactly("a", "b");
+        assertThat(table.get(10_000)).containsExactly("c");
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.count()).isEqualTo(3);
+        assertThat(table.values()).containsExactly("a", "b", "c");
+
+        final Object[] snapshot = table.array(3);
+        final Object[][] outer = table.table;
+        assertThat(table.remove(3, "a")).isTrue();
+        // writes publish a new table instead of changing the rows readers hold
+        assertThat(table.table).isNotSameAs(outer);
+        assertThat(outer[3]).containsExactly("a", "b");
+        assertThat(table.remove(3, "a")).isFalse();
+        assertThat(table.remove(99_999, "a")).isFalse();
+        assertThat(table.get(3)).containsExactly("b");
+        // snapshots are not affected by later changes
+        assertThat(snapshot).containsExactly("a", "b");
+        // emptied channels no longer count
+        assertThat(table.remove(3, "b")).isTrue();
+        assertThat(table.get(3)).isEmpty();
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.add(3, "b")).isTrue();
+        assertThat(table.size()).isEqualTo(2);
+
+        assertThat(table.clear().isEmpty()).isTrue();
+        assertThat(table.get(10_000)).isNull();
+    }
+
+    @Test
+    void shouldSubscribeConcurrently() {
+        final ListenerTable<Integer> table = new ListenerTable<>();
+        IntStream.range(0, 10_000).parallel().forEach(i -> table.add(i % 100, i));
+        assertThat(table.size()).isEqualTo(100);
+        assertThat(table.count()).isEqualTo(10_000);
+        IntStream.range(0, 10_000).parallel().forEach(i -> table.remove(i % 100, i));
+        assertThat(table.count()).isZero();
+        assertThat(table.isEmpty()).isTrue();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkDispatchOfDynamicChannels(final TestReporter reporter) {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL));
+        final Context context = nano.context(ListenerTableTest.class);
+        final AtomicLong received = new AtomicLong();
+        final Consumer<Object> listener = event -> received.incrementAndGet();
+
+        final long startRegister = System.nanoTime();
+        final List<Channel<String, Void>> tenants = IntStream.range(0, 2000)
+            .mapToObj(i -> Channel.registerChannelId("TEST_TABLE_TENANT_" + i, String.class))
+            .peek(channel -> context.subscribeEvent(channel, listener::accept))
+            .toList();
+        final long registerNanos = System.nanoTime() - startRegister;
+
+        final int events = 200_000;
+        final long startDispatch = System.nanoTime();
+        for (int i = 0; i < events; i++)
+            context.newEvent(tenants.get(i % tenants.size()), () -> "x").send();
+        final long dispatchNanos = System.nanoTime() - startDispatch;
+
+        reporter.publishEntry(Map.of(
+            "channels", String.valueOf(tenants.size()),
+            "register.us.per.channel", String.valueOf(registerNanos / tenants.size() / 1000),
+            "dispatch.ns.per.event", String.valueOf(dispatchNanos / events)
+        ));
+        assertThat(received.get()).isEqualTo(events);
+        assertThat(nano.listeners().get(tenants.getLast().id())).hasSize(1);
+        assertThat(nano.stop(ListenerTableTest.class).waitForStop().isReady()).isFalse();
+    }
+}
@@ -3,7 +3,11 @@ package org.nanonative.nano.model;
 import org.junit.jupiter.api.Test;
 import org.nanonative.nano.helper.event.model.Channel;
 
+import java.util.List;
+import java.util.stream.IntStream;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.nanonative.nano.core.NanoBase.EVENT_CHANNELS;
 import static org.nanonative.nano.helper.event.model.Channel.isChannelIdAvailable;
 import static org.nanonative.nano.helper.event.model.Channel.registerChannelId;
 
@@ -25,5 +29,25 @@ class ChannelRegisterTest {
 
         // should not find non registered channelIds
         assertThat(isChannelIdAvailable(-99)).isFalse();
+        assertThat(isChannelIdAvailable(Integer.MAX_VALUE)).isFalse();
+        assertThat(Channel.channelOf("NOT_REGISTERED_CHANNEL")).isEmpty();
+        assertThat(Channel.channelOf((String) null)).isEmpty();
+    }
+
+    @Test
+    void shouldRegisterDynamicChannelsConcurrently() {
+        final String prefix = this.getClass().getSimpleName().toUpperCase() + "_TENANT_";
+        final List<Channel<String, Void>> channels = IntStream.range(0, 4096).parallel()
+            .mapToObj(i -> registerChannelId(prefix + (i % 1024), String.class))
+            .toList();
+
+        // same name, same channel
+        assertThat(channels.stream().map(Channel::id).distinct()).hasSize(1024);
+        for (final Channel<String, Void> channel : channels) {
+            assertThat(Channel.channelOf(channel.id())).isSameAs(channel);
+            assertThat(Channel.channelOf(channel.name())).containsSame(channel);
+        }
+        assertThat(EVENT_CHANNELS.maxId()).isGreaterThanOrEqualTo(1024);
+        assertThat(EVENT_CHANNELS.values()).containsAll(channels);
     }
 }
@@ -6,7 +6,9 @@ import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpPrincipal;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
 import org.nanonative.nano.core.Nano;
 import org.nanonative.nano.core.model.Context;
 import org.nanonative.nano.helper.event.model.Event;
@@ -31,6 +33,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST;
 import static org.nanonative.nano.services.http.model.ContentType.APPLICATION_JSON;
 import static org.nanonative.nano.services.http.model.ContentType.APPLICATION_PDF;
+import static org.nanonative.nano.services.http.model.ContentType.APPLICATION_PROBLEM_JSON;
 import static org.nanonative.nano.services.http.model.ContentType.TEXT_PLAIN;
 import static org.nanonative.nano.services.http.model.ContentType.WILDCARD;
 import static org.nanonative.nano.services.http.model.HttpHeaders.ACCEPT;
@@ -46,6 +49,7 @@ import static org.nanonative.nano.services.http.model.HttpHeaders.CACHE_CONTROL;
 import static org.nanonative.nano.services.http.model.HttpHeaders.CONTENT_LENGTH;
 import static org.nanonative.nano.services.http.model.HttpHeaders.CONTENT_RANGE;
 import static org.nanonative.nano.services.http.model.HttpHeaders.CONTENT_TYPE;
+import static org.nanonative.nano.services.http.model.HttpHeaders.DATE;
 import static org.nanonative.nano.services.http.model.HttpHeaders.HOST;
 import static org.nanonative.nano.services.http.model.HttpHeaders.REFERER;
 import static org.nanonative.nano.services.http.model.HttpHeaders.USER_AGENT;
@@ -496,6 +500,17 @@ class HttpObjectTest {
         assertThat(new HttpObject().bodyAsString()).isEmpty();
     }
 
+    @Test
+    void testStreamBodyAsJson() {
+        final HttpObject request = new HttpObject(createMockHttpExchange("POST", "/test", new Headers(), "{\"key\": [1, \"ä\"]}"));
+        assertThat(request.streamBodyAsJson().asMap().asList(Object.class, "key")).containsExactly(1L, "ä");
+        assertThat(request.body()).isEmpty();
+
+        final HttpObject loaded = new HttpObject(createMockHttpExchange("POST", "/test", new Headers(), "{\"key\": \"value\"}"));
+        assertThat(loaded.body()).isNotEmpty();
+        assertThat(loaded.streamBodyAsJson().asMap()).containsEntry("key", "value");
+    }
+
     @Test
     void testQueryParameters() {
         final HttpObject httpObject = new HttpObject().path("/test?key1=value1&key2=value2");
@@ -531,6 +546,16 @@ class HttpObjectTest {
         assertThat(httpObject1.pathParam("value1")).isEqualTo("bb");
         assertThat(httpObject1.pathParams().asString("value2")).isEqualTo("dd");
         assertThat(httpObject1.queryParams().asInt("myNumber")).isEqualTo(2468);
+        // matching without side effects
+        assertThat(httpObject1.pathMatches("/aa/{other}/**")).isTrue();
+        assertThat(httpObject1.pathMatches("/bb/**")).isFalse();
+        final TypeMap scratch = new TypeMap();
+        assertThat(httpObject1.pathMatches("/aa/{other}/**", scratch)).isTrue();
+        assertThat(scratch).containsOnlyKeys("other").containsEntry("other", "bb");
+        assertThat(httpObject1.pathMatches("/aa/{other}/xx", scratch)).isFalse();
+        assertThat(scratch).isEmpty();
+        assertThat(httpObject1.route()).isEqualTo("/aa/{value1}/cc/{value2}/");
+        assertThat(httpObject1.pathParams()).containsOnlyKeys("value1", "value2");
 
         // with ending /
         final HttpObject httpObject2 = new HttpObject().path("/aa/bb/cc/dd/?myNumber=2468");
@@ -597,6 +622,148 @@ class HttpObjectTest {
         assertThat(new HttpObject().headerMap()).isEmpty();
     }
 
+    @Test
+    void testExchangeHeadersAreReadLazily() {
+        final Headers headers = new Headers();
+        headers.add("Content-Type", "Application/Json, TexT/Plain");
+        headers.put("Accept", List.of(APPLICATION_PDF.value(), APPLICATION_JSON.value()));
+        headers.add("myNumber", "123");
+        final HttpObject httpObject = new HttpObject(createMockHttpExchange("GET", "/test?key1=value%201&key2", headers, ""));
+
+        // lookups read the exchange headers directly
+        assertThat(httpObject.header("MYNUMBER")).isEqualTo("123");
+        assertThat(httpObject.containsHeader("mynumber")).isTrue();
+        assertThat(httpObject.containsHeader("invalid")).isFalse();
+        assertThat(httpObject.headerValues("accept")).containsExactly(APPLICATION_PDF.value(), APPLICATION_JSON.value());
+        assertThat(httpObject.contentTypes()).containsExactly(APPLICATION_JSON, TEXT_PLAIN);
+        assertThat(httpObject.accepts()).containsExactly(APPLICATION_PDF, APPLICATION_JSON);
+
+        // changes after construction are visible until the header map is parsed
+        headers.add("late", "yes");
+        assertThat(httpObject.header("Late")).isEqualTo("yes");
+        assertThat(httpObject.headerMap()).hasSize(4).containsKey("late");
+        assertThat(httpObject.header("myNumber", 456).header("mynumber")).isEqualTo("456");
+        assertThat(httpObject.headerValues("MyNumber")).containsExactly("456");
+
+        assertThat(httpObject.queryParam("key1")).isEqualTo("value 1");
+        assertThat(httpObject.queryParams()).hasSize(2).containsEntry("key2", "");
+    }
+
+    @Test
+    void testWriteHeaders() {
+        final Headers target = new HttpObject()
+            .failure(500, new IllegalStateException("expected"))
+            .header(VARY, List.of("Accept", "Origin"))
+            .header(CONTENT_LENGTH, 11)
+            .writeHeaders(new Headers());
+
+        assertThat(target.get(CONTENT_TYPE)).containsExactly(APPLICATION_PROBLEM_JSON.value());
+        assertThat(target.get(VARY)).containsExactly("Accept", "Origin");
+        assertThat(target.getFirst(CONTENT_LENGTH)).isEqualTo("11");
+        assertThat(target.getFirst(CACHE_CONTROL)).isEqualTo("no-cache");
+        assertThat(target.containsKey(HttpObject.HTTP_EXCEPTION_HEADER)).isFalse();
+    }
+
+    @Test
+    void testDefaultHeadersAreShared() {
+        final Headers first = new HttpObject().body("{\"key\": \"value\"}").writeHeaders(new Headers());
+        final Headers second = new HttpObject().body("[1, 2]").writeHeaders(new Headers());
+
+        assertThat(first.get(CONTENT_TYPE)).containsExactly(APPLICATION_JSON.value()).isSameAs(second.get(CONTENT_TYPE));
+        assertThat(first.get(CACHE_CONTROL)).isSameAs(HttpObject.DEFAULT_CACHE_CONTROL);
+        assertThat(first.get(USER_AGENT)).isSameAs(HttpObject.DEFAULT_USER_AGENT);
+        assertThat(first.getFirst(DATE)).matches("[A-Z][a-z]{2}, \\d{2} [A-Z][a-z]{2} \\d{4} \\d{2}:\\d{2}:\\d{2} GMT");
+        assertThat(HttpObject.httpDate()).isEqualTo(HttpObject.HTTP_DATE_FORMATTER.format(java.time.ZonedDateTime.parse(HttpObject.httpDate(), HttpObject.HTTP_DATE_FORMATTER.withZone(java.time.ZoneOffset.UTC))));
+        assertThat(new HttpObject().computedHeaders(true))
+            .containsEntry(DATE, List.of(HttpObject.httpDate()))
+            .containsEntry(USER_AGENT, HttpObject.DEFAULT_USER_AGENT);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkDefaultResponseHeaders(final TestReporter reporter) {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        final byte[] body = "{\"key\": \"value\"}".getBytes(US_ASCII);
+        final int runs = 20_000;
+        long mapped = Long.MAX_VALUE;
+        long written = Long.MAX_VALUE;
+        long mappedBytes = Long.MAX_VALUE;
+        long writtenBytes = Long.MAX_VALUE;
+        int size = 0;
+        for (int round = 0; round < 5; round++) {
+            final HttpObject[] responses = new HttpObject[runs];
+            for (int i = 0; i < runs; i++)
+                responses[i] = new HttpObject().statusCode(200).body(body);
+            long bytes = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (final HttpObject response : responses) {
+                // former path: computed header map copied into the exchange headers
+                final Headers target = new Headers();
+                response.computedHeaders(false).forEach(target::put);
+                size += target.size();
+            }
+            mapped = Math.min(mapped, System.nanoTime() - start);
+            mappedBytes = Math.min(mappedBytes, threads.getCurrentThreadAllocatedBytes() - bytes);
+
+            for (int i = 0; i < runs; i++)
+                responses[i] = new HttpObject().statusCode(200).body(body);
+            bytes = threads.getCurrentThreadAllocatedBytes();
+            start = System.nanoTime();
+            for (final HttpObject response : responses)
+                size += response.writeHeaders(new Headers()).size();
+            written = Math.min(written, System.nanoTime() - start);
+            writtenBytes = Math.min(writtenBytes, threads.getCurrentThreadAllocatedBytes() - bytes);
+        }
+        assertThat(size).isEqualTo(runs * 5 * 2 * 5);
+        // both paths produce the same exchange headers
+        final Headers mappedHeaders = new Headers();
+        new HttpObject().statusCode(200).body(body).computedHeaders(false).forEach(mappedHeaders::put);
+        final Headers writtenHeaders = new HttpObject().statusCode(200).body(body).writeHeaders(new Headers());
+        assertThat(writtenHeaders.keySet()).isEqualTo(mappedHeaders.keySet());
+        assertThat(writtenHeaders.getFirst(CONTENT_LENGTH)).isEqualTo(mappedHeaders.getFirst(CONTENT_LENGTH));
+        reporter.publishEntry(Map.of(
+            "runs", String.valueOf(runs),
+            "mapped.ns.op", String.valueOf(mapped / runs),
+            "mapped.bytes.op", String.valueOf(mappedBytes / runs),
+            "written.ns.op", String.valueOf(written / runs),
+            "written.bytes.op", String.valueOf(writtenBytes / runs)
+        ));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkLazyExchangeHeaders(final TestReporter reporter) {
+        final Headers headers = new Headers();
+        for (int i = 0; i < 20; i++)
+            headers.add("X-Custom-Header-" + i, "value-" + i);
+        headers.add(CONTENT_TYPE, APPLICATION_JSON.value());
+        final HttpExchange exchange = createMockHttpExchange("GET", "/test?a=1&b=two%20words&c=3&d=4&e=5", headers, "");
+        final int runs = 200_000;
+        long eager = Long.MAX_VALUE;
+        long lazy = Long.MAX_VALUE;
+        int found = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < runs; i++) {
+                final HttpObject request = new HttpObject(exchange);
+                request.queryParams();
+                found += request.headerMap().containsKey(CONTENT_TYPE) ? 1 : 0;
+            }
+            eager = Math.min(eager, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < runs; i++)
+                found += new HttpObject(exchange).containsHeader(CONTENT_TYPE) ? 1 : 0;
+            lazy = Math.min(lazy, System.nanoTime() - start);
+        }
+        assertThat(found).isEqualTo(runs * 10);
+        reporter.publishEntry(Map.of(
+            "runs", String.valueOf(runs),
+            "eager.ns.op", String.valueOf(eager / runs),
+            "lazy.ns.op", String.valueOf(lazy / runs)
+        ));
+    }
+
     @Test
     void testComputeHeaders() {
         final Map<String, List<String>> request = new HttpObject().computedHeaders(true);
@@ -724,13 +891,15 @@ class HttpObjectTest {
         httpObject1.statusCode(200)
                 .body("Sample body".getBytes());
 
+        // requests are compared by method, uri and headers, the default user agent is the same for all requests
         final HttpObject httpObject2 = new HttpObject();
         httpObject2.statusCode(200)
+                .path("/other")
                 .body("Sample body".getBytes());
 
         assertThat(httpObject1.hashCode()).doesNotHaveSameHashCodeAs(httpObject2.hashCode());
         assertThat(httpObject1.equals(httpObject2)).isFalse();
-        assertThat(httpObject1.equals(new HttpObject())).isFalse();
+        assertThat(httpObject1.equals(new HttpObject().methodType(HttpMethod.POST))).isFalse();
         assertThat(httpObject1.equals("invalid")).isFalse();
     }
 
@@ -0,0 +1,189 @@
+package org.nanonative.nano.model;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import berlin.yuna.typemap.model.TypeInfo;
+import berlin.yuna.typemap.model.TypeList;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.services.http.model.HttpObject;
+import org.nanonative.nano.services.http.model.JsonCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.nanonative.nano.services.http.model.HttpHeaders.CONTENT_TYPE;
+
+@Execution(ExecutionMode.CONCURRENT)
+class JsonCodecTest {
+
+    @Test
+    void shouldWriteLikeTypeMap() {
+        final Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("list", List.of(1, 2L, 3.5, true));
+        nested.put("array", new int[]{4, 5});
+        nested.put("none", null);
+        final Map<String, Object> value = new LinkedHashMap<>();
+        value.put("text", "quote \" backslash \\ slash / tab \t newline \n control \u0001");
+        value.put("unicode", "äöü € \uD83D\uDE00");
+        value.put("long", Long.MIN_VALUE);
+        value.put("negative", -42);
+        value.put("double", 0.1);
+        value.put("empty", Map.of());
+        value.put("nested", nested);
+
+        final byte[] json = JsonCodec.toBytes(value);
+        assertThat(new String(json, US_ASCII)).isEqualTo(new LinkedTypeMap(value).toJson());
+        assertThat(JsonCodec.toBytes(null)).isEqualTo("{}".getBytes(US_ASCII));
+        assertThat(JsonCodec.toBytes(List.of("a", 1))).isEqualTo("[\"a\",1]".getBytes(US_ASCII));
+        assertThat(JsonCodec.toBytes(List.of(Double.NaN, Double.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, 1.5))).isEqualTo("[null,null,null,1.5]".getBytes(US_ASCII));
+        for (final byte b : json)
+            assertThat(b).isNotNegative();
+    }
+
+    @Test
+    void shouldStreamLargeValues() throws Exception {
+        final List<Object> value = largeList(2_000);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonCodec.write(value, out);
+
+        assertThat(out.size()).isGreaterThan(JsonCodec.BUFFER_SIZE);
+        assertThat(out.toByteArray()).isEqualTo(JsonCodec.toBytes(value));
+        assertThat(JsonCodec.read(new ByteArrayInputStream(out.toByteArray()))).isEqualTo(JsonCodec.read(out.toByteArray()));
+    }
+
+    @Test
+    void shouldReadJson() throws Exception {
+        final String json = " {\"text\":\"a\\\"b\\\\c\\/d\\n\\u00e4\\ud83d\\ude00\", \"utf8\":\"äöü\", \"long\":12345678901234, \"big\":99999999999999999999999,"
+            + " \"double\":-1.5e3, \"bool\":true, \"none\":null, \"list\":[1, [], {}], \"object\":{\"key\":\"value\"}} ";
+        final TypeInfo<?> fromBytes = JsonCodec.read(json.getBytes(UTF_8));
+        // one byte per read to cross the buffer boundaries everywhere
+        final TypeInfo<?> fromStream = JsonCodec.read(new ByteArrayInputStream(json.getBytes(UTF_8)) {
+            @Override
+            public synchronized int read(final byte[] b, final int off, final int len) {
+                return super.read(b, off, Math.min(1, len));
+            }
+        });
+
+        for (final TypeInfo<?> result : List.of(fromBytes, fromStream)) {
+            assertThat(result).isInstanceOf(LinkedTypeMap.class);
+            final LinkedTypeMap map = (LinkedTypeMap) result;
+            assertThat(map.get("text")).isEqualTo("a\"b\\c/d\nä\uD83D\uDE00");
+            assertThat(map.get("utf8")).isEqualTo("äöü");
+            assertThat(map.get("long")).isEqualTo(12345678901234L);
+            assertThat(map.get("big")).isEqualTo("99999999999999999999999");
+            assertThat(map.get("double")).isEqualTo(-1500d);
+            assertThat(map.get("bool")).isEqualTo(true);
+            assertThat(map).containsEntry("none", null);
+            assertThat(map.get("list")).isInstanceOf(TypeList.class).isEqualTo(List.of(1L, List.of(), Map.of()));
+            assertThat(map.get("object")).isInstanceOf(LinkedTypeMap.class).isEqualTo(Map.of("key", "value"));
+        }
+        assertThat(JsonCodec.read("[1,\"a\"]".getBytes(UTF_8))).isEqualTo(List.of(1L, "a"));
+        assertThat(JsonCodec.read("\"top\"".getBytes(UTF_8))).isEqualTo(List.of("top"));
+        assertThat(JsonCodec.read(new byte[0])).isEqualTo(List.of(""));
+    }
+
+    @Test
+    void shouldRejectMalformedJson() {
+        for (final String json : List.of("{", "{\"a\"}", "{\"a\":1,}", "[1 2]", "\"open", "tru", "{} {}", "-", "1.2.3", "\"\\x\"", "\"\\u12\""))
+            assertThatThrownBy(() -> JsonCodec.read(json.getBytes(UTF_8))).as(json).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> JsonCodec.read("[".repeat(JsonCodec.MAX_DEPTH + 1).getBytes(UTF_8))).isInstanceOf(IllegalArgumentException.class);
+
+        final List<Object> cyclic = new ArrayList<>();
+        cyclic.add(cyclic);
+        assertThatThrownBy(() -> JsonCodec.toBytes(cyclic)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldEncodeAndDecodeHttpObjectBodies() {
+        final Map<String, Object> value = Map.of("name", "nano", "list", List.of("ä", 1L));
+        final HttpObject utf8 = new HttpObject().body(value);
+        assertThat(utf8.bodyAsMap()).isEqualTo(value);
+        assertThat(utf8.bodyAsString()).isEqualTo(new LinkedTypeMap(value).toJson());
+
+        final HttpObject latin = new HttpObject().header(CONTENT_TYPE, "application/json; charset=ISO-8859-1").body("{\"name\":\"ä\"}".getBytes(ISO_8859_1));
+        assertThat(latin.bodyAsMap()).containsEntry("name", "ä");
+        assertThat(new HttpObject().body("{lenient: true").bodyAsJson()).isNotNull();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkJsonBodies(final TestReporter reporter) {
+        final List<Object> value = largeList(16_000);
+        final byte[] expected = JsonCodec.toBytes(value);
+        final int runs = 5;
+        long encodeString = Long.MAX_VALUE;
+        long encodeBytes = Long.MAX_VALUE;
+        long decodeString = Long.MAX_VALUE;
+        long decodeBytes = Long.MAX_VALUE;
+        long decodeStream = Long.MAX_VALUE;
+        final TypeList typeList = new TypeList(value);
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            // former path: json string, bytes and compression detection
+            final HttpObject former = new HttpObject().body(typeList.toJson().getBytes(UTF_8));
+            encodeString = Math.min(encodeString, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            final HttpObject streamed = new HttpObject().bodyT(typeList);
+            encodeBytes = Math.min(encodeBytes, System.nanoTime() - start);
+            assertThat(streamed.body()).isEqualTo(former.body());
+
+            start = System.nanoTime();
+            // former path: body as string for the lenient decoder
+            new HttpObject().header(CONTENT_TYPE, "application/json; charset=ISO-8859-1").body(expected).bodyAsJson();
+            decodeString = Math.min(decodeString, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            final TypeInfo<?> decoded = new HttpObject().body(expected).bodyAsJson();
+            decodeBytes = Math.min(decodeBytes, System.nanoTime() - start);
+            assertThat((List<?>) decoded).hasSize(value.size());
+
+            start = System.nanoTime();
+            final TypeInfo<?> read;
+            try (final InputStream in = new ByteArrayInputStream(expected)) {
+                read = JsonCodec.read(in);
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+            decodeStream = Math.min(decodeStream, System.nanoTime() - start);
+            assertThat((List<?>) read).hasSize(value.size());
+        }
+        assertThat(expected.length).isGreaterThan(1024 * 1024);
+        reporter.publishEntry(Map.of(
+            "body.bytes", String.valueOf(expected.length),
+            "encode.string.us", String.valueOf(encodeString / 1000),
+            "encode.bytes.us", String.valueOf(encodeBytes / 1000),
+            "decode.string.us", String.valueOf(decodeString / 1000),
+            "decode.bytes.us", String.valueOf(decodeBytes / 1000),
+            "decode.stream.us", String.valueOf(decodeStream / 1000)
+        ));
+    }
+
+    private static List<Object> largeList(final int size) {
+        final List<Object> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", i);
+            item.put("name", "item \"" + i + "\" äöü");
+            item.put("price", i * 1.25);
+            item.put("active", i % 2 == 0);
+            item.put("tags", List.of("a", "b", "c"));
+            item.put("description", "Lorem ipsum dolor sit amet, consectetur adipiscing elit");
+            result.add(item);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,209 @@
+package org.nanonative.nano.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.services.http.model.HttpObject;
+import org.nanonative.nano.services.http.model.Multipart;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.nanonative.nano.services.http.model.HttpHeaders.CONTENT_TYPE;
+
+@Execution(ExecutionMode.CONCURRENT)
+class MultipartTest {
+
+    static final String BOUNDARY = "----nano-boundary-7MA4YWxkTrZu0gW";
+
+    @Test
+    void shouldReadFieldsAndFiles() throws Exception {
+        final byte[] body = ("preamble is ignored\r\n"
+            + "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"title\"\r\n"
+            + "\r\n"
+            + "Hällo\r\nWorld\r\n"
+            + "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"empty\"\r\n"
+            + "\r\n"
+            + "\r\n"
+            + "--" + BOUNDARY + "  \r\n"
+            + "content-disposition: form-data; name=\"file\"; filename=\"a \\\"b\\\".txt\"; filename*=UTF-8''%C3%A4.txt\r\n"
+            + "Content-Type: text/plain\r\n"
+            + "\r\n"
+            + "--" + BOUNDARY.substring(0, 10) + " almost a boundary\r\n"
+            + "--" + BOUNDARY + "--\r\n"
+            + "epilogue is ignored").getBytes(UTF_8);
+
+        final HttpObject request = new HttpObject().header(CONTENT_TYPE, "multipart/form-data; boundary=\"" + BOUNDARY + "\"").body(body);
+        final List<Multipart.Part> parts = request.multipart().parts();
+        assertThat(request.multipart()).isSameAs(request.multipart());
+        assertThat(parts).hasSize(3);
+
+        assertThat(parts.get(0).name()).isEqualTo("title");
+        assertThat(parts.get(0).isFile()).isFalse();
+        assertThat(parts.get(0).asString()).isEqualTo("Hällo\r\nWorld");
+        assertThat(parts.get(1).name()).isEqualTo("empty");
+        assertThat(parts.get(1).size()).isZero();
+        assertThat(parts.get(2).name()).isEqualTo("file");
+        assertThat(parts.get(2).fileName()).isEqualTo("ä.txt");
+        assertThat(parts.get(2).contentType()).isEqualTo("text/plain");
+        assertThat(parts.get(2).header("Content-Type")).isEqualTo("text/plain");
+        assertThat(parts.get(2).asString()).isEqualTo("--" + BOUNDARY.substring(0, 10) + " almost a boundary");
+        assertThat(parts).allMatch(Multipart.Part::isInMemory);
+        assertThat(request.multipart().hasNext()).isFalse();
+        assertThat(Multipart.boundaryOf("multipart/form-data; charset=utf-8; boundary=abc")).isEqualTo("abc");
+        assertThat(Multipart.boundaryOf("application/json")).isNull();
+    }
+
+    @Test
+    void shouldSpillLargePartsToTempFiles() throws Exception {
+        final Path dir = Files.createTempDirectory("nano_multipart_test_");
+        final byte[] large = new byte[300_000];
+        Arrays.fill(large, (byte) '\r');
+        large[large.length - 1] = '-';
+        final byte[] body = body(List.of("small".getBytes(UTF_8), large, large));
+
+        // one byte per read to cross the buffer boundaries everywhere
+        final Multipart multipart = new Multipart(slowStream(body), BOUNDARY, new Multipart.Limits(1024, -1, -1, dir));
+        final Multipart.Part small = multipart.next();
+        final Multipart.Part spilled = multipart.next();
+        final Multipart.Part moved = multipart.next();
+        assertThat(multipart.hasNext()).isFalse();
+        assertThat(multipart.size()).isEqualTo(5 + 2L * large.length);
+
+        assertThat(small.isInMemory()).isTrue();
+        assertThat(spilled.isInMemory()).isFalse();
+        assertThat(spilled.path()).hasParent(dir).hasBinaryContent(large);
+        assertThat(spilled.bytes()).isEqualTo(large);
+        try (final InputStream in = spilled.inputStream()) {
+            assertThat(in.readAllBytes()).isEqualTo(large);
+        }
+        final Path target = moved.moveTo(dir.resolve("upload.bin"));
+        assertThat(moved.path()).isEqualTo(target);
+
+        multipart.close();
+        assertThat(spilled.path()).doesNotExist();
+        assertThat(target).exists().hasBinaryContent(large);
+        Files.delete(target);
+        Files.delete(dir);
+    }
+
+    @Test
+    void shouldEnforceLimits() throws Exception {
+        final Path dir = Files.createTempDirectory("nano_multipart_test_");
+        final byte[] body = body(List.of(new byte[100], new byte[5000]));
+
+        final Multipart perPart = new Multipart(new ByteArrayInputStream(body), BOUNDARY, new Multipart.Limits(10, 1000, -1, dir));
+        assertThat(perPart.next().size()).isEqualTo(100);
+        assertThatThrownBy(perPart::next).isInstanceOf(IllegalStateException.class).hasMessageContaining("1000");
+        assertThat(perPart.hasNext()).isFalse();
+
+        final Multipart total = new Multipart(new ByteArrayInputStream(body), BOUNDARY, new Multipart.Limits(10, -1, 4000, dir));
+        total.next();
+        assertThatThrownBy(total::next).isInstanceOf(IllegalStateException.class).hasMessageContaining("4000");
+        perPart.close();
+        total.close();
+
+        // failed parts don't leave temp files behind
+        try (final var files = Files.list(dir)) {
+            assertThat(files).isEmpty();
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void shouldRejectMalformedBodies() {
+        final byte[] unterminated = ("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"a\"\r\n\r\nvalue").getBytes(UTF_8);
+        assertThatThrownBy(() -> new Multipart(new ByteArrayInputStream(unterminated), BOUNDARY, null).parts()).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new Multipart(new ByteArrayInputStream("no boundary".getBytes(UTF_8)), BOUNDARY, null).next()).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new Multipart(InputStream.nullInputStream(), "", null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HttpObject().body("a").multipart()).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkConstantMemoryUpload(final TestReporter reporter) throws Exception {
+        final long size = 1024L * 1024 * 1024;
+        final byte[] head = ("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"large.bin\"\r\n\r\n").getBytes(UTF_8);
+        final byte[] tail = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(UTF_8);
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        final long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        try (final Multipart multipart = new Multipart(generatedStream(head, size, tail), BOUNDARY, Multipart.Limits.DEFAULT)) {
+            final Multipart.Part part = multipart.next();
+            final long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            assertThat(part.size()).isEqualTo(size);
+            assertThat(Files.size(part.path())).isEqualTo(size);
+            // the upload is streamed to disk, allocations don't grow with its size
+            assertThat(allocated).isLessThan(16L * 1024 * 1024);
+            reporter.publishEntry(Map.of("upload.bytes", String.valueOf(size), "allocated.bytes", String.valueOf(allocated)));
+        }
+    }
+
+    private static byte[] body(final List<byte[]> parts) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < parts.size(); i++) {
+            out.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"part" + i + "\"; filename=\"" + i + ".bin\"\r\n\r\n").getBytes(UTF_8));
+            out.write(parts.get(i));
+            out.write("\r\n".getBytes(UTF_8));
+        }
+        out.write(("--" + BOUNDARY + "--\r\n").getBytes(UTF_8));
+        return out.toByteArray();
+    }
+
+    private static InputStream slowStream(final byte[] body) {
+        return new ByteArrayInputStream(body) {
+            @Override
+            public synchronized int read(final byte[] b, final int off, final int len) {
+                return super.read(b, off, Math.min(7, len));
+            }
+        };
+    }
+
+    /**
+     * Generates a multipart body without holding it in memory.
+     */
+    private static InputStream generatedStream(final byte[] head, final long size, final byte[] tail) {
+        return new InputStream() {
+            private long position;
+            private final long total = head.length + size + tail.length;
+
+            @Override
+            public int read() {
+                final byte[] b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) {
+                if (position >= total)
+                    return -1;
+                final int count = (int) Math.min(len, total - position);
+                for (int i = 0; i < count; i++) {
+                    final long index = position + i;
+                    if (index < head.length)
+                        b[off + i] = head[(int) index];
+                    else if (index < head.length + size)
+                        b[off + i] = (byte) index;
+                    else
+                        b[off + i] = tail[(int) (index - head.length - size)];
+                }
+                position += count;
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,161 @@
+package org.nanonative.nano.services.bridge;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.helper.event.model.Channel;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.Pipe;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.core.config.TestConfig.TEST_REPEAT;
+import static org.nanonative.nano.core.config.TestConfig.await;
+import static org.nanonative.nano.services.bridge.BridgeService.BRIDGE_ORIGIN;
+import static org.nanonative.nano.services.bridge.BridgeService.CONFIG_BRIDGE_CHANNELS;
+import static org.nanonative.nano.services.bridge.BridgeService.CONFIG_BRIDGE_CONNECT;
+import static org.nanonative.nano.services.bridge.BridgeService.CONFIG_BRIDGE_LISTEN;
+import static org.nanonative.nano.services.bridge.BridgeService.CONFIG_BRIDGE_RECONNECT_MS;
+import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
+
+@Execution(ExecutionMode.CONCURRENT)
+class BridgeServiceTest {
+
+    private static final Channel<String, String> TEST_BRIDGE_ECHO = Channel.registerChannelId("TEST_BRIDGE_ECHO", String.class, String.class);
+    private static final Channel<String, Void> TEST_BRIDGE_FIRE = Channel.registerChannelId("TEST_BRIDGE_FIRE", String.class);
+    private static final String CHANNELS = TEST_BRIDGE_ECHO.name() + "," + TEST_BRIDGE_FIRE.name();
+
+    @RepeatedTest(TEST_REPEAT)
+    void shouldBridgeOverTcp() throws InterruptedException {
+        final BridgeService serverBridge = new BridgeService();
+        final Nano server = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_BRIDGE_LISTEN, "127.0.0.1:0", CONFIG_BRIDGE_CHANNELS, CHANNELS), serverBridge);
+        final int port = ((InetSocketAddress) serverBridge.address()).getPort();
+        final Nano client = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_BRIDGE_CONNECT, "127.0.0.1:" + port, CONFIG_BRIDGE_CHANNELS, CHANNELS, CONFIG_BRIDGE_RECONNECT_MS, 10), new BridgeService());
+        assertBridged(server, client);
+    }
+
+    @Test
+    void shouldBridgeOverUnixDomainSocket() throws IOException, InterruptedException {
+        final Path socket = Files.createTempDirectory("nano-bridge").resolve("bridge.sock");
+        final Nano server = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_BRIDGE_LISTEN, "unix:" + socket, CONFIG_BRIDGE_CHANNELS, CHANNELS), new BridgeService());
+        final Nano client = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_BRIDGE_CONNECT, "unix:" + socket, CONFIG_BRIDGE_CHANNELS, CHANNELS, CONFIG_BRIDGE_RECONNECT_MS, 10), new BridgeService());
+        assertBridged(server, client);
+        Files.deleteIfExists(socket);
+        Files.deleteIfExists(socket.getParent());
+    }
+
+    @Test
+    void shouldResumeAfterReconnectWithoutDuplicates() throws InterruptedException {
+        final BridgeService serverBridge = new BridgeService();
+        final BridgeService clientBridge = new BridgeService();
+        final Nano server = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_BRIDGE_LISTEN, "127.0.0.1:0", CONFIG_BRIDGE_CHANNELS, CHANNELS), serverBridge);
+        final int port = ((InetSocketAddress) serverBridge.address()).getPort();
+        final Nano client = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_BRIDGE_CONNECT, "127.0.0.1:" + port, CONFIG_BRIDGE_CHANNELS, CHANNELS, CONFIG_BRIDGE_RECONNECT_MS, 10), clientBridge);
+        final int events = 2000;
+        final Set<String> received = ConcurrentHashMap.newKeySet();
+        final CountDownLatch latch = new CountDownLatch(events);
+        server.subscribeEvent(TEST_BRIDGE_FIRE, event -> {
+            if (received.add(event.payload()))
+                latch.countDown();
+            else
+                received.add("duplicate " + event.payload());
+        });
+
+        final Context context = client.context(BridgeServiceTest.class);
+        for (int i = 0; i < events; i++) {
+            final String id = String.valueOf(i);
+            context.newEvent(TEST_BRIDGE_FIRE, () -> id).send();
+            if (i % 500 == 250)
+                clientBridge.links().forEach(BridgeLink::disconnect);
+        }
+        await(latch);
+        assertThat(received).hasSize(events);
+        assertThat(clientBridge.links()).allSatisfy(link -> assertThat(link.dropped()).isZero());
+        assertThat(client.stop(BridgeServiceTest.class).waitForStop().isReady()).isFalse();
+        assertThat(server.stop(BridgeServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void shouldWaitForCreditsUntilAcked() throws IOException, InterruptedException {
+        try (final ServerSocketChannel listener = ServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", 0));
+             final SocketChannel socket = SocketChannel.open(listener.getLocalAddress());
+             final SocketChannel remote = listener.accept()) {
+            final BridgeLink link = new BridgeLink("test", 2, 1, 1024, 16);
+            link.connect(socket, "remote");
+            for (int i = 0; i < 4; i++)
+                assertThat(link.send(BridgeMessage.event("A", i, new byte[]{(byte) i}), 0)).isTrue();
+            final Thread writer = Thread.ofVirtual().start(() -> link.writeLoop(socket, () -> true));
+
+            final List<BridgeMessage> received = new ArrayList<>();
+            while (received.size() < 2)
+                received.addAll(BridgeMessage.read(remote));
+            assertThat(received).extracting(BridgeMessage::seq).containsExactly(1L, 2L);
+            // the writer waits for acks instead of writing more
+            Thread.sleep(50);
+            assertThat(link.credits()).isZero();
+            assertThat(link.queued()).isEqualTo(2);
+            assertThat(link.unacknowledged()).isEqualTo(2);
+
+            link.acknowledged(1);
+            while (received.size() < 3)
+                received.addAll(BridgeMessage.read(remote));
+            assertThat(received.get(2).seq()).isEqualTo(3);
+            assertThat(link.unacknowledged()).isEqualTo(2);
+
+            // a disconnect wakes up the waiting writer
+            link.disconnect();
+            writer.join(BridgeLink.IDLE_MS / 2);
+            assertThat(writer.isAlive()).isFalse();
+        }
+    }
+
+    @Test
+    void shouldWriteCompressedFrames() throws IOException {
+        final Pipe pipe = Pipe.open();
+        final byte[] large = "nano ".repeat(2000).getBytes(UTF_8);
+        BridgeMessage.write(pipe.sink(), List.of(BridgeMessage.event("A", 7, large), BridgeMessage.ack(42)), 1024);
+        final List<BridgeMessage> messages = BridgeMessage.read(pipe.source());
+        assertThat(messages).hasSize(2);
+        assertThat(messages.getFirst().name()).isEqualTo("A");
+        assertThat(messages.getFirst().requestId()).isEqualTo(7);
+        assertThat(messages.getFirst().data()).isEqualTo(large);
+        assertThat(messages.get(1).type()).isEqualTo(BridgeMessage.TYPE_ACK);
+        assertThat(messages.get(1).seq()).isEqualTo(42);
+        assertThat(BridgeService.addressOf("8080")).isEqualTo(new InetSocketAddress(8080));
+    }
+
+    private static void assertBridged(final Nano server, final Nano client) throws InterruptedException {
+        server.subscribeEvent(TEST_BRIDGE_ECHO, event -> event.respond("echo " + event.payload() + " from " + (event.containsKey(BRIDGE_ORIGIN) ? "remote" : "local")));
+        final CountDownLatch fired = new CountDownLatch(1);
+        client.subscribeEvent(TEST_BRIDGE_FIRE, event -> {
+            if (event.containsKey(BRIDGE_ORIGIN) && "to client".equals(event.payload()))
+                fired.countDown();
+        });
+
+        // request/response from client to server
+        final Context clientContext = client.context(BridgeServiceTest.class);
+        assertThat(clientContext.newEvent(TEST_BRIDGE_ECHO, () -> "hi").send().response()).isEqualTo("echo hi from remote");
+        // fire and forget from server to client
+        server.context(BridgeServiceTest.class).newEvent(TEST_BRIDGE_FIRE, () -> "to client").send();
+        await(fired);
+
+        assertThat(client.stop(BridgeServiceTest.class).waitForStop().isReady()).isFalse();
+        assertThat(server.stop(BridgeServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+}
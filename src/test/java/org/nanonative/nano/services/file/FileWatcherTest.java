@@ -1,5 +1,6 @@
 package org.nanonative.nano.services.file;
 
+import berlin.yuna.typemap.model.TypeMap;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -7,6 +8,7 @@ import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.nanonative.nano.core.Nano;
 import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.helper.event.EventCoalescer;
 import org.nanonative.nano.testutil.TestFiles;
 
 import java.io.IOException;
@@ -26,6 +28,7 @@ import java.util.function.Predicate;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.services.file.FileWatcher.CONFIG_FILE_DEBOUNCE_MS;
 import static org.nanonative.nano.services.file.FileWatcher.EVENT_FILE_CHANGE;
 import static org.nanonative.nano.services.file.FileWatcher.EVENT_FILE_UNWATCH;
 import static org.nanonative.nano.services.file.FileWatcher.EVENT_FILE_WATCH;
@@ -96,6 +99,35 @@ class FileWatcherTest {
         stopNano(nano, ctx);
     }
 
+    @Test
+    void shouldCoalesceBurstOfChanges() throws Exception {
+        final Path dir = newTempDir("file-watcher-burst");
+        final Path file = dir.resolve("burst.txt");
+        final BlockingQueue<FileChangeEvent> changes = new LinkedBlockingQueue<>();
+
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_FILE_DEBOUNCE_MS, 100), new FileWatcher());
+        final Context ctx = nano.context(getClass());
+        nano.subscribeEvent(EVENT_FILE_CHANGE, event -> changes.offer(event.payload()));
+        ctx.newEvent(EVENT_FILE_WATCH, () -> FileWatchRequest.forFilesWithGroup("BURST", List.of(dir))).send();
+
+        // create and write in one burst is reported once as created
+        for (int i = 0; i < 10; i++)
+            Files.writeString(file, "change " + i, UTF_8);
+        assertThat(pollMatching(changes, DEFAULT_TIMEOUT_MS,
+            ev -> ev.isCreate() && ev.belongsToGroup("BURST") && ev.path().endsWith(file.getFileName()))).isPresent();
+        assertThat(pollMatching(changes, SHORT_TIMEOUT_MS, ev -> ev.belongsToGroup("BURST"))).isEmpty();
+
+        // unrelated config changes keep the pending bursts
+        final FileWatcher watcher = nano.service(FileWatcher.class);
+        final EventCoalescer<?, ?> coalescer = watcher.coalescer.get();
+        watcher.configure(new TypeMap(), new TypeMap(Map.of(CONFIG_FILE_DEBOUNCE_MS, 100)));
+        assertThat(watcher.coalescer.get()).isSameAs(coalescer);
+        watcher.configure(new TypeMap(), new TypeMap(Map.of(CONFIG_FILE_DEBOUNCE_MS, 50)));
+        assertThat(watcher.coalescer.get()).isNotSameAs(coalescer);
+
+        stopNano(nano, ctx);
+    }
+
     @Test
     void shouldStopEmittingEventsAfterUnwatch() throws Exception {
         final Path dir = newTempDir("file-watcher-unwatch");
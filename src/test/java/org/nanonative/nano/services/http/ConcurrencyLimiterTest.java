@@ -0,0 +1,138 @@
+package org.nanonative.nano.services.http;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.services.http.ConcurrencyLimiter.Priority;
+import org.nanonative.nano.services.http.model.HttpObject;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.core.config.TestConfig.TEST_REPEAT;
+import static org.nanonative.nano.core.config.TestConfig.await;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_CLIENT;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_LIMIT;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_LIMIT_HIGH_ROUTES;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_LIMIT_MAX;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_LIMIT_MIN;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_LIMIT_QUEUE;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_LIMIT_QUEUE_MS;
+import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST;
+import static org.nanonative.nano.services.http.model.HttpHeaders.RETRY_AFTER;
+import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
+
+@Execution(ExecutionMode.CONCURRENT)
+class ConcurrencyLimiterTest {
+
+    @RepeatedTest(TEST_REPEAT)
+    void shouldQueueAndRejectAboveLimit() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 2, 10);
+
+        assertThat(limiter.acquire(Priority.NORMAL)).isTrue();
+        assertThat(limiter.inFlight()).isEqualTo(1);
+        // queue share of LOW is half of the queue, NORMAL waits and times out
+        assertThat(limiter.acquire(Priority.NORMAL)).isFalse();
+        assertThat(limiter.rejected()).isEqualTo(1);
+        assertThat(limiter.queued()).isZero();
+
+        limiter.release(1_000_000, false);
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.acquire(Priority.LOW)).isTrue();
+    }
+
+    @RepeatedTest(TEST_REPEAT)
+    void shouldHandOverSlotToWaitingRequest() throws InterruptedException {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 4, 5000);
+        assertThat(limiter.acquire(Priority.NORMAL)).isTrue();
+
+        final CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> limiter.acquire(Priority.HIGH));
+        while (limiter.queued() == 0 && !waiting.isDone())
+            Thread.onSpinWait();
+        limiter.release(1_000_000, false);
+
+        assertThat(waiting.join()).isTrue();
+        assertThat(limiter.inFlight()).isEqualTo(1);
+        assertThat(limiter.queued()).isZero();
+        assertThat(limiter.rejected()).isZero();
+    }
+
+    @Test
+    void shouldAdaptLimitToLatency() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 100, 0, 0);
+        final int initial = limiter.limit();
+
+        // flat latency with a busy limit grows the limit
+        for (int i = 0; i < 200; i++) {
+            for (int j = 0; j < limiter.limit(); j++)
+                limiter.acquire(Priority.NORMAL);
+            while (limiter.inFlight() > 0)
+                limiter.release(1_000_000, false);
+        }
+        final int grown = limiter.limit();
+        assertThat(grown).isGreaterThan(initial);
+
+        // latency spikes shrink the limit
+        for (int i = 0; i < 50; i++) {
+            for (int j = 0; j < limiter.limit(); j++)
+                limiter.acquire(Priority.NORMAL);
+            while (limiter.inFlight() > 0)
+                limiter.release(10_000_000, false);
+        }
+        assertThat(limiter.limit()).isLessThan(grown);
+
+        // drops cut the limit
+        final int beforeDrop = limiter.limit();
+        limiter.acquire(Priority.NORMAL);
+        limiter.release(1_000_000, true);
+        assertThat(limiter.limit()).isLessThan(beforeDrop);
+    }
+
+    @Test
+    void shouldShedLoadWithRetryAfter() throws InterruptedException {
+        final HttpServer server = new HttpServer();
+        final Nano nano = new Nano(Map.of(
+            CONFIG_LOG_LEVEL, TEST_LOG_LEVEL,
+            CONFIG_SERVICE_HTTP_CLIENT, true,
+            CONFIG_SERVICE_HTTP_LIMIT, true,
+            CONFIG_SERVICE_HTTP_LIMIT_MIN, 1,
+            CONFIG_SERVICE_HTTP_LIMIT_MAX, 1,
+            CONFIG_SERVICE_HTTP_LIMIT_QUEUE, 0,
+            CONFIG_SERVICE_HTTP_LIMIT_QUEUE_MS, 500,
+            CONFIG_SERVICE_HTTP_LIMIT_HIGH_ROUTES, "/health, /ready/**"
+        ), server);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch unblock = new CountDownLatch(1);
+        nano.subscribeEvent(EVENT_HTTP_REQUEST, event -> event.payloadOpt().filter(req -> req.pathMatch("/slow")).ifPresent(req -> {
+            blocked.countDown();
+            try {
+                await(unblock);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            req.createResponse().statusCode(200).body("slow").respond(event);
+        }));
+
+        final String url = "http://localhost:" + server.port();
+        final CompletableFuture<HttpObject> slow = CompletableFuture.supplyAsync(() -> new HttpObject().path(url + "/slow").send(nano.context(ConcurrencyLimiterTest.class)));
+        assertThat(await(blocked)).isTrue();
+        assertThat(server.limiter().inFlight()).isEqualTo(1);
+        assertThat(server.priorityOf(new HttpObject().path("/health"))).isEqualTo(Priority.HIGH);
+        assertThat(server.priorityOf(new HttpObject().path("/ready/db"))).isEqualTo(Priority.HIGH);
+        assertThat(server.priorityOf(new HttpObject().path("/slow"))).isEqualTo(Priority.NORMAL);
+
+        final HttpObject rejected = new HttpObject().path(url + "/other").send(nano.context(ConcurrencyLimiterTest.class));
+        assertThat(rejected.statusCode()).isEqualTo(503);
+        assertThat(rejected.header(RETRY_AFTER)).isEqualTo("1");
+        assertThat(server.limiter().rejected()).isEqualTo(1);
+
+        unblock.countDown();
+        assertThat(slow.join().bodyAsString()).isEqualTo("slow");
+        assertThat(nano.stop(ConcurrencyLimiterTest.class).waitForStop().isReady()).isFalse();
+    }
+}
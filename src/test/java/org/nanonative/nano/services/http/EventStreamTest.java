@@ -0,0 +1,205 @@
+package org.nanonative.nano.services.http;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.helper.event.model.Channel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.helper.event.model.Channel.registerChannelId;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_PORT;
+import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST;
+import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
+
+@Execution(ExecutionMode.CONCURRENT)
+class EventStreamTest {
+
+    static final Channel<String, Void> EVENT_TEST_PUSH = registerChannelId("TEST_PUSH", String.class);
+
+    @Test
+    void shouldPushChannelEventsToClients() throws Exception {
+        final HttpServer server = new HttpServer();
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_SERVICE_HTTP_PORT, 0), server);
+        final EventStream stream = new EventStream().bridge(nano.context(EventStreamTest.class), EVENT_TEST_PUSH);
+        nano.subscribeEvent(EVENT_HTTP_REQUEST, event -> event.payloadOpt()
+            .filter(req -> req.pathMatch("/events"))
+            .ifPresent(req -> req.createResponse().eventStream(stream).respond(event)));
+
+        final java.net.http.HttpClient client = java.net.http.HttpClient.newHttpClient();
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + "/events")).build();
+        final List<HttpResponse<Stream<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 2; i++)
+            responses.add(client.send(request, HttpResponse.BodyHandlers.ofLines()));
+        waitFor(() -> stream.connections() == 2);
+
+        nano.context(EventStreamTest.class).newEvent(EVENT_TEST_PUSH, () -> "hello\nworld").send();
+        stream.publish(Map.of("status", "UP"));
+        for (final HttpResponse<Stream<String>> response : responses) {
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.headers().firstValue("content-type")).hasValue("text/event-stream");
+            final Iterator<String> lines = response.body().iterator();
+            assertThat(nextEvent(lines)).isEqualTo(List.of("id: 1", "event: TEST_PUSH", "data: hello", "data: world"));
+            assertThat(nextEvent(lines)).isEqualTo(List.of("id: 2", "data: {\"status\":\"UP\"}"));
+        }
+
+        // clients are released on close and channel events are no longer forwarded
+        stream.close();
+        waitFor(() -> stream.connections() == 0);
+        nano.context(EventStreamTest.class).newEvent(EVENT_TEST_PUSH, () -> "ignored").send();
+        assertThat(stream.sequence.get()).isEqualTo(2);
+        assertThat(nano.stop(EventStreamTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void shouldEvictSlowConsumers() throws Exception {
+        final EventStream stream = new EventStream(4, 60_000);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ByteArrayOutputStream fast = new ByteArrayOutputStream();
+        final Thread slowClient = Thread.ofVirtual().start(() -> stream.serve(new OutputStream() {
+            @Override
+            public void write(final int b) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }));
+        final Thread fastClient = Thread.ofVirtual().start(() -> stream.serve(fast));
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        waitFor(() -> stream.connections() == 2);
+
+        for (int i = 0; i < 100; i++) {
+            stream.publish("tick", i);
+            // the fast client keeps up
+            final int expected = i;
+            waitFor(() -> fast.toString(UTF_8).contains("data: " + expected + "\n"));
+        }
+        assertThat(stream.evicted()).isEqualTo(1);
+        assertThat(stream.connections()).isEqualTo(1);
+
+        release.countDown();
+        slowClient.join(5000);
+        assertThat(slowClient.isAlive()).isFalse();
+        stream.close();
+        fastClient.join(5000);
+        assertThat(fastClient.isAlive()).isFalse();
+    }
+
+    @Test
+    void shouldSendHeartbeats() throws Exception {
+        final EventStream stream = new EventStream(8, 10);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Thread client = Thread.ofVirtual().start(() -> stream.serve(out));
+        waitFor(() -> out.toString(UTF_8).split(":\n\n", -1).length > 4);
+        stream.close();
+        client.join(5000);
+        assertThat(client.isAlive()).isFalse();
+        assertThat(stream.connections()).isZero();
+        assertThatThrownBy(() -> new EventStream(0, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldSerializeOnce() {
+        final EventStream stream = new EventStream(8, 60_000);
+        final BlockingQueue<byte[]> first = new ArrayBlockingQueue<>(8);
+        final BlockingQueue<byte[]> second = new ArrayBlockingQueue<>(8);
+        stream.connections.add(first);
+        stream.connections.add(second);
+
+        assertThat(stream.publish("update", List.of(1, "two"))).isEqualTo(2);
+        assertThat(first.peek()).isSameAs(second.peek());
+        assertThat(new String(first.peek(), UTF_8)).isEqualTo("id: 1\nevent: update\ndata: [1,\"two\"]\n\n");
+        assertThat(new String(EventStream.frameOf(7, "a\nb", null), UTF_8)).isEqualTo("id: 7\nevent: ab\ndata: \n\n");
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkFanOut(final TestReporter reporter) {
+        final int clients = 10_000;
+        final int messages = 20;
+        final EventStream stream = new EventStream(messages, 60_000);
+        final List<BlockingQueue<byte[]>> queues = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(messages);
+            queues.add(queue);
+            stream.connections.add(queue);
+        }
+        final Map<String, Object> payload = Map.of("cpu", 0.42, "memory", 1024, "status", "UP", "services", List.of("a", "b", "c"));
+
+        long start = System.nanoTime();
+        // former approach: serialize per client
+        for (int m = 0; m < messages; m++) {
+            for (final BlockingQueue<byte[]> queue : queues)
+                queue.offer(EventStream.frameOf(m, "metrics", payload));
+        }
+        final long perClient = System.nanoTime() - start;
+        queues.forEach(BlockingQueue::clear);
+
+        start = System.nanoTime();
+        for (int m = 0; m < messages; m++)
+            stream.publish("metrics", payload);
+        final long once = System.nanoTime() - start;
+
+        assertThat(stream.evicted()).isZero();
+        assertThat(queues.get(0)).hasSize(messages);
+        // one serialization per message: every client holds the same frame
+        final byte[] frame = queues.get(0).peek();
+        assertThat(queues).allSatisfy(queue -> assertThat(queue.peek()).isSameAs(frame));
+        reporter.publishEntry(Map.of(
+            "clients", String.valueOf(clients),
+            "messages", String.valueOf(messages),
+            "per.client.us", String.valueOf(perClient / 1000),
+            "once.us", String.valueOf(once / 1000)
+        ));
+    }
+
+    private static List<String> nextEvent(final Iterator<String> lines) {
+        final List<String> result = new ArrayList<>();
+        while (lines.hasNext()) {
+            final String line = lines.next();
+            if (line.isEmpty() && !result.isEmpty())
+                return result;
+            // skips heartbeats
+            if (!line.isEmpty() && !line.startsWith(":"))
+                result.add(line);
+        }
+        return result;
+    }
+
+    private static void waitFor(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline)
+            Thread.sleep(5);
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -5,12 +5,22 @@ import berlin.yuna.typemap.model.TypeMap;
 import org.junit.jupiter.api.Test;
 import org.nanonative.nano.core.Nano;
 import org.nanonative.nano.services.file.FileChangeEvent;
+import org.nanonative.nano.services.http.model.HttpMethod;
 import org.nanonative.nano.services.http.model.HttpObject;
+import org.nanonative.nano.services.http.model.Multipart;
 
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -23,9 +33,17 @@ import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTPS_
 import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTPS_KTS;
 import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTPS_PASSWORD;
 import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_CLIENT;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_PORT;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_MULTIPART_DIR;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_MULTIPART_MAX_PART;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_MULTIPART_MEMORY;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_TIMEOUT_ROUTES;
 import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST;
+import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST_FILTER;
 import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST_UNHANDLED;
 import static org.nanonative.nano.services.http.model.ContentType.APPLICATION_PROBLEM_JSON;
+import static org.nanonative.nano.services.http.model.HttpHeaders.CONTENT_TYPE;
+import static org.nanonative.nano.services.http.model.HttpHeaders.X_REQUEST_TIMEOUT_MS;
 
 class HttpServerTest {
 
@@ -165,38 +183,34 @@ class HttpServerTest {
     }
 
     @Test
-    void shouldRegisterReloadOnFileChangeEvent() {
+    void shouldReloadCertificateOnFileChange() throws Exception {
+        final Path dir = Files.createTempDirectory("nano_https_reload_");
+        final Path keyStore = Files.copy(TlsConfiguratorTest.PKCS12_STORE, dir.resolve("server.p12"));
         final HttpServer server = new HttpServer();
         final Nano nano = new Nano(TypeMap.mapOf(
-                CONFIG_SERVICE_HTTPS_CERT, SIMPLE_CERT,
-                CONFIG_SERVICE_HTTPS_KEY, SIMPLE_KEY,
-                CONFIG_SERVICE_HTTP_CLIENT, true,
-                CONFIG_HTTP_CLIENT_TRUST_ALL, true
+                CONFIG_SERVICE_HTTP_PORT, 0,
+                CONFIG_SERVICE_HTTPS_KTS, keyStore,
+                CONFIG_SERVICE_HTTPS_PASSWORD, "testpassword"
         ), server);
-
         nano.subscribeEvent(EVENT_HTTP_REQUEST, event -> event.payloadOpt()
-                .filter(req -> req.pathMatch("/file-reload"))
+                .filter(req -> req.pathMatch("/tls"))
                 .ifPresent(req -> req.createResponse().body("ok").respond(event)));
 
-        final HttpObject beforeFileEvent = new HttpObject()
-                .path("https://localhost:" + server.address().getPort() + "/file-reload")
-                .send(nano.context(HttpServerTest.class));
-
-        assertThat(beforeFileEvent.statusCode()).isEqualTo(200);
-        assertThat(beforeFileEvent.bodyAsString()).isEqualTo("ok");
+        final Certificate before = TlsConfiguratorTest.request(TlsConfiguratorTest.trustAll(), server.port());
 
+        // the running server picks up the rewritten file
+        Files.copy(TlsConfiguratorTest.JKS_STORE, keyStore, StandardCopyOption.REPLACE_EXISTING);
         nano.context(HttpServerTest.class).newEvent(EVENT_FILE_CHANGE, () ->
-                FileChangeEvent.of(SIMPLE_CERT, ENTRY_MODIFY, CONFIG_SERVICE_HTTPS_CERT)
+                FileChangeEvent.of(keyStore, ENTRY_MODIFY, CONFIG_SERVICE_HTTPS_CERT)
         ).broadcast(true).send();
 
-        final HttpObject afterFileEvent = new HttpObject()
-                .path("https://localhost:" + server.address().getPort() + "/file-reload")
-                .send(nano.context(HttpServerTest.class));
-
-        assertThat(afterFileEvent.statusCode()).isEqualTo(200);
-        assertThat(afterFileEvent.bodyAsString()).isEqualTo("ok");
+        final Certificate after = TlsConfiguratorTest.request(TlsConfiguratorTest.trustAll(), server.port());
+        assertThat(after).isNotEqualTo(before);
+        assertThat(after).isEqualTo(certificateOf(TlsConfiguratorTest.JKS_STORE));
 
         nano.stop(nano.context(HttpServerTest.class)).waitForStop();
+        Files.delete(keyStore);
+        Files.delete(dir);
     }
 
     @Test
@@ -215,6 +229,112 @@ class HttpServerTest {
         nano.stop(nano.context(HttpServerTest.class)).waitForStop();
     }
 
+    @Test
+    void testFilterEventOnlyWithListeners() {
+        final HttpServer server = new HttpServer();
+        final Nano nano = new Nano(Map.of(CONFIG_SERVICE_HTTP_CLIENT, true), server);
+        final AtomicInteger filtered = new AtomicInteger();
+        nano.tapEvent(EVENT_HTTP_REQUEST_FILTER, event -> filtered.incrementAndGet());
+        nano.subscribeEvent(EVENT_HTTP_REQUEST, event -> event.payloadOpt().ifPresent(req -> req.createResponse().body("ok").respond(event)));
+        final String url = "http://localhost:" + server.port() + "/test";
+
+        assertThat(new HttpObject().path(url).send(nano.context(HttpServerTest.class)).statusCode()).isEqualTo(200);
+        assertThat(filtered.get()).isZero();
+
+        nano.subscribeEvent(EVENT_HTTP_REQUEST_FILTER, event -> event.payloadOpt().ifPresent(req -> req.createResponse().statusCode(403).respond(event)));
+        assertThat(new HttpObject().path(url).send(nano.context(HttpServerTest.class)).statusCode()).isEqualTo(403);
+        assertThat(filtered.get()).isEqualTo(1);
+
+        nano.stop(nano.context(HttpServerTest.class)).waitForStop();
+    }
+
+    @Test
+    void testDeadlinePropagation() {
+        final HttpServer server = new HttpServer();
+        final Nano nano = new Nano(Map.of(
+                CONFIG_SERVICE_HTTP_CLIENT, true,
+                CONFIG_SERVICE_HTTP_TIMEOUT_ROUTES, "/fast=100, /slow/**=60000"
+        ), server);
+        final String url = "http://localhost:" + server.port();
+
+        nano.subscribeEvent(EVENT_HTTP_REQUEST, event -> event.payloadOpt()
+                .filter(req -> req.pathMatch("/downstream"))
+                .ifPresent(req -> req.createResponse().body(req.header(X_REQUEST_TIMEOUT_MS)).respond(event)));
+        // calls downstream with the request context which carries the deadline
+        nano.subscribeEvent(EVENT_HTTP_REQUEST, event -> event.payloadOpt()
+                .filter(req -> req.pathMatch("/slow/upstream"))
+                .ifPresent(req -> req.createResponse().body(new HttpObject().path(url + "/downstream").send(event.context()).bodyAsString()).respond(event)));
+
+        // the tighter budget of header and route wins and is propagated as remaining budget
+        final HttpObject response = new HttpObject().path(url + "/slow/upstream").header(X_REQUEST_TIMEOUT_MS, 5000).send(nano.context(HttpServerTest.class));
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(Long.parseLong(response.bodyAsString())).isBetween(1L, 5000L);
+        assertThat(server.timeoutOf(new HttpObject().path("/slow/any"))).isEqualTo(60000L);
+        assertThat(server.timeoutOf(new HttpObject().path("/fast"))).isEqualTo(100L);
+        assertThat(server.timeoutOf(new HttpObject().path("/other"))).isEqualTo(-1L);
+
+        // expired budgets are rejected before any handler runs
+        assertThat(new HttpObject().path(url + "/downstream").header(X_REQUEST_TIMEOUT_MS, 0).send(nano.context(HttpServerTest.class)).statusCode()).isEqualTo(504);
+        // expired contexts don't send requests at all
+        assertThat(new HttpObject().path(url + "/downstream").send(nano.context(HttpServerTest.class).timeoutMs(0)).statusCode()).isEqualTo(504);
+
+        nano.stop(nano.context(HttpServerTest.class)).waitForStop();
+    }
+
+    @Test
+    void testMultipartUpload() throws Exception {
+        final Path dir = Files.createTempDirectory("nano_multipart_server_");
+        final HttpServer server = new HttpServer();
+        final Nano nano = new Nano(Map.of(
+                CONFIG_SERVICE_HTTP_CLIENT, true,
+                CONFIG_SERVICE_HTTP_MULTIPART_MEMORY, 16,
+                CONFIG_SERVICE_HTTP_MULTIPART_MAX_PART, 1024,
+                CONFIG_SERVICE_HTTP_MULTIPART_DIR, dir.toString()
+        ), server);
+        final String url = "http://localhost:" + server.port() + "/upload";
+        final List<Path> tempFiles = new CopyOnWriteArrayList<>();
+
+        nano.subscribeEvent(EVENT_HTTP_REQUEST, event -> event.payloadOpt()
+                .filter(req -> req.pathMatch("/upload"))
+                .ifPresent(req -> {
+                    final StringBuilder result = new StringBuilder();
+                    for (final Multipart.Part part : req.multipart().parts()) {
+                        result.append(part.name()).append('=').append(part.size()).append(part.isInMemory() ? " memory;" : " file;");
+                        if (part.path() != null)
+                            tempFiles.add(part.path());
+                    }
+                    req.createResponse().body(result.toString()).respond(event);
+                }));
+
+        final String boundary = "nano";
+        final String body = "--nano\r\nContent-Disposition: form-data; name=\"field\"\r\n\r\nvalue\r\n"
+                + "--nano\r\nContent-Disposition: form-data; name=\"file\"; filename=\"a.txt\"\r\n\r\n%s\r\n--nano--\r\n";
+        final HttpObject response = new HttpObject().path(url).methodType(HttpMethod.POST)
+                .header(CONTENT_TYPE, "multipart/form-data; boundary=" + boundary)
+                .body(String.format(body, "x".repeat(100)))
+                .send(nano.context(HttpServerTest.class));
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.bodyAsString()).isEqualTo("field=5 memory;file=100 file;");
+        assertThat(tempFiles).hasSize(1);
+        // temp files are deleted when the request is completed
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (Files.exists(tempFiles.get(0)) && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertThat(tempFiles.get(0)).doesNotExist();
+
+        // parts above the limit fail the request
+        assertThat(new HttpObject().path(url).methodType(HttpMethod.POST)
+                .header(CONTENT_TYPE, "multipart/form-data; boundary=" + boundary)
+                .body(String.format(body, "x".repeat(2000)))
+                .send(nano.context(HttpServerTest.class)).statusCode()).isEqualTo(500);
+
+        nano.stop(nano.context(HttpServerTest.class)).waitForStop();
+        try (final Stream<Path> files = Files.list(dir)) {
+            assertThat(files).isEmpty();
+        }
+        Files.delete(dir);
+    }
+
     @Test
     void testInvalidCertPath() {
         final Path invalidCert = Paths.get("nonexistent.crt");
@@ -477,6 +597,11 @@ class HttpServerTest {
         nano.stop(nano.context(HttpServerTest.class)).waitForStop();
     }
 
+    private static Certificate certificateOf(final Path keyStore) throws Exception {
+        final KeyStore store = KeyStore.getInstance(keyStore.toFile(), "testpassword".toCharArray());
+        return store.getCertificate(store.aliases().nextElement());
+    }
+
     private static Path getResourcePath(String resource) {
         URL res = HttpServerTest.class.getClassLoader().getResource(resource);
         assertThat(res).as("Resource not found: " + resource).isNotNull();
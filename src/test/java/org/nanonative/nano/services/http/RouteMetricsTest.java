@@ -0,0 +1,145 @@
+package org.nanonative.nano.services.http;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.services.http.model.HttpMethod;
+import org.nanonative.nano.services.http.model.HttpObject;
+import org.nanonative.nano.services.metric.logic.MetricService;
+import org.nanonative.nano.services.metric.model.MetricCache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_CLIENT;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_LIMIT;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_LIMIT_HIGH_ROUTES;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_TIMEOUT_ROUTES;
+import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST;
+import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
+
+@Execution(ExecutionMode.CONCURRENT)
+class RouteMetricsTest {
+
+    @Test
+    void shouldRecordRequestsPerRouteTemplate() {
+        final MetricService metricService = new MetricService();
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_SERVICE_HTTP_CLIENT, true), metricService, new HttpServer());
+        final HttpServer server = nano.service(HttpServer.class);
+        nano.subscribeEvent(EVENT_HTTP_REQUEST, event -> event.payloadOpt()
+            .filter(req -> req.pathMatch("/users/{id}"))
+            .ifPresent(req -> req.createResponse().body("user " + req.pathParam("id")).respond(event)));
+
+        final String url = "http://localhost:" + server.port();
+        for (final String id : List.of("1", "2", "3"))
+            assertThat(new HttpObject().path(url + "/users/" + id).send(nano.context(RouteMetricsTest.class)).statusCode()).isEqualTo(200);
+        assertThat(new HttpObject().path(url + "/users/4").methodType(HttpMethod.POST).body("hello").send(nano.context(RouteMetricsTest.class)).statusCode()).isEqualTo(200);
+        assertThat(new HttpObject().path(url + "/missing/5").send(nano.context(RouteMetricsTest.class)).statusCode()).isEqualTo(404);
+
+        final RouteMetrics routeMetrics = server.routeMetrics();
+        assertThat(routeMetrics.active()).isZero();
+        final RouteMetrics.Route get = route(routeMetrics, "GET", "/users/{id}");
+        assertThat(get.requests(1)).isEqualTo(3);
+        assertThat(get.latencyMs().count()).isEqualTo(3);
+        assertThat(get.responseBytes().sum()).isEqualTo(3 * "user 1".length());
+        assertThat(route(routeMetrics, "POST", "/users/{id}").requestBytes().sum()).isEqualTo(5);
+        assertThat(route(routeMetrics, "GET", RouteMetrics.UNMATCHED_ROUTE).requests(3)).isEqualTo(1);
+        // raw paths never become series
+        assertThat(routeMetrics.routes()).noneMatch(route -> route.route().startsWith("/missing") || route.route().contains("/users/1"));
+
+        metricService.updateHttpMetrics(nano);
+        final MetricCache metrics = metricService.metrics();
+        final String port = String.valueOf(server.port());
+        assertThat(metrics.counter("http.server.requests", Map.of("port", port, "method", "GET", "route", "/users/{id}", "status", "2xx"))).isEqualTo(3);
+        assertThat(metrics.histogram("http.server.request.ms", Map.of("port", port, "method", "GET", "route", "/users/{id}")).count()).isEqualTo(3);
+        assertThat(metrics.gauge("http.server.requests.active", Map.of("port", port))).isZero();
+        assertThat(metrics.prometheus()).contains("http_server_requests{method=\"GET\",port=\"" + port + "\",route=\"/users/{id}\",status=\"2xx\"} 3");
+
+        // bound cells stay live
+        new HttpObject().path(url + "/users/5").send(nano.context(RouteMetricsTest.class));
+        assertThat(metrics.counter("http.server.requests", Map.of("port", port, "method", "GET", "route", "/users/{id}", "status", "2xx"))).isEqualTo(4);
+        assertThat(nano.stop(RouteMetricsTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void shouldRecordUnhandledRequestsAsUnmatched() {
+        final Nano nano = new Nano(Map.of(
+            CONFIG_LOG_LEVEL, TEST_LOG_LEVEL,
+            CONFIG_SERVICE_HTTP_CLIENT, true,
+            CONFIG_SERVICE_HTTP_LIMIT, true,
+            CONFIG_SERVICE_HTTP_LIMIT_HIGH_ROUTES, "/missing/**",
+            CONFIG_SERVICE_HTTP_TIMEOUT_ROUTES, "/missing/{id}=60000"
+        ), new HttpServer());
+        final HttpServer server = nano.service(HttpServer.class);
+
+        // priority and timeout routes match the path before dispatch, but don't make it a route
+        assertThat(new HttpObject().path("http://localhost:" + server.port() + "/missing/5").send(nano.context(RouteMetricsTest.class)).statusCode()).isEqualTo(404);
+        assertThat(route(server.routeMetrics(), "GET", RouteMetrics.UNMATCHED_ROUTE).requests(3)).isEqualTo(1);
+        assertThat(server.routeMetrics().routes()).extracting(RouteMetrics.Route::route).containsExactly(RouteMetrics.UNMATCHED_ROUTE);
+        assertThat(nano.stop(RouteMetricsTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void shouldCapRoutes() {
+        final RouteMetrics routeMetrics = new RouteMetrics();
+        for (int i = 0; i < RouteMetrics.MAX_ROUTES + 10; i++) {
+            routeMetrics.start();
+            routeMetrics.end(HttpMethod.GET, "/route/" + i, 200, 1000, -1, 10);
+        }
+        routeMetrics.start();
+        routeMetrics.end(null, null, 999, 1000, 10, -1);
+
+        assertThat(routeMetrics.routes()).hasSize(RouteMetrics.MAX_ROUTES + 2);
+        assertThat(route(routeMetrics, "GET", RouteMetrics.OTHER_ROUTE).requests(1)).isEqualTo(10);
+        assertThat(route(routeMetrics, RouteMetrics.OTHER_METHOD, RouteMetrics.OTHER_ROUTE).requests(4)).isEqualTo(1);
+        assertThat(route(routeMetrics, RouteMetrics.OTHER_METHOD, RouteMetrics.OTHER_ROUTE).responseBytes().count()).isZero();
+        assertThat(routeMetrics.active()).isZero();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkRecording(final TestReporter reporter) {
+        final RouteMetrics routeMetrics = new RouteMetrics();
+        final MetricCache cache = new MetricCache();
+        final int runs = 200_000;
+        long bound = Long.MAX_VALUE;
+        long cached = Long.MAX_VALUE;
+        final AtomicLong sink = new AtomicLong();
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < runs; i++) {
+                routeMetrics.start();
+                routeMetrics.end(HttpMethod.GET, "/users/{id}", 200, i, 128, 512);
+            }
+            bound = Math.min(bound, (System.nanoTime() - start) / runs);
+
+            start = System.nanoTime();
+            // former approach: tagged updates through the metric cache
+            for (int i = 0; i < runs; i++) {
+                final Map<String, String> tags = Map.of("method", "GET", "route", "/users/{id}", "status", "2xx");
+                cache.counterIncrement("http.server.requests", tags);
+                cache.histogramRecord("http.server.request.ms", i / 1_000_000d, tags);
+                cache.histogramRecord("http.server.response.bytes", 512, tags);
+                sink.incrementAndGet();
+            }
+            cached = Math.min(cached, (System.nanoTime() - start) / runs);
+        }
+        assertThat(route(routeMetrics, "GET", "/users/{id}").requests(1)).isEqualTo(5L * runs);
+        assertThat(sink.get()).isEqualTo(5L * runs);
+        reporter.publishEntry(Map.of(
+            "runs", String.valueOf(runs),
+            "bound.ns.op", String.valueOf(bound),
+            "cached.ns.op", String.valueOf(cached)
+        ));
+    }
+
+    private static RouteMetrics.Route route(final RouteMetrics routeMetrics, final String method, final String route) {
+        return routeMetrics.routes().stream().filter(cells -> cells.method().equals(method) && cells.route().equals(route)).findFirst().orElseThrow();
+    }
+}
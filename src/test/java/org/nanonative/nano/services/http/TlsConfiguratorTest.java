@@ -0,0 +1,135 @@
+package org.nanonative.nano.services.http;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.core.Nano;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTPS_KTS;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTPS_PASSWORD;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTPS_PROTOCOLS;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTPS_SESSION_CACHE;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_PORT;
+import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST;
+import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
+
+@Execution(ExecutionMode.CONCURRENT)
+class TlsConfiguratorTest {
+
+    // see HttpServerTest
+    static final Path PKCS12_STORE = getResourcePath("HttpServer/server_keystore.p12");
+    static final Path JKS_STORE = getResourcePath("HttpServer/server.jks");
+
+    @Test
+    void shouldKeepSessionsResumableAcrossCertificateSwap() throws Exception {
+        final HttpServer server = new HttpServer();
+        final Nano nano = new Nano(Map.of(
+            CONFIG_LOG_LEVEL, TEST_LOG_LEVEL,
+            CONFIG_SERVICE_HTTP_PORT, 0,
+            CONFIG_SERVICE_HTTPS_KTS, PKCS12_STORE,
+            CONFIG_SERVICE_HTTPS_PASSWORD, "testpassword",
+            CONFIG_SERVICE_HTTPS_SESSION_CACHE, 64
+        ), server);
+        nano.subscribeEvent(EVENT_HTTP_REQUEST, event -> event.payload().createResponse().statusCode(200).body("ok").respond(event));
+        final TlsConfigurator tls = server.tls();
+        assertThat(tls).isNotNull();
+        assertThat(tls.getSSLContext().getServerSessionContext().getSessionCacheSize()).isEqualTo(64);
+
+        final SSLContext client = trustAll();
+        final Certificate first = request(client, server.port());
+        assertThat(request(client, server.port())).isEqualTo(first);
+        assertThat(tls.handshakes()).isEqualTo(2);
+        assertThat(tls.resumedHandshakes()).isEqualTo(1);
+
+        // certificate change keeps the SSLContext and its sessions
+        HttpsHelper.configureHttps(nano.context(TlsConfiguratorTest.class).putR(CONFIG_SERVICE_HTTPS_KTS, JKS_STORE), server.server());
+        assertThat(server.tls()).isSameAs(tls);
+        assertThat(request(client, server.port())).isEqualTo(first);
+        assertThat(tls.resumedHandshakes()).isEqualTo(2);
+
+        // new clients get the new certificate
+        final Certificate swapped = request(trustAll(), server.port());
+        assertThat(swapped).isNotEqualTo(first);
+        assertThat(tls.handshakes()).isEqualTo(4);
+        assertThat(tls.resumedHandshakes()).isEqualTo(2);
+        assertThat(nano.stop(TlsConfiguratorTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void shouldApplyProtocolConfig() throws Exception {
+        final HttpServer server = new HttpServer();
+        final Nano nano = new Nano(Map.of(
+            CONFIG_LOG_LEVEL, TEST_LOG_LEVEL,
+            CONFIG_SERVICE_HTTP_PORT, 0,
+            CONFIG_SERVICE_HTTPS_KTS, PKCS12_STORE,
+            CONFIG_SERVICE_HTTPS_PASSWORD, "testpassword",
+            CONFIG_SERVICE_HTTPS_PROTOCOLS, "TLSv1.2, SSLv3"
+        ), server);
+        nano.subscribeEvent(EVENT_HTTP_REQUEST, event -> event.payload().createResponse().statusCode(200).body("ok").respond(event));
+
+        try (final SSLSocket socket = (SSLSocket) trustAll().getSocketFactory().createSocket("localhost", server.port())) {
+            socket.startHandshake();
+            assertThat(socket.getSession().getProtocol()).isEqualTo("TLSv1.2");
+        }
+        assertThat(nano.stop(TlsConfiguratorTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    /**
+     * Sends one request on a new connection.
+     *
+     * @return certificate of the server
+     */
+    static Certificate request(final SSLContext client, final int port) throws Exception {
+        try (final SSLSocket socket = (SSLSocket) client.getSocketFactory().createSocket("localhost", port)) {
+            socket.getOutputStream().write("GET /tls HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            socket.getOutputStream().flush();
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            assertThat(reader.readLine()).isEqualTo("HTTP/1.1 200 OK");
+            return socket.getSession().getPeerCertificates()[0];
+        }
+    }
+
+    static SSLContext trustAll() throws Exception {
+        final SSLContext context = SSLContext.getInstance("TLS");
+        context.init(null, new TrustManager[]{new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(final X509Certificate[] chain, final String authType) {
+                // trust all
+            }
+
+            @Override
+            public void checkServerTrusted(final X509Certificate[] chain, final String authType) {
+                // trust all
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        }}, null);
+        return context;
+    }
+
+    private static Path getResourcePath(final String resource) {
+        try {
+            return Path.of(TlsConfiguratorTest.class.getClassLoader().getResource(resource).toURI());
+        } catch (final URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
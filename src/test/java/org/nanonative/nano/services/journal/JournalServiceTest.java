@@ -0,0 +1,197 @@
+package org.nanonative.nano.services.journal;
+
+import berlin.yuna.typemap.model.TypeMap;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.helper.event.model.Channel;
+import org.nanonative.nano.testutil.TestFiles;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.core.config.TestConfig.TEST_REPEAT;
+import static org.nanonative.nano.services.journal.JournalService.CONFIG_JOURNAL_CHANNELS;
+import static org.nanonative.nano.services.journal.JournalService.CONFIG_JOURNAL_DIR;
+import static org.nanonative.nano.services.journal.JournalService.CONFIG_JOURNAL_SEGMENT_BYTES;
+import static org.nanonative.nano.services.journal.JournalService.EVENT_JOURNAL_REPLAY;
+import static org.nanonative.nano.services.journal.JournalService.JOURNAL_OFFSET;
+import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
+
+@Execution(ExecutionMode.CONCURRENT)
+class JournalServiceTest {
+
+    private static final Channel<String, Void> TEST_JOURNAL = Channel.registerChannelId("TEST_JOURNAL", String.class);
+    private static final Channel<String, Void> TEST_JOURNAL_OTHER = Channel.registerChannelId("TEST_JOURNAL_OTHER", String.class);
+    private static Path classRoot;
+
+    @BeforeAll
+    static void initRoot() throws IOException {
+        classRoot = Files.createTempDirectory("journal-suite");
+    }
+
+    @AfterAll
+    static void cleanupRoot() throws IOException {
+        TestFiles.deleteTree(classRoot);
+    }
+
+    @RepeatedTest(TEST_REPEAT)
+    void shouldAppendRotateAndRecover() throws IOException {
+        final Path dir = Files.createTempDirectory(classRoot, "journal-recover");
+        try (final Journal journal = new Journal(dir, 512, 8, 0, 0)) {
+            for (int i = 0; i < 100; i++)
+                assertThat(journal.append(i, "TEST", ("event-" + i).getBytes(UTF_8))).isEqualTo(i);
+            assertThat(journal.segments()).hasSizeGreaterThan(1);
+            assertThat(readAll(journal, 42)).hasSize(58).first().isEqualTo("event-42");
+        }
+
+        // torn write at the end of the last segment
+        try (final Journal journal = new Journal(dir, 512, 8, 0, 0); final FileChannel file = FileChannel.open(journal.segments().getLast().path(), StandardOpenOption.WRITE)) {
+            file.write(ByteBuffer.allocate(Integer.BYTES * 2).putInt(64).putInt(0xBAD).flip(), journal.segments().getLast().position());
+        }
+
+        try (final Journal journal = new Journal(dir, 512, 8, 0, 0)) {
+            assertThat(journal.nextOffset()).isEqualTo(100);
+            assertThat(journal.append(100, "TEST", "event-100".getBytes(UTF_8))).isEqualTo(100);
+            assertThat(readAll(journal, 0)).hasSize(101).last().isEqualTo("event-100");
+        }
+    }
+
+    @RepeatedTest(TEST_REPEAT)
+    void shouldRetainBySizeAndAge() throws IOException {
+        final Path dir = Files.createTempDirectory(classRoot, "journal-retain");
+        try (final Journal journal = new Journal(dir, 256, 0, 1024, 0)) {
+            for (int i = 0; i < 200; i++)
+                journal.append(i, "TEST", ("event-" + i).getBytes(UTF_8));
+            assertThat(journal.bytes()).isLessThanOrEqualTo(1024 + 256);
+            assertThat(journal.firstOffset()).isPositive();
+            // deleted offsets are skipped
+            assertThat(readAll(journal, 0)).first().isEqualTo("event-" + journal.firstOffset());
+        }
+        try (final Journal journal = new Journal(dir, 256, 0, 0, 1)) {
+            assertThat(journal.retain(System.currentTimeMillis() + 1000)).isPositive();
+            assertThat(journal.segments()).hasSize(1);
+        }
+    }
+
+    @RepeatedTest(TEST_REPEAT)
+    void shouldJournalAndReplayEvents() throws IOException {
+        final Path dir = Files.createTempDirectory(classRoot, "journal-replay");
+        final Map<Object, Object> config = Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_JOURNAL_DIR, dir.toString(), CONFIG_JOURNAL_CHANNELS, TEST_JOURNAL.name());
+
+        final Nano first = new Nano(config, new JournalService());
+        final Context context = first.context(JournalServiceTest.class);
+        assertThat(context.newEvent(TEST_JOURNAL, () -> "a").send().asLong(JOURNAL_OFFSET)).isZero();
+        context.newEvent(TEST_JOURNAL, () -> "b").send();
+        context.newEvent(TEST_JOURNAL, () -> "c").async(true).send();
+        assertThat(first.stop(context).waitForStop().isReady()).isFalse();
+
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final JournalService service = new JournalService();
+        final Nano second = new Nano(config, service);
+        second.subscribeEvent(TEST_JOURNAL, event -> received.add(event.payload()));
+        final Context replayContext = second.context(JournalServiceTest.class);
+        assertThat(replayContext.newEvent(EVENT_JOURNAL_REPLAY, () -> 1L).send().response()).isEqualTo(2L);
+        assertThat(received).containsExactlyInAnyOrder("b", "c");
+        // replayed events are not journaled again
+        assertThat(service.journal().nextOffset()).isEqualTo(3);
+        assertThat(service.appended()).isZero();
+        assertThat(second.stop(replayContext).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void shouldJournalChannelList() throws IOException {
+        final Path dir = Files.createTempDirectory(classRoot, "journal-channels");
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_JOURNAL_DIR, dir.toString(), CONFIG_JOURNAL_CHANNELS, TEST_JOURNAL.name() + ", " + TEST_JOURNAL_OTHER.name()), new JournalService());
+        final Context context = nano.context(JournalServiceTest.class);
+        assertThat(context.newEvent(TEST_JOURNAL, () -> "a").send().asLong(JOURNAL_OFFSET)).isZero();
+        assertThat(context.newEvent(TEST_JOURNAL_OTHER, () -> "b").send().asLong(JOURNAL_OFFSET)).isEqualTo(1);
+        assertThat(nano.stop(context).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void shouldUntapChannelsRemovedFromConfig() throws IOException {
+        final Path dir = Files.createTempDirectory(classRoot, "journal-untap");
+        final JournalService service = new JournalService();
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_JOURNAL_DIR, dir.toString(), CONFIG_JOURNAL_CHANNELS, TEST_JOURNAL.name()), service);
+        final Context context = nano.context(JournalServiceTest.class);
+        assertThat(context.newEvent(TEST_JOURNAL, () -> "a").send().asLong(JOURNAL_OFFSET)).isZero();
+
+        final TypeMap config = new TypeMap(Map.of(CONFIG_JOURNAL_CHANNELS, TEST_JOURNAL_OTHER.name()));
+        service.configure(config, config);
+        assertThat(context.newEvent(TEST_JOURNAL, () -> "b").send().containsKey(JOURNAL_OFFSET)).isFalse();
+        assertThat(context.newEvent(TEST_JOURNAL_OTHER, () -> "c").send().asLong(JOURNAL_OFFSET)).isEqualTo(1);
+        final Journal journal = service.journal();
+        assertThat(nano.stop(context).waitForStop().isReady()).isFalse();
+
+        // closed journals release their segments
+        assertThatThrownBy(() -> journal.append(2, TEST_JOURNAL.name(), new byte[1])).isInstanceOf(IllegalStateException.class);
+        assertThat(journal.segments()).allMatch(segment -> segment.unmapped && segment.buffer == null);
+    }
+
+    @Test
+    void shouldApplySegmentSizeOnRotation() throws IOException {
+        final Path dir = Files.createTempDirectory(classRoot, "journal-resize");
+        final JournalService service = new JournalService();
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_JOURNAL_DIR, dir.toString(), CONFIG_JOURNAL_SEGMENT_BYTES, 1024), service);
+        final Journal journal = service.journal();
+
+        // the running journal can't move, but takes the new segment size
+        final TypeMap config = new TypeMap(Map.of(CONFIG_JOURNAL_DIR, dir.resolve("other").toString(), CONFIG_JOURNAL_SEGMENT_BYTES, 2048));
+        service.configure(config, config);
+        assertThat(service.journal()).isSameAs(journal);
+        assertThat(journal.dir()).isEqualTo(dir);
+        for (int i = 0; i < 300; i++)
+            journal.append(System.currentTimeMillis(), TEST_JOURNAL.name(), new byte[8]);
+        assertThat(journal.segments().getFirst().size()).isEqualTo(1024);
+        assertThat(journal.segments().getLast().size()).isEqualTo(2048);
+        assertThat(nano.stop(JournalServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkAppendRate(final TestReporter reporter) throws IOException {
+        final Path dir = Files.createTempDirectory(classRoot, "journal-benchmark");
+        final byte[] payload = JournalCodec.JSON.encode(Map.of("id", 42, "name", "benchmark", "tags", List.of("a", "b", "c")));
+        final int events = 200_000;
+        try (final Journal journal = new Journal(dir, 8 * 1024 * 1024, 1024, 0, 0)) {
+            final long start = System.nanoTime();
+            for (int i = 0; i < events; i++)
+                journal.append(i, TEST_JOURNAL.name(), payload);
+            journal.flush();
+            final long durationNs = System.nanoTime() - start;
+            assertThat(journal.nextOffset()).isEqualTo(events);
+            assertThat(journal.read(events - 10, journalRecord -> true)).isEqualTo(10);
+            reporter.publishEntry(Map.of(
+                "events", String.valueOf(events),
+                "events.per.second", String.valueOf((long) (events / (durationNs / 1_000_000_000d))),
+                "ns.per.event", String.valueOf(durationNs / events)
+            ));
+        }
+    }
+
+    private static List<String> readAll(final Journal journal, final long fromOffset) {
+        final List<String> result = new ArrayList<>();
+        journal.read(fromOffset, journalRecord -> result.add(new String(journalRecord.data(), UTF_8)));
+        return result;
+    }
+}
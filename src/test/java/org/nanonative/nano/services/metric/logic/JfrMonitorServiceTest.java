@@ -0,0 +1,61 @@
+package org.nanonative.nano.services.metric.logic;
+
+import org.junit.jupiter.api.Test;
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.services.http.HttpServer;
+import org.nanonative.nano.services.http.model.HttpMethod;
+import org.nanonative.nano.services.http.model.HttpObject;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.core.config.TestConfig.TEST_TIMEOUT;
+import static org.nanonative.nano.helper.NanoUtils.waitForCondition;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_CLIENT;
+import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
+import static org.nanonative.nano.services.metric.logic.JfrMonitorService.CONFIG_JFR_PINNING_PATH;
+
+class JfrMonitorServiceTest {
+
+    private static final Object LOCK = new Object();
+
+    @Test
+    void recordsPinnedVirtualThreads() throws InterruptedException {
+        final MetricService metricService = new MetricService();
+        final JfrMonitorService jfrService = new JfrMonitorService();
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_SERVICE_HTTP_CLIENT, true, CONFIG_JFR_PINNING_PATH, "/debug/pinning"), metricService, jfrService, new HttpServer());
+
+        // Sleeping inside a synchronized block pins the carrier thread
+        Thread.ofVirtual().start(JfrMonitorServiceTest::pinCarrier).join();
+
+        assertThat(waitForCondition(() -> metricService.metrics().histogram("jvm.threads.virtual.pinned.ms") != null, TEST_TIMEOUT * 4L)).isTrue();
+        assertThat(metricService.metrics().histogram("jvm.threads.virtual.pinned.ms").max()).isGreaterThanOrEqualTo(50d);
+        assertThat(jfrService.pinnedTraces()).isNotEmpty();
+        assertThat(jfrService.pinnedTraces().getFirst().frames()).anyMatch(frame -> frame.contains("pinCarrier"));
+
+        final HttpObject result = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .path("http://localhost:" + nano.service(HttpServer.class).port() + "/debug/pinning")
+            .send(nano.context(JfrMonitorServiceTest.class));
+
+        assertThat(result.statusCode()).isEqualTo(200);
+        assertThat(result.bodyAsString()).contains("\"pinned\"", "pinCarrier", "\"contention\"");
+
+        // carrier threads are sampled by their CPU load
+        assertThat(waitForCondition(() -> metricService.metrics().gauge("jvm.threads.carrier") > 0, TEST_TIMEOUT * 4L)).isTrue();
+        assertThat(metricService.metrics().gauge("jvm.threads.carrier.busy")).isBetween(0d, metricService.metrics().gauge("jvm.threads.carrier"));
+        assertThat(nano.stop(JfrMonitorServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @SuppressWarnings("java:S2925")
+    private static void pinCarrier() {
+        synchronized (LOCK) {
+            try {
+                Thread.sleep(64);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
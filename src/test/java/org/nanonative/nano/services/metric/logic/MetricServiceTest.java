@@ -11,6 +11,7 @@ import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.core.model.Context.CONFIG_EVENT_PROFILE_SAMPLE_RATE;
 import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_CLIENT;
 import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
 import static org.nanonative.nano.services.metric.logic.MetricService.CONFIG_METRIC_SERVICE_BASE_PATH;
@@ -78,6 +79,22 @@ class MetricServiceTest {
 
     }
 
+    @Test
+    void eventsEndpointListsSlowestHandlers() {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_EVENT_PROFILE_SAMPLE_RATE, 1), new MetricService(), new HttpServer(), new HttpClient());
+        final String url = serverUrl + nano.service(HttpServer.class).port() + "/metrics/events?limit=50";
+
+        // the first request profiles the http handlers
+        assertThat(new HttpObject().methodType(HttpMethod.GET).path(url).send(nano.context(MetricServiceTest.class)).statusCode()).isEqualTo(200);
+        final HttpObject result = new HttpObject().methodType(HttpMethod.GET).path(url).send(nano.context(MetricServiceTest.class));
+        assertThat(result.statusCode()).isEqualTo(200);
+        assertThat(result.bodyAsString()).contains("\"handler\"", "MetricService", "HTTP_REQUEST", "p99Ms");
+
+        nano.service(MetricService.class).updateEventMetrics(nano);
+        assertThat(nano.service(MetricService.class).metrics().prometheus()).contains("event_handler_latency_bucket", "event_handler_count");
+        assertThat(nano.stop(MetricServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
     @Test
     void withoutMetricService() {
         final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL), new HttpServer(), new HttpClient());
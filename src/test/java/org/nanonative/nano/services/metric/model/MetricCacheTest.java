@@ -5,6 +5,7 @@ import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.nanonative.nano.core.config.TestConfig.TEST_REPEAT;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -65,4 +66,36 @@ class MetricCacheTest {
         assertThat(metricCache.wavefront()).isEqualTo("my.counter 2 source=nano aa=bb cc=dd\nmy.gauge 9.99 source=nano aa=bb cc=dd\nmy.timer " + timer + " source=nano aa=bb cc=dd\n");
         assertThat(metricCache).hasToString(MetricCache.class.getSimpleName() + "{counters=1, gauges=1, timers=1}");
     }
+
+    @RepeatedTest(TEST_REPEAT)
+    void generateHistogramFormats() {
+        final MetricCache metricCache = new MetricCache()
+            .histogramRecord("my_histogram", 1, null, 1, 10)
+            .histogramRecord("my/histogram", 5)
+            .histogramRecord("my$histogram", 20);
+
+        final Histogram histogram = metricCache.histogram("my%histogram");
+        assertThat(metricCache.histograms()).hasSize(1);
+        assertThat(histogram.count()).isEqualTo(3);
+        assertThat(histogram.sum()).isEqualTo(26d);
+        assertThat(histogram.max()).isEqualTo(20d);
+        assertThat(histogram.quantile(0.5)).isEqualTo(10d);
+        assertThat(histogram.quantile(0.99)).isEqualTo(20d);
+        assertThat(metricCache.prometheus()).isEqualTo("my_histogram_bucket{le=\"1.0\"} 1\nmy_histogram_bucket{le=\"10.0\"} 2\nmy_histogram_bucket{le=\"+Inf\"} 3\nmy_histogram_sum 26.0\nmy_histogram_count 3\n");
+        assertThat(metricCache.influx()).contains("my.histogram.count value=3\n", "my.histogram.sum value=26.0\n", "my.histogram.max value=20.0\n", "my.histogram.p50 value=10.0\n");
+        assertThat(metricCache.histogramRecord("my_histogram", 2, Map.of("aa", "bb")).prometheus()).contains("my_histogram_bucket{aa=\"bb\",le=\"0.1\"} 0\n", "my_histogram_count{aa=\"bb\"} 1\n");
+    }
+
+    @RepeatedTest(TEST_REPEAT)
+    void bindCounters() {
+        final AtomicLong counter = new AtomicLong(2);
+        final MetricCache metricCache = new MetricCache()
+            .counterBind("my_counter", Map.of("aa", "bb"), counter)
+            .counterBind("my_counter", Map.of("aa", "bb"), new AtomicLong(99));
+
+        counter.incrementAndGet();
+        assertThat(metricCache.counter("my_counter", Map.of("aa", "bb"))).isEqualTo(3);
+        assertThat(metricCache.counterIncrement("my_counter", Map.of("aa", "bb")).prometheus()).isEqualTo("my_counter{aa=\"bb\"} 4\n");
+        assertThat(counter.get()).isEqualTo(4);
+    }
 }
@@ -0,0 +1,166 @@
+package org.nanonative.nano.services.ratelimit;
+
+import berlin.yuna.typemap.model.TypeMap;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.services.http.HttpServer;
+import org.nanonative.nano.services.http.model.HttpObject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.nanonative.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static org.nanonative.nano.core.config.TestConfig.TEST_REPEAT;
+import static org.nanonative.nano.services.http.HttpServer.CONFIG_SERVICE_HTTP_CLIENT;
+import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST;
+import static org.nanonative.nano.services.http.model.HttpHeaders.RETRY_AFTER;
+import static org.nanonative.nano.services.http.model.HttpHeaders.X_RATE_LIMIT_LIMIT;
+import static org.nanonative.nano.services.http.model.HttpHeaders.X_RATE_LIMIT_REMAINING;
+import static org.nanonative.nano.services.http.model.HttpHeaders.X_RATE_LIMIT_RESET;
+import static org.nanonative.nano.services.logging.LogService.CONFIG_LOG_LEVEL;
+import static org.nanonative.nano.services.ratelimit.RateLimitService.CONFIG_RATE_LIMIT_BURST;
+import static org.nanonative.nano.services.ratelimit.RateLimitService.CONFIG_RATE_LIMIT_KEY;
+import static org.nanonative.nano.services.ratelimit.RateLimitService.CONFIG_RATE_LIMIT_PATHS;
+import static org.nanonative.nano.services.ratelimit.RateLimitService.CONFIG_RATE_LIMIT_RATE;
+import static org.nanonative.nano.services.ratelimit.RateLimitService.EVENT_RATE_LIMIT;
+
+@Execution(ExecutionMode.CONCURRENT)
+class RateLimitServiceTest {
+
+    @RepeatedTest(TEST_REPEAT)
+    void shouldRefillTokenBucket() {
+        final TokenBucket bucket = new TokenBucket(2, 10);
+        final long now = TokenBucket.nowMs();
+
+        assertThat(bucket.tryAcquire(1, now)).isEqualTo(1);
+        assertThat(bucket.tryAcquire(1, now)).isZero();
+        assertThat(bucket.tryAcquire(1, now)).isEqualTo(-1);
+        assertThat(bucket.retryAfterMs(1)).isEqualTo(100);
+
+        // 10 tokens per second = one token per 100ms, partial refills are kept
+        assertThat(bucket.tryAcquire(1, now + 150)).isZero();
+        assertThat(bucket.tryAcquire(1, now + 200)).isZero();
+        assertThat(bucket.tryAcquire(2, now + 10_000)).isZero();
+        assertThat(bucket.isIdle(now + 10_000 + 61_000, 60_000)).isTrue();
+    }
+
+    @Test
+    void shouldNeverGrantMoreThanCapacityConcurrently() {
+        final TokenBucket bucket = new TokenBucket(1000, 0.001);
+        final AtomicInteger granted = new AtomicInteger();
+        IntStream.range(0, 64).mapToObj(i -> CompletableFuture.runAsync(() -> {
+            for (int j = 0; j < 100; j++)
+                if (bucket.tryAcquire(1) >= 0)
+                    granted.incrementAndGet();
+        })).toList().forEach(CompletableFuture::join);
+        assertThat(granted.get()).isEqualTo(1000);
+        assertThat(bucket.tokens()).isZero();
+    }
+
+    @RepeatedTest(TEST_REPEAT)
+    void shouldLimitViaChannel() {
+        final RateLimitService service = new RateLimitService().limit(RateLimit.of("login", 0.01, 2));
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL), service);
+        final var context = nano.context(RateLimitServiceTest.class);
+
+        assertThat(context.newEvent(EVENT_RATE_LIMIT, () -> RateLimitRequest.of("login", "alice")).send().response().allowed()).isTrue();
+        assertThat(context.newEvent(EVENT_RATE_LIMIT, () -> RateLimitRequest.of("login", "alice")).send().response().remaining()).isZero();
+        final RateLimitResult denied = context.newEvent(EVENT_RATE_LIMIT, () -> RateLimitRequest.of("login", "alice")).send().response();
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.retryAfterMs()).isPositive();
+        // keys have their own buckets
+        assertThat(context.newEvent(EVENT_RATE_LIMIT, () -> RateLimitRequest.of("login", "bob")).send().response().allowed()).isTrue();
+        // unknown limits are not answered
+        assertThat(context.newEvent(EVENT_RATE_LIMIT, () -> RateLimitRequest.of("unknown", "alice")).send().responseOpt()).isEmpty();
+
+        assertThat(service.limits()).hasSize(1);
+        assertThat(service.limits().iterator().next().keys()).isEqualTo(2);
+        assertThat(service.limits().iterator().next().rejected().sum()).isEqualTo(1);
+        assertThat(nano.stop(RateLimitServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void shouldRespondTooManyRequests() {
+        final HttpServer server = new HttpServer();
+        final Nano nano = new Nano(Map.of(
+            CONFIG_LOG_LEVEL, TEST_LOG_LEVEL,
+            CONFIG_SERVICE_HTTP_CLIENT, true,
+            CONFIG_RATE_LIMIT_RATE, 0.01,
+            CONFIG_RATE_LIMIT_BURST, 2,
+            CONFIG_RATE_LIMIT_KEY, "header:x-api-key",
+            CONFIG_RATE_LIMIT_PATHS, "/api/**, /admin"
+        ), server, new RateLimitService());
+        nano.subscribeEvent(EVENT_HTTP_REQUEST, event -> event.payloadOpt().ifPresent(req -> req.createResponse().statusCode(200).body("ok").respond(event)));
+        final String url = "http://localhost:" + server.port();
+
+        assertThat(call(nano, url + "/api/users", "key-a").statusCode()).isEqualTo(200);
+        assertThat(call(nano, url + "/api/users", "key-a").statusCode()).isEqualTo(200);
+        final HttpObject limited = call(nano, url + "/api/users", "key-a");
+        assertThat(limited.statusCode()).isEqualTo(429);
+        assertThat(limited.header(X_RATE_LIMIT_LIMIT)).isEqualTo("2");
+        assertThat(limited.header(X_RATE_LIMIT_REMAINING)).isEqualTo("0");
+        assertThat(Long.parseLong(limited.header(X_RATE_LIMIT_RESET))).isPositive();
+        assertThat(Long.parseLong(limited.header(RETRY_AFTER))).isPositive();
+
+        // every path of the list is limited
+        assertThat(call(nano, url + "/admin", "key-c").statusCode()).isEqualTo(200);
+        assertThat(call(nano, url + "/admin", "key-c").statusCode()).isEqualTo(200);
+        assertThat(call(nano, url + "/admin", "key-c").statusCode()).isEqualTo(429);
+
+        // other keys, paths outside the limit and requests without key pass
+        assertThat(call(nano, url + "/api/users", "key-b").statusCode()).isEqualTo(200);
+        assertThat(call(nano, url + "/public", "key-a").statusCode()).isEqualTo(200);
+        assertThat(call(nano, url + "/api/users", null).statusCode()).isEqualTo(200);
+        assertThat(nano.stop(RateLimitServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void shouldLimitPerPathParam() {
+        final HttpServer server = new HttpServer();
+        final Nano nano = new Nano(Map.of(
+            CONFIG_LOG_LEVEL, TEST_LOG_LEVEL,
+            CONFIG_SERVICE_HTTP_CLIENT, true,
+            CONFIG_RATE_LIMIT_RATE, 0.01,
+            CONFIG_RATE_LIMIT_BURST, 1,
+            CONFIG_RATE_LIMIT_KEY, "path:userId",
+            CONFIG_RATE_LIMIT_PATHS, "/users/{userId}/**"
+        ), server, new RateLimitService());
+        nano.subscribeEvent(EVENT_HTTP_REQUEST, event -> event.payloadOpt().ifPresent(req -> req.createResponse().statusCode(200).body("ok").respond(event)));
+        final String url = "http://localhost:" + server.port();
+
+        // the filter captures the param before any handler matched the path
+        assertThat(call(nano, url + "/users/1/orders", null).statusCode()).isEqualTo(200);
+        assertThat(call(nano, url + "/users/1/profile", null).statusCode()).isEqualTo(429);
+        assertThat(call(nano, url + "/users/2/orders", null).statusCode()).isEqualTo(200);
+        assertThat(call(nano, url + "/other/1", null).statusCode()).isEqualTo(200);
+        assertThat(nano.stop(RateLimitServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void shouldParseKeySelectors() {
+        final HttpObject request = new HttpObject().path("/users/42").header("x-api-key", "secret");
+        final TypeMap params = new RateLimitService.Limiter(new RateLimit("test", 1, 1, null, List.of("/orders/{id}", "/users/{id}"))).match(request);
+        assertThat(params).containsEntry("id", "42");
+        assertThat(request.pathParams()).isEmpty();
+        assertThat(RateLimit.keyOf("header:X-Api-Key").apply(request, params)).isEqualTo("secret");
+        assertThat(RateLimit.keyOf("path:id").apply(request, params)).isEqualTo("42");
+        assertThat(RateLimit.keyOf("path:id").apply(request, new TypeMap())).isNull();
+        assertThat(RateLimit.keyOf("token").apply(request, params)).isNull();
+        assertThat(new RateLimitService.Limiter(new RateLimit("test", 1, 1, null, List.of("/orders/{id}"))).match(request)).isNull();
+        assertThat(new RateLimit("test", 5, 0, null, List.of()).burst()).isEqualTo(5);
+    }
+
+    private static HttpObject call(final Nano nano, final String url, final String apiKey) {
+        final HttpObject request = new HttpObject().path(url);
+        if (apiKey != null)
+            request.header("x-api-key", apiKey);
+        return request.send(nano.context(RateLimitServiceTest.class));
+    }
+}